@@ -0,0 +1,117 @@
+package imageprocessingapp.model.structures;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Noyaux SIMD (API {@code jdk.incubator.vector}) de {@link EnergyCalculator#computeEnergy}.
+ *
+ * Chaque voie refait exactement les opérations scalaires, dans le même ordre et sans
+ * multiplication-addition fusionnée : la racine et les quatre opérations étant arrondies
+ * au plus proche par voie, le résultat est identique bit pour bit au calcul scalaire.
+ *
+ * La classe est compilée à part (exécution {@code compile-vector} du pom) et n'est
+ * instanciée, par réflexion, que si le module est présent ({@link EnergyCalculator#VECTORIZED}) ;
+ * les colonnes de bord et les fins de ligne passent par le code scalaire.
+ */
+final class VectorEnergy implements EnergyKernels {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Entiers de même nombre de voies que {@link #DOUBLES}, pour la conversion des composantes.
+     */
+    private static final VectorSpecies<Integer> INTS =
+            IntVector.SPECIES_PREFERRED.withShape(VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+
+    /**
+     * @return true si les registres contiennent plusieurs doubles
+     */
+    @Override
+    public boolean isUseful() {
+        return DOUBLES.length() >= 2;
+    }
+
+    /**
+     * Niveaux de gris des lignes {@code [from, to)}.
+     */
+    @Override
+    public void computeGrayLevels(int[] pixels, int stride, int width, int from, int to, double[] gray) {
+        int lanes = DOUBLES.length();
+        for (int y = from; y < to; y++) {
+            int row = y * stride;
+            int x = 0;
+            for (; x + lanes <= width; x += lanes) {
+                IntVector argb = IntVector.fromArray(INTS, pixels, row + x);
+                DoubleVector r = channel(argb, 16);
+                DoubleVector g = channel(argb, 8);
+                DoubleVector b = channel(argb, 0);
+                r.mul(0.299).div(255.0)
+                        .add(g.mul(0.587).div(255.0))
+                        .add(b.mul(0.114).div(255.0))
+                        .intoArray(gray, row + x);
+            }
+            for (; x < width; x++) {
+                gray[row + x] = EnergyCalculator.grayLevel(pixels[row + x]);
+            }
+        }
+    }
+
+    /**
+     * Énergie de Sobel des lignes {@code [from, to)}, qui lit une ligne de halo de part et d'autre.
+     */
+    @Override
+    public void computeSobel(double[] gray, int stride, int width, int height, int from, int to, double[] energy) {
+        int lanes = DOUBLES.length();
+        for (int y = from; y < to; y++) {
+            int above = Math.max(y - 1, 0) * stride;
+            int row = y * stride;
+            int below = Math.min(y + 1, height - 1) * stride;
+            energy[row] = EnergyCalculator.sobel(gray, stride, width, height, 0, y);
+            // Colonnes intérieures : voisines x - 1 et x + 1 toujours valides
+            int x = 1;
+            for (; x + lanes <= width - 1; x += lanes) {
+                DoubleVector a00 = DoubleVector.fromArray(DOUBLES, gray, above + x - 1);
+                DoubleVector a01 = DoubleVector.fromArray(DOUBLES, gray, above + x);
+                DoubleVector a02 = DoubleVector.fromArray(DOUBLES, gray, above + x + 1);
+                DoubleVector a10 = DoubleVector.fromArray(DOUBLES, gray, row + x - 1);
+                DoubleVector a12 = DoubleVector.fromArray(DOUBLES, gray, row + x + 1);
+                DoubleVector a20 = DoubleVector.fromArray(DOUBLES, gray, below + x - 1);
+                DoubleVector a21 = DoubleVector.fromArray(DOUBLES, gray, below + x);
+                DoubleVector a22 = DoubleVector.fromArray(DOUBLES, gray, below + x + 1);
+
+                DoubleVector valueWidth = a00.neg()
+                        .add(a02)
+                        .add(a10.mul(-2))
+                        .add(a12.mul(2))
+                        .add(a20.neg())
+                        .add(a22);
+                DoubleVector valueHeight = a00.neg()
+                        .add(a01.mul(-2))
+                        .add(a02.neg())
+                        .add(a20)
+                        .add(a21.mul(2))
+                        .add(a22);
+                valueWidth.mul(valueWidth)
+                        .add(valueHeight.mul(valueHeight))
+                        .lanewise(VectorOperators.SQRT)
+                        .intoArray(energy, row + x);
+            }
+            for (; x < width; x++) {
+                energy[row + x] = EnergyCalculator.sobel(gray, stride, width, height, x, y);
+            }
+        }
+    }
+
+    /**
+     * Composante 8 bits décalée de {@code shift}, convertie en doubles.
+     */
+    private static DoubleVector channel(IntVector argb, int shift) {
+        return (DoubleVector) argb.lanewise(VectorOperators.LSHR, shift)
+                .and(0xFF)
+                .convertShape(VectorOperators.I2D, DOUBLES, 0);
+    }
+}
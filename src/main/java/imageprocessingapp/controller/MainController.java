@@ -2,6 +2,7 @@ package imageprocessingapp.controller;
 
 // Custom imports
 import imageprocessingapp.model.ImageModel;
+import imageprocessingapp.model.operations.Operation;
 import imageprocessingapp.model.operations.RotateOperation;
 import imageprocessingapp.model.operations.SymmetryOperation;
 import imageprocessingapp.model.tools.PaintTool;
@@ -555,31 +556,33 @@ public class MainController {
     // en sauvegardant l'état pour undo/redo si disponible
 
     public void applyClockwiseRotation(ActionEvent event) {
-        if (undoRedoService != null) {
-            undoRedoService.saveState();
-        }
-        imageOperationService.applyRotation(RotateOperation.Direction.CLOCKWISE);
+        applyReversible(new RotateOperation(RotateOperation.Direction.CLOCKWISE));
     }
 
     public void applyCounterclockwiseRotation(ActionEvent event) {
-        if (undoRedoService != null) {
-            undoRedoService.saveState();
-        }
-        imageOperationService.applyRotation(RotateOperation.Direction.COUNTERCLOCKWISE);
+        applyReversible(new RotateOperation(RotateOperation.Direction.COUNTERCLOCKWISE));
     }
 
     public void applyHorizontalSymmetry(ActionEvent event) {
-        if (undoRedoService != null) {
-            undoRedoService.saveState();
-        }
-        imageOperationService.applySymmetry(SymmetryOperation.Axis.HORIZONTAL);
+        applyReversible(new SymmetryOperation(SymmetryOperation.Axis.HORIZONTAL));
     }
 
     public void applyVerticalSymmetry(ActionEvent event) {
-        if (undoRedoService != null) {
-            undoRedoService.saveState();
+        applyReversible(new SymmetryOperation(SymmetryOperation.Axis.VERTICAL));
+    }
+
+    /**
+     * Applique une rotation ou une symétrie.
+     * Une transformation exacte n'est gardée dans l'historique que comme une commande,
+     * annulée en rejouant l'inverse ; une transformation qui rééchantillonne le dessin
+     * (rotation d'une image non carrée, image absente) sauvegarde l'état complet.
+     */
+    private void applyReversible(Operation operation) {
+        if (undoRedoService == null) {
+            imageOperationService.applyTransform(operation);
+        } else {
+            imageOperationService.applyTransform(operation, undoRedoService);
         }
-        imageOperationService.applySymmetry(SymmetryOperation.Axis.VERTICAL);
     }
 
     /**
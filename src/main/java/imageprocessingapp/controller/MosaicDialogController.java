@@ -152,8 +152,8 @@ public class MosaicDialogController {
         
         // Mettre à jour la propriété d'image du MainController avec la mosaïque actuelle
         if (mainController != null && currentImage != null) {
-            mainController.currentImageProperty().set(currentImage.get());
             imageModel.setImage(currentImage.get()); // l'imageModel doit être modifiée aussi, car c'est elle qu'on utilise pour la sauvegarde
+            mainController.currentImageProperty().set(imageModel.getImage()); // on affiche la vue du raster (mémoire partagée, pas de copie supplémentaire)
         }
         dialogStage.close();
     }
@@ -1,6 +1,10 @@
 package imageprocessingapp.controller;
 
 import imageprocessingapp.model.ImageModel;
+import imageprocessingapp.model.edit.GrayLevelCache;
+import imageprocessingapp.model.edit.SeamCarver;
+import imageprocessingapp.model.edit.SeamCarvingIndex;
+import imageprocessingapp.model.structures.StandardEnergy;
 import imageprocessingapp.service.edit.SeamCarvingService;
 import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
@@ -9,6 +13,7 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.control.Slider;
@@ -25,6 +30,12 @@ import java.awt.image.BufferedImage;
  */
 public class SeamCarvingDialogController {
 
+    // Taille maximale d'image pour la prévisualisation (l'index coûte une quarantaine d'octets par pixel)
+    private static final int PREVIEW_MAX_PIXELS = 2_000_000;
+
+    // Nombre de coutures indexées entre deux rafraîchissements de la prévisualisation
+    private static final int PREVIEW_STEP = 8;
+
     // Boutons du dialog
     @FXML private Button cancelButton;
     @FXML private Button okButton;
@@ -33,6 +44,9 @@ public class SeamCarvingDialogController {
     @FXML private Slider widthSlider;
     @FXML private Slider heightSlider;
 
+    // Choix de la fonction d'énergie
+    @FXML private ComboBox<StandardEnergy> energyComboBox;
+
 
     // ProgressBar et Label pour chargement
     @FXML private ProgressBar progressBar;
@@ -54,6 +68,15 @@ public class SeamCarvingDialogController {
     // Service applicatif pour appliquer le Seam Carving
     private final SeamCarvingService seamCarvingService = new SeamCarvingService();
 
+    // Index des coutures, calculé en arrière-plan pour la prévisualisation (null si image trop grande)
+    private SeamCarvingIndex previewIndex;
+
+    // Niveaux de gris de l'image, partagés par les fonctions d'énergie successives
+    private final GrayLevelCache grayLevels = new GrayLevelCache();
+
+    // Largeur actuellement prévisualisée
+    private int previewWidth;
+
     // Référence au MainController
     private MainController mainController;
 
@@ -83,6 +106,7 @@ public class SeamCarvingDialogController {
         controller.setMainController(mainController);
         controller.setCurrentImage(mainCurrentImage);
         controller.setImageModel(mainImageModel);
+        controller.startPreview();
 
         // Créer et configurer la fenêtre
         Stage dialogStage = new Stage();
@@ -122,6 +146,99 @@ public class SeamCarvingDialogController {
 
     public void setStage(Stage stage) {
         this.dialogStage = stage;
+        // Arrêter le calcul de l'index quand le dialogue se ferme
+        stage.setOnHidden(event -> stopPreview());
+    }
+
+    /**
+     * Lance en arrière-plan le calcul de l'index des coutures verticales : une fois une
+     * largeur couverte, sa prévisualisation est immédiate lorsque le slider bouge.
+     */
+    public void startPreview() {
+        if (imageModel == null || originalWritableImage == null) {
+            return;
+        }
+        int width = imageModel.getWidth();
+        int height = imageModel.getHeight();
+        previewWidth = width;
+        if ((long) width * height > PREVIEW_MAX_PIXELS) {
+            return;
+        }
+
+        SeamCarvingIndex index = new SeamCarvingIndex(imageModel.readRegion(0, 0, width, height), width, height,
+                seamCarvingService.seamCarver.getEnergyMode(), energyComboBox.getValue(),
+                grayLevels.grayLevels(imageModel));
+        previewIndex = index;
+        Thread thread = new Thread(() -> {
+            int done = 0;
+            while (!index.isComplete()) {
+                int next = index.computeSeams(PREVIEW_STEP);
+                if (next == done) {
+                    break;  // Calcul interrompu
+                }
+                done = next;
+                Platform.runLater(this::updatePreview);
+            }
+        }, "seam-carving-preview");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void stopPreview() {
+        if (previewIndex != null) {
+            previewIndex.cancel();
+        }
+    }
+
+    /**
+     * Applique la fonction d'énergie choisie et relance la prévisualisation avec elle,
+     * sans refaire la conversion en niveaux de gris.
+     */
+    private void energyChanged() {
+        seamCarvingService.setEnergyFunction(energyComboBox.getValue());
+        if (previewIndex == null) {
+            return;
+        }
+        stopPreview();
+        previewIndex = null;
+        if (currentImage != null) {
+            currentImage.set(originalImage);
+        }
+        startPreview();
+    }
+
+    /**
+     * Affiche l'image réduite à la largeur du slider, si l'index la couvre déjà.
+     */
+    private void updatePreview() {
+        // Plus de prévisualisation une fois le redimensionnement lancé
+        if (previewIndex == null || currentImage == null || okButton.isDisable()) {
+            return;
+        }
+        int targetWidth = (int) widthSlider.getValue();
+        if (targetWidth == previewWidth || !previewIndex.canRetarget(targetWidth)) {
+            return;
+        }
+        previewWidth = targetWidth;
+        if (targetWidth == previewIndex.getWidth()) {
+            currentImage.set(originalImage);
+        } else {
+            currentImage.set(ImageModel.wrapPixels(
+                    previewIndex.retarget(targetWidth), targetWidth, previewIndex.getHeight()));
+        }
+    }
+
+    /**
+     * Indique si l'index de prévisualisation donne exactement le résultat du service :
+     * même coût et même fonction d'énergie, coutures exactes (ni pyramide ni lots).
+     */
+    private boolean previewMatchesService() {
+        SeamCarver carver = seamCarvingService.seamCarver;
+        return previewIndex != null
+                && previewIndex.getEnergyMode() == carver.getEnergyMode()
+                && previewIndex.getEnergyFunction() == carver.getEnergyFunction()
+                && !carver.isPyramid()
+                && carver.getBatchSize() == 1;
     }
 
     /**
@@ -140,17 +257,14 @@ public class SeamCarvingDialogController {
         if (heightSlider != null) {
             heightSlider.setId("heightSlider");
         }
-/*
 
-        // Ajout de listeners pour la prévisualisation en temps réel
-        widthSlider.valueProperty().addListener((observable, oldValue, newValue) -> {
-            updatePreview();
-        });
+        // Prévisualisation en temps réel de la largeur (la hauteur n'est appliquée qu'à la validation)
+        widthSlider.valueProperty().addListener((observable, oldValue, newValue) -> updatePreview());
 
-        heightSlider.valueProperty().addListener((observable, oldValue, newValue) -> {
-            updatePreview();
-        });
-*/
+        // Fonction d'énergie : Sobel L2 par défaut
+        energyComboBox.getItems().setAll(StandardEnergy.values());
+        energyComboBox.setValue(StandardEnergy.SOBEL_L2);
+        energyComboBox.valueProperty().addListener((observable, oldValue, newValue) -> energyChanged());
 
         // Si l'image est déjà définie, configurer les sliders
         if (originalWritableImage != null && widthSlider != null && heightSlider != null) {
@@ -170,13 +284,13 @@ public class SeamCarvingDialogController {
         int currentWidth = (int) originalWritableImage.getWidth();
         int currentHeight = (int) originalWritableImage.getHeight();
 
-        // Définir les valeurs min/max des sliders
+        // Définir les valeurs min/max des sliders (agrandissement jusqu'au double)
         widthSlider.setMin(1);
-        widthSlider.setMax(currentWidth);
+        widthSlider.setMax(currentWidth * 2);
         widthSlider.setValue(currentWidth);
 
         heightSlider.setMin(1);
-        heightSlider.setMax(currentHeight);
+        heightSlider.setMax(currentHeight * 2);
         heightSlider.setValue(currentHeight);
     }
 
@@ -207,6 +321,14 @@ public class SeamCarvingDialogController {
             return;
         }
 
+        // Largeur seule déjà couverte par l'index : même résultat, sans recalcul
+        if (targetHeight == currentHeight && previewMatchesService() && previewIndex.canRetarget(targetWidth)) {
+            imageModel.adoptPixels(previewIndex.retarget(targetWidth), targetWidth, targetHeight);
+            currentImage.set(imageModel.getImage());
+            dialogStage.close();
+            return;
+        }
+
         // Afficher la barre de progression
         if (progressBar != null) {
             progressBar.setVisible(true);
@@ -233,8 +355,8 @@ public class SeamCarvingDialogController {
                 // Revenir sur le thread JavaFX pour mettre à jour l'UI
                 Platform.runLater(() -> {
                     if (mainController != null && currentImage != null) {
-                        currentImage.set(result);
                         imageModel.setImage(result);
+                        currentImage.set(imageModel.getImage());
                     }
                     dialogStage.close();
                 });
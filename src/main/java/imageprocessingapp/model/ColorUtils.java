@@ -42,5 +42,68 @@ public final class ColorUtils {
             return Color.BLACK;
         }
     }
-}
 
+    /**
+     * Convertit une valeur ARGB compacte (0xAARRGGBB) en Color JavaFX.
+     *
+     * @param argb La valeur ARGB du pixel
+     * @return La couleur correspondante
+     */
+    public static Color argbToColor(int argb) {
+        int a = (argb >>> 24) & 0xFF;
+        int r = (argb >> 16) & 0xFF;
+        int g = (argb >> 8) & 0xFF;
+        int b = argb & 0xFF;
+        return Color.rgb(r, g, b, a / 255.0);
+    }
+
+    /**
+     * Convertit une Color JavaFX en valeur ARGB compacte (0xAARRGGBB).
+     *
+     * @param c La couleur à convertir
+     * @return La valeur ARGB correspondante
+     */
+    public static int colorToArgb(Color c) {
+        int a = (int) Math.round(c.getOpacity() * 255);
+        int r = (int) Math.round(c.getRed() * 255);
+        int g = (int) Math.round(c.getGreen() * 255);
+        int b = (int) Math.round(c.getBlue() * 255);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Convertit un pixel ARGB en ARGB prémultiplié (format attendu par
+     * {@code PixelFormat.getIntArgbPreInstance()}).
+     * Les pixels opaques (cas le plus courant) sont retournés tels quels.
+     *
+     * @param argb La valeur ARGB non prémultipliée
+     * @return La valeur ARGB prémultipliée
+     */
+    public static int premultiply(int argb) {
+        int a = argb >>> 24;
+        if (a == 0xFF) return argb;
+        if (a == 0) return 0;
+        int r = (((argb >> 16) & 0xFF) * a + 127) / 255;
+        int g = (((argb >> 8) & 0xFF) * a + 127) / 255;
+        int b = ((argb & 0xFF) * a + 127) / 255;
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Convertit un pixel ARGB prémultiplié en ARGB classique.
+     * Les pixels opaques (cas le plus courant) sont retournés tels quels.
+     *
+     * @param argbPre La valeur ARGB prémultipliée
+     * @return La valeur ARGB non prémultipliée
+     */
+    public static int unpremultiply(int argbPre) {
+        int a = argbPre >>> 24;
+        if (a == 0xFF) return argbPre;
+        if (a == 0) return 0;
+        int half = a >> 1;
+        int r = Math.min(255, (((argbPre >> 16) & 0xFF) * 255 + half) / a);
+        int g = Math.min(255, (((argbPre >> 8) & 0xFF) * 255 + half) / a);
+        int b = Math.min(255, ((argbPre & 0xFF) * 255 + half) / a);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+}
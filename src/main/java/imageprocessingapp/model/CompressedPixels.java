@@ -0,0 +1,170 @@
+package imageprocessingapp.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Tableau de pixels compressé sans perte, pour l'historique.
+ *
+ * Chaque pixel est d'abord remplacé par sa différence, canal par canal, avec le pixel
+ * précédent (les zones unies ou en dégradé deviennent des suites de petits octets),
+ * puis le flux est compressé par Deflate en mode rapide.
+ *
+ * Le tableau est découpé en blocs de {@value #CHUNK_PIXELS} pixels compressés
+ * indépendamment : compression et décompression se répartissent sur tous les cœurs,
+ * ce qui garde la restauration d'une grande image rapide.
+ */
+final class CompressedPixels {
+
+    /**
+     * Nombre de pixels par bloc compressé.
+     */
+    static final int CHUNK_PIXELS = 1 << 18;
+
+    private final int length;
+    private final byte[][] chunks;
+
+    private CompressedPixels(int length, byte[][] chunks) {
+        this.length = length;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Compresse un tableau de pixels (non modifié).
+     *
+     * @param pixels les pixels à compresser
+     * @return la version compressée
+     */
+    static CompressedPixels compress(int[] pixels) {
+        int count = (pixels.length + CHUNK_PIXELS - 1) / CHUNK_PIXELS;
+        byte[][] chunks = new byte[count][];
+        IntStream.range(0, count).parallel().forEach(c -> chunks[c] = compressChunk(pixels, c * CHUNK_PIXELS,
+                Math.min(CHUNK_PIXELS, pixels.length - c * CHUNK_PIXELS)));
+        return new CompressedPixels(pixels.length, chunks);
+    }
+
+    /**
+     * Décompresse les pixels dans un nouveau tableau.
+     *
+     * @return les pixels d'origine
+     */
+    int[] decompress() {
+        int[] pixels = new int[length];
+        IntStream.range(0, chunks.length).parallel().forEach(c -> decompressChunk(chunks[c], pixels,
+                c * CHUNK_PIXELS, Math.min(CHUNK_PIXELS, length - c * CHUNK_PIXELS)));
+        return pixels;
+    }
+
+    /**
+     * @return le nombre de pixels
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * @return la mémoire occupée par les données compressées, en octets
+     */
+    long getByteSize() {
+        long bytes = 0;
+        for (byte[] chunk : chunks) {
+            bytes += chunk.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return la taille de la forme sérialisée, en octets
+     */
+    int serializedSize() {
+        int bytes = 2 * Integer.BYTES;
+        for (byte[] chunk : chunks) {
+            bytes += Integer.BYTES + chunk.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Écrit la forme sérialisée (longueur, nombre de blocs, puis chaque bloc préfixé de sa taille).
+     */
+    void writeTo(ByteBuffer out) {
+        out.putInt(length);
+        out.putInt(chunks.length);
+        for (byte[] chunk : chunks) {
+            out.putInt(chunk.length);
+            out.put(chunk);
+        }
+    }
+
+    /**
+     * Relit une forme sérialisée par {@link #writeTo(ByteBuffer)}.
+     */
+    static CompressedPixels readFrom(ByteBuffer in) {
+        int length = in.getInt();
+        byte[][] chunks = new byte[in.getInt()][];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = new byte[in.getInt()];
+            in.get(chunks[c]);
+        }
+        return new CompressedPixels(length, chunks);
+    }
+
+    private static byte[] compressChunk(int[] pixels, int offset, int count) {
+        byte[] raw = new byte[count * 4];
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            int argb = pixels[offset + i];
+            raw[4 * i] = (byte) ((argb >>> 24) - (previous >>> 24));
+            raw[4 * i + 1] = (byte) ((argb >>> 16) - (previous >>> 16));
+            raw[4 * i + 2] = (byte) ((argb >>> 8) - (previous >>> 8));
+            raw[4 * i + 3] = (byte) (argb - previous);
+            previous = argb;
+        }
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] out = new byte[Math.max(64, raw.length / 4)];
+            int size = 0;
+            while (!deflater.finished()) {
+                if (size == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                size += deflater.deflate(out, size, out.length - size);
+            }
+            return Arrays.copyOf(out, size);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void decompressChunk(byte[] data, int[] pixels, int offset, int count) {
+        byte[] raw = new byte[count * 4];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            int size = 0;
+            while (size < raw.length && !inflater.finished()) {
+                size += inflater.inflate(raw, size, raw.length - size);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Données compressées corrompues", e);
+        } finally {
+            inflater.end();
+        }
+
+        int a = 0, r = 0, g = 0, b = 0;
+        for (int i = 0; i < count; i++) {
+            a = (a + raw[4 * i]) & 0xFF;
+            r = (r + raw[4 * i + 1]) & 0xFF;
+            g = (g + raw[4 * i + 2]) & 0xFF;
+            b = (b + raw[4 * i + 3]) & 0xFF;
+            pixels[offset + i] = (a << 24) | (r << 16) | (g << 8) | b;
+        }
+    }
+}
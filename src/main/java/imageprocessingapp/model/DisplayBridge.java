@@ -0,0 +1,230 @@
+package imageprocessingapp.model;
+
+import javafx.application.Platform;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Pont d'affichage entre un raster de pixels et JavaFX.
+ *
+ * Le tableau de pixels (ARGB prémultiplié) est enveloppé dans un {@link IntBuffer}
+ * puis dans un {@link PixelBuffer} : la {@link WritableImage} exposée partage donc
+ * la mémoire du raster, sans aucune copie.
+ *
+ * JavaFX lit ce tableau pendant le rendu : il ne doit être modifié que sur le thread
+ * JavaFX, dans le rappel de {@link PixelBuffer#updateBuffer}, qui reçoit aussi la zone
+ * à rafraîchir. Toutes les écritures passent donc par {@link #write} :
+ * - sur le thread JavaFX, l'écriture est faite tout de suite, dans le rappel ;
+ * - depuis un autre thread, elle est confiée au thread JavaFX, et l'appelant attend
+ *   qu'elle soit faite. Les écritures en attente sont regroupées dans un seul rappel,
+ *   pour l'union de leurs zones ;
+ * - sans toolkit JavaFX démarré (tests, traitements hors interface), rien ne lit le
+ *   tableau : l'écriture est faite directement.
+ *
+ * Une image adossée à un PixelBuffer n'a pas de PixelWriter : toutes les écritures
+ * passent par le raster.
+ */
+public final class DisplayBridge {
+
+    /**
+     * Mise à jour de l'image : exécute les écritures puis rafraîchit la zone donnée.
+     */
+    @FunctionalInterface
+    interface Updater {
+        void update(Runnable writes, Rectangle2D region);
+    }
+
+    private final PixelBuffer<IntBuffer> pixelBuffer;
+    private final WritableImage image;
+    private final int width;
+    private final int height;
+
+    private final Executor fxThread;
+    private final BooleanSupplier onFxThread;
+    private final Updater updater;
+
+    // Écritures confiées au thread JavaFX et pas encore faites, dans leur ordre d'arrivée
+    private final List<Runnable> pendingWrites = new ArrayList<>();
+
+    // Union des zones des écritures en attente (coordonnées max exclusives)
+    private int dirtyMinX = Integer.MAX_VALUE;
+    private int dirtyMinY = Integer.MAX_VALUE;
+    private int dirtyMaxX = 0;
+    private int dirtyMaxY = 0;
+
+    // Un rafraîchissement est déjà programmé sur le thread JavaFX
+    private boolean flushScheduled;
+
+    /**
+     * Crée un pont d'affichage partageant le tableau donné.
+     *
+     * @param pixelsPre pixels au format ARGB prémultiplié, ligne par ligne
+     * @param width largeur du raster
+     * @param height hauteur du raster
+     */
+    public DisplayBridge(int[] pixelsPre, int width, int height) {
+        this(pixelsPre, width, height, Platform::runLater, Platform::isFxApplicationThread, null);
+    }
+
+    /**
+     * Crée un pont d'affichage sur un thread d'affichage donné.
+     *
+     * @param fxThread exécute une tâche sur le thread d'affichage ; lève
+     *                 {@link IllegalStateException} s'il n'est pas démarré
+     * @param onFxThread indique si le thread courant est le thread d'affichage
+     * @param updater mise à jour de l'image, ou null pour celle du PixelBuffer
+     */
+    DisplayBridge(int[] pixelsPre, int width, int height,
+                  Executor fxThread, BooleanSupplier onFxThread, Updater updater) {
+        this.width = width;
+        this.height = height;
+        this.pixelBuffer = new PixelBuffer<>(width, height, IntBuffer.wrap(pixelsPre),
+                PixelFormat.getIntArgbPreInstance());
+        this.image = new WritableImage(pixelBuffer);
+        this.fxThread = fxThread;
+        this.onFxThread = onFxThread;
+        this.updater = updater != null ? updater
+                : (writes, region) -> pixelBuffer.updateBuffer(buffer -> {
+                    writes.run();
+                    return region;
+                });
+    }
+
+    /**
+     * Retourne la vue JavaFX du raster (mémoire partagée).
+     *
+     * @return L'image adossée au PixelBuffer
+     */
+    public WritableImage getImage() {
+        return image;
+    }
+
+    /**
+     * Écrit dans le raster partagé puis rafraîchit la zone modifiée, sur le thread JavaFX.
+     * Depuis un autre thread, l'appel ne rend la main qu'une fois l'écriture faite : le
+     * thread JavaFX ne doit donc pas attendre, de son côté, le thread appelant.
+     *
+     * @param x Abscisse de la zone
+     * @param y Ordonnée de la zone
+     * @param w Largeur de la zone
+     * @param h Hauteur de la zone
+     * @param writer écriture dans le raster, limitée à la zone
+     */
+    public void write(int x, int y, int w, int h, Runnable writer) {
+        if (w <= 0 || h <= 0) return;
+        // Une écriture en échec ne doit pas empêcher celles regroupées avec elle
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Runnable guarded = () -> {
+            try {
+                writer.run();
+                done.complete(null);
+            } catch (RuntimeException | Error e) {
+                done.completeExceptionally(e);
+            }
+        };
+        if (onFxThread.getAsBoolean()) {
+            synchronized (this) {
+                // Après les écritures déjà confiées par d'autres threads
+                enqueue(x, y, w, h, guarded);
+            }
+            flush();
+        } else {
+            boolean schedule;
+            synchronized (this) {
+                enqueue(x, y, w, h, guarded);
+                schedule = !flushScheduled;
+                flushScheduled = true;
+            }
+            if (schedule) {
+                try {
+                    fxThread.execute(this::flush);
+                } catch (IllegalStateException toolkitNotStarted) {
+                    // Aucune scène ne lit le raster : écrire tout de suite
+                    List<Runnable> writes;
+                    synchronized (this) {
+                        takeDirtyRegion();
+                        writes = takePendingWrites();
+                    }
+                    writes.forEach(Runnable::run);
+                }
+            }
+        }
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Ajoute une écriture en attente et étend la zone à rafraîchir (verrou tenu).
+     */
+    private void enqueue(int x, int y, int w, int h, Runnable writer) {
+        pendingWrites.add(writer);
+        dirtyMinX = Math.min(dirtyMinX, Math.max(0, x));
+        dirtyMinY = Math.min(dirtyMinY, Math.max(0, y));
+        dirtyMaxX = Math.max(dirtyMaxX, Math.min(width, x + w));
+        dirtyMaxY = Math.max(dirtyMaxY, Math.min(height, y + h));
+    }
+
+    /**
+     * Fait les écritures en attente dans un seul rappel, pour l'union de leurs zones
+     * (thread JavaFX uniquement).
+     */
+    private void flush() {
+        List<Runnable> writes;
+        Rectangle2D region;
+        synchronized (this) {
+            region = takeDirtyRegion();
+            writes = takePendingWrites();
+        }
+        if (writes.isEmpty()) {
+            return;
+        }
+        if (region == null) {
+            // Zone hors du raster : rien à rafraîchir, mais les appelants attendent
+            writes.forEach(Runnable::run);
+            return;
+        }
+        updater.update(() -> writes.forEach(Runnable::run), region);
+    }
+
+    /**
+     * Récupère les écritures en attente : un appelant arrivé ensuite programmera
+     * un nouveau rafraîchissement.
+     */
+    private synchronized List<Runnable> takePendingWrites() {
+        List<Runnable> writes = new ArrayList<>(pendingWrites);
+        pendingWrites.clear();
+        flushScheduled = false;
+        return writes;
+    }
+
+    /**
+     * Récupère et réinitialise la zone modifiée accumulée.
+     *
+     * @return Le rectangle modifié, ou null s'il est vide
+     */
+    private synchronized Rectangle2D takeDirtyRegion() {
+        Rectangle2D region = dirtyMaxX > dirtyMinX && dirtyMaxY > dirtyMinY
+                ? new Rectangle2D(dirtyMinX, dirtyMinY, dirtyMaxX - dirtyMinX, dirtyMaxY - dirtyMinY)
+                : null;
+        dirtyMinX = Integer.MAX_VALUE;
+        dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxX = 0;
+        dirtyMaxY = 0;
+        return region;
+    }
+}
@@ -0,0 +1,207 @@
+package imageprocessingapp.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Journal disque de l'historique d'annulation.
+ *
+ * Les données d'historique qui dépassent le budget mémoire ({@link TileDelta},
+ * {@link ImageSnapshot} détachés) y sont écrites compressées, à la suite les unes des
+ * autres, et ne gardent en mémoire que leur numéro d'enregistrement. Elles sont relues
+ * à la demande par projection en mémoire ({@link FileChannel#map}) de leur seul
+ * enregistrement : la profondeur de l'historique n'est plus limitée que par le disque.
+ *
+ * Les enregistrements des états sortis de l'historique (branche redo abandonnée, état
+ * restauré) sont libérés ({@link #release(long)}). Le fichier est tronqué dès que la fin
+ * est libre, et compacté lorsque l'espace libéré dépasse à la fois l'espace encore utilisé
+ * et {@link #COMPACTION_SLACK} : sa taille reste ainsi proportionnelle aux seuls
+ * enregistrements vivants, chaque octet n'étant déplacé qu'un nombre amorti constant de fois.
+ * Le fichier temporaire est supprimé à la fermeture du journal.
+ */
+public final class HistoryJournal implements AutoCloseable {
+
+    /**
+     * Espace libre toléré dans le fichier avant compactage, en octets.
+     */
+    static final long COMPACTION_SLACK = 1L << 20;
+
+    private final Path path;
+    private final FileChannel channel;
+    private long size;
+
+    /**
+     * Enregistrements vivants : position dans le fichier et longueur (en-tête compris).
+     */
+    private final Map<Long, Record> records = new HashMap<>();
+    private long liveBytes;
+    private long nextRecord;
+
+    private static final class Record {
+        long position;
+        final int length;
+
+        Record(long position, int length) {
+            this.position = position;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Crée le journal dans le répertoire temporaire.
+     *
+     * @throws UncheckedIOException si le fichier ne peut pas être créé
+     */
+    public HistoryJournal() {
+        try {
+            this.path = Files.createTempFile("imageprocessingapp-history-", ".journal");
+            this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de créer le journal d'historique", e);
+        }
+    }
+
+    /**
+     * Ajoute des pixels compressés en fin de journal.
+     *
+     * @return le numéro de l'enregistrement, valable jusqu'à sa libération
+     */
+    synchronized long append(CompressedPixels pixels) {
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + pixels.serializedSize());
+        record.putInt(pixels.serializedSize());
+        pixels.writeTo(record);
+        record.flip();
+
+        long offset = size;
+        try {
+            long position = offset;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du journal d'historique impossible", e);
+        }
+        size += record.limit();
+        liveBytes += record.limit();
+        long id = nextRecord++;
+        records.put(id, new Record(offset, record.limit()));
+        return id;
+    }
+
+    /**
+     * Relit un enregistrement en projetant sa zone du fichier. Les pixels sont copiés :
+     * le résultat reste valable si l'enregistrement est ensuite déplacé ou libéré.
+     *
+     * @param id numéro retourné par {@link #append(CompressedPixels)}
+     * @return les pixels compressés enregistrés
+     * @throws IndexOutOfBoundsException si l'enregistrement n'existe pas ou a été libéré
+     */
+    synchronized CompressedPixels read(long id) {
+        Record record = records.get(id);
+        if (record == null) {
+            throw new IndexOutOfBoundsException("Enregistrement absent du journal : " + id);
+        }
+        try {
+            return CompressedPixels.readFrom(channel.map(FileChannel.MapMode.READ_ONLY,
+                    record.position + Integer.BYTES, record.length - Integer.BYTES));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture du journal d'historique impossible", e);
+        }
+    }
+
+    /**
+     * Libère un enregistrement qui ne sera plus relu, puis tronque ou compacte le fichier
+     * si besoin. Sans effet sur un enregistrement déjà libéré ou un journal fermé.
+     *
+     * @param id numéro retourné par {@link #append(CompressedPixels)}
+     */
+    synchronized void release(long id) {
+        Record record = records.remove(id);
+        if (record == null || !channel.isOpen()) {
+            return;
+        }
+        liveBytes -= record.length;
+        try {
+            if (record.position + record.length == size) {
+                // Fin du fichier : tronquer jusqu'au dernier enregistrement vivant
+                long end = 0;
+                for (Record live : records.values()) {
+                    end = Math.max(end, live.position + live.length);
+                }
+                truncate(end);
+            }
+            if (size - liveBytes > Math.max(liveBytes, COMPACTION_SLACK)) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Compactage du journal d'historique impossible", e);
+        }
+    }
+
+    /**
+     * Rapproche les enregistrements vivants du début du fichier, dans leur ordre, puis
+     * tronque le fichier à leur taille totale.
+     */
+    private void compact() throws IOException {
+        List<Record> live = new ArrayList<>(records.values());
+        live.sort(Comparator.comparingLong(record -> record.position));
+        long target = 0;
+        for (Record record : live) {
+            if (record.position != target) {
+                // Zone de destination avant la source : lire l'enregistrement en entier d'abord
+                ByteBuffer buffer = ByteBuffer.allocate(record.length);
+                long position = record.position;
+                while (buffer.hasRemaining()) {
+                    position += channel.read(buffer, position);
+                }
+                buffer.flip();
+                position = target;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                record.position = target;
+            }
+            target += record.length;
+        }
+        truncate(target);
+    }
+
+    private void truncate(long end) throws IOException {
+        channel.truncate(end);
+        size = end;
+    }
+
+    /**
+     * @return la taille du journal, en octets
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Ferme et supprime le journal.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Fichier temporaire : rien d'autre à faire
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+}
@@ -1,12 +1,17 @@
 package imageprocessingapp.model;
 
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.PixelReader;
-import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import javafx.scene.canvas.Canvas;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 /**
  * Modèle principal de l'image.
  * 
@@ -14,10 +19,34 @@ import javafx.scene.canvas.Canvas;
  * pour manipuler les pixels. Elle sert d'interface entre l'interface utilisateur
  * et les opérations de traitement d'image.
  * 
+ * Les pixels sont stockés dans un raster ARGB compact ({@code int[]}, une valeur
+ * par pixel, ligne par ligne). La {@link WritableImage} n'est qu'une vue de ce raster
+ * pour l'affichage : elle partage sa mémoire via un {@link DisplayBridge} (PixelBuffer),
+ * sans copie. Toute lecture/écriture passe par {@link #readRegion} et {@link #writeRegion},
+ * sans allocation de {@link Color} par pixel.
+ * 
+ * Les très grandes images (au-delà de {@link #TILED_PIXEL_THRESHOLD} pixels) sont stockées
+ * dans un {@link TiledRaster} hors tas, dont seules les tuiles écrites occupent de la mémoire.
+ * La vue JavaFX n'est alors qu'un aperçu sous-échantillonné (au plus {@link #PREVIEW_MAX_SIZE}
+ * pixels de côté) ; les lectures/écritures du modèle restent en pleine résolution.
+ * 
+ * {@link #snapshot()} capture l'état des pixels en copy-on-write (voir {@link ImageSnapshot}) :
+ * seules les tuiles écrites ensuite sont dupliquées.
+ * 
  * Pattern Model : représente l'état et la logique métier de l'image.
  */
 public class ImageModel {
     
+    /**
+     * Nombre de pixels au-delà duquel une image est stockée en tuiles plutôt qu'en raster contigu.
+     */
+    public static final long TILED_PIXEL_THRESHOLD = 64L * 1024 * 1024;
+    
+    /**
+     * Côté maximal de l'aperçu affiché pour une image en tuiles.
+     */
+    public static final int PREVIEW_MAX_SIZE = 4096;
+    
     /**
      * Image JavaFX actuelle.
      * Contient les données de l'image affichée.
@@ -25,20 +54,46 @@ public class ImageModel {
     private Image currentImage;
     
     /**
-     * Image modifiable pour les opérations de dessin.
-     * Utilisée pour les modifications en temps réel.
+     * Vue JavaFX du raster, utilisée pour l'affichage.
+     * Elle partage la mémoire du raster (aucune copie).
      */
     private WritableImage writableImage;
     
     /**
-     * Lecteur de pixels pour lire les couleurs de l'image.
+     * Pont d'affichage reliant le raster à la vue JavaFX.
+     * Notifie JavaFX des zones modifiées après chaque écriture.
+     */
+    private DisplayBridge display;
+    
+    /**
+     * Raster de l'image au format ARGB prémultiplié (format natif du PixelBuffer).
+     * Le pixel (x, y) se trouve à l'indice {@code y * width + x}.
+     * Les accesseurs publics travaillent en ARGB classique (0xAARRGGBB, non prémultiplié) ;
+     * pour une image opaque, les deux formats sont identiques.
+     */
+    private int[] pixels;
+    
+    /**
+     * Raster en tuiles des très grandes images (null pour une image contiguë).
+     * Lorsqu'il est présent, {@link #pixels} contient l'aperçu affiché.
+     */
+    private TiledRaster tiles;
+    
+    /**
+     * Pas de sous-échantillonnage de l'aperçu (1 pour une image contiguë).
+     */
+    private int previewStep = 1;
+    
+    /**
+     * Instantanés partageant le raster contigu courant, à préserver avant chaque écriture.
+     * Références faibles : un instantané abandonné par l'historique ne coûte plus rien.
      */
-    private PixelReader pixelReader;
+    private final List<WeakReference<ImageSnapshot>> snapshots = new ArrayList<>();
     
     /**
-     * Écrivain de pixels pour modifier l'image.
+     * Dernier instantané pris, réutilisé tant que les pixels n'ont pas changé.
      */
-    private PixelWriter pixelWriter;
+    private WeakReference<ImageSnapshot> lastSnapshot;
     
     /**
      * Largeur de l'image en pixels.
@@ -50,6 +105,11 @@ public class ImageModel {
      */
     private int height;
 
+    /**
+     * Numéro de version des pixels, incrémenté à chaque modification.
+     */
+    private long version;
+
     /**
      * Constructeur par défaut.
      * Initialise un modèle vide.
@@ -69,6 +129,8 @@ public class ImageModel {
 
     /**
      * Crée une image composite en combinant l'image de base et le canvas.
+     * Pour une image en tuiles, le résultat est à la résolution de l'aperçu :
+     * utiliser {@link #createCompositeRaster(Canvas)} pour la pleine résolution.
      * 
      * @param drawingCanvas Le canvas contenant les dessins
      * @return L'image composite à sauvegarder
@@ -88,44 +150,95 @@ public class ImageModel {
      * @return L'image composite
      */
     private Image createCompositeWithImage(Canvas drawingCanvas) {
-        // Créer une WritableImage pour la composition
-        WritableImage compositeImage = new WritableImage(width, height);
-        PixelWriter compositeWriter = compositeImage.getPixelWriter();
-        
-        // Copier l'image de base
-        PixelReader imageReader = currentImage.getPixelReader();
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                Color imageColor = imageReader.getColor(x, y);
-                compositeWriter.setColor(x, y, imageColor);
-            }
-        }
+        // Copier l'image de base depuis le raster affiché (déjà prémultiplié) ;
+        // pour une image en tuiles, il s'agit de l'aperçu
+        int[] composite = pixels.clone();
+        int displayWidth = (int) writableImage.getWidth();
+        int displayHeight = (int) writableImage.getHeight();
         
         // Capturer le canvas avec des paramètres spéciaux pour la transparence
         javafx.scene.SnapshotParameters params = new javafx.scene.SnapshotParameters();
         params.setFill(Color.TRANSPARENT);  // Fond transparent
         Image canvasSnapshot = drawingCanvas.snapshot(params, null);
         
-        PixelReader canvasReader = canvasSnapshot.getPixelReader();
+        // Lecture intégrale du snapshot en une seule passe
+        int canvasWidth = (int) canvasSnapshot.getWidth();
+        int canvasHeight = (int) canvasSnapshot.getHeight();
+        int[] canvasPixels = new int[canvasWidth * canvasHeight];
+        canvasSnapshot.getPixelReader().getPixels(0, 0, canvasWidth, canvasHeight,
+                PixelFormat.getIntArgbPreInstance(), canvasPixels, 0, canvasWidth);
         
-        double scaleX = (double) width / drawingCanvas.getWidth();
-        double scaleY = (double) height / drawingCanvas.getHeight();
+        double scaleX = (double) displayWidth / drawingCanvas.getWidth();
+        double scaleY = (double) displayHeight / drawingCanvas.getHeight();
+        
+        // Correspondance colonne image -> colonne canvas, calculée une seule fois
+        int[] canvasXs = new int[displayWidth];
+        for (int x = 0; x < displayWidth; x++) {
+            canvasXs[x] = Math.min((int) (x / scaleX), canvasWidth - 1);
+        }
         
         // Superposer le dessin
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                int canvasX = (int) (x / scaleX);
-                int canvasY = (int) (y / scaleY);
+        for (int y = 0; y < displayHeight; y++) {
+            int canvasY = Math.min((int) (y / scaleY), canvasHeight - 1);
+            int canvasRow = canvasY * canvasWidth;
+            int row = y * displayWidth;
+            for (int x = 0; x < displayWidth; x++) {
+                int canvasPixel = canvasPixels[canvasRow + canvasXs[x]];
                 
-                Color canvasColor = canvasReader.getColor(canvasX, canvasY);
-                    
-                // Vérifier la transparence
-                if (canvasColor.getOpacity() > 0.01) {
-                    compositeWriter.setColor(x, y, canvasColor);
+                // Vérifier la transparence (opacité > 0.01, soit alpha > 2.55)
+                if ((canvasPixel >>> 24) > 2) {
+                    composite[row + x] = canvasPixel;
+                }
+            }
+        }
+        return new DisplayBridge(composite, displayWidth, displayHeight).getImage();
+    }
+
+    /**
+     * Crée un raster en tuiles pleine résolution combinant l'image de base et le canvas.
+     * Le calcul se fait tuile par tuile : seules les tuiles contenant des pixels
+     * (image ou dessin) sont allouées dans le résultat.
+     * 
+     * @param drawingCanvas Le canvas contenant les dessins
+     * @return Le raster composite, ou null si aucune image n'est chargée
+     */
+    public TiledRaster createCompositeRaster(Canvas drawingCanvas) {
+        if (!hasImage()) return null;
+        
+        javafx.scene.SnapshotParameters params = new javafx.scene.SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        Image canvasSnapshot = drawingCanvas.snapshot(params, null);
+        int canvasWidth = (int) canvasSnapshot.getWidth();
+        int canvasHeight = (int) canvasSnapshot.getHeight();
+        int[] canvasPixels = new int[canvasWidth * canvasHeight];
+        canvasSnapshot.getPixelReader().getPixels(0, 0, canvasWidth, canvasHeight,
+                PixelFormat.getIntArgbInstance(), canvasPixels, 0, canvasWidth);
+        
+        double scaleX = (double) width / drawingCanvas.getWidth();
+        double scaleY = (double) height / drawingCanvas.getHeight();
+        
+        TiledRaster composite = new TiledRaster(width, height);
+        int[] block = new int[TiledRaster.TILE_SIZE * TiledRaster.TILE_SIZE];
+        for (int ty = 0; ty < composite.getTilesY(); ty++) {
+            for (int tx = 0; tx < composite.getTilesX(); tx++) {
+                int x0 = tx * TiledRaster.TILE_SIZE;
+                int y0 = ty * TiledRaster.TILE_SIZE;
+                int w = composite.getTileWidth(tx);
+                int h = composite.getTileHeight(ty);
+                readRegion(x0, y0, w, h, block, 0, w);
+                for (int y = 0; y < h; y++) {
+                    int canvasRow = Math.min((int) ((y0 + y) / scaleY), canvasHeight - 1) * canvasWidth;
+                    for (int x = 0; x < w; x++) {
+                        int canvasPixel = canvasPixels[canvasRow + Math.min((int) ((x0 + x) / scaleX), canvasWidth - 1)];
+                        if ((canvasPixel >>> 24) > 2) {
+                            block[y * w + x] = canvasPixel;
+                        }
+                    }
                 }
+                composite.writeRegion(x0, y0, w, h, block, 0, w);
             }
         }
-        return compositeImage;
+        return composite;
     }
 
     /**
@@ -156,6 +269,7 @@ public class ImageModel {
 
     /**
      * Définit l'image du modèle et initialise les composants nécessaires.
+     * Les pixels sont lus en une seule passe dans le raster ARGB.
      * 
      * @param image La nouvelle image à charger
      */
@@ -166,23 +280,355 @@ public class ImageModel {
             this.width = (int) image.getWidth();
             this.height = (int) image.getHeight();
             
-            // Créer une copie modifiable de l'image
-            this.writableImage = new WritableImage(width, height);
-            this.pixelReader = image.getPixelReader();
-            this.pixelWriter = writableImage.getPixelWriter();
+            // Lecture intégrale des pixels dans le raster, directement au format du PixelBuffer
+            detachSnapshots();
+            this.tiles = null;
+            this.previewStep = 1;
+            this.pixels = new int[width * height];
+            PixelReader reader = image.getPixelReader();
+            reader.getPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
             
-            // Copier l'image originale dans l'image modifiable
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    Color color = pixelReader.getColor(x, y);
-                    pixelWriter.setColor(x, y, color);
+            // La vue partage le raster : l'image source n'est plus nécessaire
+            attachDisplay();
+        }
+    }
+
+    /**
+     * Remplace le raster du modèle par un nouveau tableau de pixels ARGB, adopté sans copie.
+     * Le tableau de l'appelant est converti sur place au format prémultiplié, puis partagé
+     * avec l'affichage : l'appelant ne doit plus ni le lire ni le modifier.
+     * Une nouvelle vue {@link WritableImage} partageant ce tableau devient l'image courante.
+     * 
+     * @param argb Les pixels au format 0xAARRGGBB, ligne par ligne
+     * @param width La largeur du raster
+     * @param height La hauteur du raster
+     * @throws IllegalArgumentException si la taille du tableau ne correspond pas aux dimensions
+     */
+    public void adoptPixels(int[] argb, int width, int height) {
+        if (argb == null || width <= 0 || height <= 0 || argb.length != width * height) {
+            throw new IllegalArgumentException("Raster incohérent avec les dimensions " + width + "x" + height);
+        }
+        premultiplyInPlace(argb);
+        detachSnapshots();
+        this.tiles = null;
+        this.previewStep = 1;
+        this.pixels = argb;
+        this.width = width;
+        this.height = height;
+        attachDisplay();
+    }
+
+    /**
+     * Remplace le contenu du modèle par un raster en tuiles (très grandes images).
+     * Le raster est adopté tel quel ; la vue devient un aperçu sous-échantillonné.
+     * 
+     * @param raster Le raster en tuiles à adopter
+     * @throws IllegalArgumentException si le raster est null
+     */
+    public void setRaster(TiledRaster raster) {
+        if (raster == null) {
+            throw new IllegalArgumentException("Raster en tuiles manquant");
+        }
+        detachSnapshots();
+        this.tiles = raster;
+        this.width = raster.getWidth();
+        this.height = raster.getHeight();
+        this.previewStep = Math.max(1, (Math.max(width, height) + PREVIEW_MAX_SIZE - 1) / PREVIEW_MAX_SIZE);
+        
+        int previewWidth = (width + previewStep - 1) / previewStep;
+        int previewHeight = (height + previewStep - 1) / previewStep;
+        this.pixels = new int[previewWidth * previewHeight];
+        refreshPreview(0, 0, width, height);
+        attachDisplay(previewWidth, previewHeight);
+    }
+
+    /**
+     * Capture l'état courant des pixels sans les copier (copy-on-write).
+     * Pour une image contiguë, le modèle préservera dans l'instantané chaque tuile
+     * juste avant de l'écrire ; pour une image en tuiles, le raster est partagé.
+     * 
+     * @return Un instantané immuable de l'image
+     * @throws IllegalStateException si aucune image n'est chargée
+     */
+    public ImageSnapshot snapshot() {
+        if (!hasImage()) {
+            throw new IllegalStateException("Aucune image chargée");
+        }
+        // Aucune écriture depuis le dernier instantané : il décrit toujours l'image
+        ImageSnapshot last = lastSnapshot != null ? lastSnapshot.get() : null;
+        if (last != null) {
+            return last;
+        }
+        ImageSnapshot snapshot;
+        if (tiles != null) {
+            snapshot = new ImageSnapshot(tiles.copy());
+        } else {
+            snapshot = new ImageSnapshot(pixels, width, height);
+            snapshots.add(new WeakReference<>(snapshot));
+        }
+        lastSnapshot = new WeakReference<>(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Restaure les pixels d'un instantané ; l'instantané reste utilisable ensuite.
+     * Une image en tuiles est restaurée en O(nombre de tuiles) ; une image contiguë
+     * est reconstituée dans un nouveau raster exclusif.
+     * 
+     * @param snapshot L'instantané à restaurer
+     * @throws IllegalArgumentException si l'instantané est null
+     */
+    public void restore(ImageSnapshot snapshot) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Instantané manquant");
+        }
+        if (snapshot.isTiled()) {
+            setRaster(snapshot.copyTiled());
+            return;
+        }
+        detachSnapshots();
+        this.tiles = null;
+        this.previewStep = 1;
+        this.pixels = snapshot.materialize();
+        this.width = snapshot.getWidth();
+        this.height = snapshot.getHeight();
+        attachDisplay();
+    }
+
+    /**
+     * Numéro de version des pixels : il change à chaque écriture ou remplacement du raster,
+     * ce qui permet de mettre en cache un calcul dérivé de l'image (niveaux de gris…).
+     * 
+     * @return La version courante des pixels
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Détache les instantanés du raster courant, qui va être remplacé.
+     */
+    private void detachSnapshots() {
+        version++;
+        for (WeakReference<ImageSnapshot> ref : snapshots) {
+            ImageSnapshot snapshot = ref.get();
+            if (snapshot != null) {
+                snapshot.detach();
+            }
+        }
+        snapshots.clear();
+        lastSnapshot = null;
+    }
+
+    /**
+     * Préserve, dans chaque instantané vivant, les tuiles d'une zone sur le point d'être écrite.
+     */
+    private void preserveSnapshots(int x, int y, int w, int h) {
+        lastSnapshot = null;
+        Iterator<WeakReference<ImageSnapshot>> it = snapshots.iterator();
+        while (it.hasNext()) {
+            ImageSnapshot snapshot = it.next().get();
+            if (snapshot == null) {
+                it.remove();
+            } else {
+                snapshot.preserve(x, y, w, h);
+            }
+        }
+    }
+
+    /**
+     * Retourne le raster en tuiles de l'image.
+     * 
+     * @return Le raster en tuiles, ou null si l'image est stockée de manière contiguë
+     */
+    public TiledRaster getRaster() {
+        return tiles;
+    }
+
+    /**
+     * Indique si l'image est stockée en tuiles.
+     * 
+     * @return true pour une très grande image adossée à un {@link TiledRaster}
+     */
+    public boolean isTiled() {
+        return tiles != null;
+    }
+
+    /**
+     * Indique si une image de ces dimensions doit être stockée en tuiles.
+     * 
+     * @param width La largeur de l'image
+     * @param height La hauteur de l'image
+     * @return true si l'image dépasse {@link #TILED_PIXEL_THRESHOLD}
+     */
+    public static boolean requiresTiling(long width, long height) {
+        return width * height > TILED_PIXEL_THRESHOLD;
+    }
+
+    /**
+     * Recalcule les pixels de l'aperçu couvrant une zone de l'image en tuiles.
+     * Chaque pixel d'aperçu (px, py) reprend le pixel (px * pas, py * pas) de l'image.
+     */
+    private void refreshPreview(int x, int y, int w, int h) {
+        int step = previewStep;
+        int previewWidth = (width + step - 1) / step;
+        int firstX = (x + step - 1) / step;
+        int lastX = (x + w - 1) / step;
+        int[] row = new int[width];
+        for (int py = (y + step - 1) / step; py <= (y + h - 1) / step; py++) {
+            tiles.readRegion(0, py * step, width, 1, row, 0, width);
+            for (int px = firstX; px <= lastX; px++) {
+                pixels[py * previewWidth + px] = ColorUtils.premultiply(row[px * step]);
+            }
+        }
+    }
+
+    /**
+     * Crée la vue JavaFX partageant le raster courant et en fait l'image courante.
+     */
+    private void attachDisplay() {
+        attachDisplay(width, height);
+    }
+
+    /**
+     * Crée la vue JavaFX partageant le raster affiché, de dimensions données.
+     */
+    private void attachDisplay(int displayWidth, int displayHeight) {
+        this.display = new DisplayBridge(pixels, displayWidth, displayHeight);
+        this.writableImage = display.getImage();
+        this.currentImage = writableImage;
+    }
+
+    /**
+     * Copie une région rectangulaire du raster dans un tableau destination.
+     * 
+     * @param x Abscisse du coin supérieur gauche
+     * @param y Ordonnée du coin supérieur gauche
+     * @param w Largeur de la région
+     * @param h Hauteur de la région
+     * @param dst Tableau destination (format ARGB)
+     * @param offset Indice du premier pixel dans {@code dst}
+     * @param scanlineStride Distance entre deux lignes dans {@code dst}
+     * @throws IndexOutOfBoundsException si la région dépasse de l'image
+     */
+    public void readRegion(int x, int y, int w, int h, int[] dst, int offset, int scanlineStride) {
+        checkRegion(x, y, w, h);
+        if (tiles != null) {
+            tiles.readRegion(x, y, w, h, dst, offset, scanlineStride);
+            return;
+        }
+        for (int row = 0; row < h; row++) {
+            int srcPos = (y + row) * width + x;
+            int dstPos = offset + row * scanlineStride;
+            for (int i = 0; i < w; i++) {
+                dst[dstPos + i] = ColorUtils.unpremultiply(pixels[srcPos + i]);
+            }
+        }
+    }
+
+    /**
+     * Retourne une copie d'une région rectangulaire du raster.
+     * 
+     * @param x Abscisse du coin supérieur gauche
+     * @param y Ordonnée du coin supérieur gauche
+     * @param w Largeur de la région
+     * @param h Hauteur de la région
+     * @return Les pixels ARGB de la région, ligne par ligne
+     * @throws IndexOutOfBoundsException si la région dépasse de l'image
+     */
+    public int[] readRegion(int x, int y, int w, int h) {
+        int[] region = new int[w * h];
+        readRegion(x, y, w, h, region, 0, w);
+        return region;
+    }
+
+    /**
+     * Écrit une région rectangulaire dans le raster puis signale la zone modifiée à la vue.
+     * Le raster étant lu par JavaFX, l'écriture est faite sur le thread JavaFX
+     * ({@link DisplayBridge#write}) : depuis un autre thread, l'appel attend qu'elle y soit faite.
+     * 
+     * @param x Abscisse du coin supérieur gauche
+     * @param y Ordonnée du coin supérieur gauche
+     * @param w Largeur de la région
+     * @param h Hauteur de la région
+     * @param src Tableau source (format ARGB)
+     * @param offset Indice du premier pixel dans {@code src}
+     * @param scanlineStride Distance entre deux lignes dans {@code src}
+     * @throws IndexOutOfBoundsException si la région dépasse de l'image
+     */
+    public void writeRegion(int x, int y, int w, int h, int[] src, int offset, int scanlineStride) {
+        checkRegion(x, y, w, h);
+        version++;
+        if (tiles != null) {
+            lastSnapshot = null;
+            tiles.writeRegion(x, y, w, h, src, offset, scanlineStride);
+            if (w > 0 && h > 0) {
+                display.write(x / previewStep, y / previewStep,
+                        (x + w - 1) / previewStep - x / previewStep + 1,
+                        (y + h - 1) / previewStep - y / previewStep + 1,
+                        () -> refreshPreview(x, y, w, h));
+            }
+            return;
+        }
+        preserveSnapshots(x, y, w, h);
+        display.write(x, y, w, h, () -> {
+            for (int row = 0; row < h; row++) {
+                int srcPos = offset + row * scanlineStride;
+                int dstPos = (y + row) * width + x;
+                for (int i = 0; i < w; i++) {
+                    pixels[dstPos + i] = ColorUtils.premultiply(src[srcPos + i]);
                 }
             }
+        });
+    }
+
+    /**
+     * Lit la valeur ARGB d'un pixel.
+     * 
+     * @param x Coordonnée X du pixel
+     * @param y Coordonnée Y du pixel
+     * @return La valeur 0xAARRGGBB du pixel
+     * @throws IndexOutOfBoundsException si les coordonnées sont invalides
+     */
+    public int getArgb(int x, int y) {
+        if (!isValidCoordinate(x, y)) {
+            throw new IndexOutOfBoundsException("Pixel hors de l'image : (" + x + ", " + y + ")");
+        }
+        if (tiles != null) {
+            return tiles.getArgb(x, y);
+        }
+        return ColorUtils.unpremultiply(pixels[y * width + x]);
+    }
+
+    /**
+     * Enveloppe un tableau de pixels ARGB dans une {@link WritableImage}, sans copie.
+     * Le tableau de l'appelant est converti sur place au format prémultiplié puis partagé
+     * avec l'image (PixelBuffer) : l'appelant ne doit plus ni le lire ni le modifier.
+     * L'image obtenue n'a pas de PixelWriter.
+     * 
+     * @param argb Les pixels au format 0xAARRGGBB, ligne par ligne
+     * @param width La largeur de l'image
+     * @param height La hauteur de l'image
+     * @return Une nouvelle image adossée au tableau
+     */
+    public static WritableImage wrapPixels(int[] argb, int width, int height) {
+        premultiplyInPlace(argb);
+        return new DisplayBridge(argb, width, height).getImage();
+    }
+
+    /**
+     * Convertit sur place un tableau ARGB au format prémultiplié.
+     */
+    private static void premultiplyInPlace(int[] argb) {
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = ColorUtils.premultiply(argb[i]);
         }
     }
 
     /**
      * Retourne l'image actuelle.
+     * Après un chargement, il s'agit de la vue du raster (mémoire partagée) ;
+     * pour une image en tuiles, de son aperçu sous-échantillonné.
      * 
      * @return L'image JavaFX actuelle
      */
@@ -226,8 +672,8 @@ public class ImageModel {
      */
     public Color getPixelColor(int x, int y) {
         if (!isValidCoordinate(x, y)) return null;
-        PixelReader reader = (writableImage != null) ? writableImage.getPixelReader() : pixelReader;
-        return (reader != null) ? reader.getColor(x, y) : null;
+        if (tiles != null) return ColorUtils.argbToColor(tiles.getArgb(x, y));
+        return (pixels != null) ? ColorUtils.argbToColor(ColorUtils.unpremultiply(pixels[y * width + x])) : null;
     }
 
     /**
@@ -241,6 +687,18 @@ public class ImageModel {
         return x >= 0 && x < width && y >= 0 && y < height;
     }
 
+    /**
+     * Vérifie qu'une région est entièrement contenue dans l'image.
+     * 
+     * @throws IndexOutOfBoundsException si la région dépasse de l'image
+     */
+    private void checkRegion(int x, int y, int w, int h) {
+        if (pixels == null || x < 0 || y < 0 || w < 0 || h < 0 || x + w > width || y + h > height) {
+            throw new IndexOutOfBoundsException(
+                    "Région hors de l'image : (" + x + ", " + y + ", " + w + ", " + h + ")");
+        }
+    }
+
     /**
      * Vérifie si le modèle contient une image valide.
      * 
@@ -256,8 +714,11 @@ public class ImageModel {
     public void clear() {
         this.currentImage = null;
         this.writableImage = null;
-        this.pixelReader = null;
-        this.pixelWriter = null;
+        this.display = null;
+        detachSnapshots();
+        this.pixels = null;
+        this.tiles = null;
+        this.previewStep = 1;
         this.width = 0;
         this.height = 0;
     }
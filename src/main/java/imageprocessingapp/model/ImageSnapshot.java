@@ -0,0 +1,314 @@
+package imageprocessingapp.model;
+
+/**
+ * Instantané immuable des pixels d'un {@link ImageModel}, pris en copy-on-write.
+ *
+ * Prendre un instantané ne copie aucun pixel :
+ * - pour une image contiguë, l'instantané référence le raster du modèle et le modèle
+ *   lui confie, juste avant chaque écriture, une copie des tuiles de
+ *   {@value #TILE_SIZE}×{@value #TILE_SIZE} pixels sur le point d'être modifiées ;
+ *   seules les tuiles réellement écrites après la prise sont donc dupliquées ;
+ * - pour une image en tuiles, l'instantané garde une copie partagée du
+ *   {@link TiledRaster} (tuiles à compteur de références).
+ *
+ * Le modèle se détache de ses instantanés lorsqu'il remplace son raster
+ * (rotation, chargement…) : l'ancien raster n'est alors plus écrit par personne
+ * et appartient en propre aux instantanés qui le référencent. Un instantané détaché peut
+ * alors être compressé ({@link #compress()}), voire écrit dans un {@link HistoryJournal}
+ * ({@link #spill}) ; il est décompressé (et relu) à la restauration.
+ *
+ * Un instantané contigu peut être lu, compressé ou écrit depuis n'importe quel thread.
+ * Un instantané en tuiles partage ses tuiles et leurs compteurs de références avec le
+ * modèle ({@link TiledRaster} n'est pas thread-safe) : on ne l'interroge que depuis le
+ * thread qui modifie le modèle.
+ */
+public final class ImageSnapshot {
+
+    /**
+     * Côté des tuiles préservées pour une image contiguë.
+     */
+    static final int TILE_SIZE = TiledRaster.TILE_SIZE;
+
+    private final int width;
+    private final int height;
+
+    /**
+     * Raster contigu partagé avec le modèle (ARGB prémultiplié), ou null pour une image en tuiles.
+     */
+    private int[] base;
+
+    /**
+     * Copies des tuiles de {@link #base} modifiées depuis la prise (null = inchangée).
+     */
+    private int[][] saved;
+    private final int tilesX;
+    private int savedTiles;
+
+    /**
+     * Le modèle a remplacé son raster : {@link #base} n'est plus partagé avec lui.
+     */
+    private boolean detached;
+
+    /**
+     * Contenu complet compressé d'un instantané détaché, null tant que non compressé.
+     */
+    private CompressedPixels packed;
+
+    /**
+     * Journal contenant le contenu compressé une fois écrit sur disque, null sinon.
+     */
+    private HistoryJournal journal;
+    private long journalRecord;
+
+    /**
+     * Copie partagée du raster en tuiles, ou null pour une image contiguë.
+     */
+    private final TiledRaster tiled;
+
+    /**
+     * Instantané d'un raster contigu, partagé avec le modèle.
+     */
+    ImageSnapshot(int[] base, int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.base = base;
+        this.tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        this.saved = new int[tilesX * ((height + TILE_SIZE - 1) / TILE_SIZE)][];
+        this.tiled = null;
+    }
+
+    /**
+     * Instantané d'un raster en tuiles (déjà copié par l'appelant).
+     */
+    ImageSnapshot(TiledRaster tiled) {
+        this.width = tiled.getWidth();
+        this.height = tiled.getHeight();
+        this.base = null;
+        this.saved = null;
+        this.tilesX = 0;
+        this.tiled = tiled;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Indique si l'instantané provient d'une image en tuiles.
+     *
+     * @return true pour une très grande image
+     */
+    public boolean isTiled() {
+        return tiled != null;
+    }
+
+    /**
+     * Mémoire possédée en propre par l'instantané pour une image contiguë,
+     * c'est-à-dire les tuiles préservées avant écriture.
+     *
+     * @return la taille des tuiles préservées, en octets
+     */
+    public synchronized long getPreservedBytes() {
+        return (long) savedTiles * TILE_SIZE * TILE_SIZE * Integer.BYTES;
+    }
+
+    /**
+     * Estimation de la mémoire retenue par l'instantané seul, pour un budget d'historique :
+     * tuiles préservées, plus le raster entier une fois détaché du modèle
+     * (ou, pour une image en tuiles, ses tuiles résidentes ; à appeler alors depuis
+     * le thread du modèle).
+     *
+     * @return la mémoire retenue, en octets
+     */
+    public synchronized long getRetainedBytes() {
+        if (tiled != null) {
+            return tiled.getResidentBytes();
+        }
+        if (journal != null) {
+            return 0;
+        }
+        if (packed != null) {
+            return packed.getByteSize();
+        }
+        long bytes = getPreservedBytes();
+        if (detached) {
+            bytes += (long) base.length * Integer.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Signale que le modèle ne partage plus le raster de l'instantané.
+     */
+    synchronized void detach() {
+        detached = true;
+    }
+
+    /**
+     * Compresse le contenu d'un instantané détaché du modèle et libère ses tableaux.
+     * Sans effet pour un instantané encore partagé avec le modèle, en tuiles ou déjà compressé.
+     * Peut être appelé depuis n'importe quel thread.
+     */
+    public synchronized void compress() {
+        if (!detached || tiled != null || packed != null || journal != null) return;
+        packed = CompressedPixels.compress(materialize());
+        base = null;
+        saved = null;
+        savedTiles = 0;
+    }
+
+    /**
+     * Compresse si besoin le contenu d'un instantané détaché puis l'écrit dans un journal
+     * disque, ne gardant en mémoire que son numéro d'enregistrement. Sans effet pour un
+     * instantané encore partagé avec le modèle, en tuiles ou déjà écrit.
+     *
+     * @param target le journal de destination
+     */
+    public synchronized void spill(HistoryJournal target) {
+        compress();
+        if (packed == null) return;
+        journalRecord = target.append(packed);
+        journal = target;
+        packed = null;
+    }
+
+    /**
+     * Libère l'enregistrement du journal disque d'un instantané qui ne sera plus restauré
+     * (état sorti de l'historique). Sans effet s'il n'y a pas été écrit.
+     */
+    public synchronized void discard() {
+        if (journal == null) return;
+        journal.release(journalRecord);
+        journal = null;
+    }
+
+    /**
+     * @return true si le contenu de l'instantané est compressé (en mémoire ou sur disque)
+     */
+    public synchronized boolean isCompressed() {
+        return packed != null || journal != null;
+    }
+
+    /**
+     * @return true si le contenu de l'instantané a été écrit dans un journal disque
+     */
+    public synchronized boolean isSpilled() {
+        return journal != null;
+    }
+
+    /**
+     * Contenu compressé, relu depuis le journal s'il y a été écrit, ou null.
+     */
+    private CompressedPixels packedPixels() {
+        return packed != null ? packed : journal != null ? journal.read(journalRecord) : null;
+    }
+
+    /**
+     * Copie une région de l'instantané dans un tableau destination.
+     *
+     * @param x Abscisse du coin supérieur gauche
+     * @param y Ordonnée du coin supérieur gauche
+     * @param w Largeur de la région
+     * @param h Hauteur de la région
+     * @param dst Tableau destination (format ARGB)
+     * @param offset Indice du premier pixel dans {@code dst}
+     * @param scanlineStride Distance entre deux lignes dans {@code dst}
+     * @throws IndexOutOfBoundsException si la région dépasse de l'image
+     */
+    public synchronized void readRegion(int x, int y, int w, int h, int[] dst, int offset, int scanlineStride) {
+        if (x < 0 || y < 0 || w < 0 || h < 0 || x + w > width || y + h > height) {
+            throw new IndexOutOfBoundsException(
+                    "Région hors de l'image : (" + x + ", " + y + ", " + w + ", " + h + ")");
+        }
+        if (tiled != null) {
+            tiled.readRegion(x, y, w, h, dst, offset, scanlineStride);
+            return;
+        }
+        CompressedPixels data = packedPixels();
+        if (data != null) {
+            int[] pixels = data.decompress();
+            for (int row = 0; row < h; row++) {
+                int srcPos = (y + row) * width + x;
+                int dstPos = offset + row * scanlineStride;
+                for (int i = 0; i < w; i++) {
+                    dst[dstPos + i] = ColorUtils.unpremultiply(pixels[srcPos + i]);
+                }
+            }
+            return;
+        }
+        for (int row = 0; row < h; row++) {
+            int py = y + row;
+            int dstPos = offset + row * scanlineStride;
+            for (int i = 0; i < w; i++) {
+                dst[dstPos + i] = ColorUtils.unpremultiply(pixelPre(x + i, py));
+            }
+        }
+    }
+
+    /**
+     * Lit un pixel prémultiplié, depuis la tuile préservée s'il y en a une.
+     */
+    private int pixelPre(int x, int y) {
+        int[] tile = saved[(y / TILE_SIZE) * tilesX + x / TILE_SIZE];
+        return tile != null ? tile[(y % TILE_SIZE) * TILE_SIZE + x % TILE_SIZE] : base[y * width + x];
+    }
+
+    /**
+     * Préserve les tuiles du raster partagé couvrant une zone, avant qu'elle ne soit écrite.
+     * Appelé par le modèle propriétaire du raster.
+     */
+    synchronized void preserve(int x, int y, int w, int h) {
+        if (w <= 0 || h <= 0 || packed != null || journal != null) return;
+        for (int ty = y / TILE_SIZE; ty <= (y + h - 1) / TILE_SIZE; ty++) {
+            for (int tx = x / TILE_SIZE; tx <= (x + w - 1) / TILE_SIZE; tx++) {
+                int index = ty * tilesX + tx;
+                if (saved[index] != null) continue;
+                int[] tile = new int[TILE_SIZE * TILE_SIZE];
+                int x0 = tx * TILE_SIZE;
+                int y0 = ty * TILE_SIZE;
+                int tw = Math.min(TILE_SIZE, width - x0);
+                int th = Math.min(TILE_SIZE, height - y0);
+                for (int row = 0; row < th; row++) {
+                    System.arraycopy(base, (y0 + row) * width + x0, tile, row * TILE_SIZE, tw);
+                }
+                saved[index] = tile;
+                savedTiles++;
+            }
+        }
+    }
+
+    /**
+     * Reconstitue un raster contigu exclusif (ARGB prémultiplié) au contenu de l'instantané.
+     */
+    synchronized int[] materialize() {
+        CompressedPixels data = packedPixels();
+        if (data != null) {
+            return data.decompress();
+        }
+        int[] pixels = base.clone();
+        for (int index = 0; index < saved.length; index++) {
+            int[] tile = saved[index];
+            if (tile == null) continue;
+            int x0 = (index % tilesX) * TILE_SIZE;
+            int y0 = (index / tilesX) * TILE_SIZE;
+            int tw = Math.min(TILE_SIZE, width - x0);
+            int th = Math.min(TILE_SIZE, height - y0);
+            for (int row = 0; row < th; row++) {
+                System.arraycopy(tile, row * TILE_SIZE, pixels, (y0 + row) * width + x0, tw);
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * Retourne une nouvelle copie partagée du raster en tuiles de l'instantané.
+     * Depuis le thread du modèle, comme toute modification de ses tuiles.
+     */
+    synchronized TiledRaster copyTiled() {
+        return tiled.copy();
+    }
+}
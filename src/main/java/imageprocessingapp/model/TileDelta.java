@@ -0,0 +1,274 @@
+package imageprocessingapp.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Différence par tuiles entre deux rasters ARGB de mêmes dimensions.
+ *
+ * Une différence ne conserve que les tuiles de {@value #TILE_SIZE}×{@value #TILE_SIZE}
+ * pixels qui diffèrent entre l'état source et l'état cible, avec leur contenu source :
+ * l'appliquer à l'état cible reconstitue l'état source. Un coup de pinceau ne touchant
+ * que quelques tuiles, la différence ne coûte que ces tuiles.
+ *
+ * Si les dimensions diffèrent (rotation, crop…), la différence conserve le raster source
+ * en entier.
+ *
+ * Une fois calculée, la différence peut être compressée ({@link #compress()}), par exemple
+ * depuis un thread d'arrière-plan ; elle est alors décompressée à chaque application.
+ * Elle peut enfin quitter la mémoire pour un {@link HistoryJournal} ({@link #spill}).
+ */
+public final class TileDelta {
+
+    /**
+     * Côté des tuiles comparées, choisi proche de l'échelle d'un trait de pinceau.
+     */
+    public static final int TILE_SIZE = 64;
+
+    private final int width;
+    private final int height;
+
+    /**
+     * Tuiles conservées : indices (ty * tilesX + tx) et contenus source, dans le même ordre.
+     */
+    private final int[] indices;
+    private int[][] contents;
+
+    /**
+     * Raster source complet lorsque les dimensions changent, null sinon.
+     */
+    private int[] full;
+
+    /**
+     * Tuiles (ou raster complet) mises bout à bout et compressées, null tant que non compressée.
+     */
+    private CompressedPixels packed;
+
+    /**
+     * Les données compressées sont le raster source complet.
+     */
+    private boolean fullPacked;
+
+    /**
+     * Journal contenant les données compressées une fois écrites sur disque, null sinon.
+     */
+    private HistoryJournal journal;
+    private long journalRecord;
+
+    private TileDelta(int width, int height, int[] indices, int[][] contents, int[] full) {
+        this.width = width;
+        this.height = height;
+        this.indices = indices;
+        this.contents = contents;
+        this.full = full;
+    }
+
+    /**
+     * Calcule la différence permettant de revenir de {@code to} à {@code from}.
+     *
+     * @param from raster source (état à reconstituer)
+     * @param fromWidth largeur du raster source
+     * @param fromHeight hauteur du raster source
+     * @param to raster cible (état auquel la différence sera appliquée)
+     * @param toWidth largeur du raster cible
+     * @param toHeight hauteur du raster cible
+     * @return la différence, qui ne référence pas les tableaux passés
+     */
+    public static TileDelta between(int[] from, int fromWidth, int fromHeight,
+                                    int[] to, int toWidth, int toHeight) {
+        if (fromWidth != toWidth || fromHeight != toHeight) {
+            return new TileDelta(fromWidth, fromHeight, new int[0], new int[0][], from.clone());
+        }
+        int tilesX = (fromWidth + TILE_SIZE - 1) / TILE_SIZE;
+        int tilesY = (fromHeight + TILE_SIZE - 1) / TILE_SIZE;
+        List<Integer> changed = new ArrayList<>();
+        List<int[]> tiles = new ArrayList<>();
+        for (int ty = 0; ty < tilesY; ty++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                int x0 = tx * TILE_SIZE;
+                int y0 = ty * TILE_SIZE;
+                int tw = Math.min(TILE_SIZE, fromWidth - x0);
+                int th = Math.min(TILE_SIZE, fromHeight - y0);
+                if (!differs(from, to, fromWidth, x0, y0, tw, th)) continue;
+
+                int[] tile = new int[tw * th];
+                for (int row = 0; row < th; row++) {
+                    System.arraycopy(from, (y0 + row) * fromWidth + x0, tile, row * tw, tw);
+                }
+                changed.add(ty * tilesX + tx);
+                tiles.add(tile);
+            }
+        }
+        int[] indices = new int[changed.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = changed.get(i);
+        }
+        return new TileDelta(fromWidth, fromHeight, indices, tiles.toArray(new int[0][]), null);
+    }
+
+    /**
+     * Compare une tuile des deux rasters ligne par ligne.
+     */
+    private static boolean differs(int[] a, int[] b, int width, int x0, int y0, int tw, int th) {
+        for (int row = 0; row < th; row++) {
+            int pos = (y0 + row) * width + x0;
+            if (!Arrays.equals(a, pos, pos + tw, b, pos, pos + tw)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applique la différence à un raster cible et retourne l'état source.
+     * Le tableau cible est modifié sur place si les dimensions sont inchangées.
+     *
+     * @param target raster cible (l'état {@code to} du calcul)
+     * @return le raster source reconstitué (le tableau cible, ou une copie complète)
+     */
+    public synchronized int[] applyTo(int[] target) {
+        CompressedPixels data = packed != null ? packed : journal != null ? journal.read(journalRecord) : null;
+        if (data != null) {
+            int[] unpacked = data.decompress();
+            if (fullPacked) {
+                return unpacked;
+            }
+            int tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+            int pos = 0;
+            for (int index : indices) {
+                int x0 = (index % tilesX) * TILE_SIZE;
+                int y0 = (index / tilesX) * TILE_SIZE;
+                int tw = Math.min(TILE_SIZE, width - x0);
+                int th = Math.min(TILE_SIZE, height - y0);
+                for (int row = 0; row < th; row++) {
+                    System.arraycopy(unpacked, pos + row * tw, target, (y0 + row) * width + x0, tw);
+                }
+                pos += tw * th;
+            }
+            return target;
+        }
+        if (full != null) {
+            return full.clone();
+        }
+        int tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        for (int i = 0; i < indices.length; i++) {
+            int x0 = (indices[i] % tilesX) * TILE_SIZE;
+            int y0 = (indices[i] / tilesX) * TILE_SIZE;
+            int tw = Math.min(TILE_SIZE, width - x0);
+            int[] tile = contents[i];
+            int th = tile.length / tw;
+            for (int row = 0; row < th; row++) {
+                System.arraycopy(tile, row * tw, target, (y0 + row) * width + x0, tw);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Compresse les pixels conservés. Sans effet si la différence est déjà compressée.
+     * Peut être appelé depuis n'importe quel thread.
+     */
+    public synchronized void compress() {
+        if (packed != null || journal != null) return;
+        int[] pixels;
+        if (full != null) {
+            pixels = full;
+        } else {
+            int total = 0;
+            for (int[] tile : contents) {
+                total += tile.length;
+            }
+            pixels = new int[total];
+            int pos = 0;
+            for (int[] tile : contents) {
+                System.arraycopy(tile, 0, pixels, pos, tile.length);
+                pos += tile.length;
+            }
+        }
+        packed = CompressedPixels.compress(pixels);
+        fullPacked = full != null;
+        full = null;
+        contents = null;
+    }
+
+    /**
+     * Compresse si besoin les pixels conservés puis les écrit dans un journal disque,
+     * ne gardant en mémoire que leur numéro d'enregistrement. Sans effet si la différence
+     * y est déjà.
+     *
+     * @param target le journal de destination
+     */
+    public synchronized void spill(HistoryJournal target) {
+        if (journal != null) return;
+        compress();
+        journalRecord = target.append(packed);
+        journal = target;
+        packed = null;
+    }
+
+    /**
+     * Libère l'enregistrement du journal disque d'une différence qui ne sera plus
+     * appliquée (état sorti de l'historique). Sans effet si elle n'y a pas été écrite.
+     */
+    public synchronized void discard() {
+        if (journal == null) return;
+        journal.release(journalRecord);
+        journal = null;
+    }
+
+    /**
+     * @return true si les pixels conservés sont compressés (en mémoire ou sur disque)
+     */
+    public synchronized boolean isCompressed() {
+        return packed != null || journal != null;
+    }
+
+    /**
+     * @return true si les pixels conservés ont été écrits dans un journal disque
+     */
+    public synchronized boolean isSpilled() {
+        return journal != null;
+    }
+
+    /**
+     * @return la largeur de l'état source
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return la hauteur de l'état source
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return le nombre de tuiles conservées (0 pour un raster complet)
+     */
+    public int getTileCount() {
+        return indices.length;
+    }
+
+    /**
+     * @return la mémoire occupée par les pixels conservés, en octets (0 une fois sur disque)
+     */
+    public synchronized long getByteSize() {
+        if (journal != null) {
+            return 0;
+        }
+        if (packed != null) {
+            return packed.getByteSize();
+        }
+        if (full != null) {
+            return (long) full.length * Integer.BYTES;
+        }
+        long bytes = 0;
+        for (int[] tile : contents) {
+            bytes += (long) tile.length * Integer.BYTES;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,177 @@
+package imageprocessingapp.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fichier d'échange projeté en mémoire pour les tuiles froides d'un {@link TiledRaster}.
+ *
+ * Le fichier temporaire est découpé en emplacements de la taille d'une tuile, projetés
+ * par segments de {@value #SEGMENT_TILES} emplacements via {@link FileChannel#map}.
+ * Les pages ainsi écrites sont gérées par le système : elles quittent la RAM quand elle
+ * vient à manquer, sans solliciter le tas ni la mémoire directe de la JVM.
+ *
+ * Un emplacement peut être partagé par un raster et ses copies : il porte un compteur
+ * de références et n'est recyclé que lorsque plus aucun raster ne l'utilise. De même,
+ * le fichier compte ses rasters utilisateurs et est fermé (puis supprimé) avec le dernier.
+ */
+final class TileSwapFile implements AutoCloseable {
+
+    /**
+     * Nombre de tuiles par segment projeté (16 Mo).
+     */
+    static final int SEGMENT_TILES = 64;
+
+    private static final int TILE_INTS = TiledRaster.TILE_SIZE * TiledRaster.TILE_SIZE;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    /**
+     * Nombre de références de chaque emplacement (0 = libre).
+     */
+    private int[] slotRefs = new int[SEGMENT_TILES];
+    private int slotCount;
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private int users;
+
+    /**
+     * Crée le fichier d'échange dans le répertoire temporaire.
+     *
+     * @throws UncheckedIOException si le fichier ne peut pas être créé
+     */
+    TileSwapFile() {
+        try {
+            this.path = Files.createTempFile("imageprocessingapp-tiles-", ".swap");
+            this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de créer le fichier d'échange des tuiles", e);
+        }
+    }
+
+    /**
+     * Réserve un emplacement libre (référencé une fois).
+     *
+     * @return le numéro de l'emplacement
+     */
+    synchronized int allocateSlot() {
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.pop();
+        } else {
+            slot = slotCount++;
+            if (slot == slotRefs.length) {
+                slotRefs = Arrays.copyOf(slotRefs, slotRefs.length * 2);
+            }
+        }
+        slotRefs[slot] = 1;
+        return slot;
+    }
+
+    /**
+     * Ajoute une référence à un emplacement partagé par une copie de raster.
+     */
+    synchronized void retainSlot(int slot) {
+        slotRefs[slot]++;
+    }
+
+    /**
+     * Retire une référence à un emplacement ; il est recyclé à la dernière.
+     */
+    synchronized void releaseSlot(int slot) {
+        if (--slotRefs[slot] == 0) {
+            freeSlots.push(slot);
+        }
+    }
+
+    /**
+     * Enregistre un raster utilisateur du fichier.
+     */
+    synchronized void retainUser() {
+        users++;
+    }
+
+    /**
+     * Retire un raster utilisateur ; le fichier est fermé avec le dernier.
+     */
+    synchronized void releaseUser() {
+        if (--users == 0) {
+            close();
+        }
+    }
+
+    /**
+     * Copie une tuile vers un emplacement du fichier.
+     *
+     * @param slot numéro de l'emplacement
+     * @param tile contenu de la tuile
+     */
+    void write(int slot, IntBuffer tile) {
+        slot(slot).put(0, tile, 0, TILE_INTS);
+    }
+
+    /**
+     * Recharge une tuile depuis un emplacement du fichier.
+     *
+     * @param slot numéro de l'emplacement
+     * @param tile tampon destination
+     */
+    void read(int slot, IntBuffer tile) {
+        tile.put(0, slot(slot), 0, TILE_INTS);
+    }
+
+    /**
+     * @return le nombre d'emplacements actuellement utilisés
+     */
+    synchronized int getUsedSlotCount() {
+        return slotCount - freeSlots.size();
+    }
+
+    /**
+     * Retourne la vue entière d'un emplacement, en projetant son segment au besoin.
+     */
+    private synchronized IntBuffer slot(int slot) {
+        int segment = slot / SEGMENT_TILES;
+        while (segments.size() <= segment) {
+            long size = (long) SEGMENT_TILES * TiledRaster.TILE_BYTES;
+            try {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, segments.size() * size, size));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Projection du fichier d'échange impossible", e);
+            }
+        }
+        int offset = (slot % SEGMENT_TILES) * TiledRaster.TILE_BYTES;
+        return segments.get(segment).slice(offset, TiledRaster.TILE_BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    /**
+     * Ferme et supprime le fichier d'échange.
+     * Les projections restent valides jusqu'à leur collecte mais ne sont plus utilisées.
+     */
+    @Override
+    public synchronized void close() {
+        segments.clear();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Fichier temporaire : rien d'autre à faire
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+}
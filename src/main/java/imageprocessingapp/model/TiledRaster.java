@@ -0,0 +1,526 @@
+package imageprocessingapp.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.lang.ref.Cleaner;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Raster ARGB découpé en tuiles carrées stockées hors du tas Java.
+ *
+ * Destiné aux très grandes images (scans, panoramas) qui ne tiennent pas dans une
+ * {@link javafx.scene.image.WritableImage} contiguë. Chaque tuile de
+ * {@value #TILE_SIZE}×{@value #TILE_SIZE} pixels est un {@link ByteBuffer} direct,
+ * alloué paresseusement lors de la première écriture : une tuile jamais écrite
+ * vaut entièrement {@code 0x00000000} (transparent) et n'occupe aucune mémoire.
+ * La mémoire consommée croît donc avec les tuiles réellement touchées, pas avec
+ * la taille totale de l'image.
+ *
+ * Les pixels sont au format ARGB classique (0xAARRGGBB, non prémultiplié).
+ * Les tuiles du bord droit et du bord bas sont allouées en taille pleine mais
+ * seule leur partie comprise dans l'image est utilisée.
+ *
+ * Les tuiles résidentes sont limitées par un budget mémoire : au-delà, la tuile
+ * la moins récemment utilisée (LRU) est déplacée vers un {@link TileSwapFile}
+ * projeté en mémoire, et son tampon direct est réutilisé. Une tuile échangée est
+ * rechargée de manière transparente au prochain accès. Le fichier d'échange n'est
+ * créé qu'à la première éviction ou copie.
+ *
+ * {@link #copy()} partage les tuiles par leurs emplacements dans le fichier d'échange,
+ * avec un compteur de références : seules les tuiles modifiées depuis leur dernier
+ * échange y sont écrites, et la copie ne retient aucun tampon résident. Chaque raster
+ * tient ainsi ses tuiles résidentes dans son propre budget.
+ *
+ * Cette classe n'est pas thread-safe, y compris entre un raster et ses copies.
+ */
+public final class TiledRaster {
+
+    /**
+     * Côté d'une tuile en pixels.
+     */
+    public static final int TILE_SIZE = 256;
+
+    /**
+     * Décalage binaire équivalent à une division par {@link #TILE_SIZE}.
+     */
+    private static final int TILE_SHIFT = 8;
+
+    /**
+     * Taille en octets d'une tuile allouée.
+     */
+    public static final int TILE_BYTES = TILE_SIZE * TILE_SIZE * Integer.BYTES;
+
+    /**
+     * Ferme les fichiers d'échange des rasters devenus inaccessibles.
+     */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * Tuile vide servant à remettre à zéro un tampon réutilisé.
+     */
+    private static final int[] ZERO_TILE = new int[TILE_SIZE * TILE_SIZE];
+
+    /**
+     * Budget mémoire par défaut des nouveaux rasters (un quart du tas maximal).
+     */
+    private static volatile long defaultMemoryBudget = Runtime.getRuntime().maxMemory() / 4;
+
+    private final int width;
+    private final int height;
+    private final int tilesX;
+    private final int tilesY;
+
+    /**
+     * Tuiles résidentes indexées par {@code ty * tilesX + tx} ;
+     * null si la tuile n'a jamais été écrite ou si elle est dans le fichier d'échange.
+     */
+    private final IntBuffer[] tiles;
+
+    /**
+     * Emplacement de chaque tuile dans le fichier d'échange (-1 si aucun).
+     * Une tuile résidente possédant un emplacement est identique à sa copie échangée ;
+     * toute écriture libère l'emplacement.
+     */
+    private final int[] slots;
+
+    /**
+     * Tuiles résidentes, de la moins récemment utilisée à la plus récente.
+     */
+    private final LinkedHashMap<Integer, IntBuffer> resident = new LinkedHashMap<>(16, 0.75f, true);
+
+    private TileSwapFile swap;
+    private int maxResidentTiles;
+    private int allocatedTiles;
+
+    /**
+     * Crée un raster vide (entièrement transparent), sans allouer de tuile.
+     *
+     * @param width largeur de l'image en pixels
+     * @param height hauteur de l'image en pixels
+     * @throws IllegalArgumentException si les dimensions ne sont pas strictement positives
+     */
+    public TiledRaster(int width, int height) {
+        this(width, height, defaultMemoryBudget);
+    }
+
+    /**
+     * Crée un raster vide avec un budget mémoire explicite pour les tuiles résidentes.
+     *
+     * @param width largeur de l'image en pixels
+     * @param height hauteur de l'image en pixels
+     * @param memoryBudget mémoire maximale (en octets) des tuiles résidentes ; au moins une tuile
+     * @throws IllegalArgumentException si les dimensions ne sont pas strictement positives
+     */
+    public TiledRaster(int width, int height, long memoryBudget) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Dimensions invalides : " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.tilesX = (width + TILE_SIZE - 1) >> TILE_SHIFT;
+        this.tilesY = (height + TILE_SIZE - 1) >> TILE_SHIFT;
+        this.tiles = new IntBuffer[tilesX * tilesY];
+        this.slots = new int[tiles.length];
+        Arrays.fill(slots, -1);
+        setMemoryBudget(memoryBudget);
+    }
+
+    /**
+     * Crée une copie du raster en O(nombre de tuiles), sans dupliquer de tuile en mémoire.
+     * Les tuiles résidentes modifiées depuis leur dernier échange sont d'abord écrites
+     * dans le fichier d'échange ; les deux rasters partagent ensuite les emplacements,
+     * jusqu'à ce que l'un d'eux écrive la tuile. La copie ne contient aucune tuile
+     * résidente et reprend le budget mémoire de l'original.
+     *
+     * @return une copie indépendante du raster
+     */
+    public TiledRaster copy() {
+        for (Map.Entry<Integer, IntBuffer> entry : resident.entrySet()) {
+            int index = entry.getKey();
+            if (slots[index] < 0) {
+                TileSwapFile file = swapFile();
+                slots[index] = file.allocateSlot();
+                file.write(slots[index], entry.getValue());
+            }
+        }
+        TiledRaster copy = new TiledRaster(width, height, getMemoryBudget());
+        copy.allocatedTiles = allocatedTiles;
+        if (swap != null) {
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] >= 0) {
+                    swap.retainSlot(slots[i]);
+                    copy.slots[i] = slots[i];
+                }
+            }
+            copy.useSwap(swap);
+        }
+        return copy;
+    }
+
+    /**
+     * Définit le budget mémoire utilisé par les rasters créés ensuite.
+     *
+     * @param bytes budget en octets (au moins une tuile)
+     * @throws IllegalArgumentException si le budget est négatif ou nul
+     */
+    public static void setDefaultMemoryBudget(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("Budget mémoire invalide : " + bytes);
+        }
+        defaultMemoryBudget = bytes;
+    }
+
+    /**
+     * @return le budget mémoire par défaut des nouveaux rasters, en octets
+     */
+    public static long getDefaultMemoryBudget() {
+        return defaultMemoryBudget;
+    }
+
+    /**
+     * Modifie le budget mémoire du raster ; les tuiles en excès sont aussitôt échangées.
+     *
+     * @param bytes budget en octets (arrondi à au moins une tuile)
+     * @throws IllegalArgumentException si le budget est négatif ou nul
+     */
+    public void setMemoryBudget(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("Budget mémoire invalide : " + bytes);
+        }
+        this.maxResidentTiles = (int) Math.max(1, Math.min(Integer.MAX_VALUE, bytes / TILE_BYTES));
+        while (resident.size() > maxResidentTiles) {
+            evictEldest();
+        }
+    }
+
+    /**
+     * @return le budget mémoire du raster, en octets
+     */
+    public long getMemoryBudget() {
+        return (long) maxResidentTiles * TILE_BYTES;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return le nombre de colonnes de tuiles
+     */
+    public int getTilesX() {
+        return tilesX;
+    }
+
+    /**
+     * @return le nombre de lignes de tuiles
+     */
+    public int getTilesY() {
+        return tilesY;
+    }
+
+    /**
+     * Largeur utile d'une colonne de tuiles (plus petite sur le bord droit).
+     *
+     * @param tx indice de colonne de tuile
+     * @return la largeur en pixels
+     */
+    public int getTileWidth(int tx) {
+        return Math.min(TILE_SIZE, width - (tx << TILE_SHIFT));
+    }
+
+    /**
+     * Hauteur utile d'une ligne de tuiles (plus petite sur le bord bas).
+     *
+     * @param ty indice de ligne de tuile
+     * @return la hauteur en pixels
+     */
+    public int getTileHeight(int ty) {
+        return Math.min(TILE_SIZE, height - (ty << TILE_SHIFT));
+    }
+
+    /**
+     * Indique si une tuile a déjà été écrite (et donc allouée).
+     *
+     * @param tx indice de colonne de tuile
+     * @param ty indice de ligne de tuile
+     * @return true si la tuile occupe de la mémoire
+     */
+    public boolean isTileAllocated(int tx, int ty) {
+        return isTileAllocated(ty * tilesX + tx);
+    }
+
+    /**
+     * @return le nombre de tuiles allouées (résidentes ou échangées)
+     */
+    public int getAllocatedTileCount() {
+        return allocatedTiles;
+    }
+
+    /**
+     * @return la taille des tuiles allouées (résidentes ou échangées), en octets
+     */
+    public long getAllocatedBytes() {
+        return (long) allocatedTiles * TILE_BYTES;
+    }
+
+    /**
+     * @return le nombre de tuiles présentes en mémoire
+     */
+    public int getResidentTileCount() {
+        return resident.size();
+    }
+
+    /**
+     * @return la mémoire hors tas occupée par les tuiles résidentes, en octets
+     */
+    public long getResidentBytes() {
+        return (long) resident.size() * TILE_BYTES;
+    }
+
+    /**
+     * Lit la valeur ARGB d'un pixel.
+     *
+     * @param x abscisse du pixel
+     * @param y ordonnée du pixel
+     * @return la valeur 0xAARRGGBB (0 si la tuile n'a jamais été écrite)
+     * @throws IndexOutOfBoundsException si le pixel est hors de l'image
+     */
+    public int getArgb(int x, int y) {
+        checkRegion(x, y, 1, 1);
+        IntBuffer tile = tileForRead((y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT));
+        return tile == null ? 0 : tile.get(((y & (TILE_SIZE - 1)) << TILE_SHIFT) | (x & (TILE_SIZE - 1)));
+    }
+
+    /**
+     * Écrit la valeur ARGB d'un pixel, en allouant sa tuile si nécessaire.
+     *
+     * @param x abscisse du pixel
+     * @param y ordonnée du pixel
+     * @param argb la valeur 0xAARRGGBB
+     * @throws IndexOutOfBoundsException si le pixel est hors de l'image
+     */
+    public void setArgb(int x, int y, int argb) {
+        checkRegion(x, y, 1, 1);
+        int index = (y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT);
+        if (argb == 0 && !isTileAllocated(index)) return;
+        IntBuffer tile = tileForWrite(index);
+        tile.put(((y & (TILE_SIZE - 1)) << TILE_SHIFT) | (x & (TILE_SIZE - 1)), argb);
+    }
+
+    /**
+     * Copie une région rectangulaire dans un tableau destination.
+     * Les parties couvertes par des tuiles non allouées sont remplies de 0.
+     *
+     * @param x abscisse du coin supérieur gauche
+     * @param y ordonnée du coin supérieur gauche
+     * @param w largeur de la région
+     * @param h hauteur de la région
+     * @param dst tableau destination (ARGB)
+     * @param offset indice du premier pixel dans {@code dst}
+     * @param scanlineStride distance entre deux lignes dans {@code dst}
+     * @throws IndexOutOfBoundsException si la région dépasse de l'image
+     */
+    public void readRegion(int x, int y, int w, int h, int[] dst, int offset, int scanlineStride) {
+        checkRegion(x, y, w, h);
+        if (w == 0 || h == 0) return;
+        // Parcours tuile par tuile : chaque segment de ligne est contigu dans sa tuile
+        for (int ty = y >> TILE_SHIFT; ty <= (y + h - 1) >> TILE_SHIFT; ty++) {
+            int y0 = Math.max(y, ty << TILE_SHIFT);
+            int y1 = Math.min(y + h, (ty + 1) << TILE_SHIFT);
+            for (int tx = x >> TILE_SHIFT; tx <= (x + w - 1) >> TILE_SHIFT; tx++) {
+                int x0 = Math.max(x, tx << TILE_SHIFT);
+                int x1 = Math.min(x + w, (tx + 1) << TILE_SHIFT);
+                IntBuffer tile = tileForRead(ty * tilesX + tx);
+                for (int row = y0; row < y1; row++) {
+                    int dstPos = offset + (row - y) * scanlineStride + (x0 - x);
+                    if (tile == null) {
+                        Arrays.fill(dst, dstPos, dstPos + (x1 - x0), 0);
+                    } else {
+                        tile.get(((row & (TILE_SIZE - 1)) << TILE_SHIFT) | (x0 & (TILE_SIZE - 1)),
+                                dst, dstPos, x1 - x0);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Écrit une région rectangulaire depuis un tableau source.
+     * Une tuile non allouée n'est créée que si la portion écrite contient au moins
+     * un pixel non transparent : écrire du vide ne consomme pas de mémoire.
+     *
+     * @param x abscisse du coin supérieur gauche
+     * @param y ordonnée du coin supérieur gauche
+     * @param w largeur de la région
+     * @param h hauteur de la région
+     * @param src tableau source (ARGB)
+     * @param offset indice du premier pixel dans {@code src}
+     * @param scanlineStride distance entre deux lignes dans {@code src}
+     * @throws IndexOutOfBoundsException si la région dépasse de l'image
+     */
+    public void writeRegion(int x, int y, int w, int h, int[] src, int offset, int scanlineStride) {
+        checkRegion(x, y, w, h);
+        if (w == 0 || h == 0) return;
+        for (int ty = y >> TILE_SHIFT; ty <= (y + h - 1) >> TILE_SHIFT; ty++) {
+            int y0 = Math.max(y, ty << TILE_SHIFT);
+            int y1 = Math.min(y + h, (ty + 1) << TILE_SHIFT);
+            for (int tx = x >> TILE_SHIFT; tx <= (x + w - 1) >> TILE_SHIFT; tx++) {
+                int x0 = Math.max(x, tx << TILE_SHIFT);
+                int x1 = Math.min(x + w, (tx + 1) << TILE_SHIFT);
+                int index = ty * tilesX + tx;
+                if (!isTileAllocated(index)
+                        && isEmpty(src, offset + (y0 - y) * scanlineStride + (x0 - x), x1 - x0, y1 - y0, scanlineStride)) {
+                    continue;
+                }
+                IntBuffer tile = tileForWrite(index);
+                for (int row = y0; row < y1; row++) {
+                    int srcPos = offset + (row - y) * scanlineStride + (x0 - x);
+                    tile.put(((row & (TILE_SIZE - 1)) << TILE_SHIFT) | (x0 & (TILE_SIZE - 1)),
+                            src, srcPos, x1 - x0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Vérifie si une portion du tableau source est entièrement transparente (0).
+     */
+    private static boolean isEmpty(int[] src, int offset, int w, int h, int scanlineStride) {
+        for (int row = 0; row < h; row++) {
+            int pos = offset + row * scanlineStride;
+            for (int i = 0; i < w; i++) {
+                if (src[pos + i] != 0) return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isTileAllocated(int index) {
+        return tiles[index] != null || slots[index] >= 0;
+    }
+
+    /**
+     * Retourne une tuile pour lecture, en la rechargeant depuis le fichier d'échange si besoin.
+     *
+     * @return les pixels de la tuile, ou null si elle n'a jamais été écrite
+     */
+    private IntBuffer tileForRead(int index) {
+        IntBuffer tile = tiles[index];
+        if (tile != null) {
+            resident.get(index); // marque la tuile comme récemment utilisée
+            return tile;
+        }
+        return slots[index] >= 0 ? load(index) : null;
+    }
+
+    /**
+     * Retourne une tuile pour écriture, en l'allouant ou en la rechargeant selon le cas.
+     */
+    private IntBuffer tileForWrite(int index) {
+        IntBuffer tile = tiles[index];
+        if (tile != null) {
+            resident.get(index);
+        } else if (slots[index] >= 0) {
+            tile = load(index);
+        } else {
+            tile = makeResident(index);
+            allocatedTiles++;
+        }
+        // La copie échangée ne correspond plus à la tuile ; les copies du raster
+        // gardent l'emplacement tant qu'elles le référencent
+        if (slots[index] >= 0) {
+            swap.releaseSlot(slots[index]);
+            slots[index] = -1;
+        }
+        return tile;
+    }
+
+    /**
+     * Recharge une tuile depuis le fichier d'échange (son emplacement est conservé).
+     */
+    private IntBuffer load(int index) {
+        IntBuffer tile = makeResident(index);
+        swap.read(slots[index], tile);
+        return tile;
+    }
+
+    /**
+     * Obtient un tampon pour une tuile (en évinçant la plus ancienne si le budget est atteint)
+     * et l'enregistre comme résidente. Le tampon retourné est rempli de 0.
+     */
+    private IntBuffer makeResident(int index) {
+        IntBuffer tile;
+        if (resident.size() >= maxResidentTiles) {
+            // Réutiliser le tampon direct de la tuile évincée plutôt que d'en allouer un nouveau
+            tile = evictEldest();
+            tile.put(0, ZERO_TILE);
+        } else {
+            tile = ByteBuffer.allocateDirect(TILE_BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        tiles[index] = tile;
+        resident.put(index, tile);
+        return tile;
+    }
+
+    /**
+     * Déplace la tuile la moins récemment utilisée vers le fichier d'échange.
+     * Une tuile déjà présente dans le fichier (non modifiée depuis) n'est pas réécrite.
+     *
+     * @return le tampon libéré
+     */
+    private IntBuffer evictEldest() {
+        Iterator<Map.Entry<Integer, IntBuffer>> eldest = resident.entrySet().iterator();
+        Map.Entry<Integer, IntBuffer> entry = eldest.next();
+        eldest.remove();
+        int index = entry.getKey();
+        IntBuffer tile = entry.getValue();
+        if (slots[index] < 0) {
+            TileSwapFile file = swapFile();
+            slots[index] = file.allocateSlot();
+            file.write(slots[index], tile);
+        }
+        tiles[index] = null;
+        return tile;
+    }
+
+    /**
+     * Retourne le fichier d'échange, créé à la première éviction.
+     */
+    private TileSwapFile swapFile() {
+        if (swap == null) {
+            useSwap(new TileSwapFile());
+        }
+        return swap;
+    }
+
+    /**
+     * Associe le raster à un fichier d'échange, éventuellement partagé avec ses copies.
+     * Le fichier est fermé quand plus aucun raster ne l'utilise.
+     */
+    private void useSwap(TileSwapFile file) {
+        file.retainUser();
+        // L'action de nettoyage ne référence que le fichier, pas le raster
+        CLEANER.register(this, file::releaseUser);
+        swap = file;
+    }
+
+    /**
+     * Vérifie qu'une région est entièrement contenue dans l'image.
+     *
+     * @throws IndexOutOfBoundsException si la région dépasse de l'image
+     */
+    private void checkRegion(int x, int y, int w, int h) {
+        if (x < 0 || y < 0 || w < 0 || h < 0 || x + w > width || y + h > height) {
+            throw new IndexOutOfBoundsException(
+                    "Région hors de l'image : (" + x + ", " + y + ", " + w + ", " + h + ")");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package imageprocessingapp.model.edit;
+
+import imageprocessingapp.model.ImageModel;
+import imageprocessingapp.model.structures.EnergyCalculator;
+
+/**
+ * Plan de niveaux de gris d'une image, mis en cache selon sa version
+ * ({@link ImageModel#getVersion()}).
+ *
+ * Toutes les fonctions d'énergie partent du même plan : changer de fonction sur une image
+ * inchangée ne refait pas la conversion en niveaux de gris. Le plan n'est recalculé que si
+ * le modèle demandé ou sa version diffèrent du dernier appel.
+ */
+public final class GrayLevelCache {
+
+    private final EnergyCalculator energyCalculator = new EnergyCalculator();
+
+    private ImageModel model;
+    private long version;
+    private double[] gray;
+    private int conversions;
+
+    /**
+     * Retourne les niveaux de gris de l'image du modèle, depuis le cache s'il est à jour.
+     *
+     * @param imageModel modèle contenant l'image
+     * @return le plan de niveaux de gris, ligne par ligne (partagé : ne pas le modifier)
+     * @throws IllegalStateException si aucune image n'est chargée
+     */
+    public synchronized double[] grayLevels(ImageModel imageModel) {
+        if (!imageModel.hasImage()) {
+            throw new IllegalStateException("Aucune image chargée");
+        }
+        if (imageModel != model || imageModel.getVersion() != version) {
+            int width = imageModel.getWidth();
+            int height = imageModel.getHeight();
+            double[] plane = new double[width * height];
+            energyCalculator.computeGrayLevels(imageModel.readRegion(0, 0, width, height), width, width, height, plane);
+            model = imageModel;
+            version = imageModel.getVersion();
+            gray = plane;
+            conversions++;
+        }
+        return gray;
+    }
+
+    /**
+     * @return le nombre de conversions effectuées depuis la création du cache
+     */
+    synchronized int getConversions() {
+        return conversions;
+    }
+}
@@ -1,104 +1,301 @@
 package imageprocessingapp.model.edit;
 
 import imageprocessingapp.model.ImageModel;
-import imageprocessingapp.model.structures.EnergyCalculator;
+import imageprocessingapp.model.structures.EnergyFunction;
+import imageprocessingapp.model.structures.StandardEnergy;
 import javafx.scene.image.PixelReader;
-import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Implémente l'algorithme de Seam Carving.
  */
 public class SeamCarver {
 
-
-    private final EnergyCalculator energyCalculator;
-
+    /**
+     * Ordre de retrait des coutures pour une réduction dans les deux dimensions.
+     */
+    public enum SeamOrder {
+        /**
+         * Toutes les coutures verticales, puis toutes les horizontales.
+         */
+        VERTICAL_FIRST,
+        /**
+         * À chaque étape, le sens de moindre coût cumulé ({@link TransportMap}).
+         */
+        OPTIMAL
+    }
 
     // Variable pour stocker la progression
     public int currentSeam = 0;
     public int totalSeams = 0;
 
+    // Coût minimisé par les coutures
+    private SeamCarvingEngine.EnergyMode energyMode = SeamCarvingEngine.EnergyMode.BACKWARD;
+
+    // Fonction d'énergie des coutures
+    private EnergyFunction energyFunction = StandardEnergy.SOBEL_L2;
+
+    // Ordre des coutures pour une réduction dans les deux dimensions
+    private SeamOrder seamOrder = SeamOrder.VERTICAL_FIRST;
+
+    // Coutures verticales approchées par pyramide (très grandes images)
+    private boolean pyramid = false;
+
+    // Coutures verticales disjointes extraites par calcul d'énergie (1 = mode exact)
+    private int batchSize = 1;
+
     public SeamCarver() {
-        this.energyCalculator = new EnergyCalculator();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
     }
 
     /**
-     * Redimensionne l'image en supprimant un nombre donné de coutures verticales.
-     * Méthode principale qui orchestre tout le processus de Seam Carving.
-     * Version optimisée finale : évite la création de nouvelle ImageModel
-     * + utilise getPixels()/setPixels() au lieu de getColor()/setColor()
+     * Règle le mode rapide approché des coutures verticales : jusqu'à {@code batchSize}
+     * coutures disjointes sont retirées par calcul de l'énergie cumulative
+     * ({@link SeamCarvingEngine#removeSeamBatch}). 1 (par défaut) donne le mode exact ;
+     * plus la valeur est grande, plus le calcul est rapide et le résultat approché.
      *
-     * @param imageModel modèle contenant l'image source
-     * @param numberOfSeams nombre de coutures à supprimer (= pixels à retirer en largeur)
-     * @return nouvelle image redimensionnée
+     * @param batchSize nombre maximal de coutures par calcul, au moins 1
+     * @throws IllegalArgumentException si {@code batchSize < 1}
      */
-    public WritableImage resize(ImageModel imageModel, int numberOfSeams) {
-        WritableImage currentImage = imageModel.getWritableImage();
-
-        totalSeams = numberOfSeams;
-
-        for (int i = 0; i < numberOfSeams; i++) {
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("La taille de lot doit être au moins 1 : " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
 
-            currentSeam = i+1;
+    public boolean isPyramid() {
+        return pyramid;
+    }
 
-            // 1. Calculer la carte d'énergie directement, sans créer d'ImageModel à chaque tour de boucle
-            double[][] energyMap = energyCalculator.computeEnergyMap(currentImage);
+    /**
+     * Active le mode pyramide pour les coutures verticales : beaucoup plus rapide sur les
+     * très grandes images, au prix d'un résultat approché (voir {@link SeamPyramid}).
+     * Sans effet sur une image trop petite pour être réduite, ou avec l'ordre optimal.
+     *
+     * @param pyramid true pour le mode pyramide, false pour le mode exact
+     */
+    public void setPyramid(boolean pyramid) {
+        this.pyramid = pyramid;
+    }
 
-            // 2. Calculer l'énergie cumulative
-            double[][] cumulativeEnergy = computeCumulativeEnergy(energyMap);
+    public SeamOrder getSeamOrder() {
+        return seamOrder;
+    }
 
-            // 3. Trouver la couture de moindre énergie
-            List<Integer> seam = findSeam(cumulativeEnergy);
+    /**
+     * Choisit l'ordre de retrait des coutures quand largeur et hauteur diminuent toutes deux.
+     *
+     * @param seamOrder l'ordre des coutures
+     */
+    public void setSeamOrder(SeamOrder seamOrder) {
+        this.seamOrder = Objects.requireNonNull(seamOrder, "seamOrder");
+    }
 
-            // 4. Supprimer la couture avec la version optimisée
-            currentImage = removeSeam(currentImage, seam);
-        }
+    public SeamCarvingEngine.EnergyMode getEnergyMode() {
+        return energyMode;
+    }
 
-        return currentImage;
+    /**
+     * Choisit le coût des coutures : énergie arrière de Sobel (par défaut) ou énergie avant,
+     * qui limite les cassures visibles au prix du même calcul.
+     *
+     * @param energyMode le mode de coût
+     */
+    public void setEnergyMode(SeamCarvingEngine.EnergyMode energyMode) {
+        this.energyMode = Objects.requireNonNull(energyMode, "energyMode");
     }
 
+    public EnergyFunction getEnergyFunction() {
+        return energyFunction;
+    }
 
+    /**
+     * Choisit la fonction d'énergie des coutures (Sobel L2 par défaut, voir {@link StandardEnergy}).
+     *
+     * @param energyFunction la fonction d'énergie
+     */
+    public void setEnergyFunction(EnergyFunction energyFunction) {
+        this.energyFunction = Objects.requireNonNull(energyFunction, "energyFunction");
+    }
 
+    /**
+     * Redimensionne l'image en supprimant un nombre donné de coutures verticales.
+     * Méthode principale qui orchestre tout le processus de Seam Carving.
+     * Le raster ARGB du modèle est lu une seule fois puis réduit sur place par un
+     * {@link SeamCarvingEngine} ; l'image JavaFX n'est créée qu'à la fin.
+     *
+     * @param imageModel modèle contenant l'image source
+     * @param numberOfSeams nombre de coutures à supprimer (= pixels à retirer en largeur)
+     * @return nouvelle image redimensionnée
+     */
+    public WritableImage resize(ImageModel imageModel, int numberOfSeams) {
+        return carve(imageModel, numberOfSeams).toImage();
+    }
 
     /**
-     * Calcule l'énergie cumulative en utilisant la programmation dynamique.
+     * Supprime un nombre donné de coutures verticales et remplace directement le raster
+     * du modèle par le résultat, sans passer par une image JavaFX intermédiaire.
      *
-     * @param energyMap carte d'énergie source
-     * @return matrice d'énergie cumulative
+     * @param imageModel modèle contenant l'image à réduire
+     * @param numberOfSeams nombre de coutures à supprimer
      */
-    public double[][] computeCumulativeEnergy(double[][] energyMap) {
+    public void resizeInPlace(ImageModel imageModel, int numberOfSeams) {
+        resizeInPlace(imageModel, numberOfSeams, 0);
+    }
 
-        int nbLignes = energyMap.length;
-        int nbColonnes = energyMap[0].length;
+    /**
+     * Supprime des coutures verticales puis horizontales dans un même raster, sans rotation
+     * de l'image, et remplace directement le raster du modèle par le résultat.
+     *
+     * @param imageModel modèle contenant l'image à réduire
+     * @param verticalSeams nombre de coutures verticales à supprimer (pixels en largeur)
+     * @param horizontalSeams nombre de coutures horizontales à supprimer (pixels en hauteur)
+     */
+    public void resizeInPlace(ImageModel imageModel, int verticalSeams, int horizontalSeams) {
+        SeamCarvingEngine engine = carve(imageModel, verticalSeams, horizontalSeams);
+        imageModel.adoptPixels(engine.toPixels(), engine.getWidth(), engine.getHeight());
+    }
 
-        double[][] cumulativeEnergyMap =  new double[nbLignes][nbColonnes];
+    /**
+     * Agrandit l'image en insérant des coutures verticales puis horizontales, et remplace
+     * directement le raster du modèle par le résultat.
+     *
+     * Les coutures à dupliquer sont les premières retirées par un {@link SeamCarvingIndex},
+     * par lots de coutures disjointes ({@link SeamCarvingIndex#computeSeamBatch(int)}) : chaque
+     * calcul de l'énergie cumulative fournit des dizaines de coutures, au lieu d'une. Les
+     * coutures d'un lot convergent souvent et se bloquent mutuellement, si bien que {@code k}
+     * coutures demandent quelques passes plutôt qu'une seule. Un agrandissement de plus de la moitié de la largeur (ou de la
+     * hauteur) se fait en plusieurs passes, pour ne pas dupliquer encore et toujours les
+     * mêmes coutures.
+     *
+     * @param imageModel modèle contenant l'image à agrandir
+     * @param verticalSeams nombre de coutures verticales à insérer (pixels en largeur)
+     * @param horizontalSeams nombre de coutures horizontales à insérer (pixels en hauteur)
+     */
+    public void enlargeInPlace(ImageModel imageModel, int verticalSeams, int horizontalSeams) {
+        int width = imageModel.getWidth();
+        int height = imageModel.getHeight();
+        int[] pixels = imageModel.readRegion(0, 0, width, height);
+
+        totalSeams = verticalSeams + horizontalSeams;
+        currentSeam = 0;
+
+        pixels = insertSeams(pixels, width, height, verticalSeams);
+        width += verticalSeams;
+        if (horizontalSeams > 0) {
+            // Les coutures horizontales sont les coutures verticales de l'image transposée
+            int[] transposed = insertSeams(transpose(pixels, width, height), height, width, horizontalSeams);
+            height += horizontalSeams;
+            pixels = transpose(transposed, height, width);
+        }
+        imageModel.adoptPixels(pixels, width, height);
+    }
 
-        // Première ligne identique à la carte d'énergie : on recopie
-        for (int j=0;j<nbColonnes;j++) {
-            cumulativeEnergyMap[0][j] = energyMap[0][j];
+    /**
+     * Insère des coutures verticales dans un raster, par passes d'au plus la moitié de la largeur.
+     */
+    private int[] insertSeams(int[] pixels, int width, int height, int count) {
+        while (count > 0) {
+            int step = Math.min(count, Math.max(1, width / 2));
+            SeamCarvingIndex index = new SeamCarvingIndex(pixels, width, height, energyMode, energyFunction, null);
+            while (index.getComputedSeams() < step) {
+                int before = index.getComputedSeams();
+                currentSeam += index.computeSeamBatch(step - before) - before;
+            }
+            pixels = index.insertSeams(step);
+            width += step;
+            count -= step;
         }
+        return pixels;
+    }
 
-        for (int i=1;i<nbLignes;i++) {
+    private static int[] transpose(int[] pixels, int width, int height) {
+        int[] result = new int[pixels.length];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                result[x * height + y] = pixels[y * width + x];
+            }
+        }
+        return result;
+    }
 
-            // Bord gauche
-            cumulativeEnergyMap[i][0] = energyMap[i][0] + Math.min(cumulativeEnergyMap[i-1][0], cumulativeEnergyMap[i-1][1]);
+    private SeamCarvingEngine carve(ImageModel imageModel, int numberOfSeams) {
+        return carve(imageModel, numberOfSeams, 0);
+    }
 
-            for (int j = 1; j<nbColonnes -1; j++) {
-                double minOf3 = Math.min(Math.min(cumulativeEnergyMap[i-1][j-1], cumulativeEnergyMap[i-1][j]) , cumulativeEnergyMap[i-1][j+1]);
-                cumulativeEnergyMap[i][j] = energyMap[i][j] + minOf3;
+    /**
+     * Lit le raster du modèle et en retire les coutures, en publiant la progression.
+     */
+    private SeamCarvingEngine carve(ImageModel imageModel, int verticalSeams, int horizontalSeams) {
+        int width = imageModel.getWidth();
+        int height = imageModel.getHeight();
+        SeamCarvingEngine engine = new SeamCarvingEngine(
+                imageModel.readRegion(0, 0, width, height), width, height);
+        engine.setEnergyMode(energyMode);
+        engine.setEnergyFunction(energyFunction);
+
+        totalSeams = verticalSeams + horizontalSeams;
+
+        if (seamOrder == SeamOrder.OPTIMAL && verticalSeams > 0 && horizontalSeams > 0) {
+            // Ordre choisi sur une réduction de l'image, rejoué en pleine résolution
+            boolean[] order = TransportMap.plan(engine.toPixels(), width, height,
+                    verticalSeams, horizontalSeams, energyMode, energyFunction);
+            for (int i = 0; i < order.length; i++) {
+                currentSeam = i + 1;
+                if (order[i]) {
+                    engine.removeSeam(engine.findSeam());
+                } else {
+                    engine.removeHorizontalSeam(engine.findHorizontalSeam());
+                }
             }
-
-            // Bord droit
-            cumulativeEnergyMap[i][nbColonnes-1] = energyMap[i][nbColonnes - 1] + Math.min(cumulativeEnergyMap[i-1][nbColonnes - 2], cumulativeEnergyMap[i-1][nbColonnes - 1]);
+            return engine;
         }
 
+        int levels = pyramid ? SeamPyramid.levelsFor(width, height) : 1;
+        if (levels > 1 && verticalSeams > 0) {
+            currentSeam = 0;
+            new SeamPyramid(engine, levels, () -> currentSeam++).removeSeams(verticalSeams);
+        } else if (batchSize > 1) {
+            currentSeam = 0;
+            while (currentSeam < verticalSeams) {
+                int removed = engine.removeSeamBatch(Math.min(batchSize, verticalSeams - currentSeam));
+                if (removed == 0) {
+                    break;
+                }
+                currentSeam += removed;
+            }
+        } else {
+            for (int i = 0; i < verticalSeams; i++) {
+                currentSeam = i + 1;
+                engine.removeSeam(engine.findSeam());
+            }
+        }
+        for (int i = 0; i < horizontalSeams; i++) {
+            currentSeam = verticalSeams + i + 1;
+            engine.removeHorizontalSeam(engine.findHorizontalSeam());
+        }
+        return engine;
+    }
 
-        return cumulativeEnergyMap;
+    /**
+     * Calcule l'énergie cumulative en utilisant la programmation dynamique, par le calcul
+     * parallèle par bandes de colonnes du moteur
+     * ({@link SeamCarvingEngine#computeCumulativeEnergy(double[][])}).
+     *
+     * @param energyMap carte d'énergie source
+     * @return matrice d'énergie cumulative
+     */
+    public double[][] computeCumulativeEnergy(double[][] energyMap) {
+        return SeamCarvingEngine.computeCumulativeEnergy(energyMap);
     }
 
     /**
@@ -190,7 +387,22 @@ public class SeamCarver {
                 javafx.scene.image.PixelFormat.getIntArgbInstance(),
                 pixels, 0, largeur);
 
+        int[] newPixels = removeSeam(pixels, largeur, hauteur, seam);
+
+        // Adopter tous les pixels d'un coup, sans copie (wrapPixels)
+        return ImageModel.wrapPixels(newPixels, largeur - 1, hauteur);
+    }
 
+    /**
+     * Supprime une couture d'un raster ARGB en retirant un pixel par ligne.
+     *
+     * @param pixels  pixels ARGB source, ligne par ligne
+     * @param largeur largeur du raster source
+     * @param hauteur hauteur du raster source
+     * @param seam    liste d'indices de colonnes à supprimer (un indice par ligne)
+     * @return nouveau raster de largeur {@code largeur - 1}
+     */
+    public int[] removeSeam(int[] pixels, int largeur, int hauteur, List<Integer> seam) {
         int[] newPixels = new int[(largeur - 1) * hauteur];
 
         // Copier les pixels en excluant la couture
@@ -208,13 +420,6 @@ public class SeamCarver {
                     largeur - colToRemove - 1);
         }
 
-        // Écrire tous les pixels d'un coup (setPixels() est plus optimisée)
-        WritableImage newImage = new WritableImage(largeur - 1, hauteur);
-        PixelWriter writer = newImage.getPixelWriter();
-        writer.setPixels(0, 0, largeur - 1, hauteur,
-                javafx.scene.image.PixelFormat.getIntArgbInstance(),
-                newPixels, 0, largeur - 1);
-
-        return newImage;
+        return newPixels;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,935 @@
+package imageprocessingapp.model.edit;
+
+import imageprocessingapp.model.ImageModel;
+import imageprocessingapp.model.structures.EnergyCalculator;
+import imageprocessingapp.model.structures.EnergyFunction;
+import imageprocessingapp.model.structures.StandardEnergy;
+import javafx.scene.image.WritableImage;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Moteur de Seam Carving travaillant sur place dans un unique raster ARGB.
+ *
+ * Le raster garde son pas de ligne d'origine ({@code stride}) et des dimensions logiques
+ * qui diminuent à chaque couture retirée : pour une couture verticale, chaque ligne est
+ * compactée sur place en décalant vers la gauche les pixels situés après la couture ;
+ * pour une couture horizontale, chaque colonne remonte d'une ligne sous la couture.
+ * Les deux sens se mélangent sur le même raster, sans aucune rotation de l'image. Les tampons de travail
+ * (niveaux de gris, énergie, énergie cumulative, couture) sont alloués une seule fois
+ * et réutilisés pour toutes les coutures ; une image JavaFX n'est produite qu'à la fin.
+ *
+ * La carte d'énergie n'est calculée en entier qu'une fois : après chaque couture, elle est
+ * mise à jour de façon incrémentale ({@link EnergyCalculator#removeSeam}), seule une bande
+ * étroite le long de la couture étant recalculée. La fonction d'énergie est interchangeable
+ * ({@link EnergyFunction}) ; le plan de niveaux de gris peut être fourni déjà calculé, pour
+ * ne pas refaire la conversion d'une image déjà analysée.
+ *
+ * Sur une image large, l'énergie cumulative est calculée en parallèle par bandes de
+ * colonnes (voir {@link #computeCumulativeEnergy(int)}), avec exactement le même résultat
+ * que le calcul séquentiel.
+ *
+ * Deux modes de coût sont proposés ({@link EnergyMode}) : l'énergie « arrière » de Sobel,
+ * et l'énergie « avant » de Rubinstein et al., qui mesure les contours créés par le retrait
+ * de la couture et évite les cassures visibles. Les deux partagent la même programmation
+ * dynamique (bandes parallèles comprises) et les mêmes tampons ; seul le coût d'un
+ * passage d'une ligne à la suivante change.
+ *
+ * Une couture verticale est un {@code int[]} donnant, pour chaque ligne, la colonne
+ * du pixel à retirer ; une couture horizontale donne, pour chaque colonne, la ligne.
+ */
+public final class SeamCarvingEngine {
+
+    /**
+     * Coût minimisé par les coutures.
+     */
+    public enum EnergyMode {
+        /**
+         * Énergie des pixels retirés (gradient de Sobel).
+         */
+        BACKWARD,
+        /**
+         * Énergie « avant » : différences d'intensité entre les pixels que le retrait
+         * rend voisins.
+         */
+        FORWARD
+    }
+
+    /**
+     * Hauteur des bandes de lignes traitées entre deux synchronisations du calcul parallèle.
+     */
+    static final int STRIP_HEIGHT = 64;
+
+    /**
+     * Largeur minimale d'une bande de colonnes : en deçà, le calcul reste séquentiel.
+     */
+    static final int MIN_BAND_WIDTH = 2 * STRIP_HEIGHT;
+
+    private final EnergyCalculator energyCalculator = new EnergyCalculator();
+
+    /**
+     * Nombre maximal de bandes de colonnes calculées en parallèle.
+     */
+    int parallelism = ForkJoinPool.getCommonPoolParallelism();
+
+    private final int[] pixels;
+    private final int stride;
+    private int width;
+    private int height;
+
+    private final double[] gray;
+    private final double[] energy;
+    private final double[] cumulative;
+    private final int[] seam;
+    private final int[] horizontalSeam;
+
+    /**
+     * Marque des pixels pris par le lot de {@link #removeSeamBatch} en cours
+     * (égale à {@link #batchStamp}), alloué au premier lot.
+     */
+    private int[] taken;
+    private int batchStamp;
+
+    /**
+     * Bornes (incluses) du couloir de {@link #findSeamInCorridor} pour chaque ligne.
+     */
+    private final int[] corridorFrom;
+    private final int[] corridorTo;
+
+    /**
+     * Les tampons de niveaux de gris et d'énergie décrivent l'image courante.
+     */
+    private boolean energyValid;
+
+    /**
+     * Le tampon de niveaux de gris décrit l'image courante (fourni, ou laissé par l'énergie).
+     */
+    private boolean grayValid;
+
+    private EnergyFunction energyFunction = StandardEnergy.SOBEL_L2;
+
+    private EnergyMode energyMode = EnergyMode.BACKWARD;
+
+    /**
+     * Coût cumulé de la dernière couture trouvée.
+     */
+    private double seamCost;
+
+    /**
+     * Crée un moteur sur un raster ARGB, adopté tel quel (pas de copie).
+     *
+     * @param pixels pixels ARGB, ligne par ligne ; le tableau est modifié sur place
+     * @param width largeur du raster
+     * @param height hauteur du raster
+     * @throws IllegalArgumentException si la taille du tableau ne correspond pas aux dimensions
+     */
+    public SeamCarvingEngine(int[] pixels, int width, int height) {
+        if (width <= 0 || height <= 0 || pixels.length != width * height) {
+            throw new IllegalArgumentException("Dimensions invalides : " + width + "x" + height);
+        }
+        this.pixels = pixels;
+        this.stride = width;
+        this.width = width;
+        this.height = height;
+        this.gray = new double[pixels.length];
+        this.energy = new double[pixels.length];
+        this.cumulative = new double[pixels.length];
+        this.seam = new int[height];
+        this.horizontalSeam = new int[width];
+        this.corridorFrom = new int[height];
+        this.corridorTo = new int[height];
+    }
+
+    /**
+     * Crée un moteur sur un raster ARGB dont les niveaux de gris sont déjà calculés
+     * ({@link EnergyCalculator#computeGrayLevels}) : ils sont copiés, et ne seront pas
+     * recalculés.
+     *
+     * @param pixels pixels ARGB, ligne par ligne ; le tableau est modifié sur place
+     * @param width largeur du raster
+     * @param height hauteur du raster
+     * @param grayLevels niveaux de gris du raster (non modifiés)
+     * @throws IllegalArgumentException si la taille d'un tableau ne correspond pas aux dimensions
+     */
+    public SeamCarvingEngine(int[] pixels, int width, int height, double[] grayLevels) {
+        this(pixels, width, height);
+        if (grayLevels.length != pixels.length) {
+            throw new IllegalArgumentException("Niveaux de gris incohérents avec les dimensions " + width + "x" + height);
+        }
+        System.arraycopy(grayLevels, 0, gray, 0, gray.length);
+        grayValid = true;
+    }
+
+    /**
+     * Choisit le coût minimisé par les prochaines coutures.
+     *
+     * @param energyMode le mode de coût
+     */
+    public void setEnergyMode(EnergyMode energyMode) {
+        this.energyMode = Objects.requireNonNull(energyMode, "energyMode");
+    }
+
+    public EnergyMode getEnergyMode() {
+        return energyMode;
+    }
+
+    /**
+     * Choisit la fonction d'énergie des prochaines coutures (énergie arrière) ; la carte
+     * d'énergie est recalculée, pas les niveaux de gris.
+     *
+     * @param energyFunction la fonction d'énergie
+     */
+    public void setEnergyFunction(EnergyFunction energyFunction) {
+        Objects.requireNonNull(energyFunction, "energyFunction");
+        if (energyFunction != this.energyFunction) {
+            this.energyFunction = energyFunction;
+            energyValid = false;
+        }
+    }
+
+    public EnergyFunction getEnergyFunction() {
+        return energyFunction;
+    }
+
+    /**
+     * @return la largeur logique courante
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return la hauteur logique courante
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Calcule la couture verticale de moindre énergie de l'image courante.
+     *
+     * @return la couture (tableau interne, réécrit à l'appel suivant, valide sur
+     *         les {@link #getHeight()} premières lignes)
+     */
+    public int[] findSeam() {
+        ensureEnergy();
+        computeCumulativeEnergy();
+        backtrack();
+        return seam;
+    }
+
+    /**
+     * Calcule la couture verticale de moindre énergie restreinte à un couloir : sur chaque
+     * ligne, seules les colonnes à au plus {@code radius} de la colonne centrale sont
+     * considérées. Le coût est en O(H × couloir) au lieu de O(L × H).
+     *
+     * @param centers colonne centrale du couloir pour chaque ligne (ramenée dans l'image)
+     * @param radius demi-largeur du couloir, au moins 1
+     * @return la couture (tableau interne, réécrit à l'appel suivant)
+     * @throws IllegalArgumentException si le rayon est inférieur à 1
+     */
+    public int[] findSeamInCorridor(int[] centers, int radius) {
+        if (radius < 1) {
+            throw new IllegalArgumentException("Rayon de couloir invalide : " + radius);
+        }
+        ensureEnergy();
+        int last = width - 1;
+        for (int y = 0; y < height; y++) {
+            int center = Math.max(0, Math.min(last, centers[y]));
+            corridorFrom[y] = Math.max(0, center - radius);
+            corridorTo[y] = Math.min(last, center + radius);
+        }
+        boolean forward = energyMode == EnergyMode.FORWARD;
+        for (int x = corridorFrom[0]; x <= corridorTo[0]; x++) {
+            cumulative[x] = forward ? 0.0 : energy[x];
+        }
+        for (int y = 1; y < height; y++) {
+            int row = y * stride;
+            for (int x = corridorFrom[y]; x <= corridorTo[y]; x++) {
+                double min = Math.min(Math.min(corridorVia(y, x, -1), corridorVia(y, x, 0)), corridorVia(y, x, 1));
+                cumulative[row + x] = forward ? min : energy[row + x] + min;
+            }
+        }
+
+        int bottom = (height - 1) * stride;
+        int index = corridorFrom[height - 1];
+        double min = cumulative[bottom + index];
+        for (int x = index + 1; x <= corridorTo[height - 1]; x++) {
+            if (min > cumulative[bottom + x]) {
+                min = cumulative[bottom + x];
+                index = x;
+            }
+        }
+        seam[height - 1] = index;
+        seamCost = min;
+        for (int y = height - 2; y >= 0; y--) {
+            int j = index;
+            double a = corridorVia(y + 1, j, -1);
+            double b = corridorVia(y + 1, j, 0);
+            double c = corridorVia(y + 1, j, 1);
+            if (a <= b && a <= c) {
+                index = j - 1;
+            } else if (b <= c) {
+                index = j;
+            } else {
+                index = j + 1;
+            }
+            seam[y] = index;
+        }
+        return seam;
+    }
+
+    /**
+     * {@link #viaAbove}, infini si le pixel de départ sort de l'image ou du couloir.
+     */
+    private double corridorVia(int y, int x, int dx) {
+        int from = x + dx;
+        if (from < corridorFrom[y - 1] || from > corridorTo[y - 1]) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return viaAbove(y, x, dx);
+    }
+
+    /**
+     * Calcule la couture horizontale de moindre énergie de l'image courante,
+     * par la même programmation dynamique transposée (colonne par colonne).
+     *
+     * @return la couture (tableau interne, réécrit à l'appel suivant, valide sur
+     *         les {@link #getWidth()} premières colonnes)
+     */
+    public int[] findHorizontalSeam() {
+        ensureEnergy();
+        computeHorizontalCumulativeEnergy();
+        backtrackHorizontal();
+        return horizontalSeam;
+    }
+
+    /**
+     * @return le coût cumulé (dans le mode courant) de la dernière couture trouvée
+     */
+    public double getSeamCost() {
+        return seamCost;
+    }
+
+    private void ensureEnergy() {
+        if (!energyValid) {
+            if (!grayValid) {
+                energyCalculator.computeGrayLevels(pixels, stride, width, height, gray);
+                grayValid = true;
+            }
+            energyCalculator.computeEnergy(energyFunction, gray, stride, width, height, energy);
+            energyValid = true;
+        }
+    }
+
+    /**
+     * Retire une couture verticale en compactant chaque ligne sur place.
+     *
+     * @param columns colonne à retirer pour chaque ligne
+     * @throws IllegalStateException s'il ne reste qu'une colonne
+     * @throws IndexOutOfBoundsException si une colonne est hors de l'image
+     */
+    public void removeSeam(int[] columns) {
+        if (width <= 1) {
+            throw new IllegalStateException("Impossible de retirer une couture d'une image d'un pixel de large");
+        }
+        for (int y = 0; y < height; y++) {
+            int x = columns[y];
+            if (x < 0 || x >= width) {
+                throw new IndexOutOfBoundsException("Colonne de couture hors de l'image : " + x);
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            int x = columns[y];
+            int row = y * stride;
+            System.arraycopy(pixels, row + x + 1, pixels, row + x, width - x - 1);
+        }
+        if (energyValid) {
+            energyCalculator.removeSeam(energyFunction, gray, energy, stride, width, height, columns);
+        } else {
+            grayValid = false;
+        }
+        width--;
+    }
+
+    /**
+     * Retire une couture horizontale en remontant d'une ligne, dans chaque colonne,
+     * les pixels situés sous la couture.
+     *
+     * @param rows ligne à retirer pour chaque colonne
+     * @throws IllegalStateException s'il ne reste qu'une ligne
+     * @throws IndexOutOfBoundsException si une ligne est hors de l'image
+     */
+    public void removeHorizontalSeam(int[] rows) {
+        if (height <= 1) {
+            throw new IllegalStateException("Impossible de retirer une couture d'une image d'un pixel de haut");
+        }
+        for (int x = 0; x < width; x++) {
+            int y = rows[x];
+            if (y < 0 || y >= height) {
+                throw new IndexOutOfBoundsException("Ligne de couture hors de l'image : " + y);
+            }
+        }
+        // Parcours ligne par ligne pour rester contigu en mémoire
+        for (int y = 0; y < height - 1; y++) {
+            int row = y * stride;
+            for (int x = 0; x < width; x++) {
+                if (y >= rows[x]) {
+                    pixels[row + x] = pixels[row + stride + x];
+                }
+            }
+        }
+        if (energyValid) {
+            energyCalculator.removeHorizontalSeam(energyFunction, gray, energy, stride, width, height, rows);
+        } else {
+            grayValid = false;
+        }
+        height--;
+    }
+
+    /**
+     * Retire un nombre donné de coutures verticales de moindre énergie.
+     *
+     * @param count nombre de coutures à retirer
+     */
+    public void removeSeams(int count) {
+        for (int i = 0; i < count; i++) {
+            removeSeam(findSeam());
+        }
+    }
+
+    /**
+     * Mode rapide approché : retire jusqu'à {@code count} coutures verticales disjointes
+     * extraites d'un seul calcul de l'énergie cumulative ({@link #findSeamBatch(int)}).
+     *
+     * Les coutures retenues sont retirées ensemble ({@link #removeDisjointSeams(int[][])}).
+     * Avec {@code count == 1}, le résultat est celui de {@link #findSeam()}.
+     *
+     * @param count nombre maximal de coutures à retirer
+     * @return le nombre de coutures retirées (au moins 1 si {@code count >= 1} et la largeur le permet)
+     */
+    public int removeSeamBatch(int count) {
+        int[][] batch = findSeamBatch(count);
+        if (batch.length == 1) {
+            removeSeam(batch[0]);
+        } else if (batch.length > 1) {
+            removeDisjointSeams(batch);
+        }
+        return batch.length;
+    }
+
+    /**
+     * Extrait jusqu'à {@code count} coutures verticales disjointes d'un seul calcul de
+     * l'énergie cumulative, sans les retirer.
+     *
+     * Les cases de la dernière ligne sont parcourues par coût croissant ; depuis chacune,
+     * la remontée ne passe que par des pixels encore libres, et une couture bloquée est
+     * abandonnée. Avec {@code count == 1}, la couture est celle de {@link #findSeam()}.
+     *
+     * @param count nombre maximal de coutures
+     * @return les coutures par coût croissant, toutes en colonnes de l'image actuelle
+     */
+    public int[][] findSeamBatch(int count) {
+        count = Math.min(count, width - 1);
+        if (count <= 1) {
+            return count == 1 ? new int[][] {Arrays.copyOf(findSeam(), height)} : new int[0][];
+        }
+        ensureEnergy();
+        computeCumulativeEnergy();
+        if (taken == null) {
+            taken = new int[pixels.length];
+        }
+        batchStamp++;
+
+        // Cases de la dernière ligne par coût croissant (à coût égal, la plus à gauche)
+        int bottom = (height - 1) * stride;
+        Integer[] starts = new Integer[width];
+        for (int x = 0; x < width; x++) {
+            starts[x] = x;
+        }
+        Arrays.sort(starts, (a, b) -> Double.compare(cumulative[bottom + a], cumulative[bottom + b]));
+
+        int[][] batch = new int[count][];
+        int found = 0;
+        int[] path = new int[height];
+        for (int i = 0; i < width && found < count; i++) {
+            if (traceFreeSeam(starts[i], path)) {
+                for (int y = 0; y < height; y++) {
+                    taken[y * stride + path[y]] = batchStamp;
+                }
+                batch[found++] = path.clone();
+            }
+        }
+        return found == count ? batch : Arrays.copyOf(batch, found);
+    }
+
+    /**
+     * Retire ensemble des coutures verticales disjointes, toutes exprimées en colonnes de
+     * l'image actuelle (comme celles de {@link #findSeamBatch(int)}) : chaque ligne n'est
+     * compactée qu'une fois, au lieu d'une fois par couture. La carte d'énergie est
+     * recalculée au prochain besoin (les niveaux de gris, compactés avec les pixels, restent valides).
+     *
+     * @param seams coutures à retirer, deux à deux disjointes sur chaque ligne
+     * @throws IllegalStateException s'il ne resterait aucune colonne
+     * @throws IndexOutOfBoundsException si une colonne est hors de l'image
+     * @throws IllegalArgumentException si deux coutures partagent un pixel
+     */
+    public void removeDisjointSeams(int[][] seams) {
+        int count = seams.length;
+        if (count == 0) return;
+        if (count >= width) {
+            throw new IllegalStateException("Impossible de retirer " + count + " coutures d'une image de "
+                    + width + " pixels de large");
+        }
+        int[][] columns = new int[height][count];
+        for (int y = 0; y < height; y++) {
+            for (int n = 0; n < count; n++) {
+                int x = seams[n][y];
+                if (x < 0 || x >= width) {
+                    throw new IndexOutOfBoundsException("Colonne de couture hors de l'image : " + x);
+                }
+                columns[y][n] = x;
+            }
+            Arrays.sort(columns[y]);
+            for (int n = 1; n < count; n++) {
+                if (columns[y][n] == columns[y][n - 1]) {
+                    throw new IllegalArgumentException("Coutures non disjointes à la ligne " + y);
+                }
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            int row = y * stride;
+            int[] removed = columns[y];
+            int write = removed[0];
+            for (int n = 0; n < count; n++) {
+                int from = removed[n] + 1;
+                int length = (n + 1 < count ? removed[n + 1] : width) - from;
+                System.arraycopy(pixels, row + from, pixels, row + write, length);
+                if (grayValid) {
+                    System.arraycopy(gray, row + from, gray, row + write, length);
+                }
+                write += length;
+            }
+        }
+        energyValid = false;
+        width -= count;
+    }
+
+    /**
+     * Remonte une couture depuis une case de la dernière ligne en évitant les pixels
+     * déjà pris par le lot courant.
+     *
+     * @return false si la couture est bloquée
+     */
+    private boolean traceFreeSeam(int start, int[] path) {
+        int bottom = (height - 1) * stride;
+        if (taken[bottom + start] == batchStamp) {
+            return false;
+        }
+        path[height - 1] = start;
+        int index = start;
+        for (int y = height - 2; y >= 0; y--) {
+            int row = y * stride;
+            int best = -1;
+            double min = Double.POSITIVE_INFINITY;
+            for (int dx = -1; dx <= 1; dx++) {
+                int x = index + dx;
+                if (x < 0 || x >= width || taken[row + x] == batchStamp) continue;
+                double value = viaAbove(y + 1, index, dx);
+                if (best < 0 || value < min) {
+                    min = value;
+                    best = x;
+                }
+            }
+            if (best < 0) {
+                return false;
+            }
+            index = best;
+            path[y] = index;
+        }
+        return true;
+    }
+
+    /**
+     * Retire un nombre donné de coutures horizontales de moindre énergie.
+     *
+     * @param count nombre de coutures à retirer
+     */
+    public void removeHorizontalSeams(int count) {
+        for (int i = 0; i < count; i++) {
+            removeHorizontalSeam(findHorizontalSeam());
+        }
+    }
+
+    /**
+     * @return un nouveau raster ARGB compact ({@code largeur × hauteur}) de l'image courante
+     */
+    public int[] toPixels() {
+        if (width == stride) {
+            return Arrays.copyOf(pixels, width * height);
+        }
+        int[] compact = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(pixels, y * stride, compact, y * width, width);
+        }
+        return compact;
+    }
+
+    /**
+     * @return une nouvelle image JavaFX de l'image courante
+     */
+    public WritableImage toImage() {
+        return ImageModel.wrapPixels(toPixels(), width, height);
+    }
+
+    /**
+     * Énergie cumulative par programmation dynamique, sur la largeur logique.
+     */
+    private void computeCumulativeEnergy() {
+        computeCumulativeEnergy(Math.min(parallelism, width / MIN_BAND_WIDTH));
+    }
+
+    /**
+     * Énergie cumulative, répartie sur un nombre donné de bandes de colonnes
+     * ({@link #accumulateInBands}).
+     *
+     * @param bands nombre de bandes (séquentiel en dessous de 2)
+     */
+    void computeCumulativeEnergy(int bands) {
+        if (energyMode == EnergyMode.FORWARD) {
+            Arrays.fill(cumulative, 0, width, 0.0);
+        } else {
+            System.arraycopy(energy, 0, cumulative, 0, width);
+        }
+        accumulateInBands(width, height, bands, this::accumulate);
+    }
+
+    /**
+     * Énergie cumulative (en énergie arrière) d'une carte d'énergie quelconque, par le
+     * calcul parallèle par bandes de colonnes du moteur : même récurrence, même résultat
+     * qu'un parcours séquentiel ligne par ligne.
+     *
+     * @param energyMap carte d'énergie, indexée {@code [ligne][colonne]} (non modifiée)
+     * @return nouvelle matrice d'énergie cumulative, de mêmes dimensions
+     */
+    public static double[][] computeCumulativeEnergy(double[][] energyMap) {
+        int width = energyMap.length == 0 ? 0 : energyMap[0].length;
+        return computeCumulativeEnergy(energyMap,
+                Math.min(ForkJoinPool.getCommonPoolParallelism(), width / MIN_BAND_WIDTH));
+    }
+
+    /**
+     * {@link #computeCumulativeEnergy(double[][])} sur un nombre donné de bandes de colonnes.
+     */
+    static double[][] computeCumulativeEnergy(double[][] energyMap, int bands) {
+        int height = energyMap.length;
+        if (height == 0) {
+            return new double[0][];
+        }
+        int width = energyMap[0].length;
+        double[] energy = new double[width * height];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(energyMap[y], 0, energy, y * width, width);
+        }
+        double[] cumulative = new double[energy.length];
+        System.arraycopy(energy, 0, cumulative, 0, width);
+        accumulateInBands(width, height, bands,
+                (y, from, to) -> accumulateBackward(energy, cumulative, width, width, y, from, to));
+
+        double[][] cumulativeMap = new double[height][];
+        for (int y = 0; y < height; y++) {
+            cumulativeMap[y] = Arrays.copyOfRange(cumulative, y * width, (y + 1) * width);
+        }
+        return cumulativeMap;
+    }
+
+    /**
+     * Calcul d'une partie de ligne de l'énergie cumulative : colonnes {@code [from, to)}
+     * de la ligne {@code y}, la ligne précédente étant déjà calculée sur ce voisinage.
+     */
+    @FunctionalInterface
+    private interface RowAccumulator {
+        void accumulate(int y, int from, int to);
+    }
+
+    /**
+     * Énergie cumulative des lignes 1 et suivantes (la première étant initialisée par
+     * l'appelant), répartie sur un nombre donné de bandes de colonnes.
+     *
+     * Une ligne ne dépend que de la précédente, mais synchroniser les bandes à chaque ligne
+     * coûterait plus cher que le calcul. Les lignes sont donc traitées par paquets de
+     * {@value #STRIP_HEIGHT} en deux passes parallèles :
+     * - chaque bande calcule un trapèze qui rétrécit d'une colonne de chaque côté par ligne,
+     *   ne dépendant ainsi que de ses propres valeurs ;
+     * - les triangles restés vides entre deux bandes voisines sont ensuite complétés.
+     * Chaque case est calculée par la même formule qu'en séquentiel : le résultat est identique.
+     *
+     * @param width largeur logique
+     * @param height hauteur
+     * @param bands nombre de bandes (séquentiel en dessous de 2)
+     * @param rows calcul d'une partie de ligne
+     */
+    static void accumulateInBands(int width, int height, int bands, RowAccumulator rows) {
+        if (bands < 2) {
+            for (int y = 1; y < height; y++) {
+                rows.accumulate(y, 0, width);
+            }
+            return;
+        }
+
+        int[] bounds = new int[bands + 1];
+        for (int b = 0; b <= bands; b++) {
+            bounds[b] = (int) ((long) b * width / bands);
+        }
+        for (int y0 = 1; y0 < height; y0 += STRIP_HEIGHT) {
+            int start = y0;
+            int end = Math.min(y0 + STRIP_HEIGHT, height);
+            IntStream.range(0, bands).parallel().forEach(b -> {
+                int from = bounds[b];
+                int to = bounds[b + 1];
+                for (int y = start; y < end; y++) {
+                    int k = y - start;
+                    rows.accumulate(y, from == 0 ? 0 : from + k, to == width ? width : to - k);
+                }
+            });
+            IntStream.range(1, bands).parallel().forEach(b -> {
+                int column = bounds[b];
+                for (int y = start + 1; y < end; y++) {
+                    int k = y - start;
+                    rows.accumulate(y, column - k, column + k);
+                }
+            });
+        }
+    }
+
+    /**
+     * Calcule l'énergie cumulative des colonnes {@code [from, to)} d'une ligne,
+     * la ligne précédente étant déjà calculée sur ce voisinage.
+     */
+    private void accumulate(int y, int from, int to) {
+        if (energyMode == EnergyMode.FORWARD) {
+            accumulateForward(y, from, to);
+        } else {
+            accumulateBackward(energy, cumulative, stride, width, y, from, to);
+        }
+    }
+
+    /**
+     * Énergie arrière : énergie du pixel plus le minimum de ses trois voisins du dessus.
+     */
+    private static void accumulateBackward(double[] energy, double[] cumulative, int stride, int width,
+                                           int y, int from, int to) {
+        int row = y * stride;
+        int prev = row - stride;
+        int last = width - 1;
+        if (width == 1) {
+            cumulative[row] = energy[row] + cumulative[prev];
+            return;
+        }
+        int x = from;
+        if (x == 0 && x < to) {
+            cumulative[row] = energy[row] + Math.min(cumulative[prev], cumulative[prev + 1]);
+            x++;
+        }
+        int inner = Math.min(to, last);
+        for (; x < inner; x++) {
+            double minOf3 = Math.min(Math.min(cumulative[prev + x - 1], cumulative[prev + x]),
+                    cumulative[prev + x + 1]);
+            cumulative[row + x] = energy[row + x] + minOf3;
+        }
+        if (to == width && x == last) {
+            cumulative[row + last] = energy[row + last]
+                    + Math.min(cumulative[prev + last - 1], cumulative[prev + last]);
+        }
+    }
+
+    /**
+     * Équivalent de {@link #accumulate} en énergie avant : le coût d'arrivée sur un pixel
+     * depuis la ligne précédente est la différence d'intensité entre ses deux voisins,
+     * plus, en diagonale, celle entre le pixel du dessus et le voisin rapproché.
+     */
+    private void accumulateForward(int y, int from, int to) {
+        int row = y * stride;
+        int prev = row - stride;
+        int last = width - 1;
+        for (int x = from; x < to; x++) {
+            int p = row + x;
+            int left = x > 0 ? p - 1 : p;
+            int right = x < last ? p + 1 : p;
+            double up = gray[prev + x];
+            double cu = Math.abs(gray[right] - gray[left]);
+            double min = cumulative[prev + x] + cu;
+            if (x > 0) {
+                min = Math.min(min, cumulative[prev + x - 1] + cu + Math.abs(up - gray[left]));
+            }
+            if (x < last) {
+                min = Math.min(min, cumulative[prev + x + 1] + cu + Math.abs(up - gray[right]));
+            }
+            cumulative[p] = min;
+        }
+    }
+
+    /**
+     * Coût cumulé pour atteindre le pixel (x, y) depuis le pixel (x + dx, y - 1).
+     */
+    private double viaAbove(int y, int x, int dx) {
+        int prev = (y - 1) * stride;
+        double total = cumulative[prev + x + dx];
+        if (energyMode == EnergyMode.FORWARD) {
+            int p = y * stride + x;
+            int left = x > 0 ? p - 1 : p;
+            int right = x < width - 1 ? p + 1 : p;
+            total += Math.abs(gray[right] - gray[left]);
+            if (dx != 0) {
+                total += Math.abs(gray[prev + x] - gray[dx < 0 ? left : right]);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Coût cumulé pour atteindre le pixel (x, y) depuis le pixel (x - 1, y + dy).
+     */
+    private double viaLeft(int x, int y, int dy) {
+        double total = cumulative[(y + dy) * stride + x - 1];
+        if (energyMode == EnergyMode.FORWARD) {
+            int p = y * stride + x;
+            int top = y > 0 ? p - stride : p;
+            int bottom = y < height - 1 ? p + stride : p;
+            total += Math.abs(gray[bottom] - gray[top]);
+            if (dy != 0) {
+                total += Math.abs(gray[p - 1] - gray[dy < 0 ? top : bottom]);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Retrouve la couture minimale depuis la dernière ligne, avec les mêmes règles
+     * d'égalité que {@link SeamCarver#findSeam(double[][])}.
+     */
+    private void backtrack() {
+        int bottom = (height - 1) * stride;
+        int index = 0;
+        double min = cumulative[bottom];
+        for (int x = 1; x < width; x++) {
+            if (min > cumulative[bottom + x]) {
+                min = cumulative[bottom + x];
+                index = x;
+            }
+        }
+        seam[height - 1] = index;
+        seamCost = min;
+
+        int last = width - 1;
+        for (int y = height - 2; y >= 0; y--) {
+            int j = index;
+            if (width == 1) {
+                index = 0;
+            } else if (j == 0) {
+                index = viaAbove(y + 1, j, 0) < viaAbove(y + 1, j, 1) ? 0 : 1;
+            } else if (j == last) {
+                index = viaAbove(y + 1, j, 0) < viaAbove(y + 1, j, -1) ? last : last - 1;
+            } else {
+                double a = viaAbove(y + 1, j, -1);
+                double b = viaAbove(y + 1, j, 0);
+                double c = viaAbove(y + 1, j, 1);
+                if (a <= b && a <= c) {
+                    index = j - 1;
+                } else if (b <= c) {
+                    index = j;
+                } else {
+                    index = j + 1;
+                }
+            }
+            seam[y] = index;
+        }
+    }
+
+    /**
+     * Énergie cumulative transposée pour une couture horizontale : chaque colonne
+     * dépend de la précédente, par la même récurrence qu'en vertical.
+     */
+    private void computeHorizontalCumulativeEnergy() {
+        int last = height - 1;
+        boolean forward = energyMode == EnergyMode.FORWARD;
+        for (int y = 0; y < height; y++) {
+            cumulative[y * stride] = forward ? 0.0 : energy[y * stride];
+        }
+        for (int x = 1; x < width; x++) {
+            if (forward) {
+                for (int y = 0; y < height; y++) {
+                    double min = viaLeft(x, y, 0);
+                    if (y > 0) {
+                        min = Math.min(min, viaLeft(x, y, -1));
+                    }
+                    if (y < last) {
+                        min = Math.min(min, viaLeft(x, y, 1));
+                    }
+                    cumulative[y * stride + x] = min;
+                }
+                continue;
+            }
+            if (height == 1) {
+                cumulative[x] = energy[x] + cumulative[x - 1];
+                continue;
+            }
+            int prev = x - 1;
+            cumulative[x] = energy[x] + Math.min(cumulative[prev], cumulative[stride + prev]);
+            for (int y = 1; y < last; y++) {
+                int cell = y * stride + prev;
+                double minOf3 = Math.min(Math.min(cumulative[cell - stride], cumulative[cell]),
+                        cumulative[cell + stride]);
+                cumulative[cell + 1] = energy[cell + 1] + minOf3;
+            }
+            int bottom = last * stride;
+            cumulative[bottom + x] = energy[bottom + x]
+                    + Math.min(cumulative[bottom - stride + prev], cumulative[bottom + prev]);
+        }
+    }
+
+    /**
+     * Retrouve la couture horizontale minimale depuis la dernière colonne,
+     * avec les mêmes règles d'égalité que {@link #backtrack()}.
+     */
+    private void backtrackHorizontal() {
+        int right = width - 1;
+        int index = 0;
+        double min = cumulative[right];
+        for (int y = 1; y < height; y++) {
+            if (min > cumulative[y * stride + right]) {
+                min = cumulative[y * stride + right];
+                index = y;
+            }
+        }
+        horizontalSeam[right] = index;
+        seamCost = min;
+
+        int last = height - 1;
+        for (int x = width - 2; x >= 0; x--) {
+            int j = index;
+            if (height == 1) {
+                index = 0;
+            } else if (j == 0) {
+                index = viaLeft(x + 1, j, 0) < viaLeft(x + 1, j, 1) ? 0 : 1;
+            } else if (j == last) {
+                index = viaLeft(x + 1, j, 0) < viaLeft(x + 1, j, -1) ? last : last - 1;
+            } else {
+                double a = viaLeft(x + 1, j, -1);
+                double b = viaLeft(x + 1, j, 0);
+                double c = viaLeft(x + 1, j, 1);
+                if (a <= b && a <= c) {
+                    index = j - 1;
+                } else if (b <= c) {
+                    index = j;
+                } else {
+                    index = j + 1;
+                }
+            }
+            horizontalSeam[x] = index;
+        }
+    }
+}
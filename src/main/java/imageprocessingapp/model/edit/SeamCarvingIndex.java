@@ -0,0 +1,309 @@
+package imageprocessingapp.model.edit;
+
+import imageprocessingapp.model.structures.EnergyFunction;
+import imageprocessingapp.model.structures.StandardEnergy;
+
+import java.util.Arrays;
+
+/**
+ * Index de retrait des coutures verticales d'une image, pour un redimensionnement instantané.
+ *
+ * L'index retire une à une les coutures de l'image (avec un {@link SeamCarvingEngine})
+ * et note, pour chaque pixel d'origine, le numéro de la couture qui l'a retiré. Retirer
+ * {@code k} coutures revient alors à ne garder, ligne par ligne, que les pixels de numéro
+ * supérieur ou égal à {@code k} : n'importe quelle largeur cible est produite en un seul
+ * parcours, avec exactement le résultat de {@link SeamCarver#resize}.
+ *
+ * Les mêmes numéros servent à l'agrandissement ({@link #insertSeams(int)}) : les
+ * {@code k} premières coutures sont celles de moindre énergie, et sont dupliquées.
+ *
+ * Le calcul, coûteux, est fait par étapes ({@link #computeSeams(int)}) depuis un thread
+ * d'arrière-plan ; les largeurs déjà couvertes sont utilisables depuis un autre thread
+ * pendant qu'il progresse.
+ */
+public final class SeamCarvingIndex {
+
+    /**
+     * Numéro des pixels jamais retirés.
+     */
+    private static final int KEPT = Integer.MAX_VALUE;
+
+    private final int[] source;
+    private final int width;
+    private final int height;
+    private final SeamCarvingEngine.EnergyMode energyMode;
+    private final EnergyFunction energyFunction;
+
+    /**
+     * Numéro de la couture ayant retiré chaque pixel d'origine (ou {@link #KEPT}).
+     */
+    private final int[] order;
+
+    private SeamCarvingEngine engine;
+
+    /**
+     * Colonne d'origine de chaque pixel restant, compactée en même temps que le moteur.
+     */
+    private int[] origins;
+
+    /**
+     * Nombre de coutures enregistrées ; écrit après les numéros qu'il publie.
+     */
+    private volatile int computedSeams;
+    private volatile boolean cancelled;
+
+    /**
+     * Prépare l'index d'une image (non modifiée, conservée pour {@link #retarget(int)}).
+     *
+     * @param pixels pixels ARGB, ligne par ligne
+     * @param width largeur de l'image
+     * @param height hauteur de l'image
+     * @throws IllegalArgumentException si la taille du tableau ne correspond pas aux dimensions
+     */
+    public SeamCarvingIndex(int[] pixels, int width, int height) {
+        this(pixels, width, height, SeamCarvingEngine.EnergyMode.BACKWARD);
+    }
+
+    /**
+     * Prépare l'index d'une image pour un mode de coût donné.
+     *
+     * @param pixels pixels ARGB, ligne par ligne
+     * @param width largeur de l'image
+     * @param height hauteur de l'image
+     * @param energyMode coût minimisé par les coutures
+     * @throws IllegalArgumentException si la taille du tableau ne correspond pas aux dimensions
+     */
+    public SeamCarvingIndex(int[] pixels, int width, int height, SeamCarvingEngine.EnergyMode energyMode) {
+        this(pixels, width, height, energyMode, StandardEnergy.SOBEL_L2, null);
+    }
+
+    /**
+     * Prépare l'index d'une image pour un mode de coût et une fonction d'énergie donnés,
+     * en réutilisant si possible ses niveaux de gris (voir {@link GrayLevelCache}).
+     *
+     * @param pixels pixels ARGB, ligne par ligne
+     * @param width largeur de l'image
+     * @param height hauteur de l'image
+     * @param energyMode coût minimisé par les coutures
+     * @param energyFunction fonction d'énergie des coutures
+     * @param grayLevels niveaux de gris de l'image (non modifiés), ou null pour les calculer
+     * @throws IllegalArgumentException si la taille d'un tableau ne correspond pas aux dimensions
+     */
+    public SeamCarvingIndex(int[] pixels, int width, int height, SeamCarvingEngine.EnergyMode energyMode,
+                            EnergyFunction energyFunction, double[] grayLevels) {
+        this.engine = grayLevels != null
+                ? new SeamCarvingEngine(pixels.clone(), width, height, grayLevels)
+                : new SeamCarvingEngine(pixels.clone(), width, height);
+        engine.setEnergyMode(energyMode);
+        engine.setEnergyFunction(energyFunction);
+        this.source = pixels;
+        this.width = width;
+        this.height = height;
+        this.energyMode = energyMode;
+        this.energyFunction = energyFunction;
+        this.order = new int[pixels.length];
+        Arrays.fill(order, KEPT);
+        this.origins = new int[pixels.length];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                origins[y * width + x] = x;
+            }
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public SeamCarvingEngine.EnergyMode getEnergyMode() {
+        return energyMode;
+    }
+
+    public EnergyFunction getEnergyFunction() {
+        return energyFunction;
+    }
+
+    /**
+     * Enregistre jusqu'à {@code count} coutures supplémentaires.
+     * À appeler depuis un seul thread à la fois.
+     *
+     * @param count nombre maximal de coutures à calculer
+     * @return le nombre total de coutures enregistrées
+     */
+    public int computeSeams(int count) {
+        int done = computedSeams;
+        int target = Math.min(width - 1, done + count);
+        while (done < target && !cancelled) {
+            record(engine.findSeam(), done);
+            computedSeams = ++done;
+        }
+        releaseIfDone();
+        return done;
+    }
+
+    /**
+     * Enregistre jusqu'à {@code count} coutures supplémentaires extraites d'un seul calcul
+     * de l'énergie cumulative ({@link SeamCarvingEngine#findSeamBatch(int)}) : coutures
+     * disjointes, numérotées par coût croissant. Plus rapide que {@link #computeSeams(int)}
+     * pour de nombreuses coutures, mais approché : les coutures d'un même lot ne voient
+     * pas le retrait des précédentes. À appeler depuis un seul thread à la fois.
+     *
+     * @param count nombre maximal de coutures à calculer
+     * @return le nombre total de coutures enregistrées (au moins une de plus si la largeur le permet)
+     */
+    public int computeSeamBatch(int count) {
+        int done = computedSeams;
+        if (!cancelled && done < width - 1) {
+            int[][] batch = engine.findSeamBatch(Math.min(width - 1 - done, count));
+            int current = engine.getWidth();
+            for (int n = 0; n < batch.length; n++) {
+                for (int y = 0; y < height; y++) {
+                    int row = y * width;
+                    order[row + origins[row + batch[n][y]]] = done + n;
+                }
+            }
+            // Une seule compaction par ligne : les pixels du lot viennent de recevoir un numéro
+            for (int y = 0; y < height; y++) {
+                int row = y * width;
+                int write = row;
+                for (int x = 0; x < current; x++) {
+                    int origin = origins[row + x];
+                    if (order[row + origin] == KEPT) {
+                        origins[write++] = origin;
+                    }
+                }
+            }
+            engine.removeDisjointSeams(batch);
+            done += batch.length;
+            computedSeams = done;
+        }
+        releaseIfDone();
+        return done;
+    }
+
+    /**
+     * Note le numéro des pixels d'une couture de l'image courante, puis la retire du moteur.
+     */
+    private void record(int[] seam, int number) {
+        int current = engine.getWidth();
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            int x = seam[y];
+            order[row + origins[row + x]] = number;
+            System.arraycopy(origins, row + x + 1, origins, row + x, current - x - 1);
+        }
+        engine.removeSeam(seam);
+    }
+
+    private void releaseIfDone() {
+        if (isComplete() || cancelled) {
+            // Les tampons de travail ne servent plus
+            engine = null;
+            origins = null;
+        }
+    }
+
+    /**
+     * Interrompt le calcul en cours ; les coutures déjà enregistrées restent utilisables.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return le nombre de coutures enregistrées
+     */
+    public int getComputedSeams() {
+        return computedSeams;
+    }
+
+    /**
+     * @return true si toutes les largeurs, jusqu'à une colonne, sont couvertes
+     */
+    public boolean isComplete() {
+        return computedSeams == width - 1;
+    }
+
+    /**
+     * @param targetWidth largeur cible
+     * @return true si l'index couvre déjà cette largeur
+     */
+    public boolean canRetarget(int targetWidth) {
+        return targetWidth >= 1 && targetWidth <= width && width - targetWidth <= computedSeams;
+    }
+
+    /**
+     * Produit l'image réduite à une largeur donnée, en ne gardant que les pixels
+     * retirés par une couture de numéro supérieur ou égal à {@code largeur - cible}.
+     *
+     * @param targetWidth largeur cible
+     * @return nouveau raster ARGB de {@code targetWidth × hauteur} pixels
+     * @throws IllegalArgumentException si la largeur cible est hors de {@code [1, largeur]}
+     * @throws IllegalStateException si l'index ne couvre pas encore cette largeur
+     */
+    public int[] retarget(int targetWidth) {
+        if (targetWidth < 1 || targetWidth > width) {
+            throw new IllegalArgumentException("Largeur cible invalide : " + targetWidth);
+        }
+        if (!canRetarget(targetWidth)) {
+            throw new IllegalStateException("Coutures pas encore calculées pour la largeur " + targetWidth);
+        }
+        int removed = width - targetWidth;
+        int[] result = new int[targetWidth * height];
+        int pos = 0;
+        for (int i = 0; i < source.length; i++) {
+            if (order[i] >= removed) {
+                result[pos++] = source[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Produit l'image élargie de {@code count} colonnes en dupliquant les {@code count}
+     * premières coutures : chaque pixel retiré par l'une d'elles est suivi d'un nouveau
+     * pixel, moyenne de lui-même et de son voisin de droite (de gauche en bout de ligne).
+     *
+     * @param count nombre de coutures à insérer
+     * @return nouveau raster ARGB de {@code (largeur + count) × hauteur} pixels
+     * @throws IllegalArgumentException si {@code count} est hors de {@code [0, largeur - 1]}
+     * @throws IllegalStateException si l'index ne couvre pas encore ces coutures
+     */
+    public int[] insertSeams(int count) {
+        if (count < 0 || count > width - 1) {
+            throw new IllegalArgumentException("Nombre de coutures à insérer invalide : " + count);
+        }
+        if (!canRetarget(width - count)) {
+            throw new IllegalStateException("Coutures pas encore calculées : " + count);
+        }
+        int[] result = new int[(width + count) * height];
+        int pos = 0;
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                int pixel = source[row + x];
+                result[pos++] = pixel;
+                if (order[row + x] < count) {
+                    int neighbor = source[row + (x + 1 < width ? x + 1 : x - 1)];
+                    result[pos++] = average(pixel, neighbor);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Moyenne canal par canal de deux pixels ARGB, arrondie au plus proche.
+     */
+    private static int average(int a, int b) {
+        int alpha = ((a >>> 24) + (b >>> 24) + 1) >> 1;
+        int red = (((a >> 16) & 0xFF) + ((b >> 16) & 0xFF) + 1) >> 1;
+        int green = (((a >> 8) & 0xFF) + ((b >> 8) & 0xFF) + 1) >> 1;
+        int blue = ((a & 0xFF) + (b & 0xFF) + 1) >> 1;
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+}
@@ -0,0 +1,139 @@
+package imageprocessingapp.model.edit;
+
+/**
+ * Seam Carving approché par pyramide d'images, pour les très grandes images.
+ *
+ * L'image est réduite de moitié en largeur et en hauteur à chaque niveau. Une couture
+ * est cherchée entièrement sur le niveau le plus grossier ; projetée sur le niveau
+ * suivant, elle y guide deux coutures cherchées dans un couloir de
+ * ±{@value #CORRIDOR_RADIUS} pixels autour d'elle
+ * ({@link SeamCarvingEngine#findSeamInCorridor}), et ainsi de suite jusqu'à la pleine
+ * résolution. Chaque niveau perd ainsi deux fois plus de coutures que le niveau au-dessus,
+ * ce qui garde les niveaux proportionnés. En pleine résolution, une couture coûte
+ * O(H × couloir) au lieu de O(L × H) (plus le décalage des pixels).
+ *
+ * Tolérance : les coutures ne sont optimales que dans leur couloir, et deux coutures
+ * voisines se partagent un même couloir. L'énergie totale retirée reste au plus
+ * {@value #TOLERANCE} fois celle du mode exact : sur l'image de synthèse des tests
+ * (dégradés, disques contrastés, bruit ; un quart de la largeur retiré), le rapport est
+ * d'environ 1,2. Le mode exact reste de mise pour les images de taille courante.
+ */
+final class SeamPyramid {
+
+    /**
+     * Demi-largeur du couloir de recherche autour d'une couture projetée.
+     */
+    static final int CORRIDOR_RADIUS = 8;
+
+    /**
+     * Dimensions minimales du niveau le plus grossier.
+     */
+    static final int MIN_LEVEL_WIDTH = 128;
+    static final int MIN_LEVEL_HEIGHT = 32;
+
+    /**
+     * Écart toléré sur l'énergie totale retirée, par rapport au mode exact.
+     */
+    static final double TOLERANCE = 1.25;
+
+    /**
+     * Moteurs de chaque niveau, de la pleine résolution (0) au plus grossier.
+     */
+    private final SeamCarvingEngine[] levels;
+    private final int[][] centers;
+    private final Runnable onSeam;
+    private int remaining;
+
+    /**
+     * Construit la pyramide au-dessus d'un moteur pleine résolution.
+     *
+     * @param full moteur pleine résolution, dont les coutures seront retirées
+     * @param levelCount nombre de niveaux, pleine résolution comprise
+     * @param onSeam appelé après chaque couture retirée en pleine résolution
+     */
+    SeamPyramid(SeamCarvingEngine full, int levelCount, Runnable onSeam) {
+        this.levels = new SeamCarvingEngine[levelCount];
+        this.centers = new int[levelCount][];
+        this.onSeam = onSeam;
+        levels[0] = full;
+        centers[0] = new int[full.getHeight()];
+        int[] pixels = full.toPixels();
+        int width = full.getWidth();
+        int height = full.getHeight();
+        for (int level = 1; level < levelCount; level++) {
+            int w = Math.max(1, width / 2);
+            int h = Math.max(1, height / 2);
+            pixels = TransportMap.downscale(pixels, width, height, w, h);
+            levels[level] = new SeamCarvingEngine(pixels.clone(), w, h);
+            levels[level].setEnergyMode(full.getEnergyMode());
+            levels[level].setEnergyFunction(full.getEnergyFunction());
+            centers[level] = new int[h];
+            width = w;
+            height = h;
+        }
+    }
+
+    /**
+     * Nombre de niveaux adapté à une image : on divise tant que le niveau le plus grossier
+     * reste au-dessus de {@value #MIN_LEVEL_WIDTH}×{@value #MIN_LEVEL_HEIGHT}.
+     *
+     * @param width largeur de l'image
+     * @param height hauteur de l'image
+     * @return le nombre de niveaux, pleine résolution comprise (1 = pas de pyramide)
+     */
+    static int levelsFor(int width, int height) {
+        int levels = 1;
+        while ((width >> levels) >= MIN_LEVEL_WIDTH && (height >> levels) >= MIN_LEVEL_HEIGHT) {
+            levels++;
+        }
+        return levels;
+    }
+
+    /**
+     * Retire des coutures verticales de l'image pleine résolution.
+     *
+     * @param count nombre de coutures à retirer
+     */
+    void removeSeams(int count) {
+        remaining = count;
+        int top = levels.length - 1;
+        while (remaining > 0) {
+            if (top == 0 || levels[top].getWidth() <= 1) {
+                SeamCarvingEngine full = levels[0];
+                full.removeSeam(full.findSeam());
+                remaining--;
+                onSeam.run();
+                continue;
+            }
+            int[] seam = levels[top].findSeam().clone();
+            levels[top].removeSeam(seam);
+            descend(top - 1, seam);
+        }
+    }
+
+    /**
+     * Retire sur un niveau deux coutures guidées par une couture du niveau supérieur,
+     * chacune guidant à son tour le niveau inférieur.
+     */
+    private void descend(int level, int[] guide) {
+        SeamCarvingEngine engine = levels[level];
+        int[] projected = centers[level];
+        int height = engine.getHeight();
+        for (int i = 0; i < 2 && remaining > 0 && engine.getWidth() > 1; i++) {
+            // Colonne g du niveau grossier = colonnes 2g et 2g + 1 de ce niveau
+            for (int y = 0; y < height; y++) {
+                projected[y] = 2 * guide[Math.min(y / 2, guide.length - 1)] + 1;
+            }
+            int[] seam = engine.findSeamInCorridor(projected, CORRIDOR_RADIUS);
+            if (level == 0) {
+                engine.removeSeam(seam);
+                remaining--;
+                onSeam.run();
+            } else {
+                int[] copy = seam.clone();
+                engine.removeSeam(copy);
+                descend(level - 1, copy);
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package imageprocessingapp.model.edit;
+
+import imageprocessingapp.model.structures.EnergyFunction;
+import imageprocessingapp.model.structures.StandardEnergy;
+
+/**
+ * Ordre optimal des coutures pour une réduction dans les deux dimensions
+ * (carte de transport d'Avidan et Shamir).
+ *
+ * La carte T(r, c) donne le coût minimal pour retirer r coutures horizontales et
+ * c coutures verticales ; elle se remplit par programmation dynamique, chaque case
+ * venant soit de (r - 1, c) par une couture horizontale, soit de (r, c - 1) par une
+ * couture verticale. Chaque case demandant une image et une recherche de couture,
+ * la carte est calculée sur une réduction de l'image d'au plus {@value #PROXY_SIZE}
+ * pixels de côté, puis l'ordre obtenu est étiré aux nombres de coutures réels.
+ */
+public final class TransportMap {
+
+    /**
+     * Plus grand côté de l'image réduite sur laquelle la carte est calculée.
+     */
+    static final int PROXY_SIZE = 64;
+
+    private TransportMap() {
+    }
+
+    /**
+     * Calcule l'ordre de retrait des coutures.
+     *
+     * @param pixels pixels ARGB de l'image (non modifiés)
+     * @param width largeur de l'image
+     * @param height hauteur de l'image
+     * @param verticalSeams nombre de coutures verticales à retirer
+     * @param horizontalSeams nombre de coutures horizontales à retirer
+     * @param energyMode coût minimisé par les coutures
+     * @return pour chaque couture, dans l'ordre, true si elle est verticale
+     * @throws IllegalArgumentException si les nombres de coutures sont hors de l'image
+     */
+    public static boolean[] plan(int[] pixels, int width, int height, int verticalSeams, int horizontalSeams,
+                                 SeamCarvingEngine.EnergyMode energyMode) {
+        return plan(pixels, width, height, verticalSeams, horizontalSeams, energyMode, StandardEnergy.SOBEL_L2);
+    }
+
+    /**
+     * Calcule l'ordre de retrait des coutures pour une fonction d'énergie donnée.
+     *
+     * @param pixels pixels ARGB de l'image (non modifiés)
+     * @param width largeur de l'image
+     * @param height hauteur de l'image
+     * @param verticalSeams nombre de coutures verticales à retirer
+     * @param horizontalSeams nombre de coutures horizontales à retirer
+     * @param energyMode coût minimisé par les coutures
+     * @param energyFunction fonction d'énergie des coutures
+     * @return pour chaque couture, dans l'ordre, true si elle est verticale
+     * @throws IllegalArgumentException si les nombres de coutures sont hors de l'image
+     */
+    public static boolean[] plan(int[] pixels, int width, int height, int verticalSeams, int horizontalSeams,
+                                 SeamCarvingEngine.EnergyMode energyMode, EnergyFunction energyFunction) {
+        if (verticalSeams < 0 || horizontalSeams < 0 || verticalSeams >= width || horizontalSeams >= height) {
+            throw new IllegalArgumentException(
+                    "Nombre de coutures invalide : " + verticalSeams + "x" + horizontalSeams);
+        }
+        double scale = Math.min(1.0, (double) PROXY_SIZE / Math.max(width, height));
+        int proxyWidth = Math.max(1, (int) Math.round(width * scale));
+        int proxyHeight = Math.max(1, (int) Math.round(height * scale));
+        int[] proxy = downscale(pixels, width, height, proxyWidth, proxyHeight);
+
+        // Nombres de coutures sur la réduction, au moins une dans chaque sens demandé
+        int columns = proxySeams(verticalSeams, scale, proxyWidth);
+        int rows = proxySeams(horizontalSeams, scale, proxyHeight);
+        boolean[] proxyOrder = proxyPlan(proxy, proxyWidth, proxyHeight, columns, rows,
+                energyMode, energyFunction);
+        return stretch(proxyOrder, columns, rows, verticalSeams, horizontalSeams);
+    }
+
+    private static int proxySeams(int seams, double scale, int proxySize) {
+        if (seams == 0) {
+            return 0;
+        }
+        return Math.min(proxySize - 1, Math.max(1, (int) Math.round(seams * scale)));
+    }
+
+    /**
+     * Programmation dynamique de la carte de transport sur l'image réduite.
+     * Seule la ligne précédente de la carte garde ses images.
+     */
+    private static boolean[] proxyPlan(int[] pixels, int width, int height, int columns, int rows,
+                                       SeamCarvingEngine.EnergyMode energyMode, EnergyFunction energyFunction) {
+        // vertical[r][c] : la case (r, c) est atteinte par une couture verticale
+        boolean[][] vertical = new boolean[rows + 1][columns + 1];
+        double[] previousCost = new double[columns + 1];
+        int[][] previousImages = new int[columns + 1][];
+        double[] cost = new double[columns + 1];
+        int[][] images = new int[columns + 1][];
+
+        for (int r = 0; r <= rows; r++) {
+            int h = height - r;
+            for (int c = 0; c <= columns; c++) {
+                int w = width - c;
+                if (r == 0 && c == 0) {
+                    images[0] = pixels;
+                    cost[0] = 0;
+                    continue;
+                }
+                double viaVertical = Double.POSITIVE_INFINITY;
+                SeamCarvingEngine left = null;
+                int[] leftSeam = null;
+                if (c > 0) {
+                    left = engine(images[c - 1], w + 1, h, energyMode, energyFunction);
+                    leftSeam = left.findSeam();
+                    viaVertical = cost[c - 1] + left.getSeamCost();
+                }
+                double viaHorizontal = Double.POSITIVE_INFINITY;
+                SeamCarvingEngine above = null;
+                int[] aboveSeam = null;
+                if (r > 0) {
+                    above = engine(previousImages[c], w, h + 1, energyMode, energyFunction);
+                    aboveSeam = above.findHorizontalSeam();
+                    viaHorizontal = previousCost[c] + above.getSeamCost();
+                }
+                if (viaVertical <= viaHorizontal) {
+                    left.removeSeam(leftSeam);
+                    images[c] = left.toPixels();
+                    cost[c] = viaVertical;
+                    vertical[r][c] = true;
+                } else {
+                    above.removeHorizontalSeam(aboveSeam);
+                    images[c] = above.toPixels();
+                    cost[c] = viaHorizontal;
+                }
+            }
+            int[][] swapImages = previousImages;
+            previousImages = images;
+            images = swapImages;
+            double[] swapCost = previousCost;
+            previousCost = cost;
+            cost = swapCost;
+        }
+
+        // Remontée depuis (rows, columns)
+        boolean[] order = new boolean[rows + columns];
+        int r = rows;
+        int c = columns;
+        for (int i = order.length - 1; i >= 0; i--) {
+            order[i] = vertical[r][c];
+            if (order[i]) {
+                c--;
+            } else {
+                r--;
+            }
+        }
+        return order;
+    }
+
+    private static SeamCarvingEngine engine(int[] pixels, int width, int height,
+                                            SeamCarvingEngine.EnergyMode energyMode, EnergyFunction energyFunction) {
+        SeamCarvingEngine engine = new SeamCarvingEngine(pixels.clone(), width, height);
+        engine.setEnergyMode(energyMode);
+        engine.setEnergyFunction(energyFunction);
+        return engine;
+    }
+
+    /**
+     * Étire l'ordre calculé sur la réduction aux nombres de coutures réels, en gardant
+     * à chaque étape la même proportion de coutures verticales et horizontales.
+     */
+    private static boolean[] stretch(boolean[] proxyOrder, int columns, int rows,
+                                     int verticalSeams, int horizontalSeams) {
+        boolean[] order = new boolean[verticalSeams + horizontalSeams];
+        int pos = 0;
+        int doneColumns = 0;
+        int doneRows = 0;
+        int emittedVertical = 0;
+        int emittedHorizontal = 0;
+        for (boolean step : proxyOrder) {
+            if (step) {
+                doneColumns++;
+                int target = (int) Math.round((double) doneColumns * verticalSeams / columns);
+                for (; emittedVertical < target; emittedVertical++) {
+                    order[pos++] = true;
+                }
+            } else {
+                doneRows++;
+                int target = (int) Math.round((double) doneRows * horizontalSeams / rows);
+                for (; emittedHorizontal < target; emittedHorizontal++) {
+                    order[pos++] = false;
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Réduction par moyenne des pixels couverts (chaque pixel réduit couvre un bloc de l'image).
+     */
+    static int[] downscale(int[] pixels, int width, int height, int targetWidth, int targetHeight) {
+        if (targetWidth == width && targetHeight == height) {
+            return pixels.clone();
+        }
+        int[] result = new int[targetWidth * targetHeight];
+        for (int ty = 0; ty < targetHeight; ty++) {
+            int y0 = (int) ((long) ty * height / targetHeight);
+            int y1 = Math.max(y0 + 1, (int) ((long) (ty + 1) * height / targetHeight));
+            for (int tx = 0; tx < targetWidth; tx++) {
+                int x0 = (int) ((long) tx * width / targetWidth);
+                int x1 = Math.max(x0 + 1, (int) ((long) (tx + 1) * width / targetWidth));
+                long a = 0, r = 0, g = 0, b = 0;
+                for (int y = y0; y < y1; y++) {
+                    for (int x = x0; x < x1; x++) {
+                        int p = pixels[y * width + x];
+                        a += p >>> 24;
+                        r += (p >> 16) & 0xFF;
+                        g += (p >> 8) & 0xFF;
+                        b += p & 0xFF;
+                    }
+                }
+                long n = (long) (y1 - y0) * (x1 - x0);
+                result[ty * targetWidth + tx] = (int) (a / n) << 24 | (int) (r / n) << 16
+                        | (int) (g / n) << 8 | (int) (b / n);
+            }
+        }
+        return result;
+    }
+}
@@ -4,9 +4,7 @@ import imageprocessingapp.model.ImageModel;
 import imageprocessingapp.model.structures.KdTree;
 import imageprocessingapp.model.structures.Point2D;
 import javafx.scene.image.Image;
-import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
-import javafx.scene.paint.Color;
 
 import java.util.*;
 
@@ -111,14 +109,20 @@ public class MosaicFilter {
 
     public Image applyMosaic() {
 
-        // Génération de n points aléatoires ou non (seeds) et insertion dans le KdTree
+        // Génération de n points aléatoires ou non (seeds) et construction du KdTree
         Point2D[] seeds = switch (seedMode) {
             case RANDOM -> generateRandomPoints();
             case REGULAR_GRID -> generateRegularGridPoints();
         };
         
-        KdTree kdTree = new KdTree();
-        for (Point2D p : seeds) kdTree.insert(p);
+        // Arbre construit d'un bloc : équilibré même pour une grille régulière
+        double[] xs = new double[seeds.length];
+        double[] ys = new double[seeds.length];
+        for (int i = 0; i < seeds.length; i++) {
+            xs[i] = seeds[i].x();
+            ys[i] = seeds[i].y();
+        }
+        KdTree kdTree = KdTree.build(xs, ys);
 
         // Création d'un dictionnaire {seed : [liste de points appartenant à une cellule]}
         // Initiation {seed1 : [seed1], etc}
@@ -129,21 +133,19 @@ public class MosaicFilter {
             cells.put(seed, list);
         }
 
-        // Remplissage du dictionnaire
+        // Remplissage du dictionnaire (rien à faire sans seed)
+        if (kdTree.isEmpty()) {
+            return applyColor(cells);
+        }
         for (int x=0; x<width; x++) {
             for (int y=0; y<height; y++) {
 
-                Point2D target = new Point2D(x, y); // Pixel actuel
-                Optional<Point2D> nearest = kdTree.findNearest(target); // Pixel du KdTree le plus proche
-
-                // Gestion du Optional<Point2D>
-                if (nearest.isPresent()) {
-                    Point2D seed = nearest.get();
-                    // Test si le target = seed pour ne pas que seed soit deux fois dans le dictionnaire
-                    if (!seed.equals(target)) {
-                        List<Point2D> cell = cells.get(seed);
-                        cell.add(target);
-                    }
+                // Seed le plus proche du pixel actuel
+                Point2D seed = seeds[kdTree.findNearestIndex(x, y)];
+
+                // Test si le pixel = seed pour ne pas que seed soit deux fois dans le dictionnaire
+                if (seed.x() != x || seed.y() != y) {
+                    cells.get(seed).add(new Point2D(x, y));
                 }
             }
         }
@@ -152,8 +154,9 @@ public class MosaicFilter {
     }
 
     private WritableImage applyColor(Map<Point2D, List<Point2D>> cells) {
-        WritableImage writableImage = new WritableImage(width, height);
-        PixelWriter writer = writableImage.getPixelWriter();
+        // Lecture du raster source en une passe, écriture dans un raster de sortie
+        int[] source = imageModel.readRegion(0, 0, width, height);
+        int[] output = new int[width * height];
 
         // Itération sur les entries (couples clé, valeur) du dictionnaire
         for (Map.Entry<Point2D, List<Point2D>> entry : cells.entrySet()) {
@@ -161,32 +164,35 @@ public class MosaicFilter {
             if (cell == null || cell.isEmpty()) {
                 throw new NoSuchElementException("Dict mosaic : error");
             } else {
-                // Calcul de la moyenne des couleurs
-                double countR = 0;
-                double countG = 0;
-                double countB = 0;
+                // Calcul de la moyenne des couleurs (composantes entières 0-255)
+                long countR = 0;
+                long countG = 0;
+                long countB = 0;
                 int total = 0;
 
                 for (Point2D pixel: cell) {
                     int x = (int) pixel.x();
                     int y = (int) pixel.y();
-                    Color c = imageModel.getPixelColor(x, y);
-                    countR += c.getRed();
-                    countG += c.getGreen();
-                    countB += c.getBlue();
+                    int argb = source[y * width + x];
+                    countR += (argb >> 16) & 0xFF;
+                    countG += (argb >> 8) & 0xFF;
+                    countB += argb & 0xFF;
                     total++;
                 }
 
-                Color avg = new Color(countR / total, countG / total, countB / total, 1);
+                int r = (int) Math.round((double) countR / total);
+                int g = (int) Math.round((double) countG / total);
+                int b = (int) Math.round((double) countB / total);
+                int avg = 0xFF000000 | (r << 16) | (g << 8) | b;
 
                 // On colorie la cellule
                 for (Point2D pixel: cell) {
                     int x = (int) pixel.x();
                     int y = (int) pixel.y();
-                    writer.setColor(x, y, avg);
+                    output[y * width + x] = avg;
                 }
             }
         }
-        return writableImage;
+        return ImageModel.wrapPixels(output, width, height);
     }
 }
@@ -1,9 +1,8 @@
 package imageprocessingapp.model.operations;
 
 import imageprocessingapp.model.ImageModel;
+import imageprocessingapp.model.TiledRaster;
 import javafx.geometry.Rectangle2D;
-import javafx.scene.image.Image;
-import javafx.scene.image.PixelReader;
 import javafx.scene.image.WritableImage;
 
 /**
@@ -24,15 +23,22 @@ public class CropOperation implements Operation {
     }
 
     /**
-     * Applique le crop sur l'image du modèle.
+     * Applique le crop sur l'image du modèle, sans modifier celui-ci.
+     * Pour une image en tuiles, l'image retournée est l'aperçu du raster croppé :
+     * utiliser {@link #cropRaster(ImageModel)} pour obtenir la pleine résolution.
      *
      * @param imageModel Le modèle contenant l'image à cropper
      * @return Une nouvelle image contenant uniquement la zone croppée, ou null si pas d'image
      */
     @Override
     public WritableImage apply(ImageModel imageModel) {
-        Image image = imageModel.getImage();
-        if (image == null) return null;
+        if (imageModel.getImage() == null) return null;
+
+        if (imageModel.isTiled()) {
+            ImageModel cropped = new ImageModel();
+            cropped.setRaster(cropRaster(imageModel));
+            return cropped.getWritableImage();
+        }
 
         // Extraire les coordonnées et dimensions de la zone de crop
         int upperLeftX = (int) cropArea.getMinX();
@@ -40,11 +46,36 @@ public class CropOperation implements Operation {
         int newWidth = (int) cropArea.getWidth();
         int newHeight = (int) cropArea.getHeight();
 
-        // Créer une nouvelle image à partir de la zone sélectionnée
-        PixelReader reader = image.getPixelReader();
-        WritableImage croppedImage = new WritableImage(reader, upperLeftX, upperLeftY, newWidth, newHeight);
+        // Créer une nouvelle image à partir de la zone sélectionnée, lue en bloc dans le raster
+        int[] region = imageModel.readRegion(upperLeftX, upperLeftY, newWidth, newHeight);
+        return ImageModel.wrapPixels(region, newWidth, newHeight);
+    }
 
-        return croppedImage;
+    /**
+     * Copie la zone de crop dans un nouveau raster en tuiles, un bloc de tuile à la fois,
+     * sans modifier le modèle. Les zones vides de la source ne sont pas allouées dans le résultat.
+     *
+     * @param imageModel Le modèle contenant l'image à cropper
+     * @return Le raster croppé en pleine résolution, à installer par l'appelant
+     */
+    public TiledRaster cropRaster(ImageModel imageModel) {
+        int x = (int) cropArea.getMinX();
+        int y = (int) cropArea.getMinY();
+        int width = (int) cropArea.getWidth();
+        int height = (int) cropArea.getHeight();
+        TiledRaster cropped = new TiledRaster(width, height);
+        int[] block = new int[TiledRaster.TILE_SIZE * TiledRaster.TILE_SIZE];
+        for (int ty = 0; ty < cropped.getTilesY(); ty++) {
+            for (int tx = 0; tx < cropped.getTilesX(); tx++) {
+                int x0 = tx * TiledRaster.TILE_SIZE;
+                int y0 = ty * TiledRaster.TILE_SIZE;
+                int w = cropped.getTileWidth(tx);
+                int h = cropped.getTileHeight(ty);
+                imageModel.readRegion(x + x0, y + y0, w, h, block, 0, w);
+                cropped.writeRegion(x0, y0, w, h, block, 0, w);
+            }
+        }
+        return cropped;
     }
 
 
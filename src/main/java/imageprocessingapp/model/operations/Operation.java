@@ -20,5 +20,17 @@ public interface Operation {
      * @throws IllegalStateException si l'image n'est pas disponible ou si l'opération ne peut être exécutée
      */
     WritableImage apply(ImageModel imageModel);
+
+    /**
+     * Retourne l'opération qui annule exactement celle-ci, si elle existe.
+     *
+     * Une opération bijective (rotation, symétrie…) peut ainsi être annulée en rejouant
+     * son inverse, sans que l'historique ait à conserver les pixels d'avant.
+     *
+     * @return l'opération inverse, ou null si l'opération perd de l'information
+     */
+    default Operation inverse() {
+        return null;
+    }
 }
 
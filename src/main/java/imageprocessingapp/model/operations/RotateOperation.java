@@ -1,9 +1,7 @@
 package imageprocessingapp.model.operations;
 import imageprocessingapp.model.ImageModel;
-import javafx.scene.image.PixelReader;
-import javafx.scene.image.PixelWriter;
+import imageprocessingapp.model.TiledRaster;
 import javafx.scene.image.WritableImage;
-import javafx.scene.paint.Color;
 
 import java.util.Objects;
 
@@ -40,6 +38,22 @@ public class RotateOperation implements Operation {
         this.direction = Objects.requireNonNull(direction);
     }
 
+    public RotateOperation.Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * La rotation inverse est la rotation de même angle dans l'autre sens.
+     *
+     * @return la rotation dans la direction opposée
+     */
+    @Override
+    public RotateOperation inverse() {
+        return new RotateOperation(direction == Direction.CLOCKWISE
+                ? Direction.COUNTERCLOCKWISE
+                : Direction.CLOCKWISE);
+    }
+
     /**
      * Applique la rotation sur l'image du modèle.
      * 
@@ -64,28 +78,76 @@ public class RotateOperation implements Operation {
             throw new IllegalStateException("Image modifiable indisponible");
         }
 
-        int width = (int) source.getWidth();
-        int height = (int) source.getHeight();
+        int width = imageModel.getWidth();
+        int height = imageModel.getHeight();
+
+        if (imageModel.isTiled()) {
+            imageModel.setRaster(rotateTiles(imageModel.getRaster()));
+            return imageModel.getWritableImage();
+        }
 
-        // Image de format opposé (largeur ↔ hauteur)
-        WritableImage rotated = new WritableImage(height, width);
-        PixelReader reader = source.getPixelReader();
-        PixelWriter writer = rotated.getPixelWriter();
+        // Raster de format opposé (largeur ↔ hauteur)
+        int[] rotated = new int[width * height];
+        int[] row = new int[width];
 
-        // Parcourir tous les pixels de l'image source
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                Color c = reader.getColor(x, y);
+        // Parcourir le raster source ligne par ligne
+        for (int y = 0; y < height; y++) {
+            imageModel.readRegion(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
                 if (direction == Direction.CLOCKWISE) {
                     // Rotation horaire : (x, y) → (height - 1 - y, x)
-                    writer.setColor(height - 1 - y, x, c);
+                    rotated[x * height + (height - 1 - y)] = row[x];
                 } else {
                     // Rotation antihoraire : (x, y) → (y, width - 1 - x)
-                    writer.setColor(y, width - 1 - x, c);
+                    rotated[(width - 1 - x) * height + y] = row[x];
+                }
+            }
+        }
+        imageModel.adoptPixels(rotated, height, width);
+        return imageModel.getWritableImage();
+    }
+
+    /**
+     * Fait tourner un raster en tuiles, une tuile à la fois.
+     * Chaque tuile source devient un bloc de la destination ; les tuiles jamais écrites
+     * sont ignorées et restent donc non allouées dans le résultat.
+     *
+     * @param source Le raster à faire tourner
+     * @return Un nouveau raster aux dimensions inversées
+     */
+    private TiledRaster rotateTiles(TiledRaster source) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        TiledRaster rotated = new TiledRaster(height, width);
+        int[] block = new int[TiledRaster.TILE_SIZE * TiledRaster.TILE_SIZE];
+        int[] turned = new int[block.length];
+
+        for (int ty = 0; ty < source.getTilesY(); ty++) {
+            for (int tx = 0; tx < source.getTilesX(); tx++) {
+                if (!source.isTileAllocated(tx, ty)) continue;
+                int x0 = tx * TiledRaster.TILE_SIZE;
+                int y0 = ty * TiledRaster.TILE_SIZE;
+                int w = source.getTileWidth(tx);
+                int h = source.getTileHeight(ty);
+                source.readRegion(x0, y0, w, h, block, 0, w);
+
+                // Le bloc w×h devient un bloc h×w (mêmes formules que pour l'image entière)
+                for (int y = 0; y < h; y++) {
+                    for (int x = 0; x < w; x++) {
+                        if (direction == Direction.CLOCKWISE) {
+                            turned[x * h + (h - 1 - y)] = block[y * w + x];
+                        } else {
+                            turned[(w - 1 - x) * h + y] = block[y * w + x];
+                        }
+                    }
+                }
+                if (direction == Direction.CLOCKWISE) {
+                    rotated.writeRegion(height - y0 - h, x0, h, w, turned, 0, h);
+                } else {
+                    rotated.writeRegion(y0, width - x0 - w, h, w, turned, 0, h);
                 }
             }
         }
-        imageModel.setImage(rotated);
         return rotated;
     }
-}
\ No newline at end of file
+}
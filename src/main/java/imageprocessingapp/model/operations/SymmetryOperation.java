@@ -1,10 +1,9 @@
 package imageprocessingapp.model.operations;
 
 import imageprocessingapp.model.ImageModel;
+import imageprocessingapp.model.TiledRaster;
 import javafx.scene.image.WritableImage;
 import java.util.Objects;
-import javafx.scene.image.PixelReader;
-import javafx.scene.image.PixelWriter;
 
 /**
  * Opération de symétrie (miroir) d'une image selon un axe horizontal ou vertical.
@@ -39,6 +38,20 @@ public final class SymmetryOperation implements Operation {
         this.axis = Objects.requireNonNull(axis);
     }
 
+    public Axis getAxis() {
+        return axis;
+    }
+
+    /**
+     * Une symétrie est sa propre inverse.
+     *
+     * @return cette opération
+     */
+    @Override
+    public SymmetryOperation inverse() {
+        return this;
+    }
+
     /**
      * Applique la symétrie sur l'image du modèle.
      * 
@@ -63,24 +76,75 @@ public final class SymmetryOperation implements Operation {
             throw new IllegalStateException("Image modifiable indisponible");
         }
 
-        int width = (int) source.getWidth();
-        int height = (int) source.getHeight();
+        int width = imageModel.getWidth();
+        int height = imageModel.getHeight();
+
+        if (imageModel.isTiled()) {
+            imageModel.setRaster(flipTiles(imageModel.getRaster()));
+            return imageModel.getWritableImage();
+        }
 
-        WritableImage flipped = new WritableImage(width, height);
-        PixelReader reader = source.getPixelReader();
-        PixelWriter writer = flipped.getPixelWriter();
+        int[] flipped = new int[width * height];
+        int[] row = new int[width];
 
-        // Parcourir tous les pixels de l'image source
+        // Parcourir le raster source ligne par ligne
         for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                // Calculer les coordonnées source selon l'axe de symétrie
-                int sourceX = (axis == Axis.VERTICAL) ? width - 1 - x : x;
-                int sourceY = (axis == Axis.HORIZONTAL) ? height - 1 - y : y;
-                writer.setColor(x, y, reader.getColor(sourceX, sourceY));
+            // Calculer la ligne destination selon l'axe de symétrie
+            int targetY = (axis == Axis.HORIZONTAL) ? height - 1 - y : y;
+            imageModel.readRegion(0, y, width, 1, row, 0, width);
+            if (axis == Axis.VERTICAL) {
+                int offset = targetY * width;
+                for (int x = 0; x < width; x++) {
+                    flipped[offset + width - 1 - x] = row[x];
+                }
+            } else {
+                System.arraycopy(row, 0, flipped, targetY * width, width);
             }
         }
 
-        imageModel.setImage(flipped);
+        imageModel.adoptPixels(flipped, width, height);
+        return imageModel.getWritableImage();
+    }
+
+    /**
+     * Applique la symétrie à un raster en tuiles, une tuile à la fois.
+     * Les tuiles jamais écrites sont ignorées et restent non allouées dans le résultat.
+     *
+     * @param source Le raster à retourner
+     * @return Un nouveau raster de mêmes dimensions
+     */
+    private TiledRaster flipTiles(TiledRaster source) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        TiledRaster flipped = new TiledRaster(width, height);
+        int[] block = new int[TiledRaster.TILE_SIZE * TiledRaster.TILE_SIZE];
+        int[] mirrored = new int[block.length];
+
+        for (int ty = 0; ty < source.getTilesY(); ty++) {
+            for (int tx = 0; tx < source.getTilesX(); tx++) {
+                if (!source.isTileAllocated(tx, ty)) continue;
+                int x0 = tx * TiledRaster.TILE_SIZE;
+                int y0 = ty * TiledRaster.TILE_SIZE;
+                int w = source.getTileWidth(tx);
+                int h = source.getTileHeight(ty);
+                source.readRegion(x0, y0, w, h, block, 0, w);
+
+                for (int y = 0; y < h; y++) {
+                    if (axis == Axis.VERTICAL) {
+                        for (int x = 0; x < w; x++) {
+                            mirrored[y * w + (w - 1 - x)] = block[y * w + x];
+                        }
+                    } else {
+                        System.arraycopy(block, y * w, mirrored, (h - 1 - y) * w, w);
+                    }
+                }
+                if (axis == Axis.VERTICAL) {
+                    flipped.writeRegion(width - x0 - w, y0, w, h, mirrored, 0, w);
+                } else {
+                    flipped.writeRegion(x0, height - y0 - h, w, h, mirrored, 0, w);
+                }
+            }
+        }
         return flipped;
     }
-}
\ No newline at end of file
+}
@@ -3,8 +3,17 @@ package imageprocessingapp.model.structures;
 import javafx.scene.image.PixelReader;
 import javafx.scene.image.WritableImage;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Calcule la carte d'énergie d'une image avec la technique des noyaux de Sobel.
+ *
+ * Les cartes complètes sont calculées en parallèle par bandes de lignes ({@link RowBands}) :
+ * niveaux de gris, puis énergie, chaque bande lisant les lignes de halo de ses voisines.
  */
 public class EnergyCalculator {
 
@@ -19,52 +28,109 @@ public class EnergyCalculator {
 
 
     /**
-     * Lit la matrice en entrée aux coordonnées x,y en gérant les cas de bord.
-     * Si des coordonnées dépassent, on lit le pixel valide le plus proche.
+     * Noyaux SIMD, ou null : module {@code jdk.incubator.vector} absent (il faut
+     * {@code --add-modules jdk.incubator.vector}), classe non compilée ou registres trop étroits.
      */
-    private double readGrayLevel(double[][] grayLevels, int x, int y) {
-        int height = grayLevels.length;
-        int width = grayLevels[0].length;
+    static final EnergyKernels VECTOR_KERNELS = loadVectorKernels();
 
-        // Gestion des cas de bord et repositionnement sur un bord intérieur
-        if (x < 0) x = 0;
-        if (x >= width) x = width - 1;
-        if (y < 0) y = 0;
-        if (y >= height) y = height - 1;
+    /**
+     * Fichier de classe des noyaux SIMD, compilés à part dans la sortie multi-version du pom
+     * (exécution {@code compile-vector}). Les dossiers de classes ne résolvant pas les
+     * versions, la classe est définie dans ce paquetage à partir du fichier lui-même.
+     */
+    private static final String VECTOR_KERNELS_CLASS =
+            "/META-INF/versions/21/imageprocessingapp/model/structures/VectorEnergy.class";
 
-        return grayLevels[y][x];
-    }
+    /**
+     * Noyaux SIMD disponibles ({@link #VECTOR_KERNELS}).
+     */
+    static final boolean VECTORIZED = VECTOR_KERNELS != null;
 
     /**
-     * Prend une image en entrée et la renvoie en noir et blanc (en convention REC 709).
+     * Pool d'exécution des bandes de lignes.
      */
-    private double[][] getGrayLevels(WritableImage image) {
+    private final ForkJoinPool pool;
 
-        PixelReader reader = image.getPixelReader();
-        int width = (int) image.getWidth();
-        int height = (int) image.getHeight();
+    /**
+     * Calculateur utilisant le pool commun.
+     */
+    public EnergyCalculator() {
+        this(ForkJoinPool.commonPool());
+    }
 
-        double[][] grayLevels = new double[height][width];
+    /**
+     * Calculateur répartissant les cartes complètes sur un pool donné.
+     *
+     * @param pool pool d'exécution des bandes de lignes
+     */
+    public EnergyCalculator(ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool, "pool");
+    }
 
-        // Lecture intégrale des couleurs de l'image
-        int[] pixels = new int[width * height];
-        reader.getPixels(0, 0, width, height,
-                javafx.scene.image.PixelFormat.getIntArgbInstance(),
-                pixels, 0, width);
+    private static EnergyKernels loadVectorKernels() {
+        Module vector = ModuleLayer.boot().findModule("jdk.incubator.vector").orElse(null);
+        if (vector == null) {
+            return null;
+        }
+        // Le descripteur du module ne déclare pas la dépendance : lecture ajoutée à l'exécution
+        EnergyCalculator.class.getModule().addReads(vector);
+        try (InputStream in = EnergyCalculator.class.getResourceAsStream(VECTOR_KERNELS_CLASS)) {
+            if (in == null) {
+                return null;
+            }
+            Class<?> type = MethodHandles.lookup().defineClass(in.readAllBytes());
+            EnergyKernels kernels = (EnergyKernels) type.getDeclaredConstructor().newInstance();
+            return kernels.isUseful() ? kernels : null;
+        } catch (IOException | ReflectiveOperationException | LinkageError e) {
+            // Module inutilisable depuis ce module : repli scalaire
+            return null;
+        }
+    }
 
-        for (int y = 0; y < height; y++) {
+    /**
+     * Convertit une zone de raster ARGB en niveaux de gris (en convention REC 709), entre 0 et 1,
+     * par les noyaux SIMD lorsqu'ils sont disponibles. Le plan obtenu peut servir à plusieurs
+     * fonctions d'énergie ({@link #computeEnergy(EnergyFunction, double[], int, int, int, double[])}).
+     *
+     * @param pixels pixels ARGB
+     * @param stride distance entre deux lignes dans les tableaux
+     * @param width largeur de la zone
+     * @param height hauteur de la zone
+     * @param gray niveaux de gris résultat
+     */
+    public void computeGrayLevels(int[] pixels, int stride, int width, int height, double[] gray) {
+        RowBands.forEach(pool, height, (from, to) -> {
+            if (VECTORIZED) {
+                VECTOR_KERNELS.computeGrayLevels(pixels, stride, width, from, to, gray);
+            } else {
+                computeGrayLevelsScalar(pixels, stride, width, from, to, gray);
+            }
+        });
+    }
+
+    /**
+     * Version scalaire de {@link #computeGrayLevels}, pour les lignes {@code [from, to)}.
+     */
+    static void computeGrayLevelsScalar(int[] pixels, int stride, int width, int from, int to, double[] gray) {
+        for (int y = from; y < to; y++) {
+            int row = y * stride;
             for (int x = 0; x < width; x++) {
-                int pixel = pixels[y * width + x];
-                // Opérations bitwise pour récupérer efficacement les composantes r, g, b
-                // Format de couleur : 0xFF123456 (FF alpha, 12 rouge, 34 vert, 56 bleu)
-                int r = (pixel >> 16) & 0xFF;
-                int g = (pixel >> 8) & 0xFF;
-                int b = pixel & 0xFF;
-                // Convention REC709 de proportions pour mimer perception humaine (luminance)
-                grayLevels[y][x] = 0.299 * r / 255.0 + 0.587 * g / 255.0 + 0.114 * b / 255.0;
+                gray[row + x] = grayLevel(pixels[row + x]);
             }
         }
-        return grayLevels;
+    }
+
+    /**
+     * Niveau de gris d'un pixel ARGB, entre 0 et 1.
+     */
+    static double grayLevel(int pixel) {
+        // Opérations bitwise pour récupérer efficacement les composantes r, g, b
+        // Format de couleur : 0xFF123456 (FF alpha, 12 rouge, 34 vert, 56 bleu)
+        int r = (pixel >> 16) & 0xFF;
+        int g = (pixel >> 8) & 0xFF;
+        int b = pixel & 0xFF;
+        // Convention REC709 de proportions pour mimer perception humaine (luminance)
+        return 0.299 * r / 255.0 + 0.587 * g / 255.0 + 0.114 * b / 255.0;
     }
 
 
@@ -81,30 +147,246 @@ public class EnergyCalculator {
 
         int width = (int) image.getWidth();
         int height = (int) image.getHeight();
+
+        // Lecture intégrale des couleurs de l'image
+        PixelReader reader = image.getPixelReader();
+        int[] pixels = new int[width * height];
+        reader.getPixels(0, 0, width, height,
+                javafx.scene.image.PixelFormat.getIntArgbInstance(),
+                pixels, 0, width);
+
+        return computeEnergyMap(pixels, width, height);
+    }
+
+    /**
+     * Retourne une carte d'énergie calculée directement sur un raster ARGB
+     * (par exemple celui d'un {@code ImageModel}), sans passer par une image JavaFX.
+     * @param pixels pixels ARGB, ligne par ligne
+     * @param width largeur du raster
+     * @param height hauteur du raster
+     * @return matrice d'énergie de taille {@code hauteur x largeur}
+     */
+    public double[][] computeEnergyMap(int[] pixels, int width, int height) {
+
+        double[] gray = new double[width * height];
+        double[] flat = new double[width * height];
+        computeEnergy(pixels, width, width, height, gray, flat);
+
         double[][] energy = new double[height][width];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(flat, y * width, energy[y], 0, width);
+        }
+        return energy;
+    }
 
-        // On récupère l'image en niveaux de gris
-        double[][] grayLevels = getGrayLevels(image);
+    /**
+     * Calcule la carte d'énergie d'une zone de raster dans des tableaux plats fournis
+     * par l'appelant, sans aucune allocation : l'appelant peut réutiliser les mêmes
+     * tampons d'un appel à l'autre (une image réduite colonne par colonne, par exemple).
+     *
+     * Les trois tableaux partagent la même disposition : le pixel (x, y) est à l'indice
+     * {@code y * stride + x}, seules les colonnes {@code [0, width)} étant lues ou écrites.
+     * Les bords sont gérés en lisant le pixel valide le plus proche.
+     *
+     * Lorsque le module {@code jdk.incubator.vector} est chargé, le calcul passe par des
+     * noyaux SIMD ({@link EnergyKernels}) au résultat identique, bit pour bit.
+     *
+     * @param pixels pixels ARGB
+     * @param stride distance entre deux lignes dans les tableaux
+     * @param width largeur de la zone
+     * @param height hauteur de la zone
+     * @param gray tampon des niveaux de gris (réécrit)
+     * @param energy carte d'énergie résultat
+     */
+    public void computeEnergy(int[] pixels, int stride, int width, int height, double[] gray, double[] energy) {
+        computeGrayLevels(pixels, stride, width, height, gray);
+        computeEnergy(StandardEnergy.SOBEL_L2, gray, stride, width, height, energy);
+    }
 
-        // Calculer l'énergie à partir de l'image en noir et blanc
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                double valueWidth = 0;
-                double valueHeight = 0;
-
-                for (int i = -1; i < 2; i++) {
-                    for (int j = -1; j < 2; j++) {
-                        // Appel à la fonction readGrayLevel pour gérer les cas de bord
-                        double pixelValue = readGrayLevel(grayLevels, x + j, y + i);
-                        valueWidth += Gx[1 + i][1 + j] * pixelValue;
-                        valueHeight += Gy[1 + i][1 + j] * pixelValue;
-                    }
+    /**
+     * Calcule la carte d'énergie d'une fonction donnée sur un plan de niveaux de gris déjà
+     * calculé ({@link #computeGrayLevels}), sans le modifier. Chaque bande de lignes lit
+     * {@link EnergyFunction#radius()} lignes de halo de part et d'autre.
+     *
+     * @param function fonction d'énergie
+     * @param gray niveaux de gris
+     * @param stride distance entre deux lignes dans les tableaux
+     * @param width largeur de la zone
+     * @param height hauteur de la zone
+     * @param energy carte d'énergie résultat
+     */
+    public void computeEnergy(EnergyFunction function, double[] gray, int stride, int width, int height,
+                              double[] energy) {
+        boolean vectorSobel = function == StandardEnergy.SOBEL_L2 && VECTORIZED;
+        RowBands.forEach(pool, height, (from, to) -> {
+            if (vectorSobel) {
+                // Mêmes opérations, dans le même ordre, sur plusieurs pixels à la fois : résultat identique
+                VECTOR_KERNELS.computeSobel(gray, stride, width, height, from, to, energy);
+                return;
+            }
+            for (int y = from; y < to; y++) {
+                int row = y * stride;
+                for (int x = 0; x < width; x++) {
+                    energy[row + x] = function.energyAt(gray, stride, width, height, x, y);
                 }
-                // Prise en compte de la convolution verticale et horizontale pour détecter les bords dans les deux sens
-                energy[y][x] = Math.sqrt(valueWidth * valueWidth + valueHeight * valueHeight);
+            }
+        });
+    }
+
+    /**
+     * Mode incrémental : met à jour les tampons d'un {@link #computeEnergy} après le retrait
+     * d'une couture verticale, sans reconvertir ni reconvoluer toute l'image.
+     *
+     * Chaque ligne des deux tampons est décalée d'une colonne vers la gauche après la
+     * couture (les niveaux de gris ne changent pas), puis l'énergie n'est recalculée que
+     * dans une bande de ±2 pixels autour de la couture, seule zone dont le voisinage 3×3
+     * a changé. Le coût par couture passe de O(L·H) convolutions à O(H) plus le décalage.
+     *
+     * Pour l'énergie de Sobel ({@link StandardEnergy#SOBEL_L2}) ; voir
+     * {@link #removeSeam(EnergyFunction, double[], double[], int, int, int, int[])}.
+     *
+     * @param gray tampon des niveaux de gris, tel que laissé par l'appel précédent
+     * @param energy carte d'énergie, telle que laissée par l'appel précédent
+     * @param stride distance entre deux lignes dans les tampons
+     * @param width largeur avant le retrait de la couture
+     * @param height hauteur de l'image
+     * @param seam colonne retirée pour chaque ligne
+     */
+    public void removeSeam(double[] gray, double[] energy, int stride, int width, int height, int[] seam) {
+        removeSeam(StandardEnergy.SOBEL_L2, gray, energy, stride, width, height, seam);
+    }
+
+    /**
+     * Mode incrémental pour une fonction d'énergie quelconque : la bande recalculée
+     * s'élargit avec le rayon du voisinage lu par la fonction.
+     *
+     * @param function fonction d'énergie des tampons
+     * @param gray tampon des niveaux de gris, tel que laissé par l'appel précédent
+     * @param energy carte d'énergie, telle que laissée par l'appel précédent
+     * @param stride distance entre deux lignes dans les tampons
+     * @param width largeur avant le retrait de la couture
+     * @param height hauteur de l'image
+     * @param seam colonne retirée pour chaque ligne
+     */
+    public void removeSeam(EnergyFunction function, double[] gray, double[] energy, int stride, int width,
+                           int height, int[] seam) {
+        for (int y = 0; y < height; y++) {
+            int row = y * stride;
+            int x = seam[y];
+            System.arraycopy(gray, row + x + 1, gray, row + x, width - x - 1);
+            System.arraycopy(energy, row + x + 1, energy, row + x, width - x - 1);
+        }
+
+        int newWidth = width - 1;
+        int radius = function.radius();
+        for (int y = 0; y < height; y++) {
+            // Le voisinage d'un pixel touche les coutures des lignes voisines
+            int min = seam[y];
+            int max = seam[y];
+            for (int dy = -radius; dy <= radius; dy++) {
+                int s = seam[Math.max(0, Math.min(height - 1, y + dy))];
+                min = Math.min(min, s);
+                max = Math.max(max, s);
+            }
+            int from = Math.max(min - radius - 1, 0);
+            int to = Math.min(max + radius, newWidth - 1);
+            int row = y * stride;
+            for (int x = from; x <= to; x++) {
+                energy[row + x] = function.energyAt(gray, stride, newWidth, height, x, y);
             }
         }
-        return energy;
     }
-}
 
+    /**
+     * Équivalent de {@link #removeSeam} pour une couture horizontale : les colonnes des
+     * deux tampons remontent d'une ligne sous la couture, puis l'énergie n'est recalculée
+     * que dans une bande de ±2 pixels autour d'elle (élargie avec le rayon de la fonction).
+     *
+     * @param gray tampon des niveaux de gris, tel que laissé par l'appel précédent
+     * @param energy carte d'énergie, telle que laissée par l'appel précédent
+     * @param stride distance entre deux lignes dans les tampons
+     * @param width largeur de l'image
+     * @param height hauteur avant le retrait de la couture
+     * @param seam ligne retirée pour chaque colonne
+     */
+    public void removeHorizontalSeam(double[] gray, double[] energy, int stride, int width, int height, int[] seam) {
+        removeHorizontalSeam(StandardEnergy.SOBEL_L2, gray, energy, stride, width, height, seam);
+    }
+
+    /**
+     * {@link #removeHorizontalSeam(double[], double[], int, int, int, int[])} pour une
+     * fonction d'énergie quelconque.
+     *
+     * @param function fonction d'énergie des tampons
+     * @param gray tampon des niveaux de gris, tel que laissé par l'appel précédent
+     * @param energy carte d'énergie, telle que laissée par l'appel précédent
+     * @param stride distance entre deux lignes dans les tampons
+     * @param width largeur de l'image
+     * @param height hauteur avant le retrait de la couture
+     * @param seam ligne retirée pour chaque colonne
+     */
+    public void removeHorizontalSeam(EnergyFunction function, double[] gray, double[] energy, int stride,
+                                     int width, int height, int[] seam) {
+        // Parcours ligne par ligne pour rester contigu en mémoire
+        for (int y = 0; y < height - 1; y++) {
+            int row = y * stride;
+            for (int x = 0; x < width; x++) {
+                if (y >= seam[x]) {
+                    gray[row + x] = gray[row + stride + x];
+                    energy[row + x] = energy[row + stride + x];
+                }
+            }
+        }
+
+        int newHeight = height - 1;
+        int radius = function.radius();
+        for (int x = 0; x < width; x++) {
+            int min = seam[x];
+            int max = seam[x];
+            for (int dx = -radius; dx <= radius; dx++) {
+                int s = seam[Math.max(0, Math.min(width - 1, x + dx))];
+                min = Math.min(min, s);
+                max = Math.max(max, s);
+            }
+            int from = Math.max(min - radius - 1, 0);
+            int to = Math.min(max + radius, newHeight - 1);
+            for (int y = from; y <= to; y++) {
+                energy[y * stride + x] = function.energyAt(gray, stride, width, newHeight, x, y);
+            }
+        }
+    }
+
+    /**
+     * Énergie de Sobel d'un pixel, les bords étant gérés en lisant le pixel valide le plus proche.
+     */
+    static double sobel(double[] gray, int stride, int width, int height, int x, int y) {
+        // Lignes et colonnes voisines, repositionnées sur un bord intérieur
+        int above = Math.max(y - 1, 0) * stride;
+        int row = y * stride;
+        int below = Math.min(y + 1, height - 1) * stride;
+        int left = Math.max(x - 1, 0);
+        int right = Math.min(x + 1, width - 1);
+
+        double a00 = gray[above + left], a01 = gray[above + x], a02 = gray[above + right];
+        double a10 = gray[row + left], a12 = gray[row + right];
+        double a20 = gray[below + left], a21 = gray[below + x], a22 = gray[below + right];
+
+        // Même ordre d'accumulation que la convolution 3x3 par les noyaux Gx et Gy
+        double valueWidth = -a00;
+        valueWidth += a02;
+        valueWidth += -2 * a10;
+        valueWidth += 2 * a12;
+        valueWidth += -a20;
+        valueWidth += a22;
+
+        double valueHeight = -a00;
+        valueHeight += -2 * a01;
+        valueHeight += -a02;
+        valueHeight += a20;
+        valueHeight += 2 * a21;
+        valueHeight += a22;
+
+        // Prise en compte de la convolution verticale et horizontale pour détecter les bords dans les deux sens
+        return Math.sqrt(valueWidth * valueWidth + valueHeight * valueHeight);
+    }
+}
@@ -0,0 +1,39 @@
+package imageprocessingapp.model.structures;
+
+/**
+ * Fonction d'énergie d'un pixel, calculée sur un plan de niveaux de gris.
+ *
+ * Le plan de niveaux de gris est calculé une seule fois ({@link EnergyCalculator#computeGrayLevels})
+ * et partagé par toutes les fonctions : changer de fonction ne refait que la convolution.
+ * Une fonction ne lit que le voisinage de {@link #radius()} pixels autour du pixel évalué,
+ * ce qui permet la mise à jour incrémentale après le retrait d'une couture
+ * ({@link EnergyCalculator#removeSeam(EnergyFunction, double[], double[], int, int, int, int[])}).
+ *
+ * Pattern Strategy : les fonctions standard sont dans {@link StandardEnergy}.
+ */
+public interface EnergyFunction {
+
+    /**
+     * @return le rayon du voisinage lu autour de chaque pixel (1 pour un noyau 3×3)
+     */
+    int radius();
+
+    /**
+     * Calcule l'énergie d'un pixel. Les voisins hors de la zone sont remplacés par le
+     * pixel valide le plus proche.
+     *
+     * @param gray niveaux de gris, entre 0 et 1 ; le pixel (x, y) est à l'indice {@code y * stride + x}
+     * @param stride distance entre deux lignes dans {@code gray}
+     * @param width largeur de la zone
+     * @param height hauteur de la zone
+     * @param x colonne du pixel
+     * @param y ligne du pixel
+     * @return l'énergie du pixel, positive ou nulle
+     */
+    double energyAt(double[] gray, int stride, int width, int height, int x, int y);
+
+    /**
+     * @return le nom affiché de la fonction
+     */
+    String getName();
+}
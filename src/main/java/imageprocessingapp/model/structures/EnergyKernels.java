@@ -0,0 +1,27 @@
+package imageprocessingapp.model.structures;
+
+/**
+ * Noyaux de bande du calcul d'énergie de Sobel, substituables au code scalaire de
+ * {@link EnergyCalculator} à résultat identique, bit pour bit.
+ *
+ * L'implémentation SIMD ({@code VectorEnergy}) est compilée à part, depuis
+ * {@code src/main/java-vector}, et chargée par réflexion : le module n'a ainsi aucune
+ * dépendance, même optionnelle, vers le module d'incubation {@code jdk.incubator.vector}.
+ */
+interface EnergyKernels {
+
+    /**
+     * @return true si les noyaux apportent un gain sur cette machine
+     */
+    boolean isUseful();
+
+    /**
+     * Niveaux de gris des lignes {@code [from, to)}.
+     */
+    void computeGrayLevels(int[] pixels, int stride, int width, int from, int to, double[] gray);
+
+    /**
+     * Énergie de Sobel des lignes {@code [from, to)}, qui lit une ligne de halo de part et d'autre.
+     */
+    void computeSobel(double[] gray, int stride, int width, int height, int from, int to, double[] energy);
+}
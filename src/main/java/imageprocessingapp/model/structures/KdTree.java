@@ -3,6 +3,18 @@ package imageprocessingapp.model.structures;
 import java.util.Objects;
 import java.util.Optional;
 
+/**
+ * Arbre KD en deux dimensions, pour la recherche du plus proche voisin.
+ *
+ * L'arbre se remplit de deux façons :
+ * - point par point avec {@link #insert(Point2D)}, sous forme de nœuds chaînés ;
+ * - d'un bloc avec {@link #build(double[], double[])} : chaque sous-arbre est coupé à la
+ *   médiane de ses points, ce qui garantit un arbre équilibré quel que soit l'ordre des
+ *   points (une grille insérée ligne par ligne dégénère avec {@link #insert(Point2D)}).
+ *   Les points sont alors rangés dans des tableaux de primitives, en arbre binaire
+ *   implicite (enfants du nœud {@code i} en {@code 2i + 1} et {@code 2i + 2}), et
+ *   {@link #findNearestIndex(double, double)} les parcourt sans récursion ni allocation.
+ */
 public class KdTree {
     private static final int K = 2;
 
@@ -30,6 +42,109 @@ public class KdTree {
     private Node root;
     private int size;
 
+    /**
+     * Arbre construit d'un bloc : coordonnées des nœuds en ordre implicite,
+     * et indice de chaque nœud dans les tableaux d'entrée (null pour un arbre à nœuds).
+     */
+    private double[] treeX;
+    private double[] treeY;
+    private int[] treeIndex;
+
+    /**
+     * Construit d'un bloc un arbre équilibré, par coupes successives à la médiane.
+     * Les doublons sont conservés, pour que chaque indice des tableaux d'entrée reste
+     * accessible ; l'arbre obtenu n'accepte plus d'insertion.
+     *
+     * @param xs Abscisses des points (non modifiées)
+     * @param ys Ordonnées des points (non modifiées)
+     * @return L'arbre contenant les {@code xs.length} points
+     * @throws NullPointerException si un des tableaux est nul
+     * @throws IllegalArgumentException si les deux tableaux n'ont pas la même taille
+     */
+    public static KdTree build(double[] xs, double[] ys) {
+        Objects.requireNonNull(xs, "xs must not be null");
+        Objects.requireNonNull(ys, "ys must not be null");
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException(
+                    "Tailles différentes : " + xs.length + " abscisses, " + ys.length + " ordonnées");
+        }
+        int n = xs.length;
+        KdTree tree = new KdTree();
+        tree.treeX = new double[n];
+        tree.treeY = new double[n];
+        tree.treeIndex = new int[n];
+        tree.size = n;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        tree.fill(xs, ys, order, 0, n, 0, 0);
+        return tree;
+    }
+
+    /**
+     * Place la médiane de {@code order[lo, hi)} au nœud {@code node}, puis ses deux moitiés
+     * dans les sous-arbres gauche et droit. La récursion ne dépasse pas la hauteur de l'arbre.
+     */
+    private void fill(double[] xs, double[] ys, int[] order, int lo, int hi, int node, int depth) {
+        if (lo >= hi) return;
+        double[] coords = (depth % K == 0) ? xs : ys;
+        // La moitié gauche a la taille du sous-arbre gauche d'un arbre complet de hi - lo nœuds
+        int median = lo + leftSubtreeSize(hi - lo);
+        select(order, coords, lo, hi, median);
+        int point = order[median];
+        treeX[node] = xs[point];
+        treeY[node] = ys[point];
+        treeIndex[node] = point;
+        fill(xs, ys, order, lo, median, 2 * node + 1, depth + 1);
+        fill(xs, ys, order, median + 1, hi, 2 * node + 2, depth + 1);
+    }
+
+    /**
+     * Taille du sous-arbre gauche d'un arbre binaire complet (dernier niveau rempli
+     * par la gauche) de {@code n} nœuds.
+     */
+    private static int leftSubtreeSize(int n) {
+        if (n <= 1) return 0;
+        int height = 31 - Integer.numberOfLeadingZeros(n);
+        int half = 1 << (height - 1);
+        int lastLevel = n - ((1 << height) - 1);
+        return half - 1 + Math.min(lastLevel, half);
+    }
+
+    /**
+     * Réordonne {@code order[lo, hi)} (sélection rapide de Hoare) pour que l'élément de rang
+     * {@code k} soit en place : ceux d'avant ont une coordonnée inférieure ou égale,
+     * ceux d'après une coordonnée supérieure ou égale.
+     */
+    private static void select(int[] order, double[] coords, int lo, int hi, int k) {
+        int left = lo;
+        int right = hi - 1;
+        while (left < right) {
+            double pivot = coords[order[(left + right) >>> 1]];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coords[order[i]] < pivot) i++;
+                while (coords[order[j]] > pivot) j--;
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
     // Getters
     public int size() { return size; }
     public boolean isEmpty() { return size == 0; }
@@ -38,9 +153,13 @@ public class KdTree {
      * Insère un point dans l'arbre KD à partir de la racine.
      * Méthode simple public pour les appels externes.
      * @param p Le point à insérer
+     * @throws IllegalStateException si l'arbre a été construit par {@link #build(double[], double[])}
      */
     public void insert(Point2D p) {
         Objects.requireNonNull(p, "point must not be null");
+        if (treeIndex != null) {
+            throw new IllegalStateException("Arbre construit d'un bloc : insertion impossible");
+        }
         root = insert(root, p, 0);
     }
 
@@ -86,6 +205,10 @@ public class KdTree {
      */
     public Optional<Point2D> findNearest(Point2D target) {
         Objects.requireNonNull(target, "target must not be null");
+        if (treeIndex != null) {
+            int node = nearestNode(target.x(), target.y());
+            return node < 0 ? Optional.empty() : Optional.of(new Point2D(treeX[node], treeY[node]));
+        }
         if (root == null) return Optional.empty();
         // Lancement de la recherche à partir de la racine,
         // avec comme "meilleur point courant" le point de la racine (puisqu'on vient juste de commencer)
@@ -94,6 +217,71 @@ public class KdTree {
         );
     }
 
+    /**
+     * Recherche le point le plus proche dans un arbre construit par {@link #build(double[], double[])},
+     * sans récursion ni allocation.
+     * @param x Abscisse du point cible
+     * @param y Ordonnée du point cible
+     * @return L'indice, dans les tableaux passés à {@code build}, du point le plus proche,
+     * ou -1 si l'arbre est vide
+     * @throws IllegalStateException si l'arbre a été rempli par {@link #insert(Point2D)}
+     */
+    public int findNearestIndex(double x, double y) {
+        if (treeIndex == null) {
+            if (root == null) return -1;
+            throw new IllegalStateException("Arbre rempli point par point : pas d'indices");
+        }
+        int node = nearestNode(x, y);
+        return node < 0 ? -1 : treeIndex[node];
+    }
+
+    /**
+     * Parcours sans pile de l'arbre implicite : le parent de {@code i} est {@code (i - 1) / 2},
+     * et le nœud d'où l'on arrive indique s'il faut descendre, passer à la branche éloignée
+     * ou remonter. La branche éloignée n'est explorée que si le plan de coupe est plus proche
+     * que le meilleur point trouvé.
+     * @return Le nœud le plus proche, ou -1 si l'arbre est vide
+     */
+    private int nearestNode(double x, double y) {
+        int n = treeIndex.length;
+        int best = -1;
+        double bestDistSq = Double.POSITIVE_INFINITY;
+        int current = 0;
+        int previous = -1;
+        while (current >= 0) {
+            int parent = (current - 1) >> 1;
+            if (current >= n) {
+                // Sous-arbre vide : on remonte
+                previous = current;
+                current = parent;
+                continue;
+            }
+            int axis = (31 - Integer.numberOfLeadingZeros(current + 1)) % K;
+            double planeDist = (axis == 0) ? x - treeX[current] : y - treeY[current];
+            int near = (planeDist < 0) ? 2 * current + 1 : 2 * current + 2;
+            int far = (planeDist < 0) ? 2 * current + 2 : 2 * current + 1;
+            int next;
+            if (previous == parent) {
+                // Première visite : on teste le nœud puis on descend dans la branche proche
+                double dx = x - treeX[current];
+                double dy = y - treeY[current];
+                double d2 = dx * dx + dy * dy;
+                if (d2 < bestDistSq) {
+                    best = current;
+                    bestDistSq = d2;
+                }
+                next = near;
+            } else if (previous == near && far < n && planeDist * planeDist < bestDistSq) {
+                next = far;
+            } else {
+                next = parent;
+            }
+            previous = current;
+            current = next;
+        }
+        return best;
+    }
+
     /**
      * Recherche le point le plus proche dans l'arbre KD.
      * @param node Le nœud courant
@@ -0,0 +1,97 @@
+package imageprocessingapp.model.structures;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parcours parallèle d'une image par bandes de lignes, sur un {@link ForkJoinPool}.
+ *
+ * Les lignes {@code [0, hauteur)} sont découpées récursivement en bandes contiguës d'au plus
+ * {@value #BAND_HEIGHT} lignes, chacune parcourue ligne par ligne (ordre mémoire des rasters
+ * plats). Un filtre de voisinage (convolution, énergie…) se fait en deux passes : la première
+ * produit le plan intermédiaire bande par bande, la seconde lit, pour chaque bande, les
+ * lignes de halo (au-dessus et au-dessous) produites par les bandes voisines. Le retour de
+ * {@link #forEach} sert de barrière entre les deux passes.
+ *
+ * Les bandes écrivant des lignes disjointes, un calcul pixel par pixel donne exactement le
+ * même résultat qu'en séquentiel.
+ */
+public final class RowBands {
+
+    /**
+     * Hauteur maximale d'une bande : assez de travail pour amortir une tâche, assez peu
+     * pour répartir une image 4K (2160 lignes) sur plusieurs dizaines de tâches.
+     */
+    public static final int BAND_HEIGHT = 64;
+
+    /**
+     * Traitement d'une bande de lignes {@code [from, to)}.
+     */
+    @FunctionalInterface
+    public interface BandAction {
+        void apply(int from, int to);
+    }
+
+    private RowBands() {
+    }
+
+    /**
+     * Traite toutes les lignes, par bandes, sur le pool commun.
+     *
+     * @param height nombre de lignes
+     * @param action traitement d'une bande
+     */
+    public static void forEach(int height, BandAction action) {
+        forEach(ForkJoinPool.commonPool(), height, action);
+    }
+
+    /**
+     * Traite toutes les lignes, par bandes, sur un pool donné ; séquentiellement s'il n'y a
+     * qu'une bande ou qu'un fil d'exécution. Retourne une fois toutes les bandes traitées.
+     *
+     * @param pool pool d'exécution
+     * @param height nombre de lignes
+     * @param action traitement d'une bande
+     */
+    public static void forEach(ForkJoinPool pool, int height, BandAction action) {
+        Objects.requireNonNull(action, "action");
+        if (height <= BAND_HEIGHT || pool.getParallelism() <= 1) {
+            action.apply(0, height);
+        } else {
+            pool.invoke(new BandTask(action, 0, height));
+        }
+    }
+
+    /**
+     * Tâche coupant sa plage de lignes en deux (sur une frontière de bande) jusqu'à une bande.
+     */
+    private static final class BandTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Traitement partagé par toutes les sous-tâches ; une tâche n'est jamais sérialisée.
+         */
+        private final transient BandAction action;
+        private final int from;
+        private final int to;
+
+        BandTask(BandAction action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int bands = (to - from + BAND_HEIGHT - 1) / BAND_HEIGHT;
+            if (bands <= 1) {
+                action.apply(from, to);
+                return;
+            }
+            int middle = from + (bands / 2) * BAND_HEIGHT;
+            invokeAll(new BandTask(action, from, middle), new BandTask(action, middle, to));
+        }
+    }
+}
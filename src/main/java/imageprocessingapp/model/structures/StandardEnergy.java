@@ -0,0 +1,150 @@
+package imageprocessingapp.model.structures;
+
+/**
+ * Fonctions d'énergie standard du seam carving.
+ */
+public enum StandardEnergy implements EnergyFunction {
+
+    /**
+     * Norme euclidienne du gradient de Sobel (fonction historique, par défaut).
+     */
+    SOBEL_L2("Sobel (L2)", 1) {
+        @Override
+        public double energyAt(double[] gray, int stride, int width, int height, int x, int y) {
+            return EnergyCalculator.sobel(gray, stride, width, height, x, y);
+        }
+    },
+
+    /**
+     * Norme L1 du gradient de Sobel, {@code |gx| + |gy|} : sans racine, et plus sévère
+     * pour les contours diagonaux.
+     */
+    SOBEL_L1("Sobel (L1)", 1) {
+        @Override
+        public double energyAt(double[] gray, int stride, int width, int height, int x, int y) {
+            int above = Math.max(y - 1, 0) * stride;
+            int row = y * stride;
+            int below = Math.min(y + 1, height - 1) * stride;
+            int left = Math.max(x - 1, 0);
+            int right = Math.min(x + 1, width - 1);
+            double gx = gray[above + right] - gray[above + left]
+                    + 2 * (gray[row + right] - gray[row + left])
+                    + gray[below + right] - gray[below + left];
+            double gy = gray[below + left] + 2 * gray[below + x] + gray[below + right]
+                    - gray[above + left] - 2 * gray[above + x] - gray[above + right];
+            return Math.abs(gx) + Math.abs(gy);
+        }
+    },
+
+    /**
+     * Norme euclidienne du gradient de Scharr (coefficients 3, 10, 3), plus isotrope que
+     * Sobel ; divisée par 4 pour rester à l'échelle de Sobel.
+     */
+    SCHARR("Scharr", 1) {
+        @Override
+        public double energyAt(double[] gray, int stride, int width, int height, int x, int y) {
+            int above = Math.max(y - 1, 0) * stride;
+            int row = y * stride;
+            int below = Math.min(y + 1, height - 1) * stride;
+            int left = Math.max(x - 1, 0);
+            int right = Math.min(x + 1, width - 1);
+            double gx = 3 * (gray[above + right] - gray[above + left])
+                    + 10 * (gray[row + right] - gray[row + left])
+                    + 3 * (gray[below + right] - gray[below + left]);
+            double gy = 3 * (gray[below + left] - gray[above + left])
+                    + 10 * (gray[below + x] - gray[above + x])
+                    + 3 * (gray[below + right] - gray[above + right]);
+            return Math.sqrt(gx * gx + gy * gy) / 4;
+        }
+    },
+
+    /**
+     * Entropie (en bits) de l'histogramme des niveaux de gris d'une fenêtre 5×5,
+     * quantifiés sur {@value #ENTROPY_BINS} classes : élevée dans les zones texturées,
+     * nulle dans les aplats, même bruités sous le pas de quantification.
+     */
+    LOCAL_ENTROPY("Local entropy", 2) {
+        @Override
+        public double energyAt(double[] gray, int stride, int width, int height, int x, int y) {
+            int[] counts = new int[ENTROPY_BINS];
+            for (int dy = -2; dy <= 2; dy++) {
+                int row = Math.max(0, Math.min(height - 1, y + dy)) * stride;
+                for (int dx = -2; dx <= 2; dx++) {
+                    double value = gray[row + Math.max(0, Math.min(width - 1, x + dx))];
+                    counts[Math.min((int) (value * ENTROPY_BINS), ENTROPY_BINS - 1)]++;
+                }
+            }
+            double entropy = 0;
+            for (int count : counts) {
+                entropy += ENTROPY_TERMS[count];
+            }
+            return entropy;
+        }
+    },
+
+    /**
+     * Gradient de Sobel pondéré par la saillance locale : le contraste (écart absolu) entre
+     * le pixel et la moyenne de sa fenêtre 5×5 (centre-pourtour). Les contours d'objets
+     * qui se détachent de leur entourage coûtent plus cher que ceux d'une texture régulière.
+     */
+    SALIENCY_WEIGHTED("Saliency-weighted", 2) {
+        @Override
+        public double energyAt(double[] gray, int stride, int width, int height, int x, int y) {
+            double sum = 0;
+            for (int dy = -2; dy <= 2; dy++) {
+                int row = Math.max(0, Math.min(height - 1, y + dy)) * stride;
+                for (int dx = -2; dx <= 2; dx++) {
+                    sum += gray[row + Math.max(0, Math.min(width - 1, x + dx))];
+                }
+            }
+            double contrast = Math.abs(gray[y * stride + x] - sum / 25);
+            return EnergyCalculator.sobel(gray, stride, width, height, x, y) * (1 + SALIENCY_GAIN * contrast);
+        }
+    };
+
+    /**
+     * Nombre de classes de l'histogramme de {@link #LOCAL_ENTROPY}.
+     */
+    static final int ENTROPY_BINS = 16;
+
+    /**
+     * Poids de la saillance dans {@link #SALIENCY_WEIGHTED} : un contraste de 0,25
+     * double l'énergie.
+     */
+    static final double SALIENCY_GAIN = 4;
+
+    /**
+     * Terme {@code -p log2 p} de l'entropie pour chaque effectif d'une fenêtre de 25 pixels.
+     */
+    private static final double[] ENTROPY_TERMS = new double[26];
+
+    static {
+        for (int count = 1; count <= 25; count++) {
+            double p = count / 25.0;
+            ENTROPY_TERMS[count] = -p * Math.log(p) / Math.log(2);
+        }
+    }
+
+    private final String name;
+    private final int radius;
+
+    StandardEnergy(String name, int radius) {
+        this.name = name;
+        this.radius = radius;
+    }
+
+    @Override
+    public int radius() {
+        return radius;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
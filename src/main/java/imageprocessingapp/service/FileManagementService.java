@@ -1,6 +1,7 @@
 package imageprocessingapp.service;
 
 import imageprocessingapp.model.ImageModel;
+import imageprocessingapp.model.TiledRaster;
 import javafx.beans.property.ObjectProperty;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.control.Alert;
@@ -12,8 +13,13 @@ import javafx.stage.Stage;
 import java.io.File;
 import java.io.IOException;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.util.Iterator;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 /**
  * Service pour gérer les opérations de fichiers (ouvrir, sauvegarder, nouveau canvas).
@@ -28,6 +34,11 @@ public class FileManagementService {
     private final ObjectProperty<Image> currentImageProperty;
     private File sourceFile;
     
+    /**
+     * Nombre maximal de pixels décodés à la fois lors du chargement d'une très grande image.
+     */
+    private static final long BAND_PIXEL_BUDGET = 16L * 1024 * 1024;
+    
     /**
      * Constructeur.
      * 
@@ -86,15 +97,24 @@ public class FileManagementService {
         }
         
         try {
-            // Charger l'image
-            Image image = new Image(file.toURI().toString());
-            currentImageProperty.set(image);
+            // Très grande image : décodage par bandes dans un raster en tuiles,
+            // sans jamais créer l'image JavaFX complète
+            TiledRaster tiled = readTiledIfLarge(file);
+            if (tiled != null) {
+                imageModel.setRaster(tiled);
+            } else {
+                // Charger l'image
+                Image image = new Image(file.toURI().toString());
+                
+                // Mettre à jour le modèle d'image
+                imageModel.setImage(image);
+            }
             
-            // Mettre à jour le modèle d'image
-            imageModel.setImage(image);
+            // Afficher la vue du raster (mémoire partagée) : l'image décodée peut être libérée
+            currentImageProperty.set(imageModel.getImage());
             
             // Redimensionner le Canvas pour correspondre à l'image
-            drawingService.resizeCanvasToImage(image);
+            drawingService.resizeCanvasToImage(imageModel.getImage());
 
             // Réinitialiser le canvas pour qu'il soit transparent
             drawingService.createDefaultCanvas();
@@ -112,6 +132,70 @@ public class FileManagementService {
         }
     }
     
+    /**
+     * Décode une image en tuiles si ses dimensions dépassent le seuil du modèle.
+     * 
+     * @param file Le fichier image
+     * @return Le raster en tuiles, ou null si l'image est de taille ordinaire
+     * @throws IOException si le fichier ne peut pas être lu
+     */
+    private TiledRaster readTiledIfLarge(File file) throws IOException {
+        return readTiled(file, ImageModel.TILED_PIXEL_THRESHOLD, BAND_PIXEL_BUDGET);
+    }
+    
+    /**
+     * Décode une image dans un raster en tuiles, par bandes de lignes.
+     * Les dimensions sont lues dans l'en-tête, sans décoder les pixels ; chaque bande
+     * compte un multiple de {@link TiledRaster#TILE_SIZE} lignes et au plus
+     * {@code bandPixels} pixels, de sorte qu'une seule bande réside dans le tas à la fois.
+     * 
+     * Les lecteurs PNG et JPEG décodent toujours depuis le début de l'image : chaque
+     * bande relit donc le flux depuis son début (le lecteur ne doit pas l'oublier au fil
+     * de la lecture) et décode les lignes qui la précèdent. Des bandes aussi hautes que
+     * le budget le permet limitent le nombre de ces passes.
+     * 
+     * @param file Le fichier image
+     * @param minPixels Nombre de pixels au-delà duquel l'image est décodée en tuiles
+     * @param bandPixels Nombre maximal de pixels d'une bande, au moins une rangée de tuiles
+     * @return Le raster en tuiles, ou null si l'image ne dépasse pas {@code minPixels}
+     * @throws IOException si le fichier ne peut pas être lu
+     */
+    static TiledRaster readTiled(File file, long minPixels, long bandPixels) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            if (input == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) return null;
+            
+            ImageReader reader = readers.next();
+            try {
+                // Pas de lecture en avant seulement : chaque bande revient au début du flux
+                reader.setInput(input, false, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height <= minPixels) return null;
+                
+                int tileRows = (int) Math.max(1, Math.min(
+                        bandPixels / ((long) width * TiledRaster.TILE_SIZE),
+                        (height + TiledRaster.TILE_SIZE - 1) / TiledRaster.TILE_SIZE));
+                int bandRows = tileRows * TiledRaster.TILE_SIZE;
+                
+                TiledRaster raster = new TiledRaster(width, height);
+                int[] band = new int[width * Math.min(bandRows, height)];
+                ImageReadParam param = reader.getDefaultReadParam();
+                for (int y = 0; y < height; y += bandRows) {
+                    int bandHeight = Math.min(bandRows, height - y);
+                    param.setSourceRegion(new Rectangle(0, y, width, bandHeight));
+                    BufferedImage decoded = reader.read(0, param);
+                    decoded.getRGB(0, 0, width, bandHeight, band, 0, width);
+                    raster.writeRegion(0, y, width, bandHeight, band, 0, width);
+                }
+                return raster;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
     /**
      * Sauvegarde l'image actuelle avec les modifications effectuées.
      * 
@@ -156,9 +240,6 @@ public class FileManagementService {
      */
     public boolean saveImageToFile(File file) {
         try {
-            // Créer une image composite : image de base + canvas
-            Image compositeImage = drawingService.createCompositeImage();
-
             // Déterminer le format à partir de l'extension
             String fileName = file.getName().toLowerCase();
             // On choisit PNG par défaut car c'est un format sans perte
@@ -168,6 +249,16 @@ public class FileManagementService {
                 format = "jpg";
             }
 
+            if (imageModel.isTiled()) {
+                // Très grande image : composite en tuiles, lu par zones par l'encodeur
+                TiledRaster composite = imageModel.createCompositeRaster(drawingService.getDrawingCanvas());
+                ImageIO.write(new TiledRasterImage(composite, format.equals("jpg")), format, file);
+                return finishSave(file);
+            }
+
+            // Créer une image composite : image de base + canvas
+            Image compositeImage = drawingService.createCompositeImage();
+
             // Gestion spéciale pour JPEG (pas de transparence)
             BufferedImage bufferedImage;
             if (format.equals("jpg")) {
@@ -194,22 +285,31 @@ public class FileManagementService {
 
             // Sauvegarder l'image
             ImageIO.write(bufferedImage, format, file);
-            
-            // Mettre à jour le fichier source si c'était une sauvegarde directe
-            if (file.equals(sourceFile) || sourceFile == null) {
-                sourceFile = file;
-            }
-            
-            // Marquer comme sauvegardé
-            stateManager.markAsSaved();
-            
-            return true;
+            return finishSave(file);
         } catch (IOException e) {
             showAlert("Save Error", "Unable to save image: " + e.getMessage());
             return false;
         }
     }
     
+    /**
+     * Met à jour l'état après une sauvegarde réussie.
+     * 
+     * @param file Le fichier écrit
+     * @return toujours true
+     */
+    private boolean finishSave(File file) {
+        // Mettre à jour le fichier source si c'était une sauvegarde directe
+        if (file.equals(sourceFile) || sourceFile == null) {
+            sourceFile = file;
+        }
+        
+        // Marquer comme sauvegardé
+        stateManager.markAsSaved();
+        
+        return true;
+    }
+    
     /**
      * Crée un nouveau canvas de dessin vide.
      * 
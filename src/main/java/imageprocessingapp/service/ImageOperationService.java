@@ -1,6 +1,7 @@
 package imageprocessingapp.service;
 
 import imageprocessingapp.model.ImageModel;
+import imageprocessingapp.model.operations.Operation;
 import imageprocessingapp.model.operations.RotateOperation;
 import imageprocessingapp.model.operations.SymmetryOperation;
 import imageprocessingapp.model.operations.CropOperation;
@@ -14,6 +15,8 @@ import javafx.scene.image.Image;
 import javafx.scene.image.WritableImage;
 import javafx.scene.layout.Region;
 
+import java.util.Objects;
+
 /**
  * Service pour gérer les transformations d'image (rotation, symétrie, crop).
  * 
@@ -55,6 +58,67 @@ public class ImageOperationService {
         this.stateManager = stateManager;
     }
     
+    /**
+     * Applique une transformation réversible (rotation ou symétrie) à l'image et au dessin.
+     * Sert à rejouer une opération, ou son inverse, depuis l'historique.
+     * 
+     * @param operation La rotation ou la symétrie à appliquer
+     * @return true si la transformation a été appliquée avec succès, false sinon
+     * @throws IllegalArgumentException si l'opération n'est ni une rotation ni une symétrie
+     */
+    public boolean applyTransform(Operation operation) {
+        if (operation instanceof RotateOperation rotate) {
+            return applyRotation(rotate.getDirection());
+        }
+        if (operation instanceof SymmetryOperation symmetry) {
+            return applySymmetry(symmetry.getAxis());
+        }
+        throw new IllegalArgumentException("Opération non prise en charge : " + operation);
+    }
+    
+    /**
+     * Indique si une transformation est exactement annulée par son inverse, dessin compris.
+     * 
+     * Le dessin est capturé puis redessiné à la taille d'affichage du canvas : il n'est
+     * rééchantillonné que si cette taille n'est pas entière, ou si elle change autrement
+     * que par un échange largeur/hauteur. Une rotation d'image non carrée change le
+     * rapport d'affichage dans le cadre 800×600 (1600×900 : 800×450, puis 337,5×600) ;
+     * la rotation puis son inverse ne rendent donc pas le même dessin.
+     * 
+     * @param operation La rotation ou la symétrie à appliquer
+     * @return true pour une symétrie, ou une rotation d'image carrée, sur un canvas de
+     *         taille entière avec une image chargée
+     */
+    public boolean isExactTransform(Operation operation) {
+        if (!imageModel.hasImage()
+                || drawingCanvas.getWidth() != Math.rint(drawingCanvas.getWidth())
+                || drawingCanvas.getHeight() != Math.rint(drawingCanvas.getHeight())) {
+            return false;
+        }
+        if (operation instanceof SymmetryOperation) {
+            return true;
+        }
+        return operation instanceof RotateOperation && imageModel.getWidth() == imageModel.getHeight();
+    }
+    
+    /**
+     * Applique une rotation ou une symétrie en l'inscrivant dans l'historique : en simple
+     * commande, annulée en rejouant l'inverse, si la transformation est exacte
+     * ({@link #isExactTransform(Operation)}), et sinon après une sauvegarde complète de l'état.
+     * 
+     * @param operation La rotation ou la symétrie à appliquer
+     * @param history L'historique undo/redo
+     * @return true si la transformation a été appliquée avec succès, false sinon
+     */
+    public boolean applyTransform(Operation operation, UndoRedoService history) {
+        Objects.requireNonNull(history, "history");
+        if (isExactTransform(operation)) {
+            return history.execute(operation, this::applyTransform);
+        }
+        history.saveState();
+        return applyTransform(operation);
+    }
+    
     /**
      * Applique une rotation à l'image.
      * 
@@ -193,6 +257,11 @@ public class ImageOperationService {
         }
 
         try {
+            // Très grande image : crop en pleine résolution, tuile par tuile
+            if (imageModel.isTiled()) {
+                return applyTiledCrop(cropArea);
+            }
+
             // Créer une image composite (fond + canvas)
             WritableImage compositeSnapshot = createCompositeSnapshot();
             if (compositeSnapshot == null) {
@@ -201,7 +270,8 @@ public class ImageOperationService {
             }
 
             // Convertir les coordonnées d'affichage vers coordonnées image native
-            Rectangle2D scaledCropArea = convertCropAreaToImageCoordinates(cropArea, compositeSnapshot);
+            Rectangle2D scaledCropArea = convertCropAreaToImageCoordinates(
+                    cropArea, compositeSnapshot.getWidth(), compositeSnapshot.getHeight());
             if (scaledCropArea == null) {
                 showAlert("Cropping Failed", "Invalid selection area.");
                 return null;
@@ -223,6 +293,31 @@ public class ImageOperationService {
         }
     }
     
+    /**
+     * Crop d'une image en tuiles : le dessin est fusionné dans un raster composite
+     * pleine résolution, puis la zone est extraite bloc par bloc.
+     *
+     * @param cropArea La zone de crop en coordonnées d'affichage
+     * @return L'aperçu de l'image croppée ou null si la zone est invalide
+     */
+    private WritableImage applyTiledCrop(Rectangle2D cropArea) {
+        Rectangle2D scaledCropArea = convertCropAreaToImageCoordinates(
+                cropArea, imageModel.getWidth(), imageModel.getHeight());
+        if (scaledCropArea == null) {
+            showAlert("Cropping Failed", "Invalid selection area.");
+            return null;
+        }
+
+        ImageModel compositeModel = new ImageModel();
+        compositeModel.setRaster(imageModel.createCompositeRaster(drawingCanvas));
+        imageModel.setRaster(new CropOperation(scaledCropArea).cropRaster(compositeModel));
+
+        WritableImage preview = imageModel.getWritableImage();
+        currentImageProperty.set(preview);
+        resetCanvasAfterCrop(preview);
+        return preview;
+    }
+
     /**
      * Crée une image composite fusionnant le fond et le canvas.
      *
@@ -249,12 +344,11 @@ public class ImageOperationService {
      * Applique le facteur d'échelle et le zoom/translation du container, puis clampe aux dimensions de l'image.
      *
      * @param cropArea Zone de crop en coordonnées d'affichage (local au canvas)
-     * @param image Image native de référence
+     * @param imageWidth Largeur de l'image native de référence
+     * @param imageHeight Hauteur de l'image native de référence
      * @return Zone de crop en coordonnées image ou null si invalide
      */
-    private Rectangle2D convertCropAreaToImageCoordinates(Rectangle2D cropArea, WritableImage image) {
-        double imageWidth = image.getWidth();
-        double imageHeight = image.getHeight();
+    private Rectangle2D convertCropAreaToImageCoordinates(Rectangle2D cropArea, double imageWidth, double imageHeight) {
         double displayWidth = drawingCanvas.getWidth();
         double displayHeight = drawingCanvas.getHeight();
 
@@ -313,10 +407,18 @@ public class ImageOperationService {
      * @param croppedImage Image résultant du crop
      */
     private void updateImageAfterCrop(WritableImage croppedImage) {
-        // Mettre à jour l'image affichée
-        currentImageProperty.set(croppedImage);
+        // Mettre à jour le modèle puis l'image affichée (vue du raster)
         imageModel.setImage(croppedImage);
+        currentImageProperty.set(imageModel.getImage());
+        resetCanvasAfterCrop(croppedImage);
+    }
 
+    /**
+     * Adapte le canvas de dessin et le masque à l'image croppée.
+     *
+     * @param croppedImage Image affichée après le crop
+     */
+    private void resetCanvasAfterCrop(Image croppedImage) {
         // Redimensionner le canvas de dessin
         drawingService.resizeCanvasToImage(croppedImage);
 
@@ -0,0 +1,187 @@
+package imageprocessingapp.service;
+
+import imageprocessingapp.model.TiledRaster;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.ColorModel;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Vector;
+
+/**
+ * Adaptateur {@link RenderedImage} d'un {@link TiledRaster}, pour l'écriture via ImageIO.
+ *
+ * Les pixels ne sont copiés qu'à la demande, zone par zone : l'encodeur PNG lisant
+ * l'image ligne par ligne, une très grande image est sauvegardée sans jamais être
+ * matérialisée en entier dans le tas. En mode opaque (JPEG), les pixels sont composés
+ * sur un fond blanc et le canal alpha est supprimé.
+ */
+final class TiledRasterImage implements RenderedImage {
+
+    private final TiledRaster raster;
+    private final boolean opaque;
+    private final ColorModel colorModel;
+    private final SampleModel sampleModel;
+
+    /**
+     * @param raster le raster à exposer
+     * @param opaque true pour aplatir l'image sur fond blanc (format sans transparence)
+     */
+    TiledRasterImage(TiledRaster raster, boolean opaque) {
+        this.raster = raster;
+        this.opaque = opaque;
+        this.colorModel = opaque
+                ? new DirectColorModel(24, 0x00FF0000, 0x0000FF00, 0x000000FF)
+                : ColorModel.getRGBdefault();
+        this.sampleModel = colorModel.createCompatibleSampleModel(TiledRaster.TILE_SIZE, TiledRaster.TILE_SIZE);
+    }
+
+    @Override
+    public Raster getData(Rectangle rect) {
+        WritableRaster region = Raster.createWritableRaster(
+                sampleModel.createCompatibleSampleModel(rect.width, rect.height), new Point(rect.x, rect.y));
+        copyInto(region, rect.x, rect.y, rect.width, rect.height);
+        return region;
+    }
+
+    @Override
+    public Raster getData() {
+        return getData(new Rectangle(0, 0, getWidth(), getHeight()));
+    }
+
+    @Override
+    public Raster getTile(int tileX, int tileY) {
+        return getData(new Rectangle(tileX * TiledRaster.TILE_SIZE, tileY * TiledRaster.TILE_SIZE,
+                raster.getTileWidth(tileX), raster.getTileHeight(tileY)));
+    }
+
+    @Override
+    public WritableRaster copyData(WritableRaster outRaster) {
+        if (outRaster == null) {
+            return (WritableRaster) getData();
+        }
+        Rectangle bounds = outRaster.getBounds().intersection(new Rectangle(0, 0, getWidth(), getHeight()));
+        if (!bounds.isEmpty()) {
+            copyInto(outRaster, bounds.x, bounds.y, bounds.width, bounds.height);
+        }
+        return outRaster;
+    }
+
+    /**
+     * Copie une zone du raster en tuiles dans un raster AWT, ligne par ligne.
+     */
+    private void copyInto(WritableRaster target, int x, int y, int w, int h) {
+        int[] row = new int[w];
+        for (int j = 0; j < h; j++) {
+            raster.readRegion(x, y + j, w, 1, row, 0, w);
+            if (opaque) {
+                for (int i = 0; i < w; i++) {
+                    row[i] = flattenOnWhite(row[i]);
+                }
+            }
+            target.setDataElements(x, y + j, w, 1, row);
+        }
+    }
+
+    /**
+     * Compose un pixel ARGB sur un fond blanc (équivalent d'un dessin en mode SrcOver).
+     */
+    private static int flattenOnWhite(int argb) {
+        int a = argb >>> 24;
+        if (a == 255) return argb & 0x00FFFFFF;
+        int inv = 255 - a;
+        int r = (((argb >> 16) & 0xFF) * a + 255 * inv + 127) / 255;
+        int g = (((argb >> 8) & 0xFF) * a + 255 * inv + 127) / 255;
+        int b = ((argb & 0xFF) * a + 255 * inv + 127) / 255;
+        return (r << 16) | (g << 8) | b;
+    }
+
+    @Override
+    public Vector<RenderedImage> getSources() {
+        return null;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return java.awt.Image.UndefinedProperty;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return null;
+    }
+
+    @Override
+    public ColorModel getColorModel() {
+        return colorModel;
+    }
+
+    @Override
+    public SampleModel getSampleModel() {
+        return sampleModel;
+    }
+
+    @Override
+    public int getWidth() {
+        return raster.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return raster.getHeight();
+    }
+
+    @Override
+    public int getMinX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinY() {
+        return 0;
+    }
+
+    @Override
+    public int getNumXTiles() {
+        return raster.getTilesX();
+    }
+
+    @Override
+    public int getNumYTiles() {
+        return raster.getTilesY();
+    }
+
+    @Override
+    public int getMinTileX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinTileY() {
+        return 0;
+    }
+
+    @Override
+    public int getTileWidth() {
+        return TiledRaster.TILE_SIZE;
+    }
+
+    @Override
+    public int getTileHeight() {
+        return TiledRaster.TILE_SIZE;
+    }
+
+    @Override
+    public int getTileGridXOffset() {
+        return 0;
+    }
+
+    @Override
+    public int getTileGridYOffset() {
+        return 0;
+    }
+}
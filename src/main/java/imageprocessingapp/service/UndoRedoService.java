@@ -1,13 +1,28 @@
 package imageprocessingapp.service;
 
+import imageprocessingapp.model.HistoryJournal;
 import imageprocessingapp.model.ImageModel;
+import imageprocessingapp.model.ImageSnapshot;
 import javafx.beans.property.ObjectProperty;
+import imageprocessingapp.model.TileDelta;
+import imageprocessingapp.model.operations.Operation;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
 
 /**
  * Service de gestion de l'historique undo/redo.
@@ -17,35 +32,82 @@ import java.util.Objects;
  * - Une pile redo contenant les états annulés
  * 
  * Chaque état sauvegarde :
- * - L'image de base (ImageModel)
- * - Le snapshot du canvas de dessin
+ * - L'image de base (instantané copy-on-write de l'ImageModel)
+ * - Le canvas de dessin, sous forme de différence par tuiles ({@link TileDelta})
  * - Les dimensions du canvas
+ * 
+ * L'instantané de l'image de base ne copie aucun pixel : seules les tuiles modifiées
+ * ensuite sont dupliquées. Le canvas n'est conservé en entier que pour l'état le plus
+ * récent de chaque pile ({@link #mirror}) ; les états plus anciens ne gardent que les
+ * tuiles qui diffèrent de l'état suivant. Un coup de pinceau ne coûte donc que les
+ * tuiles qu'il a touchées.
+ * 
+ * Les opérations réversibles (rotation, symétrie) ne sauvegardent aucun état : l'historique
+ * garde une simple commande, annulée en rejouant l'opération inverse (voir
+ * {@link #execute(Operation, Predicate)}).
+ * 
+ * Sauvegarder un état ne fait sur le thread JavaFX que la capture du canvas : la lecture
+ * de ses pixels et le calcul des différences sont finalisés en arrière-plan. Undo et redo
+ * n'attendent une capture en cours que lorsqu'ils doivent en redessiner le canvas.
+ * 
+ * Dès qu'un état quitte le sommet d'une pile, ses données (différences de canvas, images
+ * de base remplacées depuis) sont compressées sans perte sur un thread d'arrière-plan,
+ * puis décompressées à la demande lors de la restauration.
+ * 
+ * L'historique n'est plus limité en nombre d'états : au-delà du budget mémoire, les
+ * données des états les plus anciens sont écrites dans un journal disque
+ * ({@link HistoryJournal}) au lieu d'être oubliées, et relues à la demande. Leurs
+ * enregistrements sont libérés dès que l'état quitte l'historique (branche redo
+ * abandonnée, état restauré), ce qui borne la taille du journal.
  */
 public class UndoRedoService {
     
+    /**
+     * Budget mémoire par défaut de l'historique, en octets.
+     */
+    public static final long DEFAULT_HISTORY_BUDGET = 64L * 1024 * 1024;
+    
     /**
      * Représente un état de l'application (image + canvas).
+     * 
+     * La différence du canvas permet de reconstituer cet état à partir du canvas de
+     * l'état voisin plus récent dans la même pile (ou, pour le sommet de la pile undo,
+     * à partir de l'état affiché). Elle vaut null tant que l'état est le sommet de la
+     * pile undo : son canvas est alors {@link #mirror}.
+     * 
+     * Une entrée de commande ne garde que l'opération réversible et de quoi la rejouer.
      */
     private static class AppState {
-        private final Image baseImage;
-        private final WritableImage canvasSnapshot;
+        private final ImageSnapshot baseImage;
         private final double canvasWidth;
         private final double canvasHeight;
+        // Finalisée en arrière-plan, et lue par le thread d'arrière-plan
+        private volatile CompletableFuture<TileDelta> canvasDelta;
+        private final Operation command;
+        private final Predicate<Operation> executor;
         
-        public AppState(Image baseImage, WritableImage canvasSnapshot, 
-                       double canvasWidth, double canvasHeight) {
+        public AppState(ImageSnapshot baseImage, double canvasWidth, double canvasHeight) {
             this.baseImage = baseImage;
-            this.canvasSnapshot = canvasSnapshot;
             this.canvasWidth = canvasWidth;
             this.canvasHeight = canvasHeight;
+            this.command = null;
+            this.executor = null;
         }
         
-        public Image getBaseImage() {
-            return baseImage;
+        public AppState(Operation command, Predicate<Operation> executor) {
+            this.baseImage = null;
+            this.canvasWidth = 0;
+            this.canvasHeight = 0;
+            this.command = command;
+            this.executor = executor;
         }
         
-        public WritableImage getCanvasSnapshot() {
-            return canvasSnapshot;
+        public boolean isCommand() {
+            return command != null;
+        }
+        
+        public ImageSnapshot getBaseImage() {
+            return baseImage;
         }
         
         public double getCanvasWidth() {
@@ -57,17 +119,76 @@ public class UndoRedoService {
         }
     }
     
-    private static final int MAX_HISTORY_SIZE = 20;
+    /**
+     * Pixels d'un canvas capturé (ARGB prémultiplié).
+     * Un canvas vide (capture impossible) est représenté par un raster de taille nulle.
+     */
+    private record CanvasPixels(int[] pixels, int width, int height) {
+        static final CanvasPixels EMPTY = new CanvasPixels(new int[0], 0, 0);
+    }
+    
+    /**
+     * Accès au canvas de dessin : capture de ses pixels et restauration d'un état.
+     * En production, passe par le {@link DrawingService} et le thread JavaFX.
+     */
+    interface CanvasAccess {
+        
+        /**
+         * @return une capture du canvas, ou null si elle est impossible
+         */
+        WritableImage snapshot();
+        
+        double getWidth();
+        
+        double getHeight();
+        
+        /**
+         * Redimensionne et réinitialise le canvas, puis y dessine l'image donnée.
+         * 
+         * @param width La nouvelle largeur du canvas
+         * @param height La nouvelle hauteur du canvas
+         * @param image Les pixels du canvas, ou null pour un canvas réinitialisé
+         */
+        void restore(double width, double height, WritableImage image);
+    }
+    
+    /**
+     * Thread de finalisation des captures (lecture des pixels, différences), partagé par
+     * tous les services. Étant unique, il exécute les tâches dans leur ordre de soumission :
+     * une tâche peut attendre sans risque le résultat d'une tâche soumise avant elle.
+     */
+    private static final ExecutorService FINALIZER = daemonExecutor("undo-capture");
+    
+    /**
+     * Thread de compression et d'écriture sur disque de l'historique, séparé pour qu'une
+     * annulation n'attende jamais la compression d'une grande image.
+     */
+    private static final ExecutorService COMPRESSOR = daemonExecutor("undo-compression");
     
     private final ImageModel imageModel;
-    private final DrawingService drawingService;
+    private final CanvasAccess canvas;
     private final ObjectProperty<Image> currentImageProperty;
+    private final Executor finalizer;
+    private final Executor compressor;
     
     // Deque est une interface qui représente une file doublement liée (double-linked list)
     // Elle permet d'ajouter et de retirer des éléments à l'avant et à l'arrière de la file
     private final Deque<AppState> undoStack;
     private final Deque<AppState> redoStack;
     
+    /**
+     * Canvas complet de l'état au sommet de la pile undo, éventuellement encore en cours
+     * de finalisation (null si ce sommet est une commande).
+     */
+    private CompletableFuture<CanvasPixels> mirror;
+    
+    private long historyBudget;
+    
+    /**
+     * Journal disque des états sortis du budget mémoire, créé au premier dépassement.
+     */
+    private HistoryJournal journal;
+    
     /**
      * Constructeur.
      * 
@@ -78,77 +199,132 @@ public class UndoRedoService {
     public UndoRedoService(ImageModel imageModel, 
                           DrawingService drawingService,
                           ObjectProperty<Image> currentImageProperty) {
+        this(imageModel, drawingService, currentImageProperty, DEFAULT_HISTORY_BUDGET);
+    }
+    
+    /**
+     * Constructeur avec budget mémoire explicite.
+     * 
+     * @param imageModel Le modèle d'image
+     * @param drawingService Le service de dessin
+     * @param currentImageProperty La propriété observable de l'image actuelle
+     * @param historyBudget Mémoire maximale de l'historique, en octets
+     * @throws IllegalArgumentException si le budget n'est pas strictement positif
+     */
+    public UndoRedoService(ImageModel imageModel, 
+                          DrawingService drawingService,
+                          ObjectProperty<Image> currentImageProperty,
+                          long historyBudget) {
+        this(imageModel, canvasOf(Objects.requireNonNull(drawingService, "drawingService")),
+                currentImageProperty, historyBudget, FINALIZER, COMPRESSOR);
+    }
+    
+    /**
+     * Constructeur avec accès au canvas et threads d'arrière-plan explicites.
+     * Chaque exécuteur doit traiter ses tâches une à la fois, dans leur ordre de
+     * soumission (thread unique, ou exécution immédiate dans le thread appelant).
+     * 
+     * @param canvas L'accès au canvas de dessin
+     * @param finalizer Finalise les captures du canvas et calcule les différences
+     * @param compressor Compresse l'historique et l'écrit dans le journal disque
+     */
+    UndoRedoService(ImageModel imageModel,
+                    CanvasAccess canvas,
+                    ObjectProperty<Image> currentImageProperty,
+                    long historyBudget,
+                    Executor finalizer,
+                    Executor compressor) {
         this.imageModel = Objects.requireNonNull(imageModel, "imageModel");
-        this.drawingService = Objects.requireNonNull(drawingService, "drawingService");
+        this.canvas = Objects.requireNonNull(canvas, "canvas");
         this.currentImageProperty = Objects.requireNonNull(currentImageProperty, "currentImageProperty");
+        this.finalizer = Objects.requireNonNull(finalizer, "finalizer");
+        this.compressor = Objects.requireNonNull(compressor, "compressor");
         this.undoStack = new ArrayDeque<>();
         this.redoStack = new ArrayDeque<>();
+        setHistoryBudget(historyBudget);
+    }
+    
+    /**
+     * Modifie le budget mémoire de l'historique. Les états les plus anciens sont
+     * écrits sur disque à la prochaine sauvegarde si le nouveau budget est dépassé.
+     * 
+     * @param historyBudget Mémoire maximale de l'historique, en octets
+     * @throws IllegalArgumentException si le budget n'est pas strictement positif
+     */
+    public void setHistoryBudget(long historyBudget) {
+        if (historyBudget <= 0) {
+            throw new IllegalArgumentException("Budget d'historique invalide : " + historyBudget);
+        }
+        this.historyBudget = historyBudget;
+    }
+    
+    public long getHistoryBudget() {
+        return historyBudget;
     }
     
     /**
      * Sauvegarde l'état actuel avant une opération.
+     * 
+     * Seule la capture du canvas est faite tout de suite, sur le thread JavaFX ; la
+     * lecture de ses pixels et le calcul de la différence de l'ancien sommet sont
+     * finalisés en arrière-plan, sans retarder le premier segment du trait.
      */
     public void saveState() {
-        // Capturer l'état actuel
-        Image baseImage = imageModel.getImage();
-        WritableImage canvasSnapshot = drawingService.snapshotCanvas();
-        double canvasWidth = drawingService.getDrawingCanvas().getWidth();
-        double canvasHeight = drawingService.getDrawingCanvas().getHeight();
+        CompletableFuture<CanvasPixels> current = captureCanvas();
         
-        // Créer une copie de l'image de base si elle existe
-        Image baseImageCopy = null;
-        if (baseImage != null) {
-            baseImageCopy = cloneImage(baseImage);
-        }
-        
-        // Créer une copie du snapshot du canvas si elle existe
-        WritableImage canvasSnapshotCopy = null;
-        if (canvasSnapshot != null) {
-            canvasSnapshotCopy = cloneImage(canvasSnapshot);
-        }
-        
-        // Ajouter à la pile undo
-        undoStack.push(new AppState(baseImageCopy, canvasSnapshotCopy, canvasWidth, canvasHeight));
-        
-        // Limiter la taille de la pile
-        if (undoStack.size() > MAX_HISTORY_SIZE) {
-            undoStack.removeLast();
-        }
+        // L'ancien sommet ne garde que les tuiles qui diffèrent de l'état actuel
+        finalizeTop(pendingDelta(current));
+        undoStack.push(captureState());
+        mirror = current;
         
         // Vider la pile redo quand on fait une nouvelle opération
-        redoStack.clear();
+        clearRedo();
+        compressInBackground();
     }
     
     /**
      * Restaure l'état précédent (undo).
+     * N'attend la finalisation d'une capture en cours que si son canvas doit être redessiné.
      */
     public void undo() {
         if (!canUndo()) {
             return;
         }
-        
-        // Sauvegarder l'état actuel dans redo avant de restaurer
-        Image currentBaseImage = imageModel.getImage();
-        WritableImage currentCanvasSnapshot = drawingService.snapshotCanvas();
-        double currentCanvasWidth = drawingService.getDrawingCanvas().getWidth();
-        double currentCanvasHeight = drawingService.getDrawingCanvas().getHeight();
-        
-        Image currentBaseImageCopy = null;
-        if (currentBaseImage != null) {
-            currentBaseImageCopy = cloneImage(currentBaseImage);
+        AppState previousState = undoStack.pop();
+        CompletableFuture<CanvasPixels> previousCanvas;
+        if (previousState.isCommand()) {
+            // Rejouer l'inverse : aucun pixel n'a été sauvegardé
+            if (!previousState.executor.test(previousState.command.inverse())) {
+                undoStack.push(previousState);
+                return;
+            }
+            redoStack.push(previousState);
+            previousCanvas = captureCanvas();
+        } else {
+            CompletableFuture<CanvasPixels> current = captureCanvas();
+            previousCanvas = mirror;
+            
+            // Sauvegarder l'état actuel dans redo, relativement au canvas restauré
+            AppState currentState = captureState();
+            currentState.canvasDelta = deltaAsync(current, previousCanvas);
+            redoStack.push(currentState);
+            
+            // Restaurer l'état précédent, qui quitte l'historique
+            restoreState(previousState, previousCanvas.join());
+            discardInBackground(List.of(previousState));
         }
         
-        WritableImage currentCanvasSnapshotCopy = null;
-        if (currentCanvasSnapshot != null) {
-            currentCanvasSnapshotCopy = cloneImage(currentCanvasSnapshot);
+        // L'état suivant de la pile devient le sommet : reconstituer son canvas
+        AppState top = undoStack.peek();
+        if (top != null && !top.isCommand()) {
+            CompletableFuture<TileDelta> consumed = top.canvasDelta;
+            mirror = applyAsync(consumed, previousCanvas);
+            top.canvasDelta = null;
+            discardWhenApplied(consumed, mirror);
+        } else {
+            mirror = null;
         }
-        
-        redoStack.push(new AppState(currentBaseImageCopy, currentCanvasSnapshotCopy, 
-                                   currentCanvasWidth, currentCanvasHeight));
-        
-        // Restaurer l'état précédent
-        AppState previousState = undoStack.pop();
-        restoreState(previousState);
+        compressInBackground();
     }
     
     /**
@@ -158,79 +334,398 @@ public class UndoRedoService {
         if (!canRedo()) {
             return;
         }
+        CompletableFuture<CanvasPixels> current = captureCanvas();
+        AppState nextState = redoStack.peek();
+        
+        if (nextState.isCommand()) {
+            // Rejouer la commande ; l'état actuel se reconstituera en rejouant son inverse
+            CompletableFuture<TileDelta> topDelta = pendingDelta(current);
+            if (!nextState.executor.test(nextState.command)) {
+                return;
+            }
+            redoStack.pop();
+            finalizeTop(topDelta);
+            undoStack.push(nextState);
+            mirror = null;
+            compressInBackground();
+            return;
+        }
         
         // Sauvegarder l'état actuel dans undo avant de restaurer
-        Image currentBaseImage = imageModel.getImage();
-        WritableImage currentCanvasSnapshot = drawingService.snapshotCanvas();
-        double currentCanvasWidth = drawingService.getDrawingCanvas().getWidth();
-        double currentCanvasHeight = drawingService.getDrawingCanvas().getHeight();
+        finalizeTop(pendingDelta(current));
+        undoStack.push(captureState());
+        mirror = current;
         
-        Image currentBaseImageCopy = null;
-        if (currentBaseImage != null) {
-            currentBaseImageCopy = cloneImage(currentBaseImage);
+        // Restaurer l'état suivant, qui quitte l'historique
+        redoStack.pop();
+        restoreState(nextState, applyAsync(nextState.canvasDelta, current).join());
+        discardInBackground(List.of(nextState));
+        compressInBackground();
+    }
+    
+    /**
+     * Applique une opération réversible en n'enregistrant qu'une commande dans l'historique.
+     * 
+     * L'annulation rejoue {@link Operation#inverse()} via le même exécuteur : ni l'image
+     * ni le canvas ne sont sauvegardés. Une opération sans inverse exact est appliquée
+     * après une sauvegarde classique de l'état. L'appelant s'assure que l'exécuteur est
+     * lui aussi exact, dessin compris (voir {@link ImageOperationService#isExactTransform}).
+     * 
+     * @param operation L'opération à appliquer
+     * @param executor Applique une opération (ou son inverse) à l'image et au dessin,
+     *                 et retourne true en cas de succès
+     * @return true si l'opération a été appliquée
+     */
+    public boolean execute(Operation operation, Predicate<Operation> executor) {
+        Objects.requireNonNull(operation, "operation");
+        Objects.requireNonNull(executor, "executor");
+        if (operation.inverse() == null) {
+            saveState();
+            return executor.test(operation);
         }
         
-        WritableImage currentCanvasSnapshotCopy = null;
-        if (currentCanvasSnapshot != null) {
-            currentCanvasSnapshotCopy = cloneImage(currentCanvasSnapshot);
+        // Le sommet devra se reconstituer à partir du canvas d'avant l'opération
+        CompletableFuture<TileDelta> topDelta = pendingDelta(captureCanvas());
+        if (!executor.test(operation)) {
+            return false;
         }
-        
-        undoStack.push(new AppState(currentBaseImageCopy, currentCanvasSnapshotCopy, 
-                                   currentCanvasWidth, currentCanvasHeight));
-        
-        // Restaurer l'état suivant
-        AppState nextState = redoStack.pop();
-        restoreState(nextState);
+        finalizeTop(topDelta);
+        undoStack.push(new AppState(operation, executor));
+        mirror = null;
+        clearRedo();
+        compressInBackground();
+        return true;
+    }
+    
+    /**
+     * Confie au thread d'arrière-plan les données de l'historique : compression de ce qui
+     * ne l'est pas encore, puis écriture dans le journal des états les plus anciens
+     * tant que le budget mémoire est dépassé. Les images de base encore partagées avec
+     * le modèle sont ignorées par {@link ImageSnapshot#compress()}.
+     *
+     * Les instantanés en tuiles partagent leurs tuiles (non thread-safe) avec le modèle :
+     * leur mémoire est mesurée ici, sur le thread JavaFX, avant de confier le travail.
+     * Le thread d'arrière-plan ne les touche pas (ils ne sont ni compressés ni écrits).
+     */
+    private void compressInBackground() {
+        // Du plus ancien au plus récent, pour écrire d'abord les états les moins probables à restaurer
+        List<AppState> states = new ArrayList<>(undoStack.size() + redoStack.size());
+        undoStack.descendingIterator().forEachRemaining(states::add);
+        redoStack.descendingIterator().forEachRemaining(states::add);
+        if (states.isEmpty()) {
+            return;
+        }
+        long budget = historyBudget - mirrorBytes() - tiledBytes(states);
+        HistoryJournal target = null;
+        if (historyBytes(states) > budget) {
+            if (journal == null) {
+                journal = new HistoryJournal();
+            }
+            target = journal;
+        }
+        HistoryJournal spillTarget = target;
+        // Les différences pas encore finalisées seront traitées au passage suivant
+        compressor.execute(() -> {
+            for (AppState state : states) {
+                TileDelta delta = deltaNow(state);
+                if (delta != null) {
+                    delta.compress();
+                }
+                if (state.getBaseImage() != null) {
+                    state.getBaseImage().compress();
+                }
+            }
+            if (spillTarget == null) {
+                return;
+            }
+            for (AppState state : states) {
+                if (historyBytes(states) <= budget) {
+                    break;
+                }
+                TileDelta delta = deltaNow(state);
+                if (delta != null) {
+                    delta.spill(spillTarget);
+                }
+                if (state.getBaseImage() != null) {
+                    state.getBaseImage().spill(spillTarget);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Abandonne la branche redo après une nouvelle opération.
+     */
+    private void clearRedo() {
+        List<AppState> dropped = new ArrayList<>(redoStack);
+        redoStack.clear();
+        discardInBackground(dropped);
+    }
+    
+    /**
+     * Libère les enregistrements du journal disque d'états sortis de l'historique : leur
+     * différence de canvas, et leur image de base si aucun état restant ne la partage.
+     * Confié au thread d'arrière-plan, après les écritures déjà en file qui peuvent
+     * encore concerner ces états.
+     */
+    private void discardInBackground(List<AppState> dropped) {
+        if (journal == null || dropped.isEmpty()) {
+            return;
+        }
+        Set<ImageSnapshot> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (AppState state : undoStack) {
+            kept.add(state.getBaseImage());
+        }
+        for (AppState state : redoStack) {
+            kept.add(state.getBaseImage());
+        }
+        List<ImageSnapshot> bases = new ArrayList<>();
+        for (AppState state : dropped) {
+            ImageSnapshot base = state.getBaseImage();
+            if (base != null && kept.add(base)) {
+                bases.add(base);
+            }
+        }
+        compressor.execute(() -> {
+            for (AppState state : dropped) {
+                TileDelta delta = deltaNow(state);
+                if (delta != null) {
+                    delta.discard();
+                }
+            }
+            bases.forEach(ImageSnapshot::discard);
+        });
+    }
+    
+    /**
+     * Libère l'enregistrement du journal d'une différence consommée pour reconstituer
+     * un canvas, une fois celui-ci reconstitué.
+     */
+    private void discardWhenApplied(CompletableFuture<TileDelta> delta, CompletableFuture<CanvasPixels> applied) {
+        if (journal == null || delta == null) {
+            return;
+        }
+        applied.whenComplete((canvas, error) -> compressor.execute(() -> {
+            TileDelta done = delta.getNow(null);
+            if (done != null) {
+                done.discard();
+            }
+        }));
+    }
+    
+    /**
+     * Différence entre le canvas complet du sommet de la pile undo et le canvas qui va
+     * lui succéder, ou null si le sommet n'a pas de canvas complet (pile vide, commande).
+     */
+    private CompletableFuture<TileDelta> pendingDelta(CompletableFuture<CanvasPixels> next) {
+        AppState top = undoStack.peek();
+        if (top == null || top.isCommand() || top.canvasDelta != null) {
+            return null;
+        }
+        return deltaAsync(mirror, next);
+    }
+    
+    /**
+     * Remplace le canvas complet du sommet de la pile undo par sa différence.
+     */
+    private void finalizeTop(CompletableFuture<TileDelta> delta) {
+        if (delta != null) {
+            undoStack.peek().canvasDelta = delta;
+        }
+    }
+    
+    /**
+     * Capture l'état actuel : instantané copy-on-write de l'image de base
+     * et dimensions du canvas (ses pixels sont gérés à part, par différences).
+     * 
+     * @return L'état capturé
+     */
+    private AppState captureState() {
+        ImageSnapshot baseImage = imageModel.hasImage() ? imageModel.snapshot() : null;
+        return new AppState(baseImage, canvas.getWidth(), canvas.getHeight());
+    }
+    
+    /**
+     * Capture le canvas de dessin : la capture elle-même est immédiate, la lecture de
+     * ses pixels est finalisée en arrière-plan.
+     */
+    private CompletableFuture<CanvasPixels> captureCanvas() {
+        WritableImage snapshot = canvas.snapshot();
+        return CompletableFuture.supplyAsync(() -> readPixels(snapshot), finalizer);
+    }
+    
+    /**
+     * Lit les pixels d'une capture de canvas.
+     */
+    private static CanvasPixels readPixels(WritableImage snapshot) {
+        if (snapshot == null || snapshot.getPixelReader() == null) {
+            return CanvasPixels.EMPTY;
+        }
+        int w = (int) snapshot.getWidth();
+        int h = (int) snapshot.getHeight();
+        int[] pixels = new int[w * h];
+        snapshot.getPixelReader().getPixels(0, 0, w, h, PixelFormat.getIntArgbPreInstance(), pixels, 0, w);
+        return new CanvasPixels(pixels, w, h);
+    }
+    
+    /**
+     * Différence permettant de reconstituer {@code from} à partir de {@code to}, calculée
+     * en arrière-plan. Les deux canvas, soumis avant, sont déjà finalisés quand la tâche
+     * s'exécute.
+     */
+    private CompletableFuture<TileDelta> deltaAsync(CompletableFuture<CanvasPixels> from,
+                                                           CompletableFuture<CanvasPixels> to) {
+        return CompletableFuture.supplyAsync(() -> {
+            CanvasPixels a = from.join();
+            CanvasPixels b = to.join();
+            return TileDelta.between(a.pixels(), a.width(), a.height(), b.pixels(), b.width(), b.height());
+        }, finalizer);
+    }
+    
+    /**
+     * Reconstitue en arrière-plan un canvas à partir de sa différence avec un canvas
+     * voisin (non modifié).
+     */
+    private CompletableFuture<CanvasPixels> applyAsync(CompletableFuture<TileDelta> delta,
+                                                              CompletableFuture<CanvasPixels> neighbour) {
+        return CompletableFuture.supplyAsync(() -> {
+            TileDelta d = delta.join();
+            return new CanvasPixels(d.applyTo(neighbour.join().pixels().clone()), d.getWidth(), d.getHeight());
+        }, finalizer);
+    }
+    
+    /**
+     * Différence du canvas d'un état si elle est déjà finalisée, null sinon.
+     */
+    private static TileDelta deltaNow(AppState state) {
+        CompletableFuture<TileDelta> delta = state.canvasDelta;
+        return delta != null ? delta.getNow(null) : null;
+    }
+    
+    /**
+     * Accès au canvas du service de dessin, sur le thread JavaFX.
+     */
+    private static CanvasAccess canvasOf(DrawingService drawingService) {
+        return new CanvasAccess() {
+            @Override
+            public WritableImage snapshot() {
+                return drawingService.snapshotCanvas();
+            }
+            
+            @Override
+            public double getWidth() {
+                return drawingService.getDrawingCanvas().getWidth();
+            }
+            
+            @Override
+            public double getHeight() {
+                return drawingService.getDrawingCanvas().getHeight();
+            }
+            
+            @Override
+            public void restore(double width, double height, WritableImage image) {
+                drawingService.getDrawingCanvas().setWidth(width);
+                drawingService.getDrawingCanvas().setHeight(height);
+                drawingService.createDefaultCanvas();
+                drawingService.drawImageOnCanvas(image);
+            }
+        };
+    }
+    
+    private static ExecutorService daemonExecutor(String name) {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
     }
     
     /**
      * Restaure un état donné.
      * 
      * @param state L'état à restaurer
+     * @param pixels Les pixels du canvas de cet état
      */
-    private void restoreState(AppState state) {
+    private void restoreState(AppState state, CanvasPixels pixels) {
         // Restaurer l'image de base
         if (state.getBaseImage() != null) {
-            imageModel.setImage(state.getBaseImage());
-            currentImageProperty.set(state.getBaseImage());
+            imageModel.restore(state.getBaseImage());
+            currentImageProperty.set(imageModel.getImage());
         } else {
             imageModel.clear();
             currentImageProperty.set(null);
         }
         
-        // Restaurer le canvas
-        drawingService.getDrawingCanvas().setWidth(state.getCanvasWidth());
-        drawingService.getDrawingCanvas().setHeight(state.getCanvasHeight());
-        drawingService.createDefaultCanvas();
-        
-        // Restaurer le snapshot du canvas si disponible
-        if (state.getCanvasSnapshot() != null) {
-            drawingService.drawImageOnCanvas(state.getCanvasSnapshot());
+        // Restaurer le canvas, et redessiner ses pixels s'ils ont pu être capturés
+        WritableImage image = null;
+        if (pixels.width() > 0 && pixels.height() > 0) {
+            image = new WritableImage(pixels.width(), pixels.height());
+            image.getPixelWriter().setPixels(0, 0, pixels.width(), pixels.height(),
+                    PixelFormat.getIntArgbPreInstance(), pixels.pixels(), 0, pixels.width());
         }
+        canvas.restore(state.getCanvasWidth(), state.getCanvasHeight(), image);
     }
     
     /**
-     * Clone une image JavaFX.
+     * Estime la mémoire retenue par l'historique : différences de canvas, canvas complet
+     * du sommet, et tuiles propres aux instantanés d'image (comptés une seule fois
+     * lorsque plusieurs états partagent le même instantané). Les données écrites dans
+     * le journal disque ne comptent pas.
      * 
-     * @param source L'image source
-     * @return Une copie de l'image
+     * @return la taille en mémoire de l'historique, en octets
      */
-    private WritableImage cloneImage(Image source) {
-        if (source == null) {
-            return null;
+    public long getHistoryBytes() {
+        List<AppState> states = new ArrayList<>(undoStack);
+        states.addAll(redoStack);
+        return mirrorBytes() + tiledBytes(states) + historyBytes(states);
+    }
+    
+    /**
+     * @return la taille du journal disque de l'historique, en octets
+     */
+    public long getJournalBytes() {
+        return journal != null ? journal.getSize() : 0;
+    }
+    
+    private long mirrorBytes() {
+        CanvasPixels canvas = mirror != null ? mirror.getNow(null) : null;
+        return canvas != null ? (long) canvas.pixels().length * Integer.BYTES : 0;
+    }
+    
+    /**
+     * Mémoire retenue par des états hors instantanés en tuiles, chaque instantané d'image
+     * n'étant compté qu'une fois. Peut être appelé depuis le thread d'arrière-plan.
+     */
+    private static long historyBytes(List<AppState> states) {
+        long bytes = 0;
+        Set<ImageSnapshot> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (AppState state : states) {
+            TileDelta delta = deltaNow(state);
+            if (delta != null) {
+                bytes += delta.getByteSize();
+            }
+            ImageSnapshot base = state.getBaseImage();
+            if (base != null && !base.isTiled() && counted.add(base)) {
+                bytes += base.getRetainedBytes();
+            }
         }
-        
-        int width = (int) source.getWidth();
-        int height = (int) source.getHeight();
-        WritableImage copy = new WritableImage(width, height);
-        
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                copy.getPixelWriter().setColor(x, y, source.getPixelReader().getColor(x, y));
+        return bytes;
+    }
+
+    /**
+     * Mémoire propre aux instantanés en tuiles des états, chacun compté une fois.
+     * À appeler depuis le thread JavaFX, seul à toucher les tuiles partagées avec le modèle.
+     */
+    private static long tiledBytes(List<AppState> states) {
+        long bytes = 0;
+        Set<ImageSnapshot> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (AppState state : states) {
+            ImageSnapshot base = state.getBaseImage();
+            if (base != null && base.isTiled() && counted.add(base)) {
+                bytes += base.getRetainedBytes();
             }
         }
-        
-        return copy;
+        return bytes;
     }
     
     /**
@@ -257,6 +752,12 @@ public class UndoRedoService {
     public void clear() {
         undoStack.clear();
         redoStack.clear();
+        mirror = null;
+        
+        // Fermer le journal après les tâches en cours, qui peuvent encore y écrire
+        if (journal != null) {
+            compressor.execute(journal::close);
+            journal = null;
+        }
     }
 }
-
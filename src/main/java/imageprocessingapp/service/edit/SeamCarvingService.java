@@ -2,7 +2,8 @@ package imageprocessingapp.service.edit;
 
 import imageprocessingapp.model.ImageModel;
 import imageprocessingapp.model.edit.SeamCarver;
-import imageprocessingapp.model.operations.RotateOperation;
+import imageprocessingapp.model.edit.SeamCarvingEngine;
+import imageprocessingapp.model.structures.EnergyFunction;
 import javafx.scene.image.WritableImage;
 
 import java.util.Objects;
@@ -23,6 +24,52 @@ public class SeamCarvingService {
         this.seamCarver = new SeamCarver();
     }
 
+    /**
+     * Choisit le coût des coutures utilisé par les prochains redimensionnements.
+     *
+     * @param energyMode énergie arrière (Sobel) ou avant
+     */
+    public void setEnergyMode(SeamCarvingEngine.EnergyMode energyMode) {
+        seamCarver.setEnergyMode(energyMode);
+    }
+
+    /**
+     * Choisit la fonction d'énergie utilisée par les prochains redimensionnements.
+     *
+     * @param energyFunction Sobel L2 (par défaut), Sobel L1, Scharr, entropie locale…
+     */
+    public void setEnergyFunction(EnergyFunction energyFunction) {
+        seamCarver.setEnergyFunction(energyFunction);
+    }
+
+    /**
+     * Choisit l'ordre des coutures quand largeur et hauteur diminuent toutes deux.
+     *
+     * @param seamOrder verticales d'abord, ou ordre optimal (carte de transport)
+     */
+    public void setSeamOrder(SeamCarver.SeamOrder seamOrder) {
+        seamCarver.setSeamOrder(seamOrder);
+    }
+
+    /**
+     * Active le mode pyramide (approché, pour les très grandes images).
+     *
+     * @param pyramid true pour le mode pyramide, false pour le mode exact
+     */
+    public void setPyramid(boolean pyramid) {
+        seamCarver.setPyramid(pyramid);
+    }
+
+    /**
+     * Règle le compromis qualité / débit : nombre maximal de coutures verticales
+     * disjointes retirées par calcul d'énergie (1 = mode exact).
+     *
+     * @param batchSize taille des lots, au moins 1
+     */
+    public void setBatchSize(int batchSize) {
+        seamCarver.setBatchSize(batchSize);
+    }
+
     public WritableImage resize(WritableImage source, int targetWidth, int targetHeight) {
         Objects.requireNonNull(source, "source");
 
@@ -32,43 +79,24 @@ public class SeamCarvingService {
         if (targetWidth <= 0 || targetHeight <= 0) {
             throw new IllegalArgumentException("Les dimensions cibles doivent être strictement positives.");
         }
-        if (targetWidth > currentWidth || targetHeight > currentHeight) {
-            throw new IllegalArgumentException("Le Seam Carving ne peut qu'amoindrir l'image.");
-        }
 
-        int verticalToRemove = currentWidth - targetWidth;
-        int horizontalToRemove = currentHeight - targetHeight;
+        // Réduction par retrait de coutures, agrandissement par duplication
+        int verticalToRemove = Math.max(0, currentWidth - targetWidth);
+        int horizontalToRemove = Math.max(0, currentHeight - targetHeight);
+        int verticalToInsert = Math.max(0, targetWidth - currentWidth);
+        int horizontalToInsert = Math.max(0, targetHeight - currentHeight);
 
-        WritableImage working = clone(source);
+        // Un seul modèle de travail : le raster est lu une fois, les coutures des deux sens
+        // sont retirées dans le même tampon, sans rotation de l'image
+        ImageModel working = new ImageModel(source);
 
-        if (verticalToRemove > 0) {
-            working = removeVerticalSeams(working, verticalToRemove);
+        if (verticalToRemove > 0 || horizontalToRemove > 0) {
+            seamCarver.resizeInPlace(working, verticalToRemove, horizontalToRemove);
         }
-        if (horizontalToRemove > 0) {
-            working = removeHorizontalSeams(working, horizontalToRemove);
+        if (verticalToInsert > 0 || horizontalToInsert > 0) {
+            seamCarver.enlargeInPlace(working, verticalToInsert, horizontalToInsert);
         }
 
-        return working;
-    }
-
-    private WritableImage removeVerticalSeams(WritableImage image, int count) {
-        ImageModel model = new ImageModel(image);
-        return seamCarver.resize(model, count);
-    }
-
-    private WritableImage removeHorizontalSeams(WritableImage image, int count) {
-        WritableImage rotated = rotate(image, RotateOperation.Direction.CLOCKWISE);
-        WritableImage reduced = removeVerticalSeams(rotated, count);
-        return rotate(reduced, RotateOperation.Direction.COUNTERCLOCKWISE);
-    }
-
-    private WritableImage rotate(WritableImage image, RotateOperation.Direction direction) {
-        ImageModel model = new ImageModel(image);
-        return new RotateOperation(direction).apply(model);
-    }
-
-    private WritableImage clone(WritableImage source) {
-        ImageModel model = new ImageModel(source);
-        return model.getWritableImage();
+        return working.getWritableImage();
     }
-}
\ No newline at end of file
+}
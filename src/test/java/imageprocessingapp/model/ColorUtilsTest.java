@@ -41,4 +41,20 @@ class ColorUtilsTest {
             "La cause devrait être une AssertionError, mais était: " + cause.getClass());
         assertEquals("ColorUtils: not callable method", cause.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void argbConversions() {
+        assertEquals(0xFFFF0000, ColorUtils.colorToArgb(Color.RED));
+        assertEquals(0x00000000, ColorUtils.colorToArgb(Color.TRANSPARENT));
+        assertEquals(Color.BLUE, ColorUtils.argbToColor(0xFF0000FF));
+        assertEquals(0x80123456, ColorUtils.colorToArgb(ColorUtils.argbToColor(0x80123456)));
+    }
+
+    @Test
+    void premultiplyRoundTrip() {
+        assertEquals(0xFF123456, ColorUtils.premultiply(0xFF123456));
+        assertEquals(0x80402010, ColorUtils.premultiply(0x80804020));
+        assertEquals(0x80804020, ColorUtils.unpremultiply(0x80402010));
+        assertEquals(0, ColorUtils.premultiply(0x00FFFFFF));
+    }
+}
@@ -0,0 +1,44 @@
+package imageprocessingapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedPixelsTest {
+
+    @Test
+    void randomPixelsRoundTrip() {
+        int[] pixels = new int[CompressedPixels.CHUNK_PIXELS * 2 + 123];
+        Random random = new Random(42);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+        CompressedPixels packed = CompressedPixels.compress(pixels);
+        assertEquals(pixels.length, packed.length());
+        assertArrayEquals(pixels, packed.decompress());
+    }
+
+    @Test
+    void gradientCompressesWell() {
+        int width = 1000;
+        int height = 800;
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                pixels[y * width + x] = 0xFF000000 | ((x & 0xFF) << 16) | ((y & 0xFF) << 8) | ((x + y) & 0xFF);
+            }
+        }
+        CompressedPixels packed = CompressedPixels.compress(pixels);
+        assertTrue(packed.getByteSize() * 10 < (long) pixels.length * Integer.BYTES);
+        assertArrayEquals(pixels, packed.decompress());
+    }
+
+    @Test
+    void emptyArrayRoundTrip() {
+        CompressedPixels packed = CompressedPixels.compress(new int[0]);
+        assertEquals(0, packed.decompress().length);
+        assertEquals(0, packed.getByteSize());
+    }
+}
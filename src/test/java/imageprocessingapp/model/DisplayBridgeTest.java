@@ -0,0 +1,163 @@
+package imageprocessingapp.model;
+
+import javafx.geometry.Rectangle2D;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DisplayBridgeTest {
+
+    /**
+     * Thread d'affichage simulé : les tâches programmées attendent d'être exécutées par le test.
+     */
+    private final List<Runnable> scheduled = Collections.synchronizedList(new ArrayList<>());
+    private final List<Rectangle2D> updates = new ArrayList<>();
+
+    private DisplayBridge bridge(int[] pixels, int width, int height, boolean onFxThread) {
+        return new DisplayBridge(pixels, width, height, scheduled::add, () -> onFxThread,
+                (writes, region) -> {
+                    updates.add(region);
+                    writes.run();
+                });
+    }
+
+    private static void awaitBlocked(Thread thread) {
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue(thread.isAlive(), "l'écriture n'a pas attendu le thread d'affichage");
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    void writeOnFxThreadIsDoneInsideTheUpdate() {
+        int[] pixels = new int[8 * 6];
+        AtomicBoolean writtenBeforeUpdate = new AtomicBoolean();
+        DisplayBridge bridge = new DisplayBridge(pixels, 8, 6, scheduled::add, () -> true,
+                (writes, region) -> {
+                    writtenBeforeUpdate.set(pixels[9] != 0);
+                    updates.add(region);
+                    writes.run();
+                });
+
+        bridge.write(1, 1, 2, 2, () -> pixels[9] = 0xFF000000);
+
+        assertFalse(writtenBeforeUpdate.get());
+        assertEquals(0xFF000000, pixels[9]);
+        assertEquals(List.of(new Rectangle2D(1, 1, 2, 2)), updates);
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    void backgroundWritesAreCoalescedIntoOneUpdate() throws InterruptedException {
+        int[] pixels = new int[8 * 6];
+        DisplayBridge bridge = bridge(pixels, 8, 6, false);
+
+        Thread first = new Thread(() -> bridge.write(0, 0, 2, 2, () -> pixels[0] = 1));
+        first.start();
+        awaitBlocked(first);
+        Thread second = new Thread(() -> bridge.write(5, 4, 3, 1, () -> pixels[4 * 8 + 7] = 2));
+        second.start();
+        awaitBlocked(second);
+
+        // Rien n'est écrit avant le passage sur le thread d'affichage, programmé une seule fois
+        assertEquals(0, pixels[0]);
+        assertEquals(0, pixels[4 * 8 + 7]);
+        assertEquals(1, scheduled.size());
+
+        scheduled.remove(0).run();
+        first.join();
+        second.join();
+
+        assertEquals(1, pixels[0]);
+        assertEquals(2, pixels[4 * 8 + 7]);
+        assertEquals(List.of(new Rectangle2D(0, 0, 8, 5)), updates);
+    }
+
+    @Test
+    void flushResetsTheDirtyRegion() throws InterruptedException {
+        int[] pixels = new int[8 * 6];
+        DisplayBridge bridge = bridge(pixels, 8, 6, false);
+
+        for (int i = 0; i < 2; i++) {
+            int x = 3 * i;
+            Thread writer = new Thread(() -> bridge.write(x, x, 1, 1, () -> pixels[x * 8 + x] = 7));
+            writer.start();
+            awaitBlocked(writer);
+            assertEquals(1, scheduled.size());
+            scheduled.remove(0).run();
+            writer.join();
+        }
+
+        assertEquals(List.of(new Rectangle2D(0, 0, 1, 1), new Rectangle2D(3, 3, 1, 1)), updates);
+    }
+
+    @Test
+    void regionIsClippedToTheRaster() {
+        int[] pixels = new int[4 * 4];
+        DisplayBridge bridge = bridge(pixels, 4, 4, true);
+
+        bridge.write(-2, 3, 10, 5, () -> pixels[15] = 1);
+
+        assertEquals(List.of(new Rectangle2D(0, 3, 4, 1)), updates);
+        assertEquals(1, pixels[15]);
+    }
+
+    @Test
+    void writeWithoutToolkitIsDoneDirectly() {
+        int[] pixels = new int[4];
+        DisplayBridge bridge = new DisplayBridge(pixels, 2, 2,
+                task -> {
+                    throw new IllegalStateException("Toolkit not initialized");
+                },
+                () -> false,
+                (writes, region) -> fail("aucun affichage à rafraîchir"));
+
+        bridge.write(0, 0, 1, 1, () -> pixels[0] = 3);
+        bridge.write(1, 1, 1, 1, () -> pixels[3] = 4);
+
+        assertArrayEquals(new int[] {3, 0, 0, 4}, pixels);
+    }
+
+    @Test
+    void failingWriteIsRethrownWithoutBlockingTheOthers() throws InterruptedException {
+        int[] pixels = new int[4];
+        DisplayBridge bridge = bridge(pixels, 2, 2, false);
+
+        AtomicReference<RuntimeException> thrown = new AtomicReference<>();
+        Thread failing = new Thread(() -> {
+            try {
+                bridge.write(0, 0, 1, 1, () -> pixels[10] = 1);
+            } catch (RuntimeException e) {
+                thrown.set(e);
+            }
+        });
+        failing.start();
+        awaitBlocked(failing);
+        Thread other = new Thread(() -> bridge.write(1, 1, 1, 1, () -> pixels[3] = 5));
+        other.start();
+        awaitBlocked(other);
+
+        scheduled.remove(0).run();
+        failing.join();
+        other.join();
+
+        assertInstanceOf(IndexOutOfBoundsException.class, thrown.get());
+        assertEquals(5, pixels[3]);
+    }
+
+    @Test
+    void emptyRegionWritesNothing() {
+        DisplayBridge bridge = bridge(new int[4], 2, 2, false);
+
+        bridge.write(0, 0, 0, 2, () -> fail("écriture vide"));
+
+        assertTrue(scheduled.isEmpty());
+        assertTrue(updates.isEmpty());
+    }
+}
@@ -0,0 +1,111 @@
+package imageprocessingapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryJournalTest {
+
+    private static int[] ramp(int length, int seed) {
+        int[] pixels = new int[length];
+        for (int i = 0; i < length; i++) {
+            pixels[i] = 0xFF000000 | (i * seed);
+        }
+        return pixels;
+    }
+
+    @Test
+    void recordsAreAppendedAndReadBack() {
+        try (HistoryJournal journal = new HistoryJournal()) {
+            int[] first = ramp(1000, 3);
+            int[] second = ramp(CompressedPixels.CHUNK_PIXELS + 10, 7);
+
+            long a = journal.append(CompressedPixels.compress(first));
+            long sizeAfterFirst = journal.getSize();
+            long b = journal.append(CompressedPixels.compress(second));
+
+            assertNotEquals(a, b);
+            assertTrue(sizeAfterFirst > 0);
+            assertTrue(journal.getSize() > sizeAfterFirst);
+            assertArrayEquals(second, journal.read(b).decompress());
+            assertArrayEquals(first, journal.read(a).decompress());
+        }
+    }
+
+    @Test
+    void readOutsideJournalFails() {
+        try (HistoryJournal journal = new HistoryJournal()) {
+            assertThrows(IndexOutOfBoundsException.class, () -> journal.read(0));
+            long id = journal.append(CompressedPixels.compress(new int[10]));
+            assertThrows(IndexOutOfBoundsException.class, () -> journal.read(id + 1));
+            journal.release(id);
+            assertThrows(IndexOutOfBoundsException.class, () -> journal.read(id));
+        }
+    }
+
+    @Test
+    void releasingTheLastRecordsTruncatesTheFile() {
+        try (HistoryJournal journal = new HistoryJournal()) {
+            int[] kept = ramp(5000, 3);
+            long a = journal.append(CompressedPixels.compress(kept));
+            long sizeAfterFirst = journal.getSize();
+            long b = journal.append(CompressedPixels.compress(ramp(5000, 5)));
+            long c = journal.append(CompressedPixels.compress(ramp(5000, 7)));
+
+            journal.release(b);
+            journal.release(c);
+
+            assertEquals(sizeAfterFirst, journal.getSize());
+            assertArrayEquals(kept, journal.read(a).decompress());
+
+            journal.release(a);
+            assertEquals(0, journal.getSize());
+        }
+    }
+
+    @Test
+    void sizeStaysBoundedWhenOldRecordsAreDropped() {
+        java.util.Random random = new java.util.Random(9);
+        // Pixels aléatoires : peu compressibles, quelques centaines de Ko par enregistrement
+        int[][] contents = new int[4][100_000];
+        for (int[] pixels : contents) {
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = random.nextInt();
+            }
+        }
+        try (HistoryJournal journal = new HistoryJournal()) {
+            java.util.ArrayDeque<Long> live = new java.util.ArrayDeque<>();
+            java.util.ArrayDeque<Integer> liveContents = new java.util.ArrayDeque<>();
+            long recordSize = 0;
+            for (int i = 0; i < 40; i++) {
+                long before = journal.getSize();
+                live.addLast(journal.append(CompressedPixels.compress(contents[i % contents.length])));
+                liveContents.addLast(i % contents.length);
+                recordSize = Math.max(recordSize, journal.getSize() - before);
+                // Les enregistrements les plus anciens sortent de l'historique
+                if (live.size() > 3) {
+                    journal.release(live.removeFirst());
+                    liveContents.removeFirst();
+                }
+                long bound = 2 * 4 * recordSize + HistoryJournal.COMPACTION_SLACK;
+                assertTrue(journal.getSize() <= bound, "taille " + journal.getSize() + " > " + bound);
+            }
+            // Les enregistrements vivants restent lisibles après compactage
+            java.util.Iterator<Integer> expected = liveContents.iterator();
+            for (long id : live) {
+                assertArrayEquals(contents[expected.next()], journal.read(id).decompress());
+            }
+        }
+    }
+
+    @Test
+    void closeDeletesFile() {
+        HistoryJournal journal = new HistoryJournal();
+        Path path = journal.getPath();
+        journal.close();
+        assertFalse(Files.exists(path));
+    }
+}
@@ -78,11 +78,13 @@ class ImageModelTest {
         assertNull(model.getPixelColor(10, 0));
         assertNull(model.getPixelColor(0, 10));
 
+        // La vue est adossée au raster (PixelBuffer) : on écrit via le modèle, on lit via la vue
         WritableImage writable = model.getWritableImage();
-        writable.getPixelWriter().setColor(5, 5, Color.RED);
+        model.writeRegion(5, 5, 1, 1, new int[]{ColorUtils.colorToArgb(Color.RED)}, 0, 1);
         assertEquals(Color.RED, writable.getPixelReader().getColor(5, 5));
         assertThrows(IndexOutOfBoundsException.class,
-                () -> writable.getPixelWriter().setColor(11, 5, Color.BLUE));
+                () -> model.writeRegion(11, 5, 1, 1, new int[]{ColorUtils.colorToArgb(Color.BLUE)}, 0, 1));
+        assertThrows(UnsupportedOperationException.class, writable::getPixelWriter);
     }
 
     @Test
@@ -250,62 +252,35 @@ class ImageModelTest {
         WritableImage testImage = new WritableImage(10, 10);
         var writer = testImage.getPixelWriter();
         writer.setColor(5, 5, Color.BLUE);
+        model.setImage(testImage);
 
-        // Utiliser la réflexion pour mettre writableImage à null mais garder pixelReader
+        // Utiliser la réflexion pour mettre writableImage à null : la lecture passe par le raster
         java.lang.reflect.Field writableImageField = ImageModel.class.getDeclaredField("writableImage");
         writableImageField.setAccessible(true);
         writableImageField.set(model, null);
         
-        // S'assurer que pixelReader est défini
-        java.lang.reflect.Field pixelReaderField = ImageModel.class.getDeclaredField("pixelReader");
-        pixelReaderField.setAccessible(true);
-        pixelReaderField.set(model, testImage.getPixelReader());
-
-        // S'assurer que currentImage est défini pour que hasImage() ne soit pas complètement faux
-        java.lang.reflect.Field currentImageField = ImageModel.class.getDeclaredField("currentImage");
-        currentImageField.setAccessible(true);
-        currentImageField.set(model, testImage);
-        
-        // S'assurer que width et height sont définis pour que isValidCoordinate retourne true
-        java.lang.reflect.Field widthField = ImageModel.class.getDeclaredField("width");
-        widthField.setAccessible(true);
-        widthField.set(model, 10);
-        
-        java.lang.reflect.Field heightField = ImageModel.class.getDeclaredField("height");
-        heightField.setAccessible(true);
-        heightField.set(model, 10);
-        
         Color color = model.getPixelColor(5, 5);
         assertNotNull(color);
         assertEquals(Color.BLUE, color);
     }
 
     @Test
-    void getPixelColorWithNullReader() throws Exception {
+    void getPixelColorWithNullRaster() throws Exception {
         ImageModel model = new ImageModel();
         WritableImage testImage = new WritableImage(10, 10);
         model.setImage(testImage);
         
-        // Utiliser la réflexion pour mettre writableImage et pixelReader à null
+        // Utiliser la réflexion pour mettre writableImage et le raster à null
         java.lang.reflect.Field writableImageField = ImageModel.class.getDeclaredField("writableImage");
         writableImageField.setAccessible(true);
         writableImageField.set(model, null);
         
-        java.lang.reflect.Field pixelReaderField = ImageModel.class.getDeclaredField("pixelReader");
-        pixelReaderField.setAccessible(true);
-        pixelReaderField.set(model, null);
-        
-        // S'assurer que width et height sont définis pour que isValidCoordinate retourne true
-        java.lang.reflect.Field widthField = ImageModel.class.getDeclaredField("width");
-        widthField.setAccessible(true);
-        widthField.set(model, 10);
-        
-        java.lang.reflect.Field heightField = ImageModel.class.getDeclaredField("height");
-        heightField.setAccessible(true);
-        heightField.set(model, 10);
+        java.lang.reflect.Field pixelsField = ImageModel.class.getDeclaredField("pixels");
+        pixelsField.setAccessible(true);
+        pixelsField.set(model, null);
         
         Color color = model.getPixelColor(5, 5);
-        assertNull(color, "Devrait retourner null si reader est null");
+        assertNull(color, "Devrait retourner null si le raster est null");
     }
 
     @Test
@@ -504,4 +479,108 @@ class ImageModelTest {
         // Note: La branche else est maintenant présente dans le code mais reste difficile à couvrir.
         // Elle sera couverte si les conditions mathématiques sont remplies, ce qui est rare.
     }
+
+    @Test
+    void setImageFillsRaster() {
+        WritableImage img = new WritableImage(3, 2);
+        img.getPixelWriter().setColor(0, 0, Color.RED);
+        img.getPixelWriter().setColor(2, 1, Color.BLUE);
+        ImageModel model = new ImageModel(img);
+
+        assertEquals(0xFFFF0000, model.getArgb(0, 0));
+        assertEquals(0xFF0000FF, model.getArgb(2, 1));
+        assertEquals(Color.RED, model.getPixelColor(0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> model.getArgb(3, 0));
+    }
+
+    @Test
+    void readAndWriteRegion() {
+        ImageModel model = new ImageModel(new WritableImage(4, 4));
+        int[] block = {0xFF112233, 0xFF445566, 0xFF778899, 0xFFAABBCC};
+        model.writeRegion(1, 2, 2, 2, block, 0, 2);
+
+        assertArrayEquals(block, model.readRegion(1, 2, 2, 2));
+        assertEquals(0xFF445566, model.getArgb(2, 2));
+        // La vue JavaFX est synchronisée avec le raster
+        assertEquals(0xFFAABBCC, model.getWritableImage().getPixelReader().getArgb(2, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> model.readRegion(3, 3, 2, 2));
+    }
+
+    @Test
+    void setPixelsReplacesRaster() {
+        ImageModel model = new ImageModel(new WritableImage(4, 4));
+        model.adoptPixels(new int[]{0xFF000001, 0xFF000002, 0xFF000003, 0xFF000004, 0xFF000005, 0xFF000006}, 3, 2);
+
+        assertEquals(3, model.getWidth());
+        assertEquals(2, model.getHeight());
+        assertEquals(0xFF000006, model.getArgb(2, 1));
+        assertSame(model.getWritableImage(), model.getImage());
+        assertThrows(IllegalArgumentException.class, () -> model.adoptPixels(new int[5], 3, 2));
+    }
+
+    @Test
+    void viewSharesRasterMemory() {
+        ImageModel model = new ImageModel(new WritableImage(4, 4));
+        WritableImage view = model.getWritableImage();
+        model.writeRegion(0, 0, 1, 1, new int[]{0xFF00FF00}, 0, 1);
+
+        // Pas de nouvelle image : la même vue reflète l'écriture
+        assertSame(view, model.getWritableImage());
+        assertEquals(0xFF00FF00, view.getPixelReader().getArgb(0, 0));
+    }
+
+    @Test
+    void translucentPixelsRoundTrip() {
+        ImageModel model = new ImageModel(new WritableImage(2, 1));
+        model.writeRegion(0, 0, 2, 1, new int[]{0x80FF0000, 0x00000000}, 0, 2);
+
+        int[] back = model.readRegion(0, 0, 2, 1);
+        assertEquals(0x80FF0000, back[0]);
+        assertEquals(0x00000000, back[1]);
+    }
+
+    @Test
+    void tiledRasterBacksModel() {
+        TiledRaster raster = new TiledRaster(600, 300);
+        raster.setArgb(599, 299, 0xFF0000FF);
+        ImageModel model = new ImageModel();
+        model.setRaster(raster);
+
+        assertTrue(model.isTiled());
+        assertTrue(model.hasImage());
+        assertEquals(600, model.getWidth());
+        assertEquals(0xFF0000FF, model.getArgb(599, 299));
+
+        model.writeRegion(10, 10, 1, 1, new int[]{0xFFFF0000}, 0, 1);
+        assertEquals(Color.RED, model.getPixelColor(10, 10));
+        assertEquals(2, raster.getAllocatedTileCount());
+
+        model.setImage(new WritableImage(4, 4));
+        assertFalse(model.isTiled());
+    }
+
+    @Test
+    void tilingThreshold() {
+        assertFalse(ImageModel.requiresTiling(4000, 3000));
+        assertTrue(ImageModel.requiresTiling(40000, 30000));
+    }
+
+    @Test
+    void versionChangesWithPixels() {
+        ImageModel model = new ImageModel();
+        model.adoptPixels(new int[] {0xFF000000, 0xFFFFFFFF}, 2, 1);
+        long version = model.getVersion();
+        model.readRegion(0, 0, 2, 1);
+        model.snapshot();
+        assertEquals(version, model.getVersion());
+
+        model.writeRegion(0, 0, 1, 1, new int[] {0xFFFF0000}, 0, 1);
+        assertTrue(model.getVersion() > version);
+        version = model.getVersion();
+        model.adoptPixels(new int[] {0xFF000000}, 1, 1);
+        assertTrue(model.getVersion() > version);
+        version = model.getVersion();
+        model.clear();
+        assertTrue(model.getVersion() > version);
+    }
 }
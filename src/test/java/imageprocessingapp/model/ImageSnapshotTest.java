@@ -0,0 +1,150 @@
+package imageprocessingapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageSnapshotTest {
+
+    private static ImageModel filledModel(int width, int height, int argb) {
+        int[] pixels = new int[width * height];
+        Arrays.fill(pixels, argb);
+        ImageModel model = new ImageModel();
+        model.adoptPixels(pixels, width, height);
+        return model;
+    }
+
+    @Test
+    void snapshotCopiesNothingUntilWrite() {
+        ImageModel model = filledModel(600, 300, 0xFF102030);
+        ImageSnapshot snapshot = model.snapshot();
+        assertEquals(0, snapshot.getPreservedBytes());
+
+        // Une écriture à cheval sur deux tuiles ne préserve que ces deux tuiles
+        model.writeRegion(250, 10, 10, 1, new int[10], 0, 10);
+        assertEquals(2L * 256 * 256 * Integer.BYTES, snapshot.getPreservedBytes());
+
+        int[] region = new int[10];
+        snapshot.readRegion(250, 10, 10, 1, region, 0, 10);
+        for (int argb : region) {
+            assertEquals(0xFF102030, argb);
+        }
+        assertEquals(0, model.getArgb(255, 10));
+    }
+
+    @Test
+    void restoreBringsBackSnapshotContent() {
+        ImageModel model = filledModel(300, 200, 0xFFFFFFFF);
+        ImageSnapshot snapshot = model.snapshot();
+        model.writeRegion(0, 0, 1, 1, new int[]{0xFF000000}, 0, 1);
+
+        model.restore(snapshot);
+        assertEquals(0xFFFFFFFF, model.getArgb(0, 0));
+
+        // Le modèle restauré ne partage pas son raster avec l'instantané
+        model.writeRegion(0, 0, 1, 1, new int[]{0xFF000000}, 0, 1);
+        int[] pixel = new int[1];
+        snapshot.readRegion(0, 0, 1, 1, pixel, 0, 1);
+        assertEquals(0xFFFFFFFF, pixel[0]);
+    }
+
+    @Test
+    void replacedRasterDetachesSnapshot() {
+        ImageModel model = filledModel(4, 2, 0xFF0000FF);
+        ImageSnapshot snapshot = model.snapshot();
+        model.adoptPixels(new int[2 * 4], 2, 4);
+        model.writeRegion(0, 0, 1, 1, new int[]{0xFFFF0000}, 0, 1);
+
+        assertEquals(0, snapshot.getPreservedBytes());
+        model.restore(snapshot);
+        assertEquals(4, model.getWidth());
+        assertEquals(0xFF0000FF, model.getArgb(3, 1));
+    }
+
+    @Test
+    void tiledSnapshotSharesTiles() {
+        TiledRaster raster = new TiledRaster(512, 256);
+        raster.setArgb(0, 0, 0xFF00FF00);
+        ImageModel model = new ImageModel();
+        model.setRaster(raster);
+
+        ImageSnapshot snapshot = model.snapshot();
+        assertTrue(snapshot.isTiled());
+        model.writeRegion(0, 0, 1, 1, new int[]{0xFFFF0000}, 0, 1);
+
+        model.restore(snapshot);
+        assertEquals(0xFF00FF00, model.getArgb(0, 0));
+    }
+
+    @Test
+    void snapshotRequiresImage() {
+        assertThrows(IllegalStateException.class, () -> new ImageModel().snapshot());
+        assertThrows(IllegalArgumentException.class, () -> new ImageModel().restore(null));
+    }
+
+    @Test
+    void snapshotReusedUntilPixelsChange() {
+        ImageModel model = filledModel(100, 100, 0xFF000000);
+        ImageSnapshot first = model.snapshot();
+        assertSame(first, model.snapshot());
+
+        model.writeRegion(0, 0, 1, 1, new int[1], 0, 1);
+        assertNotSame(first, model.snapshot());
+    }
+
+    @Test
+    void replacedRasterCountsAsRetained() {
+        ImageModel model = filledModel(100, 50, 0xFF000000);
+        ImageSnapshot snapshot = model.snapshot();
+        assertEquals(0, snapshot.getRetainedBytes());
+
+        model.adoptPixels(new int[10 * 10], 10, 10);
+        assertEquals(100L * 50 * Integer.BYTES, snapshot.getRetainedBytes());
+    }
+
+    @Test
+    void detachedSnapshotCompresses() {
+        ImageModel model = filledModel(300, 300, 0xFF204060);
+        model.writeRegion(0, 0, 2, 1, new int[] {0x80FF0000, 0xFF00FF00}, 0, 2);
+        ImageSnapshot snapshot = model.snapshot();
+
+        // Encore partagé avec le modèle : rien à compresser
+        snapshot.compress();
+        assertFalse(snapshot.isCompressed());
+
+        model.adoptPixels(new int[4], 2, 2);
+        snapshot.compress();
+        assertTrue(snapshot.isCompressed());
+        assertTrue(snapshot.getRetainedBytes() < 300L * 300 * Integer.BYTES);
+
+        model.restore(snapshot);
+        assertEquals(300, model.getWidth());
+        assertEquals(0xFF00FF00, model.getArgb(1, 0));
+        assertEquals(0xFF204060, model.getArgb(299, 299));
+        int[] pixel = new int[1];
+        snapshot.readRegion(0, 0, 1, 1, pixel, 0, 1);
+        assertEquals(model.getArgb(0, 0), pixel[0]);
+    }
+
+    @Test
+    void onlyDetachedSnapshotSpills() {
+        ImageModel model = filledModel(100, 100, 0xFF405060);
+        ImageSnapshot snapshot = model.snapshot();
+        try (HistoryJournal journal = new HistoryJournal()) {
+            snapshot.spill(journal);
+            assertFalse(snapshot.isSpilled());
+            assertEquals(0, journal.getSize());
+
+            model.adoptPixels(new int[1], 1, 1);
+            snapshot.spill(journal);
+            assertTrue(snapshot.isSpilled());
+            assertEquals(0, snapshot.getRetainedBytes());
+
+            model.restore(snapshot);
+            assertEquals(100, model.getWidth());
+            assertEquals(0xFF405060, model.getArgb(50, 50));
+        }
+    }
+}
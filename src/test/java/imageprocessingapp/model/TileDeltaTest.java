@@ -0,0 +1,122 @@
+package imageprocessingapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileDeltaTest {
+
+    private static int[] filled(int width, int height, int argb) {
+        int[] pixels = new int[width * height];
+        Arrays.fill(pixels, argb);
+        return pixels;
+    }
+
+    @Test
+    void identicalRastersKeepNoTile() {
+        int[] pixels = filled(200, 150, 0xFF336699);
+        TileDelta delta = TileDelta.between(pixels, 200, 150, pixels.clone(), 200, 150);
+        assertEquals(0, delta.getTileCount());
+        assertEquals(0, delta.getByteSize());
+    }
+
+    @Test
+    void strokeKeepsOnlyTouchedTiles() {
+        int[] before = filled(300, 200, 0);
+        int[] after = before.clone();
+        // Trait horizontal à cheval sur les deux premières tuiles
+        for (int x = 50; x < 80; x++) {
+            after[10 * 300 + x] = 0xFFFF0000;
+        }
+        TileDelta delta = TileDelta.between(before, 300, 200, after, 300, 200);
+        assertEquals(2, delta.getTileCount());
+        assertEquals(2L * TileDelta.TILE_SIZE * TileDelta.TILE_SIZE * Integer.BYTES, delta.getByteSize());
+
+        int[] restored = delta.applyTo(after.clone());
+        assertArrayEquals(before, restored);
+    }
+
+    @Test
+    void partialEdgeTilesRoundTrip() {
+        int[] before = new int[130 * 70];
+        for (int i = 0; i < before.length; i++) {
+            before[i] = 0xFF000000 | i;
+        }
+        int[] after = before.clone();
+        after[69 * 130 + 129] = 0;
+        TileDelta delta = TileDelta.between(before, 130, 70, after, 130, 70);
+        assertEquals(1, delta.getTileCount());
+        // Tuile de bord : 2 × 6 pixels seulement
+        assertEquals(2L * 6 * Integer.BYTES, delta.getByteSize());
+        assertArrayEquals(before, delta.applyTo(after));
+    }
+
+    @Test
+    void resizeKeepsFullSource() {
+        int[] before = filled(40, 30, 0xFF00FF00);
+        int[] after = filled(30, 40, 0xFF00FF00);
+        TileDelta delta = TileDelta.between(before, 40, 30, after, 30, 40);
+        assertEquals(40, delta.getWidth());
+        assertEquals(30, delta.getHeight());
+        assertEquals(40L * 30 * Integer.BYTES, delta.getByteSize());
+
+        int[] restored = delta.applyTo(after);
+        assertArrayEquals(before, restored);
+        assertNotSame(before, restored);
+    }
+
+    @Test
+    void compressedDeltaAppliesIdentically() {
+        int[] before = new int[200 * 100];
+        for (int i = 0; i < before.length; i++) {
+            before[i] = 0xFF000000 | (i * 31);
+        }
+        int[] after = before.clone();
+        after[50 * 200 + 150] = 0;
+        after[99 * 200 + 199] = 0;
+
+        TileDelta delta = TileDelta.between(before, 200, 100, after, 200, 100);
+        long rawBytes = delta.getByteSize();
+        delta.compress();
+        assertTrue(delta.isCompressed());
+        assertTrue(delta.getByteSize() < rawBytes);
+        assertArrayEquals(before, delta.applyTo(after.clone()));
+
+        TileDelta resized = TileDelta.between(before, 200, 100, new int[10], 5, 2);
+        resized.compress();
+        assertArrayEquals(before, resized.applyTo(new int[10]));
+    }
+
+    @Test
+    void spilledDeltaReadsFromJournal() {
+        int[] before = filled(150, 150, 0xFF112233);
+        int[] after = before.clone();
+        after[75 * 150 + 75] = 0;
+
+        try (HistoryJournal journal = new HistoryJournal()) {
+            TileDelta delta = TileDelta.between(before, 150, 150, after, 150, 150);
+            delta.spill(journal);
+            assertTrue(delta.isSpilled());
+            assertEquals(0, delta.getByteSize());
+            assertTrue(journal.getSize() > 0);
+            assertArrayEquals(before, delta.applyTo(after.clone()));
+        }
+    }
+
+    @Test
+    void discardReleasesJournalRecord() {
+        int[] before = filled(150, 150, 0xFF112233);
+        int[] after = before.clone();
+        after[0] = 0;
+
+        try (HistoryJournal journal = new HistoryJournal()) {
+            TileDelta delta = TileDelta.between(before, 150, 150, after, 150, 150);
+            delta.spill(journal);
+            delta.discard();
+            assertFalse(delta.isSpilled());
+            assertEquals(0, journal.getSize());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package imageprocessingapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TiledRasterTest {
+
+    @Test
+    void newRasterAllocatesNothing() {
+        TiledRaster raster = new TiledRaster(1000, 600);
+        assertEquals(4, raster.getTilesX());
+        assertEquals(3, raster.getTilesY());
+        assertEquals(0, raster.getAllocatedTileCount());
+        assertEquals(0, raster.getArgb(999, 599));
+    }
+
+    @Test
+    void tilesAreAllocatedOnFirstWrite() {
+        TiledRaster raster = new TiledRaster(1000, 600);
+        raster.setArgb(300, 10, 0xFF112233);
+
+        assertEquals(1, raster.getAllocatedTileCount());
+        assertTrue(raster.isTileAllocated(1, 0));
+        assertEquals(TiledRaster.TILE_BYTES, raster.getAllocatedBytes());
+        assertEquals(0xFF112233, raster.getArgb(300, 10));
+    }
+
+    @Test
+    void writingTransparentPixelsDoesNotAllocate() {
+        TiledRaster raster = new TiledRaster(512, 512);
+        raster.setArgb(5, 5, 0);
+        raster.writeRegion(0, 0, 512, 512, new int[512 * 512], 0, 512);
+        assertEquals(0, raster.getAllocatedTileCount());
+    }
+
+    @Test
+    void regionSpanningTilesRoundTrips() {
+        TiledRaster raster = new TiledRaster(700, 300);
+        int w = 300;
+        int h = 100;
+        int[] src = new int[w * h];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = 0xFF000000 | i;
+        }
+        raster.writeRegion(200, 200, w, h, src, 0, w);
+
+        // Région à cheval sur 2 colonnes et 2 lignes de tuiles
+        assertEquals(4, raster.getAllocatedTileCount());
+        assertArrayEquals(src, readAll(raster, 200, 200, w, h));
+        assertEquals(src[(260 - 200) * w + (255 - 200)], raster.getArgb(255, 260));
+    }
+
+    @Test
+    void edgeTilesHaveReducedSize() {
+        TiledRaster raster = new TiledRaster(300, 260);
+        assertEquals(256, raster.getTileWidth(0));
+        assertEquals(44, raster.getTileWidth(1));
+        assertEquals(4, raster.getTileHeight(1));
+    }
+
+    @Test
+    void invalidAccess() {
+        assertThrows(IllegalArgumentException.class, () -> new TiledRaster(0, 10));
+        TiledRaster raster = new TiledRaster(10, 10);
+        assertThrows(IndexOutOfBoundsException.class, () -> raster.getArgb(10, 0));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> raster.writeRegion(5, 5, 6, 1, new int[6], 0, 6));
+    }
+
+    @Test
+    void coldTilesAreSwappedWithinBudget() {
+        // Budget de 2 tuiles pour une image de 3x2 tuiles
+        TiledRaster raster = new TiledRaster(768, 512, 2L * TiledRaster.TILE_BYTES);
+        for (int ty = 0; ty < 2; ty++) {
+            for (int tx = 0; tx < 3; tx++) {
+                raster.setArgb(tx * 256 + 7, ty * 256 + 9, 0xFF000000 | (ty * 3 + tx));
+            }
+        }
+        assertEquals(6, raster.getAllocatedTileCount());
+        assertEquals(2, raster.getResidentTileCount());
+        assertEquals(2L * TiledRaster.TILE_BYTES, raster.getResidentBytes());
+
+        // Les tuiles échangées sont rechargées de manière transparente
+        for (int ty = 0; ty < 2; ty++) {
+            for (int tx = 0; tx < 3; tx++) {
+                assertTrue(raster.isTileAllocated(tx, ty));
+                assertEquals(0xFF000000 | (ty * 3 + tx), raster.getArgb(tx * 256 + 7, ty * 256 + 9));
+                assertEquals(0, raster.getArgb(tx * 256 + 8, ty * 256 + 9));
+            }
+        }
+        assertEquals(2, raster.getResidentTileCount());
+    }
+
+    @Test
+    void leastRecentlyUsedTileIsEvicted() {
+        TiledRaster raster = new TiledRaster(768, 256, 2L * TiledRaster.TILE_BYTES);
+        raster.setArgb(0, 0, 0xFF000001);
+        raster.setArgb(256, 0, 0xFF000002);
+        raster.getArgb(0, 0); // la tuile 0 redevient la plus récente
+        raster.setArgb(512, 0, 0xFF000003); // évince la tuile 1
+
+        raster.setArgb(1, 0, 0xFF000004); // modifie la tuile 0, toujours résidente
+        raster.setMemoryBudget(TiledRaster.TILE_BYTES); // évince la tuile 0 modifiée
+        assertEquals(1, raster.getResidentTileCount());
+        assertEquals(0xFF000004, raster.getArgb(1, 0));
+        assertEquals(0xFF000002, raster.getArgb(256, 0));
+        assertEquals(0xFF000003, raster.getArgb(512, 0));
+    }
+
+    @Test
+    void invalidBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new TiledRaster(10, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> TiledRaster.setDefaultMemoryBudget(-1));
+        // Un budget inférieur à une tuile garde au moins une tuile résidente
+        assertEquals(TiledRaster.TILE_BYTES, new TiledRaster(10, 10, 1).getMemoryBudget());
+    }
+
+    @Test
+    void copySharesTilesUntilWritten() {
+        TiledRaster original = new TiledRaster(512, 256);
+        original.setArgb(0, 0, 0xFF000001);
+        original.setArgb(300, 0, 0xFF000002);
+
+        TiledRaster copy = original.copy();
+        assertEquals(2, copy.getAllocatedTileCount());
+        assertEquals(0xFF000001, copy.getArgb(0, 0));
+
+        // Chaque côté duplique la tuile qu'il écrit, l'autre reste intact
+        copy.setArgb(0, 0, 0xFF0000AA);
+        original.setArgb(300, 0, 0xFF0000BB);
+        assertEquals(0xFF000001, original.getArgb(0, 0));
+        assertEquals(0xFF0000AA, copy.getArgb(0, 0));
+        assertEquals(0xFF000002, copy.getArgb(300, 0));
+        assertEquals(0xFF0000BB, original.getArgb(300, 0));
+    }
+
+    @Test
+    void copySharesSwappedTiles() {
+        TiledRaster original = new TiledRaster(768, 256, TiledRaster.TILE_BYTES);
+        for (int tx = 0; tx < 3; tx++) {
+            original.setArgb(tx * 256, 0, 0xFF000000 | tx);
+        }
+        TiledRaster copy = original.copy();
+        copy.setArgb(0, 0, 0xFF0000CC);
+        for (int tx = 1; tx < 3; tx++) {
+            assertEquals(0xFF000000 | tx, copy.getArgb(tx * 256, 0));
+        }
+        assertEquals(0xFF000000, original.getArgb(0, 0));
+        assertEquals(0xFF0000CC, copy.getArgb(0, 0));
+    }
+
+    @Test
+    void copyKeepsResidentTilesWithinBudget() {
+        long budget = 2L * TiledRaster.TILE_BYTES;
+        TiledRaster original = new TiledRaster(1024, 512, budget);
+        int[] row = new int[1024 * 512];
+        Arrays.fill(row, 0xFF000011);
+        original.writeRegion(0, 0, 1024, 512, row, 0, 1024);
+
+        TiledRaster snapshot = original.copy();
+        Arrays.fill(row, 0xFF000022);
+        original.writeRegion(0, 0, 1024, 512, row, 0, 1024);
+
+        // Les tampons ne sont jamais partagés : chaque éviction libère un tampon
+        assertTrue(original.getResidentBytes() + snapshot.getResidentBytes() <= budget);
+        assertEquals(0xFF000011, snapshot.getArgb(1023, 511));
+        assertEquals(0xFF000022, original.getArgb(1023, 511));
+    }
+
+    private static int[] readAll(TiledRaster raster, int x, int y, int w, int h) {
+        int[] dst = new int[w * h];
+        raster.readRegion(x, y, w, h, dst, 0, w);
+        return dst;
+    }
+}
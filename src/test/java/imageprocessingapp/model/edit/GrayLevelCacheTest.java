@@ -0,0 +1,43 @@
+package imageprocessingapp.model.edit;
+
+import imageprocessingapp.model.ImageModel;
+import imageprocessingapp.model.structures.EnergyCalculator;
+import org.junit.jupiter.api.Test;
+
+import static imageprocessingapp.model.edit.SeamCarvingEngineTest.randomPixels;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrayLevelCacheTest {
+
+    @Test
+    void convertsOncePerImageVersion() {
+        int width = 9;
+        int height = 6;
+        ImageModel model = new ImageModel();
+        model.adoptPixels(randomPixels(width, height, 1), width, height);
+        GrayLevelCache cache = new GrayLevelCache();
+
+        double[] gray = cache.grayLevels(model);
+        double[] expected = new double[width * height];
+        new EnergyCalculator().computeGrayLevels(model.readRegion(0, 0, width, height), width, width, height, expected);
+        assertArrayEquals(expected, gray);
+
+        assertSame(gray, cache.grayLevels(model));
+        assertEquals(1, cache.getConversions());
+
+        model.writeRegion(0, 0, 1, 1, new int[] {0xFFFFFFFF}, 0, 1);
+        double[] updated = cache.grayLevels(model);
+        assertEquals(2, cache.getConversions());
+        assertEquals(1.0, updated[0], 1e-12);
+
+        ImageModel other = new ImageModel();
+        other.adoptPixels(randomPixels(width, height, 1), width, height);
+        cache.grayLevels(other);
+        assertEquals(3, cache.getConversions());
+    }
+
+    @Test
+    void emptyModelIsRejected() {
+        assertThrows(IllegalStateException.class, () -> new GrayLevelCache().grayLevels(new ImageModel()));
+    }
+}
@@ -1,5 +1,6 @@
 package imageprocessingapp.model.edit;
 
+import imageprocessingapp.model.ImageModel;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import org.junit.jupiter.api.BeforeEach;
@@ -466,4 +467,85 @@ class SeamCarverTest {
         assertEquals(1, (int) seam.get(0), "Première ligne devrait choisir colonne 1");
     }
 
+    @Test
+    void enlargeInPlaceAddsColumnsAndRows() {
+        ImageModel model = new ImageModel(testImage);
+        seamCarver.enlargeInPlace(model, 13, 4);
+
+        assertEquals(23, model.getWidth());
+        assertEquals(14, model.getHeight());
+        assertEquals(17, seamCarver.totalSeams);
+        assertEquals(17, seamCarver.currentSeam);
+    }
+
+    @Test
+    void enlargeInPlaceKeepsOriginalPixels() {
+        // Une seule couture insérée : chaque ligne garde ses pixels d'origine dans l'ordre
+        ImageModel model = new ImageModel(testImage);
+        int[] before = model.readRegion(0, 0, 10, 10);
+        seamCarver.enlargeInPlace(model, 1, 0);
+        int[] after = model.readRegion(0, 0, 11, 10);
+
+        for (int y = 0; y < 10; y++) {
+            int matched = 0;
+            for (int x = 0; x < 11 && matched < 10; x++) {
+                if (after[y * 11 + x] == before[y * 10 + matched]) {
+                    matched++;
+                }
+            }
+            assertEquals(10, matched, "ligne " + y);
+        }
+    }
+
+    @Test
+    void energyModeIsUsedForCarving() {
+        assertEquals(SeamCarvingEngine.EnergyMode.BACKWARD, seamCarver.getEnergyMode());
+        assertThrows(NullPointerException.class, () -> seamCarver.setEnergyMode(null));
+
+        seamCarver.setEnergyMode(SeamCarvingEngine.EnergyMode.FORWARD);
+        ImageModel model = new ImageModel(testImage);
+        int[] source = model.readRegion(0, 0, 10, 10);
+        seamCarver.resizeInPlace(model, 3);
+
+        SeamCarvingEngine engine = new SeamCarvingEngine(source, 10, 10);
+        engine.setEnergyMode(SeamCarvingEngine.EnergyMode.FORWARD);
+        engine.removeSeams(3);
+        assertArrayEquals(engine.toPixels(), model.readRegion(0, 0, 7, 10));
+    }
+
+    @Test
+    void optimalSeamOrderReducesBothDimensions() {
+        seamCarver.setSeamOrder(SeamCarver.SeamOrder.OPTIMAL);
+        ImageModel model = new ImageModel(testImage);
+        seamCarver.resizeInPlace(model, 3, 2);
+        assertEquals(7, model.getWidth());
+        assertEquals(8, model.getHeight());
+        assertEquals(5, seamCarver.currentSeam);
+    }
+
+    @Test
+    void pyramidModeOnLargeImage() {
+        seamCarver.setPyramid(true);
+        assertTrue(seamCarver.isPyramid());
+        int width = 4 * SeamPyramid.MIN_LEVEL_WIDTH;
+        int height = 2 * SeamPyramid.MIN_LEVEL_HEIGHT;
+        ImageModel model = new ImageModel();
+        model.adoptPixels(SeamPyramidTest.structuredPixels(width, height, 3), width, height);
+        seamCarver.resizeInPlace(model, 40, 3);
+        assertEquals(width - 40, model.getWidth());
+        assertEquals(height - 3, model.getHeight());
+        assertEquals(43, seamCarver.currentSeam);
+    }
+
+    @Test
+    void batchSizeTradesQualityForSpeed() {
+        assertEquals(1, seamCarver.getBatchSize());
+        assertThrows(IllegalArgumentException.class, () -> seamCarver.setBatchSize(0));
+
+        seamCarver.setBatchSize(4);
+        ImageModel model = new ImageModel(testImage);
+        seamCarver.resizeInPlace(model, 7);
+        assertEquals(3, model.getWidth());
+        assertEquals(7, seamCarver.currentSeam);
+    }
 }
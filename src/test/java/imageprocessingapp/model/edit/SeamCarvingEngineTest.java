@@ -0,0 +1,445 @@
+package imageprocessingapp.model.edit;
+
+import imageprocessingapp.model.structures.EnergyCalculator;
+import imageprocessingapp.model.structures.StandardEnergy;
+import javafx.scene.image.WritableImage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeamCarvingEngineTest {
+
+    static int[] randomPixels(int width, int height, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+
+    /**
+     * Chemin de référence : carte d'énergie matricielle, énergie cumulative et couture
+     * en liste, raster réalloué à chaque couture.
+     */
+    static int[] referenceCarve(int[] pixels, int width, int height, int seams) {
+        SeamCarver carver = new SeamCarver();
+        EnergyCalculator calculator = new EnergyCalculator();
+        for (int i = 0; i < seams; i++) {
+            double[][] cumulative = carver.computeCumulativeEnergy(calculator.computeEnergyMap(pixels, width, height));
+            List<Integer> seam = carver.findSeam(cumulative);
+            pixels = carver.removeSeam(pixels, width, height, seam);
+            width--;
+        }
+        return pixels;
+    }
+
+    @Test
+    void matchesReferencePipeline() {
+        int width = 40;
+        int height = 30;
+        int[] source = randomPixels(width, height, 7);
+        int[] expected = referenceCarve(source.clone(), width, height, 12);
+
+        SeamCarvingEngine engine = new SeamCarvingEngine(source.clone(), width, height);
+        engine.removeSeams(12);
+
+        assertEquals(28, engine.getWidth());
+        assertEquals(30, engine.getHeight());
+        assertArrayEquals(expected, engine.toPixels());
+    }
+
+    @Test
+    void parallelBandsMatchSequential() {
+        // Assez large pour plusieurs bandes, assez haute pour plusieurs paquets de lignes
+        int width = 3 * SeamCarvingEngine.MIN_BAND_WIDTH + 37;
+        int height = 2 * SeamCarvingEngine.STRIP_HEIGHT + 9;
+        int[] source = randomPixels(width, height, 13);
+
+        SeamCarvingEngine sequential = new SeamCarvingEngine(source.clone(), width, height);
+        sequential.parallelism = 1;
+        sequential.removeSeams(20);
+
+        SeamCarvingEngine parallel = new SeamCarvingEngine(source.clone(), width, height);
+        parallel.parallelism = 3;
+        parallel.removeSeams(20);
+
+        assertArrayEquals(sequential.toPixels(), parallel.toPixels());
+    }
+
+    @Test
+    void cumulativeEnergyOfMatrixMatchesSequentialDefinition() {
+        int width = 3 * SeamCarvingEngine.MIN_BAND_WIDTH + 37;
+        int height = 2 * SeamCarvingEngine.STRIP_HEIGHT + 9;
+        Random random = new Random(17);
+        double[][] energyMap = new double[height][width];
+        for (double[] row : energyMap) {
+            for (int x = 0; x < width; x++) {
+                row[x] = random.nextDouble();
+            }
+        }
+        double[][] expected = new double[height][];
+        expected[0] = energyMap[0].clone();
+        for (int y = 1; y < height; y++) {
+            expected[y] = new double[width];
+            for (int x = 0; x < width; x++) {
+                double min = expected[y - 1][x];
+                if (x > 0) {
+                    min = Math.min(expected[y - 1][x - 1], min);
+                }
+                if (x < width - 1) {
+                    min = Math.min(min, expected[y - 1][x + 1]);
+                }
+                expected[y][x] = energyMap[y][x] + min;
+            }
+        }
+
+        for (int bands = 1; bands <= 4; bands++) {
+            assertArrayEquals(expected, SeamCarvingEngine.computeCumulativeEnergy(energyMap, bands), "bandes : " + bands);
+        }
+        assertArrayEquals(expected, new SeamCarver().computeCumulativeEnergy(energyMap));
+    }
+
+    @Test
+    void removeSeamCompactsRowsInPlace() {
+        int[] pixels = {
+                1, 2, 3, 4,
+                5, 6, 7, 8
+        };
+        SeamCarvingEngine engine = new SeamCarvingEngine(pixels, 4, 2);
+        engine.removeSeam(new int[] {0, 3});
+        assertArrayEquals(new int[] {2, 3, 4, 5, 6, 7}, engine.toPixels());
+        engine.removeSeam(new int[] {1, 1});
+        assertArrayEquals(new int[] {2, 4, 5, 7}, engine.toPixels());
+    }
+
+    @Test
+    void removeHorizontalSeamShiftsColumnsUp() {
+        int[] pixels = {
+                1, 2,
+                3, 4,
+                5, 6
+        };
+        SeamCarvingEngine engine = new SeamCarvingEngine(pixels, 2, 3);
+        engine.removeHorizontalSeam(new int[] {0, 2});
+        assertArrayEquals(new int[] {3, 2, 5, 4}, engine.toPixels());
+        assertEquals(2, engine.getHeight());
+    }
+
+    @Test
+    void horizontalSeamFollowsFlatRow() {
+        // Image bruitée traversée par une bande unie : la couture doit la suivre
+        int width = 30;
+        int height = 20;
+        int[] pixels = randomPixels(width, height, 3);
+        for (int y = 9; y <= 11; y++) {
+            for (int x = 0; x < width; x++) {
+                pixels[y * width + x] = 0xFF808080;
+            }
+        }
+        SeamCarvingEngine engine = new SeamCarvingEngine(pixels, width, height);
+        int[] seam = engine.findHorizontalSeam();
+        for (int x = 0; x < width; x++) {
+            assertEquals(10, seam[x]);
+        }
+    }
+
+    @Test
+    void horizontalCarvingMatchesTransposedVertical() {
+        int width = 24;
+        int height = 35;
+        int[] source = randomPixels(width, height, 21);
+
+        SeamCarvingEngine transposed = new SeamCarvingEngine(transpose(source, width, height), height, width);
+        transposed.removeSeams(9);
+
+        SeamCarvingEngine engine = new SeamCarvingEngine(source.clone(), width, height);
+        engine.removeHorizontalSeams(9);
+
+        assertEquals(26, engine.getHeight());
+        assertArrayEquals(transpose(transposed.toPixels(), 26, width), engine.toPixels());
+    }
+
+    @Test
+    void mixedCarvingKeepsBothDimensions() {
+        SeamCarvingEngine engine = new SeamCarvingEngine(randomPixels(25, 20, 17), 25, 20);
+        engine.removeSeams(5);
+        engine.removeHorizontalSeams(7);
+        engine.removeSeams(2);
+        assertEquals(18, engine.getWidth());
+        assertEquals(13, engine.getHeight());
+        assertEquals(18 * 13, engine.toPixels().length);
+    }
+
+    @Test
+    void forwardEnergyMatchesReferenceFormula() {
+        int width = 17;
+        int height = 11;
+        int[] source = randomPixels(width, height, 19);
+        SeamCarvingEngine engine = new SeamCarvingEngine(source.clone(), width, height);
+        engine.setEnergyMode(SeamCarvingEngine.EnergyMode.FORWARD);
+        assertArrayEquals(referenceForwardSeam(source, width, height), engine.findSeam());
+    }
+
+    @Test
+    void forwardEnergyParallelAndHorizontalMatch() {
+        int width = 3 * SeamCarvingEngine.MIN_BAND_WIDTH + 5;
+        int height = SeamCarvingEngine.STRIP_HEIGHT + 30;
+        int[] source = randomPixels(width, height, 23);
+
+        SeamCarvingEngine sequential = new SeamCarvingEngine(source.clone(), width, height);
+        sequential.setEnergyMode(SeamCarvingEngine.EnergyMode.FORWARD);
+        sequential.parallelism = 1;
+        sequential.removeSeams(8);
+
+        SeamCarvingEngine parallel = new SeamCarvingEngine(source.clone(), width, height);
+        parallel.setEnergyMode(SeamCarvingEngine.EnergyMode.FORWARD);
+        parallel.parallelism = 3;
+        parallel.removeSeams(8);
+        assertArrayEquals(sequential.toPixels(), parallel.toPixels());
+
+        // Les coutures horizontales sont les coutures verticales de l'image transposée
+        SeamCarvingEngine horizontal = new SeamCarvingEngine(transpose(source, width, height), height, width);
+        horizontal.setEnergyMode(SeamCarvingEngine.EnergyMode.FORWARD);
+        horizontal.removeHorizontalSeams(8);
+        assertArrayEquals(transpose(sequential.toPixels(), width - 8, height), horizontal.toPixels());
+    }
+
+    /**
+     * Couture d'énergie avant calculée naïvement, sur des matrices.
+     */
+    private static int[] referenceForwardSeam(int[] pixels, int width, int height) {
+        double[][] gray = new double[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int p = pixels[y * width + x];
+                gray[y][x] = 0.299 * ((p >> 16) & 0xFF) / 255.0 + 0.587 * ((p >> 8) & 0xFF) / 255.0
+                        + 0.114 * (p & 0xFF) / 255.0;
+            }
+        }
+        double[][][] cost = new double[height][width][3];
+        double[][] m = new double[height][width];
+        for (int y = 1; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double left = gray[y][Math.max(x - 1, 0)];
+                double right = gray[y][Math.min(x + 1, width - 1)];
+                double cu = Math.abs(right - left);
+                cost[y][x][0] = x > 0 ? m[y - 1][x - 1] + cu + Math.abs(gray[y - 1][x] - left) : Double.MAX_VALUE;
+                cost[y][x][1] = m[y - 1][x] + cu;
+                cost[y][x][2] = x < width - 1 ? m[y - 1][x + 1] + cu + Math.abs(gray[y - 1][x] - right) : Double.MAX_VALUE;
+                m[y][x] = Math.min(cost[y][x][0], Math.min(cost[y][x][1], cost[y][x][2]));
+            }
+        }
+        int[] seam = new int[height];
+        for (int x = 1; x < width; x++) {
+            if (m[height - 1][x] < m[height - 1][seam[height - 1]]) {
+                seam[height - 1] = x;
+            }
+        }
+        for (int y = height - 1; y > 0; y--) {
+            double[] c = cost[y][seam[y]];
+            int best = c[0] <= c[1] && c[0] <= c[2] ? 0 : c[1] <= c[2] ? 1 : 2;
+            seam[y - 1] = seam[y] + best - 1;
+        }
+        return seam;
+    }
+
+    @Test
+    void seamBatchRemovesDisjointSeams() {
+        int width = 40;
+        int height = 25;
+        // Identifiants croissants par ligne : l'ordre des pixels restants doit être conservé
+        int[] pixels = randomPixels(width, height, 31);
+        int[] ids = new int[width * height];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 0xFF000000 | (pixels[i] & 0xFFF000) | (i % width);
+        }
+        SeamCarvingEngine engine = new SeamCarvingEngine(ids.clone(), width, height);
+        int removed = engine.removeSeamBatch(6);
+        assertEquals(6, removed);
+        assertEquals(width - removed, engine.getWidth());
+
+        int[] result = engine.toPixels();
+        int current = engine.getWidth();
+        for (int y = 0; y < height; y++) {
+            for (int x = 1; x < current; x++) {
+                assertTrue((result[y * current + x] & 0xFFF) > (result[y * current + x - 1] & 0xFFF));
+            }
+        }
+    }
+
+    @Test
+    void seamBatchOfOneIsExact() {
+        int[] source = randomPixels(30, 20, 14);
+        SeamCarvingEngine exact = new SeamCarvingEngine(source.clone(), 30, 20);
+        exact.removeSeams(5);
+        SeamCarvingEngine batch = new SeamCarvingEngine(source.clone(), 30, 20);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(1, batch.removeSeamBatch(1));
+        }
+        assertArrayEquals(exact.toPixels(), batch.toPixels());
+        assertEquals(0, new SeamCarvingEngine(new int[3], 1, 3).removeSeamBatch(4));
+    }
+
+    @Test
+    void removeDisjointSeamsMatchesOneByOneRemoval() {
+        int width = 40;
+        int height = 16;
+        int[] source = randomPixels(width, height, 21);
+        SeamCarvingEngine together = new SeamCarvingEngine(source.clone(), width, height);
+        int[][] batch = together.findSeamBatch(8);
+        assertTrue(batch.length > 1);
+
+        // Retrait une à une, en recalant les coutures suivantes sur la ligne compactée
+        SeamCarvingEngine oneByOne = new SeamCarvingEngine(source.clone(), width, height);
+        int[][] shifted = new int[batch.length][];
+        for (int n = 0; n < batch.length; n++) {
+            shifted[n] = batch[n].clone();
+        }
+        for (int n = 0; n < shifted.length; n++) {
+            oneByOne.removeSeam(shifted[n]);
+            for (int m = n + 1; m < shifted.length; m++) {
+                for (int y = 0; y < height; y++) {
+                    if (shifted[m][y] > shifted[n][y]) {
+                        shifted[m][y]--;
+                    }
+                }
+            }
+        }
+        together.removeDisjointSeams(batch);
+        assertEquals(oneByOne.getWidth(), together.getWidth());
+        assertArrayEquals(oneByOne.toPixels(), together.toPixels());
+        // Énergie recalculée : la couture suivante est la même
+        assertArrayEquals(oneByOne.findSeam(), together.findSeam());
+
+        int[] column = new int[height];
+        assertThrows(IllegalArgumentException.class,
+                () -> together.removeDisjointSeams(new int[][] {column, column.clone()}));
+        column[3] = -1;
+        assertThrows(IndexOutOfBoundsException.class, () -> together.removeDisjointSeams(new int[][] {column}));
+    }
+
+    private static int[] transpose(int[] pixels, int width, int height) {
+        int[] result = new int[pixels.length];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                result[x * height + y] = pixels[y * width + x];
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void seamStaysConnectedAndInBounds() {
+        SeamCarvingEngine engine = new SeamCarvingEngine(randomPixels(25, 20, 3), 25, 20);
+        for (int k = 0; k < 10; k++) {
+            int[] seam = engine.findSeam();
+            assertEquals(20, seam.length);
+            for (int y = 0; y < seam.length; y++) {
+                assertTrue(seam[y] >= 0 && seam[y] < engine.getWidth());
+                if (y > 0) {
+                    assertTrue(Math.abs(seam[y] - seam[y - 1]) <= 1);
+                }
+            }
+            engine.removeSeam(seam);
+        }
+    }
+
+    @Test
+    void carvesDownToSingleColumn() {
+        SeamCarvingEngine engine = new SeamCarvingEngine(randomPixels(3, 4, 1), 3, 4);
+        engine.removeSeams(2);
+        assertEquals(1, engine.getWidth());
+        assertEquals(0, engine.findSeam()[3]);
+        assertThrows(IllegalStateException.class, () -> engine.removeSeam(new int[4]));
+    }
+
+    @Test
+    void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SeamCarvingEngine(new int[5], 2, 3));
+        assertThrows(IllegalArgumentException.class, () -> new SeamCarvingEngine(new int[0], 0, 3));
+        SeamCarvingEngine engine = new SeamCarvingEngine(new int[6], 3, 2);
+        assertThrows(IndexOutOfBoundsException.class, () -> engine.removeSeam(new int[] {0, 3}));
+    }
+
+    @Test
+    void toImageHasCarvedSize() {
+        SeamCarvingEngine engine = new SeamCarvingEngine(randomPixels(10, 6, 5), 10, 6);
+        engine.removeSeams(4);
+        WritableImage image = engine.toImage();
+        assertEquals(6, (int) image.getWidth());
+        assertEquals(6, (int) image.getHeight());
+    }
+
+    @Test
+    void energyFunctionsMatchFreshEnergyPerSeam() {
+        int width = 24;
+        int height = 15;
+        int[] source = randomPixels(width, height, 23);
+        for (StandardEnergy function : StandardEnergy.values()) {
+            SeamCarvingEngine engine = new SeamCarvingEngine(source.clone(), width, height);
+            engine.setEnergyFunction(function);
+            engine.removeSeams(5);
+            engine.removeHorizontalSeam(engine.findHorizontalSeam());
+
+            // Référence : un nouveau moteur (énergie complète) pour chaque couture
+            int[] pixels = source.clone();
+            int w = width;
+            for (int i = 0; i < 5; i++) {
+                SeamCarvingEngine fresh = new SeamCarvingEngine(pixels, w, height);
+                fresh.setEnergyFunction(function);
+                fresh.removeSeam(fresh.findSeam());
+                pixels = fresh.toPixels();
+                w--;
+            }
+            SeamCarvingEngine fresh = new SeamCarvingEngine(pixels, w, height);
+            fresh.setEnergyFunction(function);
+            fresh.removeHorizontalSeam(fresh.findHorizontalSeam());
+            assertArrayEquals(fresh.toPixels(), engine.toPixels(), function.getName());
+        }
+    }
+
+    @Test
+    void suppliedGrayLevelsGiveSameSeams() {
+        int width = 20;
+        int height = 12;
+        int[] source = randomPixels(width, height, 9);
+        double[] gray = new double[source.length];
+        new EnergyCalculator().computeGrayLevels(source, width, width, height, gray);
+        double[] untouched = gray.clone();
+
+        SeamCarvingEngine computed = new SeamCarvingEngine(source.clone(), width, height);
+        SeamCarvingEngine supplied = new SeamCarvingEngine(source.clone(), width, height, gray);
+        computed.setEnergyFunction(StandardEnergy.SCHARR);
+        supplied.setEnergyFunction(StandardEnergy.SCHARR);
+        computed.removeSeams(6);
+        supplied.removeSeams(6);
+        assertArrayEquals(computed.toPixels(), supplied.toPixels());
+        assertArrayEquals(untouched, gray);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new SeamCarvingEngine(source.clone(), width, height, new double[3]));
+        assertThrows(NullPointerException.class, () -> computed.setEnergyFunction(null));
+    }
+
+    @Test
+    void switchingEnergyFunctionKeepsGrayLevels() {
+        int width = 18;
+        int height = 10;
+        int[] source = randomPixels(width, height, 12);
+        SeamCarvingEngine engine = new SeamCarvingEngine(source.clone(), width, height);
+        engine.removeSeams(3);
+        engine.setEnergyFunction(StandardEnergy.LOCAL_ENTROPY);
+        engine.removeSeams(3);
+
+        SeamCarvingEngine reference = new SeamCarvingEngine(source.clone(), width, height);
+        reference.removeSeams(3);
+        SeamCarvingEngine switched = new SeamCarvingEngine(reference.toPixels(), width - 3, height);
+        switched.setEnergyFunction(StandardEnergy.LOCAL_ENTROPY);
+        switched.removeSeams(3);
+        assertArrayEquals(switched.toPixels(), engine.toPixels());
+    }
+}
@@ -0,0 +1,137 @@
+package imageprocessingapp.model.edit;
+
+import imageprocessingapp.model.structures.StandardEnergy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static imageprocessingapp.model.edit.SeamCarvingEngineTest.randomPixels;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeamCarvingIndexTest {
+
+    @Test
+    void retargetMatchesSequentialCarving() {
+        int width = 30;
+        int height = 18;
+        int[] source = randomPixels(width, height, 4);
+        SeamCarvingIndex index = new SeamCarvingIndex(source, width, height);
+        assertEquals(width - 1, index.computeSeams(Integer.MAX_VALUE));
+        assertTrue(index.isComplete());
+
+        for (int target : new int[] {30, 29, 21, 10, 1}) {
+            SeamCarvingEngine engine = new SeamCarvingEngine(source.clone(), width, height);
+            engine.removeSeams(width - target);
+            assertArrayEquals(engine.toPixels(), index.retarget(target), "largeur " + target);
+        }
+    }
+
+    @Test
+    void retargetFollowsEnergyModeAndFunction() {
+        int width = 24;
+        int height = 12;
+        int[] source = randomPixels(width, height, 6);
+        SeamCarvingIndex index = new SeamCarvingIndex(source, width, height,
+                SeamCarvingEngine.EnergyMode.FORWARD, StandardEnergy.SCHARR, null);
+        assertEquals(SeamCarvingEngine.EnergyMode.FORWARD, index.getEnergyMode());
+        assertEquals(StandardEnergy.SCHARR, index.getEnergyFunction());
+        index.computeSeams(Integer.MAX_VALUE);
+
+        SeamCarvingEngine engine = new SeamCarvingEngine(source.clone(), width, height);
+        engine.setEnergyMode(SeamCarvingEngine.EnergyMode.FORWARD);
+        engine.setEnergyFunction(StandardEnergy.SCHARR);
+        engine.removeSeams(9);
+        assertArrayEquals(engine.toPixels(), index.retarget(width - 9));
+    }
+
+    @Test
+    void seamBatchNumbersSeamsLikeEngineBatch() {
+        int width = 36;
+        int height = 14;
+        int[] source = randomPixels(width, height, 8);
+        SeamCarvingIndex index = new SeamCarvingIndex(source, width, height);
+        int found = index.computeSeamBatch(10);
+        assertTrue(found > 1 && found <= 10);
+
+        SeamCarvingEngine engine = new SeamCarvingEngine(source.clone(), width, height);
+        assertEquals(found, engine.removeSeamBatch(10));
+        assertArrayEquals(engine.toPixels(), index.retarget(width - found));
+
+        // Les lots suivants reprennent là où le précédent s'est arrêté
+        while (!index.isComplete()) {
+            index.computeSeamBatch(width);
+        }
+        assertEquals(width - 1, index.getComputedSeams());
+        assertEquals(height, index.retarget(1).length);
+        assertEquals(width - 1, index.computeSeamBatch(5));
+    }
+
+    @Test
+    void computesIncrementally() {
+        int width = 12;
+        int height = 6;
+        SeamCarvingIndex index = new SeamCarvingIndex(randomPixels(width, height, 9), width, height);
+        assertTrue(index.canRetarget(width));
+        assertFalse(index.canRetarget(width - 1));
+
+        assertEquals(3, index.computeSeams(3));
+        assertTrue(index.canRetarget(9));
+        assertFalse(index.canRetarget(8));
+        assertThrows(IllegalStateException.class, () -> index.retarget(8));
+        assertEquals(9 * height, index.retarget(9).length);
+
+        assertEquals(11, index.computeSeams(100));
+        assertTrue(index.canRetarget(1));
+    }
+
+    @Test
+    void cancelStopsComputation() {
+        SeamCarvingIndex index = new SeamCarvingIndex(randomPixels(10, 4, 2), 10, 4);
+        index.computeSeams(2);
+        index.cancel();
+        assertEquals(2, index.computeSeams(5));
+        assertFalse(index.isComplete());
+        assertTrue(index.canRetarget(8));
+    }
+
+    @Test
+    void invalidTargetWidth() {
+        SeamCarvingIndex index = new SeamCarvingIndex(randomPixels(5, 3, 1), 5, 3);
+        assertThrows(IllegalArgumentException.class, () -> index.retarget(0));
+        assertThrows(IllegalArgumentException.class, () -> index.retarget(6));
+        assertThrows(IllegalArgumentException.class, () -> new SeamCarvingIndex(new int[4], 5, 3));
+    }
+
+    @Test
+    void insertSeamsDuplicatesLowestEnergySeams() {
+        int width = 20;
+        int height = 8;
+        int[] source = randomPixels(width, height, 6);
+        SeamCarvingIndex index = new SeamCarvingIndex(source, width, height);
+        index.computeSeams(5);
+
+        assertEquals(25 * height, index.insertSeams(5).length);
+        assertArrayEquals(source, index.insertSeams(0));
+        assertThrows(IllegalStateException.class, () -> index.insertSeams(6));
+        assertThrows(IllegalArgumentException.class, () -> index.insertSeams(width));
+
+        // Une couture : le pixel inséré suit celui de la couture et moyenne ses deux voisins
+        int[] seam = new SeamCarvingEngine(source.clone(), width, height).findSeam();
+        int[] enlarged = index.insertSeams(1);
+        for (int y = 0; y < height; y++) {
+            int x = seam[y];
+            int pixel = source[y * width + x];
+            int neighbor = source[y * width + (x + 1 < width ? x + 1 : x - 1)];
+            int row = y * (width + 1);
+            assertArrayEquals(Arrays.copyOfRange(source, y * width, y * width + x + 1),
+                    Arrays.copyOfRange(enlarged, row, row + x + 1));
+            assertArrayEquals(Arrays.copyOfRange(source, y * width + x + 1, (y + 1) * width),
+                    Arrays.copyOfRange(enlarged, row + x + 2, row + width + 1));
+            int inserted = enlarged[row + x + 1];
+            for (int shift = 0; shift < 32; shift += 8) {
+                int expected = (((pixel >>> shift) & 0xFF) + ((neighbor >>> shift) & 0xFF) + 1) >> 1;
+                assertEquals(expected, (inserted >>> shift) & 0xFF);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package imageprocessingapp.model.edit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeamPyramidTest {
+
+    /**
+     * Image de synthèse structurée : dégradés, disques et rectangles contrastés, léger bruit.
+     */
+    static int[] structuredPixels(int width, int height, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[width * height];
+        int[][] disks = new int[12][];
+        for (int i = 0; i < disks.length; i++) {
+            disks[i] = new int[] {random.nextInt(width), random.nextInt(height),
+                    5 + random.nextInt(height / 4), random.nextInt(0x1000000)};
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int color = (x * 255 / width) << 16 | (y * 255 / height) << 8 | 96;
+                for (int[] disk : disks) {
+                    int dx = x - disk[0];
+                    int dy = y - disk[1];
+                    if (dx * dx + dy * dy < disk[2] * disk[2]) {
+                        color = disk[3];
+                    }
+                }
+                int noise = random.nextInt(7) - 3;
+                int r = Math.max(0, Math.min(255, ((color >> 16) & 0xFF) + noise));
+                int g = Math.max(0, Math.min(255, ((color >> 8) & 0xFF) + noise));
+                int b = Math.max(0, Math.min(255, (color & 0xFF) + noise));
+                pixels[y * width + x] = 0xFF000000 | r << 16 | g << 8 | b;
+            }
+        }
+        return pixels;
+    }
+
+    @Test
+    void levelsStopAtMinimumSize() {
+        assertEquals(1, SeamPyramid.levelsFor(200, 1000));
+        assertEquals(1, SeamPyramid.levelsFor(1000, 40));
+        assertEquals(3, SeamPyramid.levelsFor(600, 200));
+        assertEquals(6, SeamPyramid.levelsFor(8000, 6000));
+    }
+
+    @Test
+    void removesRequestedSeams() {
+        int width = 600;
+        int height = 200;
+        SeamCarvingEngine full = new SeamCarvingEngine(structuredPixels(width, height, 1), width, height);
+        int[] calls = new int[1];
+        SeamPyramid pyramid = new SeamPyramid(full, SeamPyramid.levelsFor(width, height), () -> calls[0]++);
+        pyramid.removeSeams(151);
+        assertEquals(449, full.getWidth());
+        assertEquals(200, full.getHeight());
+        assertEquals(151, calls[0]);
+    }
+
+    @Test
+    void removedEnergyWithinTolerance() {
+        int width = 600;
+        int height = 200;
+        int seams = 150;
+        int[] pixels = structuredPixels(width, height, 2);
+
+        SeamCarvingEngine exact = new SeamCarvingEngine(pixels.clone(), width, height);
+        double exactCost = 0;
+        for (int i = 0; i < seams; i++) {
+            int[] seam = exact.findSeam();
+            exactCost += exact.getSeamCost();
+            exact.removeSeam(seam);
+        }
+
+        SeamCarvingEngine full = new SeamCarvingEngine(pixels.clone(), width, height);
+        double[] pyramidCost = new double[1];
+        new SeamPyramid(full, SeamPyramid.levelsFor(width, height), () -> pyramidCost[0] += full.getSeamCost())
+                .removeSeams(seams);
+
+        assertTrue(pyramidCost[0] <= SeamPyramid.TOLERANCE * exactCost,
+                "pyramide " + pyramidCost[0] + " / exact " + exactCost);
+    }
+
+    @Test
+    void corridorSeamStaysInCorridor() {
+        SeamCarvingEngine engine = new SeamCarvingEngine(SeamCarvingEngineTest.randomPixels(40, 20, 4), 40, 20);
+        int[] centers = new int[20];
+        for (int y = 0; y < 20; y++) {
+            centers[y] = 10 + y / 2;
+        }
+        int[] seam = engine.findSeamInCorridor(centers, 2);
+        for (int y = 0; y < 20; y++) {
+            assertTrue(Math.abs(seam[y] - centers[y]) <= 2);
+            if (y > 0) {
+                assertTrue(Math.abs(seam[y] - seam[y - 1]) <= 1);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> engine.findSeamInCorridor(centers, 0));
+    }
+
+    @Test
+    void wideCorridorMatchesExactSeam() {
+        int[] pixels = SeamCarvingEngineTest.randomPixels(30, 15, 9);
+        SeamCarvingEngine exact = new SeamCarvingEngine(pixels.clone(), 30, 15);
+        SeamCarvingEngine corridor = new SeamCarvingEngine(pixels.clone(), 30, 15);
+        assertArrayEquals(exact.findSeam().clone(), corridor.findSeamInCorridor(new int[15], 30));
+        assertEquals(exact.getSeamCost(), corridor.getSeamCost());
+    }
+}
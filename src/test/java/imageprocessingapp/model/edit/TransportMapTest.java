@@ -0,0 +1,94 @@
+package imageprocessingapp.model.edit;
+
+import org.junit.jupiter.api.Test;
+
+import static imageprocessingapp.model.edit.SeamCarvingEngineTest.randomPixels;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransportMapTest {
+
+    private static final SeamCarvingEngine.EnergyMode BACKWARD = SeamCarvingEngine.EnergyMode.BACKWARD;
+
+    @Test
+    void planHasRequestedSeamCounts() {
+        boolean[] order = TransportMap.plan(randomPixels(20, 15, 3), 20, 15, 6, 4, BACKWARD);
+        assertEquals(10, order.length);
+        assertEquals(6, count(order, true));
+        assertEquals(4, count(order, false));
+    }
+
+    @Test
+    void planOnOneDimensionIsTrivial() {
+        boolean[] order = TransportMap.plan(randomPixels(10, 10, 1), 10, 10, 3, 0, BACKWARD);
+        assertArrayEquals(new boolean[] {true, true, true}, order);
+        assertEquals(0, TransportMap.plan(randomPixels(10, 10, 1), 10, 10, 0, 0, BACKWARD).length);
+    }
+
+    @Test
+    void planStretchesProxyOrderToFullResolution() {
+        // Image réduite par deux : chaque étape de la carte vaut deux coutures réelles
+        int width = 2 * TransportMap.PROXY_SIZE;
+        int height = TransportMap.PROXY_SIZE;
+        boolean[] order = TransportMap.plan(randomPixels(width, height, 8), width, height, 30, 12, BACKWARD);
+        assertEquals(42, order.length);
+        assertEquals(30, count(order, true));
+        assertEquals(12, count(order, false));
+    }
+
+    @Test
+    void optimalPathIsNoWorseThanSequentialOrders() {
+        // En pleine résolution (image plus petite que la réduction), le chemin rejoué
+        // coûte sur cette image moins cher que l'ordre « verticales d'abord »
+        int width = 24;
+        int height = 18;
+        int[] pixels = randomPixels(width, height, 12);
+        boolean[] optimal = TransportMap.plan(pixels, width, height, 5, 5, BACKWARD);
+        boolean[] verticalFirst = {true, true, true, true, true, false, false, false, false, false};
+        double optimalCost = replayCost(pixels, width, height, optimal);
+        assertTrue(optimalCost <= replayCost(pixels, width, height, verticalFirst) + 1e-9);
+    }
+
+    @Test
+    void invalidSeamCounts() {
+        int[] pixels = randomPixels(5, 4, 2);
+        assertThrows(IllegalArgumentException.class, () -> TransportMap.plan(pixels, 5, 4, 5, 0, BACKWARD));
+        assertThrows(IllegalArgumentException.class, () -> TransportMap.plan(pixels, 5, 4, 0, 4, BACKWARD));
+        assertThrows(IllegalArgumentException.class, () -> TransportMap.plan(pixels, 5, 4, -1, 0, BACKWARD));
+    }
+
+    @Test
+    void downscaleAveragesBlocks() {
+        int[] pixels = {
+                0xFF000000, 0xFF0000FF, 0xFFFFFFFF, 0xFFFFFFFF,
+                0xFF000000, 0xFF0000FF, 0xFFFFFFFF, 0xFFFFFFFF
+        };
+        assertArrayEquals(new int[] {0xFF00007F, 0xFFFFFFFF}, TransportMap.downscale(pixels, 4, 2, 2, 1));
+    }
+
+    private static double replayCost(int[] pixels, int width, int height, boolean[] order) {
+        SeamCarvingEngine engine = new SeamCarvingEngine(pixels.clone(), width, height);
+        double total = 0;
+        for (boolean vertical : order) {
+            if (vertical) {
+                int[] seam = engine.findSeam();
+                total += engine.getSeamCost();
+                engine.removeSeam(seam);
+            } else {
+                int[] seam = engine.findHorizontalSeam();
+                total += engine.getSeamCost();
+                engine.removeHorizontalSeam(seam);
+            }
+        }
+        return total;
+    }
+
+    private static int count(boolean[] order, boolean value) {
+        int count = 0;
+        for (boolean step : order) {
+            if (step == value) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -1,6 +1,7 @@
 package imageprocessingapp.model.operations;
 
 import imageprocessingapp.model.ImageModel;
+import imageprocessingapp.model.TiledRaster;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
@@ -8,7 +9,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CropOperationTest {
 
@@ -181,4 +185,33 @@ class CropOperationTest {
         assertEquals(Color.YELLOW, cropped2.getPixelReader().getColor(1, 0));
     }
 
-}
\ No newline at end of file
+    @Test
+    void tiledCropKeepsFullResolution() {
+        ImageModel tiled = RotateOperationTest.tiledModel(600, 300);
+        int[] expected = tiled.readRegion(250, 100, 300, 120);
+
+        TiledRaster cropped = new CropOperation(new Rectangle2D(250, 100, 300, 120)).cropRaster(tiled);
+
+        assertEquals(300, cropped.getWidth());
+        assertEquals(120, cropped.getHeight());
+        int[] actual = new int[300 * 120];
+        cropped.readRegion(0, 0, 300, 120, actual, 0, 300);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void tiledCropLeavesTheModelUnchanged() {
+        ImageModel tiled = RotateOperationTest.tiledModel(600, 300);
+        TiledRaster source = tiled.getRaster();
+        int[] before = tiled.readRegion(0, 0, 600, 300);
+
+        WritableImage preview = new CropOperation(new Rectangle2D(250, 100, 300, 120)).apply(tiled);
+
+        assertSame(source, tiled.getRaster());
+        assertEquals(600, tiled.getWidth());
+        assertEquals(300, tiled.getHeight());
+        assertArrayEquals(before, tiled.readRegion(0, 0, 600, 300));
+        assertEquals(300, preview.getWidth());
+        assertEquals(120, preview.getHeight());
+    }
+}
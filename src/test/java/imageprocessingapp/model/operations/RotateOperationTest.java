@@ -1,6 +1,7 @@
 package imageprocessingapp.model.operations;
 
 import imageprocessingapp.model.ImageModel;
+import imageprocessingapp.model.TiledRaster;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import org.junit.jupiter.api.BeforeEach;
@@ -135,5 +136,51 @@ class RotateOperationTest {
         assertEquals(2, rotated2.getHeight());
     }
 
-}
+    @Test
+    void tiledRotationMatchesContiguousRotation() {
+        // Image en tuiles non alignée sur la taille des tuiles
+        ImageModel tiled = tiledModel(300, 270);
+        ImageModel plain = new ImageModel();
+        plain.adoptPixels(tiled.readRegion(0, 0, 300, 270), 300, 270);
+
+        for (RotateOperation.Direction direction : RotateOperation.Direction.values()) {
+            new RotateOperation(direction).apply(tiled);
+            new RotateOperation(direction).apply(plain);
+            assertTrue(tiled.isTiled());
+            assertEquals(plain.getWidth(), tiled.getWidth());
+            assertArrayEquals(plain.readRegion(0, 0, plain.getWidth(), plain.getHeight()),
+                    tiled.readRegion(0, 0, tiled.getWidth(), tiled.getHeight()));
+        }
+    }
+
+    static ImageModel tiledModel(int width, int height) {
+        TiledRaster raster = new TiledRaster(width, height);
+        // Seule la moitié haute est écrite : les tuiles du bas restent vides
+        for (int y = 0; y < height / 2; y++) {
+            for (int x = 0; x < width; x++) {
+                raster.setArgb(x, y, 0xFF000000 | (x << 12) | y);
+            }
+        }
+        ImageModel model = new ImageModel();
+        model.setRaster(raster);
+        return model;
+    }
 
+    @Test
+    void inverseRestoresOriginalPixels() {
+        int[] before = new int[3 * 2];
+        imageModel.readRegion(0, 0, 3, 2, before, 0, 3);
+
+        for (RotateOperation.Direction direction : RotateOperation.Direction.values()) {
+            RotateOperation operation = new RotateOperation(direction);
+            assertNotEquals(direction, operation.inverse().getDirection());
+
+            operation.apply(imageModel);
+            operation.inverse().apply(imageModel);
+
+            int[] after = new int[3 * 2];
+            imageModel.readRegion(0, 0, 3, 2, after, 0, 3);
+            assertArrayEquals(before, after);
+        }
+    }
+}
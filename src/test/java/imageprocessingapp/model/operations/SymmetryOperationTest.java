@@ -100,5 +100,38 @@ class SymmetryOperationTest {
         
         assertEquals("Image modifiable indisponible", exception.getMessage());
     }
-}
 
+    @Test
+    void tiledSymmetryMatchesContiguousSymmetry() {
+        ImageModel tiled = RotateOperationTest.tiledModel(300, 270);
+        ImageModel plain = new ImageModel();
+        plain.adoptPixels(tiled.readRegion(0, 0, 300, 270), 300, 270);
+
+        for (SymmetryOperation.Axis axis : SymmetryOperation.Axis.values()) {
+            new SymmetryOperation(axis).apply(tiled);
+            new SymmetryOperation(axis).apply(plain);
+            assertTrue(tiled.isTiled());
+            assertArrayEquals(plain.readRegion(0, 0, 300, 270), tiled.readRegion(0, 0, 300, 270));
+        }
+    }
+
+    @Test
+    void inverseRestoresOriginalPixels() {
+        int w = imageModel.getWidth();
+        int h = imageModel.getHeight();
+        int[] before = new int[w * h];
+        imageModel.readRegion(0, 0, w, h, before, 0, w);
+
+        for (SymmetryOperation.Axis axis : SymmetryOperation.Axis.values()) {
+            SymmetryOperation operation = new SymmetryOperation(axis);
+            assertSame(operation, operation.inverse());
+
+            operation.apply(imageModel);
+            operation.inverse().apply(imageModel);
+
+            int[] after = new int[w * h];
+            imageModel.readRegion(0, 0, w, h, after, 0, w);
+            assertArrayEquals(before, after);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package imageprocessingapp.model.structures;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Mesure du calcul de la carte d'énergie (niveaux de gris + Sobel) sur des images 4K et 8K,
+ * en un seul fil puis par bandes de lignes sur le pool commun.
+ *
+ * Hors des tests unitaires (pas de suffixe {@code Test}) ; à lancer après {@code mvn test-compile} :
+ * {@code java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes
+ * imageprocessingapp.model.structures.EnergyBenchmark}
+ */
+public final class EnergyBenchmark {
+
+    private static final int RUNS = 7;
+
+    private EnergyBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        System.out.println("Fils du pool commun : " + ForkJoinPool.getCommonPoolParallelism()
+                + ", noyaux SIMD : " + EnergyCalculator.VECTORIZED);
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            measure("4K", 3840, 2160, single);
+            measure("8K", 7680, 4320, single);
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    private static void measure(String label, int width, int height, ForkJoinPool single) {
+        Random random = new Random(1);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        double[] gray = new double[pixels.length];
+        double[] energy = new double[pixels.length];
+        double sequential = median(new EnergyCalculator(single), pixels, width, height, gray, energy);
+        double banded = median(new EnergyCalculator(), pixels, width, height, gray, energy);
+        System.out.printf("%s (%dx%d) : %.1f ms en un fil, %.1f ms par bandes, accélération x%.2f%n",
+                label, width, height, sequential, banded, sequential / banded);
+    }
+
+    /**
+     * Durée médiane (en ms) de {@link #RUNS} calculs, après autant de calculs de chauffe.
+     */
+    private static double median(EnergyCalculator calculator, int[] pixels, int width, int height,
+                                 double[] gray, double[] energy) {
+        double[] times = new double[RUNS];
+        for (int run = -RUNS; run < RUNS; run++) {
+            long start = System.nanoTime();
+            calculator.computeEnergy(pixels, width, width, height, gray, energy);
+            if (run >= 0) {
+                times[run] = (System.nanoTime() - start) / 1e6;
+            }
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+}
@@ -6,6 +6,7 @@ import javafx.scene.paint.Color;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class EnergyCalculatorTest {
 
@@ -77,4 +78,280 @@ class EnergyCalculatorTest {
         }
         assertTrue(hasPositive, "La carte d'énergie devrait contenir des valeurs positives.");
     }
+
+    @Test
+    void flatBuffersMatchMatrixWithStride() {
+        int width = 13;
+        int height = 9;
+        int stride = 17;
+        java.util.Random random = new java.util.Random(11);
+        int[] compact = new int[width * height];
+        int[] strided = new int[stride * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int argb = 0xFF000000 | random.nextInt(0x1000000);
+                compact[y * width + x] = argb;
+                strided[y * stride + x] = argb;
+            }
+        }
+
+        EnergyCalculator ec = new EnergyCalculator();
+        double[][] expected = ec.computeEnergyMap(compact, width, height);
+        double[] energy = new double[stride * height];
+        ec.computeEnergy(strided, stride, width, height, new double[stride * height], energy);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                assertEquals(expected[y][x], energy[y * stride + x]);
+            }
+        }
+    }
+
+    @Test
+    void incrementalSeamRemovalMatchesFullRecompute() {
+        int width = 20;
+        int height = 12;
+        java.util.Random random = new java.util.Random(5);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+
+        EnergyCalculator ec = new EnergyCalculator();
+        double[] gray = new double[pixels.length];
+        double[] energy = new double[pixels.length];
+        ec.computeEnergy(pixels, width, width, height, gray, energy);
+
+        // Coutures connexes aléatoires, touchant aussi les bords
+        int current = width;
+        int[] seam = new int[height];
+        for (int n = 0; n < 15; n++) {
+            seam[0] = n % 3 == 0 ? current - 1 : random.nextInt(current);
+            for (int y = 1; y < height; y++) {
+                seam[y] = Math.max(0, Math.min(current - 1, seam[y - 1] + random.nextInt(3) - 1));
+            }
+            for (int y = 0; y < height; y++) {
+                int row = y * width;
+                System.arraycopy(pixels, row + seam[y] + 1, pixels, row + seam[y], current - seam[y] - 1);
+            }
+            ec.removeSeam(gray, energy, width, current, height, seam);
+            current--;
+
+            double[] expected = new double[pixels.length];
+            ec.computeEnergy(pixels, width, current, height, new double[pixels.length], expected);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < current; x++) {
+                    assertEquals(expected[y * width + x], energy[y * width + x]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void incrementalHorizontalSeamRemovalMatchesFullRecompute() {
+        int width = 14;
+        int height = 18;
+        java.util.Random random = new java.util.Random(8);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+
+        EnergyCalculator ec = new EnergyCalculator();
+        double[] gray = new double[pixels.length];
+        double[] energy = new double[pixels.length];
+        ec.computeEnergy(pixels, width, width, height, gray, energy);
+
+        int current = height;
+        int[] seam = new int[width];
+        for (int n = 0; n < 12; n++) {
+            seam[0] = n % 3 == 0 ? current - 1 : random.nextInt(current);
+            for (int x = 1; x < width; x++) {
+                seam[x] = Math.max(0, Math.min(current - 1, seam[x - 1] + random.nextInt(3) - 1));
+            }
+            for (int x = 0; x < width; x++) {
+                for (int y = seam[x]; y < current - 1; y++) {
+                    pixels[y * width + x] = pixels[(y + 1) * width + x];
+                }
+            }
+            ec.removeHorizontalSeam(gray, energy, width, width, current, seam);
+            current--;
+
+            double[] expected = new double[pixels.length];
+            ec.computeEnergy(pixels, width, width, current, new double[pixels.length], expected);
+            for (int y = 0; y < current; y++) {
+                for (int x = 0; x < width; x++) {
+                    assertEquals(expected[y * width + x], energy[y * width + x]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void vectorKernelsMatchScalarBitForBit() {
+        assumeTrue(EnergyCalculator.VECTORIZED, "module jdk.incubator.vector absent");
+        java.util.Random random = new java.util.Random(22);
+        int[][] sizes = {{1, 1}, {3, 2}, {17, 9}, {64, 5}, {131, 7}};
+        for (int[] size : sizes) {
+            int width = size[0];
+            int height = size[1];
+            int stride = width + 5;
+            int[] pixels = new int[stride * height];
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = random.nextInt();
+            }
+
+            double[] expectedGray = new double[pixels.length];
+            double[] expected = new double[pixels.length];
+            EnergyCalculator.computeGrayLevelsScalar(pixels, stride, width, 0, height, expectedGray);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    expected[y * stride + x] = EnergyCalculator.sobel(expectedGray, stride, width, height, x, y);
+                }
+            }
+            double[] gray = new double[pixels.length];
+            double[] energy = new double[pixels.length];
+            EnergyCalculator.VECTOR_KERNELS.computeGrayLevels(pixels, stride, width, 0, height, gray);
+            EnergyCalculator.VECTOR_KERNELS.computeSobel(gray, stride, width, height, 0, height, energy);
+            assertArrayEquals(expectedGray, gray, width + "x" + height);
+            assertArrayEquals(expected, energy, width + "x" + height);
+        }
+    }
+
+    @Test
+    void incrementalUpdateMatchesFullRecomputeForEveryFunction() {
+        int width = 16;
+        int height = 14;
+        for (StandardEnergy function : StandardEnergy.values()) {
+            java.util.Random random = new java.util.Random(23);
+            int[] pixels = new int[width * height];
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+            }
+            EnergyCalculator ec = new EnergyCalculator();
+            double[] gray = new double[pixels.length];
+            double[] energy = new double[pixels.length];
+            ec.computeGrayLevels(pixels, width, width, height, gray);
+            ec.computeEnergy(function, gray, width, width, height, energy);
+
+            int currentWidth = width;
+            int currentHeight = height;
+            for (int n = 0; n < 8; n++) {
+                if (n % 2 == 0) {
+                    int[] seam = new int[currentHeight];
+                    seam[0] = random.nextInt(currentWidth);
+                    for (int y = 1; y < currentHeight; y++) {
+                        seam[y] = Math.max(0, Math.min(currentWidth - 1, seam[y - 1] + random.nextInt(3) - 1));
+                    }
+                    for (int y = 0; y < currentHeight; y++) {
+                        int row = y * width;
+                        System.arraycopy(pixels, row + seam[y] + 1, pixels, row + seam[y], currentWidth - seam[y] - 1);
+                    }
+                    ec.removeSeam(function, gray, energy, width, currentWidth, currentHeight, seam);
+                    currentWidth--;
+                } else {
+                    int[] seam = new int[currentWidth];
+                    seam[0] = random.nextInt(currentHeight);
+                    for (int x = 1; x < currentWidth; x++) {
+                        seam[x] = Math.max(0, Math.min(currentHeight - 1, seam[x - 1] + random.nextInt(3) - 1));
+                    }
+                    for (int x = 0; x < currentWidth; x++) {
+                        for (int y = seam[x]; y < currentHeight - 1; y++) {
+                            pixels[y * width + x] = pixels[(y + 1) * width + x];
+                        }
+                    }
+                    ec.removeHorizontalSeam(function, gray, energy, width, currentWidth, currentHeight, seam);
+                    currentHeight--;
+                }
+
+                double[] expectedGray = new double[pixels.length];
+                double[] expected = new double[pixels.length];
+                ec.computeGrayLevels(pixels, width, currentWidth, currentHeight, expectedGray);
+                ec.computeEnergy(function, expectedGray, width, currentWidth, currentHeight, expected);
+                for (int y = 0; y < currentHeight; y++) {
+                    for (int x = 0; x < currentWidth; x++) {
+                        assertEquals(expected[y * width + x], energy[y * width + x], function.getName());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void parallelBandsMatchSequentialEnergy() {
+        int width = 37;
+        int height = 300;
+        int stride = width + 2;
+        java.util.Random random = new java.util.Random(24);
+        int[] pixels = new int[stride * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        java.util.concurrent.ForkJoinPool single = new java.util.concurrent.ForkJoinPool(1);
+        java.util.concurrent.ForkJoinPool parallel = new java.util.concurrent.ForkJoinPool(4);
+        try {
+            EnergyCalculator sequential = new EnergyCalculator(single);
+            EnergyCalculator banded = new EnergyCalculator(parallel);
+            double[] expectedGray = new double[pixels.length];
+            double[] gray = new double[pixels.length];
+            sequential.computeGrayLevels(pixels, stride, width, height, expectedGray);
+            banded.computeGrayLevels(pixels, stride, width, height, gray);
+            assertArrayEquals(expectedGray, gray);
+
+            for (StandardEnergy function : StandardEnergy.values()) {
+                double[] expected = new double[pixels.length];
+                double[] energy = new double[pixels.length];
+                sequential.computeEnergy(function, gray, stride, width, height, expected);
+                banded.computeEnergy(function, gray, stride, width, height, energy);
+                assertArrayEquals(expected, energy, function.getName());
+            }
+        } finally {
+            single.shutdown();
+            parallel.shutdown();
+        }
+        assertThrows(NullPointerException.class, () -> new EnergyCalculator(null));
+    }
+
+    @Test
+    void parallelBandsMatchSingleThreadOnOddSizes() {
+        // Hauteurs autour des frontières de bande, largeurs autour des voies SIMD
+        int[] heights = {1, 2, RowBands.BAND_HEIGHT - 1, RowBands.BAND_HEIGHT, RowBands.BAND_HEIGHT + 1,
+                2 * RowBands.BAND_HEIGHT + 3, 333};
+        int[] widths = {1, 2, 7, 65, 101};
+        java.util.Random random = new java.util.Random(25);
+        java.util.concurrent.ForkJoinPool single = new java.util.concurrent.ForkJoinPool(1);
+        java.util.concurrent.ForkJoinPool parallel = new java.util.concurrent.ForkJoinPool(3);
+        try {
+            EnergyCalculator sequential = new EnergyCalculator(single);
+            EnergyCalculator banded = new EnergyCalculator(parallel);
+            for (int height : heights) {
+                for (int width : widths) {
+                    int stride = width + 3;
+                    int[] pixels = new int[stride * height];
+                    for (int i = 0; i < pixels.length; i++) {
+                        pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+                    }
+                    String size = width + "x" + height;
+
+                    double[] expectedGray = new double[pixels.length];
+                    double[] expected = new double[pixels.length];
+                    sequential.computeEnergy(pixels, stride, width, height, expectedGray, expected);
+                    double[] gray = new double[pixels.length];
+                    double[] energy = new double[pixels.length];
+                    banded.computeEnergy(pixels, stride, width, height, gray, energy);
+                    assertArrayEquals(expectedGray, gray, size);
+                    assertArrayEquals(expected, energy, size);
+
+                    for (StandardEnergy function : StandardEnergy.values()) {
+                        sequential.computeEnergy(function, gray, stride, width, height, expected);
+                        banded.computeEnergy(function, gray, stride, width, height, energy);
+                        assertArrayEquals(expected, energy, function.getName() + " " + size);
+                    }
+                }
+            }
+        } finally {
+            single.shutdown();
+            parallel.shutdown();
+        }
+    }
 }
@@ -2,6 +2,7 @@ package imageprocessingapp.model.structures;
 
 import org.junit.jupiter.api.Test;
 import java.util.Optional;
+import java.util.Random;
 import static org.junit.jupiter.api.Assertions.*;
 
 class KdTreeTest {
@@ -129,4 +130,79 @@ class KdTreeTest {
         tree.insert(new Point2D(1, 1));
         assertFalse(tree.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void buildMatchesBruteForceOnRandomPoints() {
+        Random random = new Random(42);
+        double[] xs = new double[500];
+        double[] ys = new double[500];
+        for (int i = 0; i < xs.length; i++) {
+            // Coordonnées entières, avec des doublons et des égalités sur les axes
+            xs[i] = random.nextInt(100);
+            ys[i] = random.nextInt(100);
+        }
+        assertNearestMatchesBruteForce(xs, ys, random);
+    }
+
+    @Test
+    void buildMatchesBruteForceOnRegularGrid() {
+        // Grille ligne par ligne : le cas qui fait dégénérer insert
+        int cols = 23;
+        int rows = 17;
+        double[] xs = new double[cols * rows];
+        double[] ys = new double[cols * rows];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                xs[row * cols + col] = col * 4.5 + 2;
+                ys[row * cols + col] = row * 6.0 + 3;
+            }
+        }
+        assertNearestMatchesBruteForce(xs, ys, new Random(7));
+    }
+
+    private static void assertNearestMatchesBruteForce(double[] xs, double[] ys, Random random) {
+        KdTree tree = KdTree.build(xs, ys);
+        assertEquals(xs.length, tree.size());
+        for (int q = 0; q < 2000; q++) {
+            double x = random.nextDouble() * 120 - 10;
+            double y = random.nextDouble() * 120 - 10;
+            double expected = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < xs.length; i++) {
+                expected = Math.min(expected, (xs[i] - x) * (xs[i] - x) + (ys[i] - y) * (ys[i] - y));
+            }
+            int found = tree.findNearestIndex(x, y);
+            double d2 = (xs[found] - x) * (xs[found] - x) + (ys[found] - y) * (ys[found] - y);
+            assertEquals(expected, d2, "Requête (" + x + ", " + y + ")");
+            Point2D nearest = tree.findNearest(new Point2D(x, y)).orElseThrow();
+            assertEquals(new Point2D(xs[found], ys[found]), nearest);
+        }
+    }
+
+    @Test
+    void buildSmallTrees() {
+        KdTree empty = KdTree.build(new double[0], new double[0]);
+        assertTrue(empty.isEmpty());
+        assertEquals(-1, empty.findNearestIndex(1, 1));
+        assertEquals(Optional.empty(), empty.findNearest(new Point2D(1, 1)));
+
+        KdTree single = KdTree.build(new double[] {3}, new double[] {4});
+        assertEquals(0, single.findNearestIndex(-100, 50));
+
+        KdTree pair = KdTree.build(new double[] {0, 10}, new double[] {0, 0});
+        assertEquals(1, pair.findNearestIndex(6, 3));
+        assertEquals(0, pair.findNearestIndex(4, -3));
+    }
+
+    @Test
+    void buildRejectsInvalidInput() {
+        assertThrows(NullPointerException.class, () -> KdTree.build(null, new double[0]));
+        assertThrows(NullPointerException.class, () -> KdTree.build(new double[0], null));
+        assertThrows(IllegalArgumentException.class, () -> KdTree.build(new double[2], new double[3]));
+        KdTree built = KdTree.build(new double[] {1}, new double[] {1});
+        assertThrows(IllegalStateException.class, () -> built.insert(new Point2D(2, 2)));
+        KdTree inserted = new KdTree();
+        assertEquals(-1, inserted.findNearestIndex(0, 0));
+        inserted.insert(new Point2D(2, 2));
+        assertThrows(IllegalStateException.class, () -> inserted.findNearestIndex(0, 0));
+    }
+}
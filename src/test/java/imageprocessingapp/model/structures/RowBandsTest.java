@@ -0,0 +1,57 @@
+package imageprocessingapp.model.structures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowBandsTest {
+
+    @Test
+    void everyRowIsVisitedOnceInAlignedBands() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int height = 1000;
+            AtomicIntegerArray visits = new AtomicIntegerArray(height);
+            ConcurrentLinkedQueue<int[]> bands = new ConcurrentLinkedQueue<>();
+            RowBands.forEach(pool, height, (from, to) -> {
+                bands.add(new int[] {from, to});
+                for (int y = from; y < to; y++) {
+                    visits.incrementAndGet(y);
+                }
+            });
+            for (int y = 0; y < height; y++) {
+                assertEquals(1, visits.get(y), "ligne " + y);
+            }
+            assertEquals((height + RowBands.BAND_HEIGHT - 1) / RowBands.BAND_HEIGHT, bands.size());
+            for (int[] band : bands) {
+                assertEquals(0, band[0] % RowBands.BAND_HEIGHT);
+                assertTrue(band[1] - band[0] <= RowBands.BAND_HEIGHT);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void singleBandOrSingleThreadRunsInOneCall() {
+        ConcurrentLinkedQueue<int[]> bands = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            RowBands.forEach(pool, RowBands.BAND_HEIGHT, (from, to) -> bands.add(new int[] {from, to}));
+            RowBands.forEach(single, 500, (from, to) -> bands.add(new int[] {from, to}));
+        } finally {
+            pool.shutdown();
+            single.shutdown();
+        }
+
+        assertEquals(2, bands.size());
+        assertArrayEquals(new int[] {0, RowBands.BAND_HEIGHT}, bands.poll());
+        assertArrayEquals(new int[] {0, 500}, bands.poll());
+        assertThrows(NullPointerException.class, () -> RowBands.forEach(10, null));
+    }
+}
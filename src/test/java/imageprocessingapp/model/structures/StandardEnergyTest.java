@@ -0,0 +1,105 @@
+package imageprocessingapp.model.structures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StandardEnergyTest {
+
+    private static double[] randomGray(int width, int height, long seed) {
+        Random random = new Random(seed);
+        double[] gray = new double[width * height];
+        for (int i = 0; i < gray.length; i++) {
+            gray[i] = random.nextDouble();
+        }
+        return gray;
+    }
+
+    @Test
+    void sobelL2MatchesHistoricalEnergy() {
+        int width = 13;
+        int height = 9;
+        Random random = new Random(23);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        EnergyCalculator ec = new EnergyCalculator();
+        double[] expected = new double[pixels.length];
+        ec.computeEnergy(pixels, width, width, height, new double[pixels.length], expected);
+
+        double[] gray = new double[pixels.length];
+        ec.computeGrayLevels(pixels, width, width, height, gray);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                assertEquals(expected[y * width + x], StandardEnergy.SOBEL_L2.energyAt(gray, width, width, height, x, y));
+            }
+        }
+    }
+
+    @Test
+    void uniformImageHasNoEnergy() {
+        double[] gray = new double[7 * 5];
+        java.util.Arrays.fill(gray, 0.4);
+        for (StandardEnergy function : StandardEnergy.values()) {
+            for (int y = 0; y < 5; y++) {
+                for (int x = 0; x < 7; x++) {
+                    assertEquals(0.0, function.energyAt(gray, 7, 7, 5, x, y), 1e-12, function.getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void gradientNormsAreOrdered() {
+        int width = 11;
+        int height = 8;
+        double[] gray = randomGray(width, height, 5);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double l2 = StandardEnergy.SOBEL_L2.energyAt(gray, width, width, height, x, y);
+                double l1 = StandardEnergy.SOBEL_L1.energyAt(gray, width, width, height, x, y);
+                assertTrue(l1 >= l2 - 1e-12 && l1 <= Math.sqrt(2) * l2 + 1e-12);
+                double salient = StandardEnergy.SALIENCY_WEIGHTED.energyAt(gray, width, width, height, x, y);
+                assertTrue(salient >= l2 && salient <= (1 + StandardEnergy.SALIENCY_GAIN) * l2 + 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void scharrOnVerticalEdge() {
+        // Marche verticale 0 | 1 : gx = 16 sur les deux colonnes du bord, soit 4 une fois normalisé
+        int width = 4;
+        int height = 3;
+        double[] gray = new double[width * height];
+        for (int y = 0; y < height; y++) {
+            gray[y * width + 2] = 1;
+            gray[y * width + 3] = 1;
+        }
+        assertEquals(4.0, StandardEnergy.SCHARR.energyAt(gray, width, width, height, 1, 1), 1e-12);
+        assertEquals(4.0, StandardEnergy.SCHARR.energyAt(gray, width, width, height, 2, 1), 1e-12);
+        assertEquals(0.0, StandardEnergy.SCHARR.energyAt(gray, width, width, height, 0, 1), 1e-12);
+    }
+
+    @Test
+    void localEntropyCountsGrayLevels() {
+        int width = 5;
+        int height = 5;
+        double[] gray = new double[width * height];
+        // Pixels dans une même classe de l'histogramme : entropie nulle malgré le bruit
+        for (int i = 0; i < gray.length; i++) {
+            gray[i] = 0.5 + 0.01 * (i % 3);
+        }
+        assertEquals(0.0, StandardEnergy.LOCAL_ENTROPY.energyAt(gray, width, width, height, 2, 2), 1e-12);
+
+        // Une seule colonne sur cinq en blanc : p = 1/5 et 4/5
+        for (int y = 0; y < height; y++) {
+            gray[y * width] = 1;
+        }
+        double p = 0.2;
+        double expected = -(p * Math.log(p) + (1 - p) * Math.log(1 - p)) / Math.log(2);
+        assertEquals(expected, StandardEnergy.LOCAL_ENTROPY.energyAt(gray, width, width, height, 2, 2), 1e-12);
+    }
+}
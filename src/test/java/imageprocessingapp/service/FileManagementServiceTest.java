@@ -1,6 +1,7 @@
 package imageprocessingapp.service;
 
 import imageprocessingapp.model.ImageModel;
+import imageprocessingapp.model.TiledRaster;
 import imageprocessingapp.util.JavaFxTestInitializer;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -137,6 +138,39 @@ class FileManagementServiceTest {
         assertFalse(stateManager.hasUnsavedChanges());
     }
 
+    @Test
+    void readTiledDecodesImageTallerThanOneBand() throws IOException {
+        int width = 300;
+        int height = 700;
+        java.awt.image.BufferedImage image =
+                new java.awt.image.BufferedImage(width, height, java.awt.image.BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, 0xFF000000 | (y << 8) | (x & 0xFF));
+            }
+        }
+        File imageFile = new File(tempDir.toFile(), "tall.png");
+        javax.imageio.ImageIO.write(image, "png", imageFile);
+
+        // Bandes d'une seule rangée de tuiles : trois lectures successives
+        TiledRaster raster = FileManagementService.readTiled(imageFile, 0, (long) width * TiledRaster.TILE_SIZE);
+
+        assertNotNull(raster);
+        assertEquals(width, raster.getWidth());
+        assertEquals(height, raster.getHeight());
+        int[] expected = image.getRGB(0, 0, width, height, null, 0, width);
+        int[] actual = new int[width * height];
+        raster.readRegion(0, 0, width, height, actual, 0, width);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void readTiledIgnoresImageBelowThreshold() throws IOException {
+        File imageFile = createTestImageFile("small.png");
+
+        assertNull(FileManagementService.readTiled(imageFile, 100, TiledRaster.TILE_SIZE));
+    }
+
     /**
      * Crée un fichier image de test.
      */
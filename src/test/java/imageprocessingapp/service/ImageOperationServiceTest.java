@@ -174,6 +174,58 @@ class ImageOperationServiceTest {
     /**
      * Crée une image de test.
      */
+    @Test
+    void testIsExactTransform() {
+        // Sans image : le dessin est adapté à l'affichage
+        assertFalse(operationService.isExactTransform(new SymmetryOperation(SymmetryOperation.Axis.VERTICAL)));
+
+        loadImage(createTestImage(50, 50));
+        assertTrue(operationService.isExactTransform(new RotateOperation(RotateOperation.Direction.CLOCKWISE)));
+        assertTrue(operationService.isExactTransform(new SymmetryOperation(SymmetryOperation.Axis.HORIZONTAL)));
+
+        // Image non carrée : la rotation change l'échelle d'affichage du dessin
+        loadImage(createTestImage(160, 90));
+        assertFalse(operationService.isExactTransform(new RotateOperation(RotateOperation.Direction.CLOCKWISE)));
+        assertTrue(operationService.isExactTransform(new SymmetryOperation(SymmetryOperation.Axis.VERTICAL)));
+    }
+
+    @Test
+    void testUndoRotationOfNonSquareImageRestoresDrawing() {
+        UndoRedoService history = new UndoRedoService(imageModel, drawingService, currentImageProperty);
+        loadImage(createTestImage(160, 90));
+        drawingCanvas.getGraphicsContext2D().setFill(javafx.scene.paint.Color.BLUE);
+        drawingCanvas.getGraphicsContext2D().fillRect(100, 40, 230, 75);
+        int[] before = canvasPixels();
+
+        for (int cycle = 0; cycle < 2; cycle++) {
+            assertTrue(operationService.applyTransform(new RotateOperation(RotateOperation.Direction.CLOCKWISE), history));
+            // Le dessin a été réduit à l'affichage de l'image tournée
+            assertEquals(337.5, drawingCanvas.getWidth());
+            history.undo();
+
+            assertEquals(800, drawingCanvas.getWidth());
+            assertEquals(450, drawingCanvas.getHeight());
+            assertEquals(160, imageModel.getWidth());
+            assertArrayEquals(before, canvasPixels(), "cycle " + cycle);
+        }
+    }
+
+    private void loadImage(WritableImage image) {
+        imageModel.setImage(image);
+        currentImageProperty.set(image);
+        drawingService.resizeCanvasToImage(image);
+    }
+
+    private int[] canvasPixels() {
+        WritableImage snapshot = drawingService.snapshotCanvas();
+        int w = (int) snapshot.getWidth();
+        int h = (int) snapshot.getHeight();
+        int[] pixels = new int[w * h];
+        snapshot.getPixelReader().getPixels(0, 0, w, h,
+                javafx.scene.image.PixelFormat.getIntArgbInstance(), pixels, 0, w);
+        return pixels;
+    }
+
     private WritableImage createTestImage(int width, int height) {
         WritableImage image = new WritableImage(width, height);
         javafx.scene.image.PixelWriter writer = image.getPixelWriter();
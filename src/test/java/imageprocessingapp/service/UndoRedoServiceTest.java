@@ -0,0 +1,395 @@
+package imageprocessingapp.service;
+
+import imageprocessingapp.model.ImageModel;
+import imageprocessingapp.model.TileDelta;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UndoRedoServiceTest {
+
+    /**
+     * Canvas simulé : un raster ARGB prémultiplié, capturé et restauré sans toolkit JavaFX.
+     */
+    static final class FakeCanvas implements UndoRedoService.CanvasAccess {
+        int width;
+        int height;
+        int[] pixels;
+
+        FakeCanvas(int width, int height) {
+            resize(width, height);
+        }
+
+        void resize(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.pixels = new int[width * height];
+        }
+
+        /**
+         * Peint un rectangle opaque (le prémultiplié vaut alors l'ARGB classique).
+         */
+        void paint(int x, int y, int w, int h, int rgb) {
+            for (int row = y; row < y + h; row++) {
+                for (int col = x; col < x + w; col++) {
+                    pixels[row * width + col] = 0xFF000000 | rgb;
+                }
+            }
+        }
+
+        /**
+         * Peint un rectangle de bruit, peu compressible.
+         */
+        void paintNoise(int x, int y, int w, int h, Random random) {
+            for (int row = y; row < y + h; row++) {
+                for (int col = x; col < x + w; col++) {
+                    pixels[row * width + col] = 0xFF000000 | random.nextInt();
+                }
+            }
+        }
+
+        int[] copy() {
+            return pixels.clone();
+        }
+
+        @Override
+        public WritableImage snapshot() {
+            WritableImage image = new WritableImage(width, height);
+            image.getPixelWriter().setPixels(0, 0, width, height,
+                    PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+            return image;
+        }
+
+        @Override
+        public double getWidth() {
+            return width;
+        }
+
+        @Override
+        public double getHeight() {
+            return height;
+        }
+
+        @Override
+        public void restore(double width, double height, WritableImage image) {
+            resize((int) width, (int) height);
+            if (image != null) {
+                image.getPixelReader().getPixels(0, 0, this.width, this.height,
+                        PixelFormat.getIntArgbPreInstance(), pixels, 0, this.width);
+            }
+        }
+    }
+
+    private final ObjectProperty<Image> currentImage = new SimpleObjectProperty<>();
+
+    /**
+     * Service dont les tâches d'arrière-plan s'exécutent immédiatement, dans le thread du test.
+     */
+    private UndoRedoService service(FakeCanvas canvas, long historyBudget) {
+        return new UndoRedoService(new ImageModel(), canvas, currentImage, historyBudget,
+                Runnable::run, Runnable::run);
+    }
+
+    /**
+     * Threads d'arrière-plan simulés : les tâches attendent d'être exécutées par le test,
+     * dans leur ordre de soumission.
+     */
+    private final Queue<Runnable> background = new ConcurrentLinkedQueue<>();
+
+    private UndoRedoService queuedService(FakeCanvas canvas) {
+        return new UndoRedoService(new ImageModel(), canvas, currentImage,
+                UndoRedoService.DEFAULT_HISTORY_BUDGET, background::add, background::add);
+    }
+
+    private void drain() {
+        Runnable task;
+        while ((task = background.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static void awaitBlocked(Thread thread) {
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue(thread.isAlive(), "l'appel n'a pas attendu les captures en cours");
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Exécute une action dans un autre thread en exécutant les tâches d'arrière-plan
+     * qu'elle attend, puis celles qu'elle a laissées.
+     */
+    private void runDraining(Runnable action) throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                action.run();
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        caller.start();
+        while (caller.isAlive()) {
+            Runnable task = background.poll();
+            if (task != null) {
+                task.run();
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        caller.join();
+        drain();
+        assertNull(failure.get());
+    }
+
+    @Test
+    void strokeUndoRedoRestoresExactPixels() {
+        FakeCanvas canvas = new FakeCanvas(200, 150);
+        UndoRedoService service = service(canvas, UndoRedoService.DEFAULT_HISTORY_BUDGET);
+
+        int[] blank = canvas.copy();
+        service.saveState();
+        canvas.paint(10, 20, 90, 8, 0xFF0000);
+        int[] first = canvas.copy();
+        service.saveState();
+        canvas.paint(60, 0, 5, 150, 0x00FF00);
+        int[] second = canvas.copy();
+
+        service.undo();
+        assertArrayEquals(first, canvas.pixels);
+        service.undo();
+        assertArrayEquals(blank, canvas.pixels);
+        assertFalse(service.canUndo());
+
+        service.redo();
+        assertArrayEquals(first, canvas.pixels);
+        service.redo();
+        assertArrayEquals(second, canvas.pixels);
+        assertFalse(service.canRedo());
+        assertTrue(service.canUndo());
+    }
+
+    @Test
+    void deltasOnPartialCanvasKeepOnlyTouchedTiles() {
+        // 150×100 : les tuiles du bord droit et du bord bas sont incomplètes
+        FakeCanvas canvas = new FakeCanvas(150, 100);
+        UndoRedoService service = service(canvas, UndoRedoService.DEFAULT_HISTORY_BUDGET);
+        long canvasBytes = 150L * 100 * Integer.BYTES;
+
+        service.saveState();
+        canvas.paint(140, 90, 10, 10, 0x0000FF);
+        int[] stroked = canvas.copy();
+        service.saveState();
+        canvas.paint(130, 70, 20, 30, 0xFFFF00);
+        int[] last = canvas.copy();
+        service.undo();
+
+        // Canvas complet du sommet, plus une seule tuile de bord pour l'état précédent
+        assertArrayEquals(stroked, canvas.pixels);
+        assertTrue(service.getHistoryBytes()
+                <= canvasBytes + (long) TileDelta.TILE_SIZE * TileDelta.TILE_SIZE * Integer.BYTES);
+
+        service.undo();
+        assertArrayEquals(new int[150 * 100], canvas.pixels);
+        service.redo();
+        service.redo();
+        assertArrayEquals(last, canvas.pixels);
+    }
+
+    @Test
+    void canvasResizeIsUndone() {
+        FakeCanvas canvas = new FakeCanvas(150, 100);
+        UndoRedoService service = service(canvas, UndoRedoService.DEFAULT_HISTORY_BUDGET);
+        canvas.paint(0, 0, 150, 10, 0x123456);
+        int[] before = canvas.copy();
+
+        service.saveState();
+        canvas.resize(90, 70);
+        canvas.paint(5, 5, 20, 20, 0x654321);
+        int[] resized = canvas.copy();
+
+        service.undo();
+        assertEquals(150, canvas.width);
+        assertEquals(100, canvas.height);
+        assertArrayEquals(before, canvas.pixels);
+
+        service.redo();
+        assertEquals(90, canvas.width);
+        assertEquals(70, canvas.height);
+        assertArrayEquals(resized, canvas.pixels);
+    }
+
+    @Test
+    void oldestEntriesLeaveMemoryOnceBudgetIsExceeded() {
+        FakeCanvas canvas = new FakeCanvas(256, 256);
+        long canvasBytes = 256L * 256 * Integer.BYTES;
+        long budget = 2 * canvasBytes;
+        UndoRedoService service = service(canvas, budget);
+        Random random = new Random(42);
+
+        List<int[]> states = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            states.add(canvas.copy());
+            service.saveState();
+            canvas.paintNoise(0, 0, 256, 128 + i * 16, random);
+        }
+        int[] last = canvas.copy();
+        service.saveState();
+
+        // Les états les plus anciens sont écrits dans le journal, l'historique reste dans le budget
+        assertTrue(service.getJournalBytes() > 0);
+        assertTrue(service.getHistoryBytes() <= budget);
+
+        // Ils restent restaurables à l'identique, jusqu'au premier
+        service.undo();
+        assertArrayEquals(last, canvas.pixels);
+        for (int i = states.size() - 1; i >= 0; i--) {
+            service.undo();
+            assertArrayEquals(states.get(i), canvas.pixels, "état " + i);
+        }
+        assertFalse(service.canUndo());
+    }
+
+    @Test
+    void clearForgetsHistoryAndJournal() {
+        FakeCanvas canvas = new FakeCanvas(128, 128);
+        UndoRedoService service = service(canvas, 128L * 128 * Integer.BYTES);
+        Random random = new Random(7);
+        for (int i = 0; i < 4; i++) {
+            service.saveState();
+            canvas.paintNoise(0, 0, 128, 128, random);
+        }
+        service.undo();
+        assertTrue(service.canRedo());
+        assertTrue(service.getJournalBytes() > 0);
+
+        service.clear();
+        assertFalse(service.canUndo());
+        assertFalse(service.canRedo());
+        assertEquals(0, service.getHistoryBytes());
+        assertEquals(0, service.getJournalBytes());
+
+        // Undo sans effet, puis un nouvel historique repart de l'état affiché
+        int[] current = canvas.copy();
+        service.undo();
+        assertArrayEquals(current, canvas.pixels);
+        service.saveState();
+        canvas.paint(0, 0, 10, 10, 0xABCDEF);
+        service.undo();
+        assertArrayEquals(current, canvas.pixels);
+    }
+
+    @Test
+    void undoWaitsForCaptureStillInProgress() throws InterruptedException {
+        FakeCanvas canvas = new FakeCanvas(200, 150);
+        UndoRedoService service = queuedService(canvas);
+        int[] blank = canvas.copy();
+
+        service.saveState();
+        canvas.paint(0, 0, 100, 100, 0xFF0000);
+        int[] stroked = canvas.copy();
+        // La lecture des pixels capturés n'est pas encore faite
+        assertFalse(background.isEmpty());
+
+        Thread undo = new Thread(service::undo);
+        undo.start();
+        awaitBlocked(undo);
+        assertArrayEquals(stroked, canvas.pixels);
+
+        // La capture faite avant le trait est restaurée une fois finalisée
+        drain();
+        undo.join();
+        drain();
+        assertArrayEquals(blank, canvas.pixels);
+
+        runDraining(service::redo);
+        assertArrayEquals(stroked, canvas.pixels);
+    }
+
+    @Test
+    void burstOfStrokesIsUndoneInOrder() throws InterruptedException {
+        FakeCanvas canvas = new FakeCanvas(200, 150);
+        UndoRedoService service = queuedService(canvas);
+
+        List<int[]> states = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            states.add(canvas.copy());
+            service.saveState();
+            canvas.paint(i * 30, i * 20, 50, 40, 0x101010 * (i + 1));
+        }
+        int[] last = canvas.copy();
+        // Aucune capture n'a été finalisée pendant la rafale
+        assertTrue(background.size() >= 5);
+
+        for (int i = states.size() - 1; i >= 0; i--) {
+            runDraining(service::undo);
+            assertArrayEquals(states.get(i), canvas.pixels, "état " + i);
+        }
+        assertFalse(service.canUndo());
+
+        for (int i = 1; i < states.size(); i++) {
+            runDraining(service::redo);
+            assertArrayEquals(states.get(i), canvas.pixels, "état " + i);
+        }
+        runDraining(service::redo);
+        assertArrayEquals(last, canvas.pixels);
+        assertFalse(service.canRedo());
+    }
+
+    @Test
+    void newStrokeReplacesRedoBranch() throws InterruptedException {
+        FakeCanvas canvas = new FakeCanvas(200, 150);
+        UndoRedoService service = queuedService(canvas);
+
+        int[] blank = canvas.copy();
+        service.saveState();
+        canvas.paint(0, 0, 40, 40, 0xAA0000);
+        int[] first = canvas.copy();
+        service.saveState();
+        canvas.paint(50, 50, 40, 40, 0x00AA00);
+        int[] second = canvas.copy();
+        service.saveState();
+        canvas.paint(100, 100, 40, 40, 0x0000AA);
+
+        runDraining(service::undo);
+        runDraining(service::undo);
+        runDraining(service::undo);
+        assertArrayEquals(blank, canvas.pixels);
+
+        // Redo rejoue les états dans l'ordre où ils ont été annulés
+        runDraining(service::redo);
+        assertArrayEquals(first, canvas.pixels);
+        runDraining(service::redo);
+        assertArrayEquals(second, canvas.pixels);
+
+        // Un nouveau trait abandonne la branche redo, sans attendre ses captures
+        service.saveState();
+        canvas.paint(150, 10, 40, 40, 0xAAAA00);
+        int[] replaced = canvas.copy();
+        assertFalse(service.canRedo());
+
+        runDraining(service::undo);
+        assertArrayEquals(second, canvas.pixels);
+        runDraining(service::redo);
+        assertArrayEquals(replaced, canvas.pixels);
+        assertFalse(service.canRedo());
+
+        runDraining(service::undo);
+        runDraining(service::undo);
+        runDraining(service::undo);
+        assertArrayEquals(blank, canvas.pixels);
+        assertFalse(service.canUndo());
+    }
+}
@@ -55,8 +55,18 @@ class SeamCarvingServiceTest {
         assertThrows(IllegalArgumentException.class, () -> service.resize(testImage, 5, 0));
         assertThrows(IllegalArgumentException.class, () -> service.resize(testImage, -1, 5));
         assertThrows(IllegalArgumentException.class, () -> service.resize(testImage, 5, -1));
-        assertThrows(IllegalArgumentException.class, () -> service.resize(testImage, 15, 5));
-        assertThrows(IllegalArgumentException.class, () -> service.resize(testImage, 5, 15));
+    }
+
+    @Test
+    void resizeEnlarges() {
+        // Agrandissement par insertion de coutures, éventuellement mêlé à une réduction
+        WritableImage wider = service.resize(testImage, 15, 10);
+        assertEquals(15, wider.getWidth());
+        assertEquals(10, wider.getHeight());
+
+        WritableImage mixed = service.resize(testImage, 5, 13);
+        assertEquals(5, mixed.getWidth());
+        assertEquals(13, mixed.getHeight());
     }
 
     @Test